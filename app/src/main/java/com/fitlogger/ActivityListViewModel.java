@@ -0,0 +1,74 @@
+package com.fitlogger;
+
+import android.app.Application;
+import androidx.annotation.NonNull;
+import com.fitlogger.adapter.ActivityPager;
+
+/**
+ * State of MainActivity's list that outlives a configuration change
+ * 
+ * - The pager with its loaded pages; it reads them with this ViewModel as
+ *   the lifecycle owner, so a page still loading during a rotation is kept
+ * - The change version the list includes (see ActivityChangeBus): the new
+ *   Activity only re-reads if activities changed in the meantime
+ * - Whether the first load was already reported (startup trace, welcome
+ *   message), and the last activity count shown in the toolbar
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public class ActivityListViewModel extends ScreenViewModel {
+    
+    private ActivityPager pager;
+    private long listVersion;
+    private boolean firstLoadReported;
+    private Integer activityCount;
+    
+    public ActivityListViewModel(@NonNull Application application) {
+        super(application);
+    }
+    
+    /**
+     * @return The retained pager, or null if the list was not created yet
+     */
+    public ActivityPager getPager() {
+        return pager;
+    }
+    
+    public void setPager(ActivityPager pager) {
+        this.pager = pager;
+    }
+    
+    /**
+     * @return Version of the last activity change applied to the list
+     */
+    public long getListVersion() {
+        return listVersion;
+    }
+    
+    public void setListVersion(long listVersion) {
+        this.listVersion = listVersion;
+    }
+    
+    /**
+     * @return true once the first page was loaded and reported
+     */
+    public boolean isFirstLoadReported() {
+        return firstLoadReported;
+    }
+    
+    public void setFirstLoadReported(boolean firstLoadReported) {
+        this.firstLoadReported = firstLoadReported;
+    }
+    
+    /**
+     * @return Last activity count read, or null if none was read yet
+     */
+    public Integer getActivityCount() {
+        return activityCount;
+    }
+    
+    public void setActivityCount(Integer activityCount) {
+        this.activityCount = activityCount;
+    }
+}
@@ -8,9 +8,9 @@ import android.widget.EditText;
 import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
-import com.fitlogger.database.DatabaseHelper;
+import com.fitlogger.database.ActivityRepository;
+import com.fitlogger.database.ActivityValidator;
 import com.fitlogger.database.FitnessActivity;
-import com.fitlogger.database.FitnessActivityDAO;
 import java.util.Calendar;
 
 /**
@@ -35,9 +35,8 @@ public class AddActivityActivity extends AppCompatActivity {
     private Button btnSaveActivity;
     private Toolbar toolbar;
     
-    // Database Components
-    private DatabaseHelper databaseHelper;
-    private FitnessActivityDAO dao;
+    // Database Components (all access is asynchronous)
+    private ActivityRepository repository;
     
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -53,8 +52,7 @@ public class AddActivityActivity extends AppCompatActivity {
         }
         
         // Initialize database components
-        databaseHelper = DatabaseHelper.getInstance(this);
-        dao = new FitnessActivityDAO(databaseHelper);
+        repository = ActivityRepository.getInstance(this);
         
         // Initialize UI components
         editActivityName = findViewById(R.id.editActivityName);
@@ -88,38 +86,22 @@ public class AddActivityActivity extends AppCompatActivity {
         String activityName = editActivityName.getText().toString().trim();
         String durationStr = editDuration.getText().toString().trim();
         
-        // Validate Activity Name
-        if (activityName.isEmpty()) {
-            editActivityName.setError("Activity name is required");
+        // Validate Activity Name (same rules as the importer, see ActivityValidator)
+        String nameError = ActivityValidator.checkName(activityName);
+        if (nameError != null) {
+            editActivityName.setError(nameError);
             editActivityName.requestFocus();
             return;
         }
         
-        // Validate Duration
-        if (durationStr.isEmpty()) {
-            editDuration.setError("Duration is required");
-            editDuration.requestFocus();
-            return;
-        }
-        
-        int duration;
-        try {
-            duration = Integer.parseInt(durationStr);
-            if (duration <= 0) {
-                editDuration.setError("Duration must be greater than 0");
-                editDuration.requestFocus();
-                return;
-            }
-            if (duration > 1440) { // 24 hours = 1440 minutes
-                editDuration.setError("Duration cannot exceed 24 hours (1440 minutes)");
-                editDuration.requestFocus();
-                return;
-            }
-        } catch (NumberFormatException e) {
-            editDuration.setError("Please enter a valid number");
+        // Validate Duration (1..1440 minutes)
+        String durationError = ActivityValidator.checkDuration(durationStr);
+        if (durationError != null) {
+            editDuration.setError(durationError);
             editDuration.requestFocus();
             return;
         }
+        int duration = Integer.parseInt(durationStr);
         
         // Get selected date from DatePicker
         int day = datePicker.getDayOfMonth();
@@ -132,23 +114,25 @@ public class AddActivityActivity extends AppCompatActivity {
         // Create FitnessActivity object
         FitnessActivity activity = new FitnessActivity(activityName, duration, date);
         
-        // Save to database
-        long id = dao.addActivity(activity);
-        
-        if (id > 0) {
-            // Success
-            Toast.makeText(this, "Activity saved successfully!", Toast.LENGTH_SHORT).show();
-            
-            // Clear input fields (optional)
-            clearFields();
-            
-            // Return to MainActivity
-            finish(); // This will trigger MainActivity.onResume()
-        } else {
-            // Error
-            Toast.makeText(this, "Failed to save activity. Please try again.", 
-                         Toast.LENGTH_SHORT).show();
-        }
+        // Save to database (on the writer thread); prevent double submits meanwhile
+        btnSaveActivity.setEnabled(false);
+        ActivityRepository.observeOnce(repository.addActivity(activity), this, id -> {
+            if (id > 0) {
+                // Success
+                Toast.makeText(this, "Activity saved successfully!", Toast.LENGTH_SHORT).show();
+                
+                // Clear input fields (optional)
+                clearFields();
+                
+                // Return to MainActivity
+                finish(); // This will trigger MainActivity.onResume()
+            } else {
+                // Error
+                btnSaveActivity.setEnabled(true);
+                Toast.makeText(this, "Failed to save activity. Please try again.", 
+                             Toast.LENGTH_SHORT).show();
+            }
+        });
     }
     
     /**
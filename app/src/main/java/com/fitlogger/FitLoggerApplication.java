@@ -0,0 +1,52 @@
+package com.fitlogger;
+
+import android.app.Application;
+import android.os.StrictMode;
+
+/**
+ * FitLoggerApplication - Process-wide setup
+ * 
+ * In debug builds StrictMode turns any disk read/write on the main thread
+ * into a crash (penaltyDeath, after the logcat entry), so a database or file
+ * call that slips past ActivityRepository fails the first test or manual run
+ * that reaches it instead of showing up later as a random frame drop or ANR.
+ * MainActivity.onCreate() in particular must stay free of disk I/O: the first
+ * frame is drawn before the database is even opened (see StartupTracer).
+ * Release builds do not enable StrictMode at all.
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public class FitLoggerApplication extends Application {
+    
+    @Override
+    public void onCreate() {
+        StartupTracer.onProcessStart();
+        super.onCreate();
+        
+        if (BuildConfig.DEBUG) {
+            enableStrictMode();
+        }
+    }
+    
+    /**
+     * Enable StrictMode policies for debug builds
+     */
+    private void enableStrictMode() {
+        // Main thread must not do disk or network I/O: log the stack, then crash
+        StrictMode.setThreadPolicy(new StrictMode.ThreadPolicy.Builder()
+            .detectDiskReads()
+            .detectDiskWrites()
+            .detectNetwork()
+            .penaltyLog()
+            .penaltyDeath()
+            .build());
+        
+        // Catch cursors and statements that are never closed
+        StrictMode.setVmPolicy(new StrictMode.VmPolicy.Builder()
+            .detectLeakedSqlLiteObjects()
+            .detectLeakedClosableObjects()
+            .penaltyLog()
+            .build());
+    }
+}
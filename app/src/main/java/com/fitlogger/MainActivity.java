@@ -2,18 +2,29 @@ package com.fitlogger;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Trace;
 import android.view.Menu;
 import android.view.MenuItem;
+import android.view.View;
+import android.view.ViewTreeObserver;
 import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.view.ActionMode;
+import androidx.appcompat.widget.SearchView;
 import androidx.appcompat.widget.Toolbar;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import com.fitlogger.adapter.ActivityAdapter;
-import com.fitlogger.database.DatabaseHelper;
+import com.fitlogger.adapter.ActivityPager;
+import com.fitlogger.database.ActivityChange;
+import com.fitlogger.database.ActivityRepository;
 import com.fitlogger.database.FitnessActivity;
-import com.fitlogger.database.FitnessActivityDAO;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
+import com.google.android.material.snackbar.Snackbar;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -26,6 +37,7 @@ import java.util.List;
  * - RecyclerView with CardView items
  * - FloatingActionButton to add new activities
  * - Automatic data refresh using lifecycle methods
+ * - Search box in the Top App Bar (debounced, full-text index)
  * 
  * QUESTION PART (c) - Demonstrates essential lifecycle methods
  * 
@@ -39,52 +51,134 @@ public class MainActivity extends AppCompatActivity {
     private FloatingActionButton fabAddActivity;
     private Toolbar toolbar;
     
-    // Database Components
-    private DatabaseHelper databaseHelper;
-    private FitnessActivityDAO dao;
+    // Database Components (all access is asynchronous)
+    private ActivityRepository repository;
     
-    // Adapter
+    // Adapter and the pager that feeds it (the pager is kept by the ViewModel)
     private ActivityAdapter activityAdapter;
+    private ActivityPager activityPager;
+    private ActivityListViewModel listModel;
+    
+    // Search: results are shown by a second adapter while a query is active
+    private static final long SEARCH_DEBOUNCE_MS = 250;
+    private static final int SEARCH_RESULT_LIMIT = 100;
+    
+    // Rows saved on stop and shown at the next cold start (about one screen)
+    private static final int FIRST_SCREEN_ROWS = 20;
+    private final Handler searchHandler = new Handler(Looper.getMainLooper());
+    private Runnable pendingSearch;
+    private ActivityAdapter searchAdapter;
+    private List<FitnessActivity> searchResults = new ArrayList<>();
+    private String currentQuery; // null while the full list is shown
+    
+    // Multi-select: action mode while rows are selected, and the undo window after a delete
+    private static final int UNDO_TIMEOUT_MS = 5000;
+    private ActionMode selectionMode;
+    private List<FitnessActivity> restoring; // rows of an undo whose INSERTED change is pending
     
     /**
      * LIFECYCLE METHOD 1: onCreate()
      * 
      * ROLE: Initial setup of all components
-     * - Initialize database helper and DAO
+     * - Initialize the (asynchronous) activity repository
      * - Setup RecyclerView with LayoutManager
-     * - Load initial data from database
+     * - Load the first page of data from database
+     * - Observe activity changes (the list is only patched when data changed)
      * - Setup UI components (Toolbar, FAB)
      * 
-     * CALLED: Once when activity is first created
+     * No disk I/O here: the first frame (toolbar, FAB, empty or cached list)
+     * is drawn while the database is opened on a background thread
+     * 
+     * A configuration change (e.g. rotation) costs no query: the pager, its
+     * pages and the list version are kept by ActivityListViewModel, and the
+     * list is only patched if activities changed in the meantime
+     * 
+     * CALLED: Once when activity is first created, and again after a configuration change
      * 
      * QUESTION PART (c) - 3 MARKS
      */
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        Trace.beginSection("MainActivity.onCreate");
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
+        traceFirstFrame();
         
         // Initialize Toolbar
         toolbar = findViewById(R.id.toolbar);
         setSupportActionBar(toolbar);
         
         // Initialize database components
-        databaseHelper = DatabaseHelper.getInstance(this);
-        dao = new FitnessActivityDAO(databaseHelper);
+        repository = ActivityRepository.getInstance(this);
         
         // Initialize RecyclerView
         recyclerView = findViewById(R.id.recyclerViewActivities);
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
         recyclerView.setHasFixedSize(true);
         
-        // Load initial data from database
-        List<FitnessActivity> activities = dao.getAllActivities();
-        
-        // Initialize adapter with data
-        activityAdapter = new ActivityAdapter(this, activities);
-        activityAdapter.setDao(dao); // Set DAO for delete functionality
+        // Initialize adapter (rows are supplied page by page by the pager)
+        activityAdapter = new ActivityAdapter(this, new ArrayList<>());
+        activityAdapter.setRepository(repository, this); // For delete functionality
         recyclerView.setAdapter(activityAdapter);
         
+        // The pager lives in the ViewModel: after a configuration change it shows
+        // the pages it already holds in the new adapter, without a query
+        listModel = new ViewModelProvider(this).get(ActivityListViewModel.class);
+        activityPager = listModel.getPager();
+        if (activityPager == null) {
+            // Load the first page in the background; further pages load while scrolling
+            activityPager = new ActivityPager(repository, listModel, activityAdapter);
+            listModel.setPager(activityPager);
+            listModel.setListVersion(repository.getChangeVersion());
+            activityPager.loadInitial();
+            
+            // Until the first page is read, show the rows saved when the app was last left
+            ActivityRepository.observeOnce(repository.getCachedFirstPage(), listModel, activityPager::showCached);
+        } else {
+            activityPager.setAdapter(activityAdapter);
+            if (listModel.getActivityCount() != null && getSupportActionBar() != null) {
+                getSupportActionBar().setSubtitle(listModel.getActivityCount() + " activities");
+            }
+        }
+        activityPager.attachTo(recyclerView);
+        if (!listModel.isFirstLoadReported()) {
+            activityPager.setOnListLoadedListener(empty -> {
+                // Only the first load of this screen shows the welcome message
+                activityPager.setOnListLoadedListener(null);
+                listModel.setFirstLoadReported(true);
+                StartupTracer.onFullContent(this);
+                
+                // Show welcome message if no activities exist
+                if (empty) {
+                    Toast.makeText(this, "No activities yet. Click + to add your first activity!", 
+                                 Toast.LENGTH_LONG).show();
+                }
+            });
+        }
+        
+        // Changes made elsewhere (e.g. AddActivityActivity, an import) are applied
+        // when this screen is started again; LiveData delivers nothing if no write happened
+        repository.getChanges().observe(this, change -> applyChanges());
+        
+        // Deleted rows are removed from their page right away; the diff animates
+        // the removal (the count follows with the DELETED change)
+        activityAdapter.setOnActivityDeletedListener(activity -> activityPager.remove(activity));
+        
+        // Multi-select: long press starts it, the action mode deletes all selected rows at once;
+        // their DELETED change removes them in one snapshot, and the Snackbar offers an undo
+        activityAdapter.setOnSelectionChangedListener(this::onSelectionChanged);
+        activityAdapter.setOnActivitiesDeletedListener(this::showUndo);
+        
+        // Search results use their own adapter; deletes are mirrored into the pager
+        searchAdapter = new ActivityAdapter(this, new ArrayList<>());
+        searchAdapter.setRepository(repository, this);
+        searchAdapter.setOnActivityDeletedListener(activity -> {
+            searchResults = new ArrayList<>(searchResults);
+            searchResults.remove(activity);
+            searchAdapter.submitList(searchResults);
+            activityPager.remove(activity);
+        });
+        
         // Initialize FloatingActionButton
         fabAddActivity = findViewById(R.id.fabAddActivity);
         fabAddActivity.setOnClickListener(v -> {
@@ -93,20 +187,33 @@ public class MainActivity extends AppCompatActivity {
             startActivity(intent);
         });
         
-        // Show welcome message if no activities exist
-        if (activities.isEmpty()) {
-            Toast.makeText(this, "No activities yet. Click + to add your first activity!", 
-                         Toast.LENGTH_LONG).show();
-        }
+        Trace.endSection();
+    }
+    
+    /**
+     * Report the first drawn frame to StartupTracer (cold start only)
+     */
+    private void traceFirstFrame() {
+        View content = findViewById(android.R.id.content);
+        content.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                content.getViewTreeObserver().removeOnPreDrawListener(this);
+                // Runs after this traversal, i.e. once the frame has been drawn
+                content.post(StartupTracer::onFirstFrame);
+                return true;
+            }
+        });
     }
     
     /**
      * LIFECYCLE METHOD 2: onResume()
      * 
-     * ROLE: Refresh RecyclerView with updated data
+     * ROLE: Bring the RecyclerView up to date with the database
      * - Called every time activity becomes visible
      * - Called after returning from AddActivityActivity
-     * - Ensures RecyclerView displays latest data from database
+     * - Applies only the changes committed since the list was last updated,
+     *   so resuming without any write costs no query at all
      * 
      * CALLED: Every time activity comes to foreground
      * 
@@ -118,33 +225,263 @@ public class MainActivity extends AppCompatActivity {
     protected void onResume() {
         super.onResume();
         
-        // Refresh the activity list from database
-        refreshActivityList();
+        // Usually a no-op: the change observer has already applied pending changes in onStart()
+        applyChanges();
+    }
+    
+    /**
+     * Apply the activity changes committed since the list version
+     * - DELETED: the rows are removed from the loaded pages (no query)
+     * - INSERTED / UPDATED: the loaded pages are re-read in place
+     * - CLEARED, or more changes than the bus remembers: the list is reloaded
+     */
+    private void applyChanges() {
+        long version = repository.getChangeVersion();
+        if (version == listModel.getListVersion()) {
+            return;
+        }
+        List<ActivityChange> changes = repository.getChangesSince(listModel.getListVersion());
+        listModel.setListVersion(version);
+        
+        boolean reload = changes == null;
+        boolean reread = false;
+        if (changes != null) {
+            for (ActivityChange change : changes) {
+                switch (change.getType()) {
+                    case DELETED:
+                        activityPager.remove(change);
+                        removeFromSearchResults(change);
+                        break;
+                    case CLEARED:
+                        reload = true;
+                        break;
+                    case INSERTED:
+                        if (isRestoreOf(change)) {
+                            // Undo: the rows are known, so they are put back without a query
+                            activityPager.insert(restoring);
+                            restoring = null;
+                        } else {
+                            reread = true;
+                        }
+                        break;
+                    default:
+                        reread = true;
+                        break;
+                }
+            }
+        }
+        
+        if (reload) {
+            activityPager.loadInitial();
+        } else if (reread) {
+            activityPager.refresh();
+        }
+        if (currentQuery != null && (reload || reread)) {
+            runSearch(currentQuery);
+        }
+        updateActivityCount();
+    }
+    
+    /**
+     * Show, update or end the selection action mode
+     * 
+     * @param selectedCount Number of selected rows
+     */
+    private void onSelectionChanged(int selectedCount) {
+        if (selectedCount == 0) {
+            if (selectionMode != null) {
+                selectionMode.finish();
+            }
+            return;
+        }
+        if (selectionMode == null) {
+            selectionMode = startSupportActionMode(new ActionMode.Callback() {
+                @Override
+                public boolean onCreateActionMode(ActionMode mode, Menu menu) {
+                    mode.getMenuInflater().inflate(R.menu.menu_selection, menu);
+                    return true;
+                }
+                
+                @Override
+                public boolean onPrepareActionMode(ActionMode mode, Menu menu) {
+                    return false;
+                }
+                
+                @Override
+                public boolean onActionItemClicked(ActionMode mode, MenuItem item) {
+                    if (item.getItemId() == R.id.action_delete_selected) {
+                        activityAdapter.deleteSelected(); // also ends the action mode
+                        return true;
+                    }
+                    return false;
+                }
+                
+                @Override
+                public void onDestroyActionMode(ActionMode mode) {
+                    selectionMode = null;
+                    activityAdapter.clearSelection();
+                }
+            });
+        }
+        if (selectionMode != null) {
+            selectionMode.setTitle(selectedCount + " selected");
+        }
+    }
+    
+    /**
+     * Offer to undo a multi-select delete for UNDO_TIMEOUT_MS
+     * The deleted rows are only kept by the Snackbar's action (the tombstone
+     * buffer), so they are released as soon as it is dismissed
+     * 
+     * @param deleted Rows that were deleted
+     */
+    private void showUndo(List<FitnessActivity> deleted) {
+        Snackbar.make(recyclerView, deleted.size() + " activities deleted", Snackbar.LENGTH_LONG)
+            .setDuration(UNDO_TIMEOUT_MS)
+            .setAction("Undo", v -> {
+                restoring = deleted;
+                ActivityRepository.observeOnce(repository.restoreActivities(deleted), this, restored -> {
+                    if (restored == 0) {
+                        restoring = null;
+                        Toast.makeText(this, "Could not restore the activities", Toast.LENGTH_SHORT).show();
+                    }
+                });
+            })
+            .show();
+    }
+    
+    /**
+     * @param change INSERTED change
+     * @return true if the change is the restore of the rows in restoring
+     */
+    private boolean isRestoreOf(ActivityChange change) {
+        if (restoring == null || change.getIdCount() != restoring.size()) {
+            return false;
+        }
+        for (int i = 0; i < restoring.size(); i++) {
+            if (change.getId(i) != restoring.get(i).getId()) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Drop the rows of a DELETED change from the shown search results
+     * 
+     * @param deleted DELETED change
+     */
+    private void removeFromSearchResults(ActivityChange deleted) {
+        List<FitnessActivity> remaining = new ArrayList<>(searchResults.size());
+        for (FitnessActivity activity : searchResults) {
+            boolean isDeleted = false;
+            for (int i = 0; i < deleted.getIdCount() && !isDeleted; i++) {
+                isDeleted = deleted.getId(i) == activity.getId();
+            }
+            if (!isDeleted) {
+                remaining.add(activity);
+            }
+        }
+        if (remaining.size() != searchResults.size()) {
+            searchResults = remaining;
+            searchAdapter.submitList(remaining);
+        }
     }
     
     /**
      * Helper method to refresh the RecyclerView
-     * Loads latest data from database and updates adapter
+     * Reloads the pages currently held by the pager and updates adapter
+     * (manual refresh: re-reads even if no change was published)
      */
     private void refreshActivityList() {
-        // Get updated list from database
-        List<FitnessActivity> activities = dao.getAllActivities();
-        
-        // Update adapter with new data
-        activityAdapter.updateActivities(activities);
+        // Re-read the loaded pages in place (no full-table load)
+        activityPager.refresh();
+        if (currentQuery != null) {
+            runSearch(currentQuery);
+        }
+        updateActivityCount();
+    }
+    
+    /**
+     * Search again once the user stops typing for SEARCH_DEBOUNCE_MS
+     * (one query per pause instead of one per keystroke)
+     * 
+     * @param text Current content of the search box
+     */
+    private void scheduleSearch(String text) {
+        if (pendingSearch != null) {
+            searchHandler.removeCallbacks(pendingSearch);
+            pendingSearch = null;
+        }
         
-        // Optional: Show count in toolbar subtitle
-        if (getSupportActionBar() != null) {
-            getSupportActionBar().setSubtitle(activities.size() + " activities");
+        String query = text.trim();
+        if (query.isEmpty()) {
+            showFullList();
+            return;
         }
+        pendingSearch = () -> {
+            pendingSearch = null;
+            runSearch(query);
+        };
+        searchHandler.postDelayed(pendingSearch, SEARCH_DEBOUNCE_MS);
+    }
+    
+    /**
+     * Query the search index in the background and show the results
+     * Results of a query that is no longer current are dropped
+     * 
+     * @param query Search text
+     */
+    private void runSearch(String query) {
+        currentQuery = query;
+        ActivityRepository.observeOnce(repository.searchActivities(query, SEARCH_RESULT_LIMIT), this, results -> {
+            if (!query.equals(currentQuery)) {
+                return;
+            }
+            searchResults = results;
+            searchAdapter.submitList(results);
+            if (recyclerView.getAdapter() != searchAdapter) {
+                // Selection belongs to the full list
+                if (selectionMode != null) {
+                    selectionMode.finish();
+                }
+                recyclerView.setAdapter(searchAdapter);
+            }
+        });
+    }
+    
+    /**
+     * Leave search mode and show the paged list again
+     */
+    private void showFullList() {
+        currentQuery = null;
+        if (recyclerView.getAdapter() != activityAdapter) {
+            recyclerView.setAdapter(activityAdapter);
+        }
+    }
+    
+    /**
+     * Show the number of activities in the toolbar subtitle
+     */
+    private void updateActivityCount() {
+        ActivityRepository.observeOnce(repository.getActivityCount(), this, count -> {
+            if (count != null) {
+                listModel.setActivityCount(count);
+            }
+            if (count != null && getSupportActionBar() != null) {
+                getSupportActionBar().setSubtitle(count + " activities");
+            }
+        });
     }
     
     /**
      * LIFECYCLE METHOD 3: onDestroy()
      * 
-     * ROLE: Cleanup database connections
-     * - Close database helper to prevent memory leaks
-     * - Release system resources
+     * ROLE: Screen cleanup
+     * - The retained pager lets go of this screen's views
+     * - The database handle is app-scoped and owned by DatabaseHelper,
+     *   so it is NOT closed here (other screens may still be using it,
+     *   and onDestroy also runs on every configuration change)
      * 
      * CALLED: When activity is being destroyed
      * 
@@ -154,10 +491,15 @@ public class MainActivity extends AppCompatActivity {
     protected void onDestroy() {
         super.onDestroy();
         
-        // Close database connection to prevent memory leaks
-        if (databaseHelper != null) {
-            databaseHelper.close();
+        // Drop a search that is still waiting for its debounce delay
+        if (pendingSearch != null) {
+            searchHandler.removeCallbacks(pendingSearch);
         }
+        
+        // The pager is kept for the next screen (configuration change) or cleared with the ViewModel
+        activityPager.detach();
+        
+        // Nothing to close: the shared database connection stays open
     }
     
     /**
@@ -171,6 +513,28 @@ public class MainActivity extends AppCompatActivity {
     public boolean onCreateOptionsMenu(Menu menu) {
         // Inflate the menu from XML
         getMenuInflater().inflate(R.menu.menu_main, menu);
+        
+        // Search box: every change is debounced, submit searches immediately
+        SearchView searchView = (SearchView) menu.findItem(R.id.action_search).getActionView();
+        searchView.setQueryHint("Search activities");
+        searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
+            @Override
+            public boolean onQueryTextSubmit(String query) {
+                scheduleSearch(query);
+                if (pendingSearch != null) {
+                    searchHandler.removeCallbacks(pendingSearch);
+                    pendingSearch.run();
+                }
+                searchView.clearFocus();
+                return true;
+            }
+            
+            @Override
+            public boolean onQueryTextChange(String newText) {
+                scheduleSearch(newText);
+                return true;
+            }
+        });
         return true;
     }
     
@@ -238,7 +602,15 @@ public class MainActivity extends AppCompatActivity {
     @Override
     protected void onStop() {
         super.onStop();
-        // Activity is no longer visible
+        // Activity is no longer visible: keep its first screen for the next cold start
+        // (not on a configuration change: the pager and its pages are kept)
+        if (isChangingConfigurations()) {
+            return;
+        }
+        List<FitnessActivity> firstRows = activityPager.getFirstRows(FIRST_SCREEN_ROWS);
+        if (firstRows != null) {
+            repository.saveFirstPage(firstRows);
+        }
     }
     
     @Override
@@ -263,15 +635,16 @@ public class MainActivity extends AppCompatActivity {
  *    Save to database → finish() → Return to MainActivity
  * 
  * 4. MainActivity becomes visible again:
- *    onRestart() → onStart() → onResume() → Refresh data → Display updated list
+ *    onRestart() → onStart() → onResume() → Apply new changes → Display updated list
  * 
  * 5. User exits app:
- *    onPause() → onStop() → onDestroy() → Close database → App closed
+ *    onPause() → onStop() → onDestroy() → App closed
+ *    (the shared database handle lives as long as the process)
  * 
  * KEY POINTS:
  * - onCreate(): Called ONCE for initial setup
- * - onResume(): Called EVERY TIME activity becomes visible (ensures fresh data)
- * - onDestroy(): Called ONCE for cleanup
+ * - onResume(): Called EVERY TIME activity becomes visible (applies changes, if any)
+ * - onDestroy(): Called ONCE for cleanup (never closes the shared database)
  * 
  * This ensures data consistency and prevents memory leaks!
  */
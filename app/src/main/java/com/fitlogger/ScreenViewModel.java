@@ -0,0 +1,42 @@
+package com.fitlogger;
+
+import android.app.Application;
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LifecycleRegistry;
+
+/**
+ * ViewModel that is also the LifecycleOwner of the reads it starts
+ * 
+ * A screen's state and its queries live here instead of in the Activity, so a
+ * configuration change (rotation, dark mode, ...) keeps what was already read:
+ * the new Activity shows it without a query, and results of reads that were
+ * still running when the old Activity was destroyed are not lost. Results are
+ * delivered for as long as the ViewModel lives, and dropped once it is
+ * cleared (the screen was finished).
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public abstract class ScreenViewModel extends AndroidViewModel implements LifecycleOwner {
+    
+    private final LifecycleRegistry lifecycle = new LifecycleRegistry(this);
+    
+    public ScreenViewModel(@NonNull Application application) {
+        super(application);
+        lifecycle.setCurrentState(Lifecycle.State.RESUMED);
+    }
+    
+    @NonNull
+    @Override
+    public Lifecycle getLifecycle() {
+        return lifecycle;
+    }
+    
+    @Override
+    protected void onCleared() {
+        lifecycle.setCurrentState(Lifecycle.State.DESTROYED);
+    }
+}
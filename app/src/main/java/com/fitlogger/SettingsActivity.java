@@ -1,24 +1,47 @@
 package com.fitlogger;
 
+import android.content.ContentResolver;
+import android.database.Cursor;
+import android.net.Uri;
 import android.os.Bundle;
+import android.provider.OpenableColumns;
+import android.view.View;
 import android.view.MenuItem;
 import android.widget.Button;
 import android.widget.Switch;
 import android.widget.TextView;
 import android.widget.Toast;
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
-import com.fitlogger.database.DatabaseHelper;
-import com.fitlogger.database.FitnessActivityDAO;
+import androidx.lifecycle.ViewModelProvider;
+import com.fitlogger.database.ActivityCache;
+import com.fitlogger.database.ActivityRepository;
+import com.fitlogger.database.ActivityRollup;
+import com.fitlogger.database.ActivityTypeTotal;
+import com.fitlogger.database.EpochDay;
+import com.fitlogger.database.PersonalRecord;
+import com.fitlogger.io.ActivityExporter;
+import com.fitlogger.io.ActivityImporter;
+import com.fitlogger.metrics.Metrics;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
 
 /**
  * SettingsActivity - Application settings and preferences
  * 
  * Features:
  * - App information
- * - Database statistics
+ * - Database statistics (totals, this week, this month)
  * - Clear all data option
+ * - Rebuild statistics option
+ * - Export data (CSV / JSON lines)
  * - Notification preferences
+ * - Row cache size (with hit/miss/eviction statistics)
+ * - Hidden diagnostics panel (long-press the app version): p50/p95/p99 of
+ *   every metric, dump to a file, reset
  * 
  * @author RANA MUHAMMAD AWAIS
  * @email rana.16241.ac@iqra.edu.pk
@@ -28,11 +51,38 @@ public class SettingsActivity extends AppCompatActivity {
     private Toolbar toolbar;
     private TextView textTotalActivities;
     private TextView textTotalDuration;
+    private TextView textThisWeek;
+    private TextView textThisMonth;
+    private TextView textMostLogged;
+    private TextView textLast7Days;
+    private TextView textLast30Days;
+    private TextView textStreaks;
+    private TextView textPersonalBest;
     private Button btnClearAllData;
+    private Button btnRebuildStatistics;
+    private Button btnExportData;
+    private Button btnImportData;
     private Switch switchNotifications;
+    private View layoutCacheSize;
+    private TextView textCacheSize;
+    private TextView textCacheStats;
+    private TextView textAppVersion;
+    private View layoutDiagnostics;
+    private TextView textDiagnostics;
+    private Button btnDumpMetrics;
+    private Button btnResetMetrics;
     
-    private DatabaseHelper databaseHelper;
-    private FitnessActivityDAO dao;
+    // Row cache sizes offered in the picker (0 = off)
+    private static final int[] CACHE_SIZES = {0, 100, 500, 2000};
+    
+    private ActivityRepository repository;
+    
+    // Statistics read so far; kept across configuration changes
+    private StatisticsViewModel statistics;
+    
+    // System file picker for Import Data (must be registered before onCreate)
+    private final ActivityResultLauncher<String[]> importPicker =
+            registerForActivityResult(new ActivityResultContracts.OpenDocument(), this::importData);
     
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -48,23 +98,60 @@ public class SettingsActivity extends AppCompatActivity {
         }
         
         // Initialize database components
-        databaseHelper = DatabaseHelper.getInstance(this);
-        dao = new FitnessActivityDAO(databaseHelper);
+        repository = ActivityRepository.getInstance(this);
         
         // Initialize UI components
         textTotalActivities = findViewById(R.id.textTotalActivities);
         textTotalDuration = findViewById(R.id.textTotalDuration);
+        textThisWeek = findViewById(R.id.textThisWeek);
+        textThisMonth = findViewById(R.id.textThisMonth);
+        textMostLogged = findViewById(R.id.textMostLogged);
+        textLast7Days = findViewById(R.id.textLast7Days);
+        textLast30Days = findViewById(R.id.textLast30Days);
+        textStreaks = findViewById(R.id.textStreaks);
+        textPersonalBest = findViewById(R.id.textPersonalBest);
         btnClearAllData = findViewById(R.id.btnClearAllData);
+        btnRebuildStatistics = findViewById(R.id.btnRebuildStatistics);
+        btnExportData = findViewById(R.id.btnExportData);
+        btnImportData = findViewById(R.id.btnImportData);
         switchNotifications = findViewById(R.id.switchNotifications);
+        layoutCacheSize = findViewById(R.id.layoutCacheSize);
+        textCacheSize = findViewById(R.id.textCacheSize);
+        textCacheStats = findViewById(R.id.textCacheStats);
+        textAppVersion = findViewById(R.id.textAppVersion);
+        layoutDiagnostics = findViewById(R.id.layoutDiagnostics);
+        textDiagnostics = findViewById(R.id.textDiagnostics);
+        btnDumpMetrics = findViewById(R.id.btnDumpMetrics);
+        btnResetMetrics = findViewById(R.id.btnResetMetrics);
         
-        // Load statistics
+        // Load statistics, and reload them whenever activities change
+        // (while this screen is visible, or once when it is started again);
+        // after a configuration change the values already read are shown as they are
+        statistics = new ViewModelProvider(this).get(StatisticsViewModel.class);
+        observeStatistics();
         loadStatistics();
+        repository.getChanges().observe(this, change -> loadStatistics());
         
         // Setup Clear All Data button
         btnClearAllData.setOnClickListener(v -> {
             showClearDataConfirmation();
         });
         
+        // Setup Export Data button
+        btnExportData.setOnClickListener(v -> {
+            showExportFormatDialog();
+        });
+        
+        // Setup Import Data button (system file picker)
+        btnImportData.setOnClickListener(v -> {
+            importPicker.launch(new String[]{"text/*", "application/json", "application/octet-stream"});
+        });
+        
+        // Setup Rebuild Statistics button
+        btnRebuildStatistics.setOnClickListener(v -> {
+            rebuildStatistics();
+        });
+        
         // Setup notification switch
         switchNotifications.setOnCheckedChangeListener((buttonView, isChecked) -> {
             if (isChecked) {
@@ -73,18 +160,313 @@ public class SettingsActivity extends AppCompatActivity {
                 Toast.makeText(this, "Notifications disabled", Toast.LENGTH_SHORT).show();
             }
         });
+        
+        // Setup row cache size picker
+        layoutCacheSize.setOnClickListener(v -> {
+            showCacheSizeDialog();
+        });
+        
+        // Hidden diagnostics panel: long-press the app version to show it
+        textAppVersion.setOnLongClickListener(v -> {
+            layoutDiagnostics.setVisibility(View.VISIBLE);
+            showDiagnostics();
+            return true;
+        });
+        btnDumpMetrics.setOnClickListener(v -> {
+            dumpDiagnostics();
+        });
+        btnResetMetrics.setOnClickListener(v -> {
+            Metrics.reset();
+            showDiagnostics();
+        });
     }
     
     /**
-     * Load and display database statistics
+     * Load database statistics if activities changed since they were last read
+     * (StatisticsViewModel.load() is a no-op otherwise)
      */
     private void loadStatistics() {
-        int totalActivities = dao.getActivityCount();
-        int totalDuration = dao.getTotalDuration();
+        statistics.load();
+        showCacheStatistics();
+    }
+    
+    /**
+     * Display every statistic as soon as it is read (or right away, if it was
+     * read before a configuration change)
+     */
+    private void observeStatistics() {
+        statistics.getActivityCount().observe(this, totalActivities -> {
+            textTotalActivities.setText("Total Activities: " + totalActivities);
+        });
+        statistics.getTotalDuration().observe(this, totalDuration -> {
+            textTotalDuration.setText("Total Duration: " + totalDuration + " minutes (" + 
+                                     (totalDuration / 60) + " hours)");
+        });
+        statistics.getThisWeek().observe(this, week -> {
+            textThisWeek.setText("This Week: " + formatRollup(week));
+        });
+        statistics.getThisMonth().observe(this, month -> {
+            textThisMonth.setText("This Month: " + formatRollup(month));
+        });
+        statistics.getTypeTotals().observe(this, typeTotals -> {
+            if (typeTotals.isEmpty()) {
+                textMostLogged.setText("Most Logged: -");
+            } else {
+                ActivityTypeTotal top = typeTotals.get(0);
+                textMostLogged.setText("Most Logged: " + top.getActivityName() + " (" +
+                                       top.getActivityCount() + " activities, " +
+                                       top.getTotalDuration() + " minutes)");
+            }
+        });
+        statistics.getStats().observe(this, stats -> {
+            textLast7Days.setText("Last 7 Days: " +
+                                  formatTotals(stats.getLast7DaysCount(), stats.getLast7DaysDuration()));
+            textLast30Days.setText("Last 30 Days: " +
+                                   formatTotals(stats.getLast30DaysCount(), stats.getLast30DaysDuration()));
+            textStreaks.setText("Streak: " + formatDays(stats.getCurrentStreak()) +
+                                " (longest " + formatDays(stats.getLongestStreak()) + ")");
+            PersonalRecord best = stats.getBestRecord();
+            if (best == null) {
+                textPersonalBest.setText("Personal Best: -");
+            } else {
+                textPersonalBest.setText("Personal Best: " + best.getActivityName() + ", " +
+                                         best.getDuration() + " minutes on " + EpochDay.toDate(best.getEpochDay()));
+            }
+        });
+    }
+    
+    /**
+     * Let the user pick the export format
+     */
+    private void showExportFormatDialog() {
+        String[] labels = {"CSV", "JSON Lines"};
+        ActivityExporter.Format[] formats = {ActivityExporter.Format.CSV, ActivityExporter.Format.NDJSON};
+        
+        new androidx.appcompat.app.AlertDialog.Builder(this)
+            .setTitle("Export Data")
+            .setItems(labels, (dialog, which) -> {
+                exportData(formats[which]);
+            })
+            .setNegativeButton("Cancel", null)
+            .show();
+    }
+    
+    /**
+     * Export all activities to the app's external files directory
+     * (no storage permission needed); progress is shown on the button
+     * 
+     * @param format Output format
+     */
+    private void exportData(ActivityExporter.Format format) {
+        btnExportData.setEnabled(false);
+        ActivityExporter.ProgressListener listener = (rowsWritten, totalRows) -> runOnUiThread(() -> {
+            int percent = totalRows > 0 ? (int) (rowsWritten * 100 / totalRows) : 100;
+            btnExportData.setText("Exporting… " + percent + "%");
+        });
         
-        textTotalActivities.setText("Total Activities: " + totalActivities);
-        textTotalDuration.setText("Total Duration: " + totalDuration + " minutes (" + 
-                                 (totalDuration / 60) + " hours)");
+        ActivityRepository.observeOnce(repository.read(this::getOutputDirectory), this, directory -> {
+            File file = new File(directory, "fitlogger-export." + format.getExtension());
+            ActivityRepository.observeOnce(repository.exportActivities(file, format, listener), this, rows -> {
+                btnExportData.setEnabled(true);
+                btnExportData.setText("Export Data");
+                if (rows >= 0) {
+                    Toast.makeText(this, rows + " activities exported to " + file.getAbsolutePath(),
+                                   Toast.LENGTH_LONG).show();
+                } else {
+                    Toast.makeText(this, "Export failed", Toast.LENGTH_SHORT).show();
+                }
+            });
+        });
+    }
+    
+    /**
+     * Directory for exported files: the app's external files directory (no
+     * storage permission needed), or its internal one if there is no external
+     * storage. Looking it up may create it, so call it off the main thread
+     * 
+     * @return Output directory
+     */
+    private File getOutputDirectory() {
+        File directory = getExternalFilesDir(null);
+        return directory != null ? directory : getFilesDir();
+    }
+    
+    /**
+     * Import activities from the file the user picked
+     * Picking the same file again after an interrupted import resumes it;
+     * a file that was imported completely is not imported twice
+     * 
+     * @param uri Picked document, or null if the picker was cancelled
+     */
+    private void importData(Uri uri) {
+        if (uri == null) {
+            return;
+        }
+        
+        btnImportData.setEnabled(false);
+        ActivityImporter.ProgressListener listener = (rowsImported, rowsRejected) -> runOnUiThread(() -> {
+            btnImportData.setText("Importing… " + rowsImported);
+        });
+        
+        ActivityRepository.observeOnce(repository.importActivities(new DocumentSource(getContentResolver(), uri), listener), this, result -> {
+            btnImportData.setEnabled(true);
+            btnImportData.setText("Import Data");
+            if (result == null) {
+                Toast.makeText(this, "Import failed: not an activity CSV or JSON file", Toast.LENGTH_LONG).show();
+            } else if (result.isAlreadyImported()) {
+                Toast.makeText(this, "This file has already been imported", Toast.LENGTH_SHORT).show();
+            } else {
+                String message = result.getRowsImported() + " activities imported";
+                if (result.getRowsRejected() > 0) {
+                    message += ", " + result.getRowsRejected() + " invalid rows skipped";
+                }
+                Toast.makeText(this, message, Toast.LENGTH_LONG).show();
+            }
+        });
+    }
+    
+    /**
+     * Import source backed by a document picked through the Storage Access Framework
+     * The checkpoint key is the document URI plus its size, so a changed file
+     * is imported as a new source
+     */
+    private static class DocumentSource implements ActivityImporter.Source {
+        private final ContentResolver resolver;
+        private final Uri uri;
+        
+        DocumentSource(ContentResolver resolver, Uri uri) {
+            this.resolver = resolver;
+            this.uri = uri;
+        }
+        
+        @Override
+        public String getKey() {
+            long size = -1;
+            Cursor cursor = resolver.query(uri, new String[]{OpenableColumns.SIZE}, null, null, null);
+            if (cursor != null) {
+                try {
+                    if (cursor.moveToFirst() && !cursor.isNull(0)) {
+                        size = cursor.getLong(0);
+                    }
+                } finally {
+                    cursor.close();
+                }
+            }
+            return uri + "#" + size;
+        }
+        
+        @Override
+        public InputStream open() throws FileNotFoundException {
+            InputStream input = resolver.openInputStream(uri);
+            if (input == null) {
+                throw new FileNotFoundException(uri.toString());
+            }
+            return input;
+        }
+    }
+    
+    /**
+     * Show the row cache size and its statistics
+     */
+    private void showCacheStatistics() {
+        ActivityCache cache = repository.getActivityCache();
+        textCacheSize.setText(cache.getMaxEntries() > 0 ? cache.getMaxEntries() + " rows" : "Off");
+        textCacheStats.setText(cache.size() + " cached, " + cache.getHitCount() + " hits, " +
+                               cache.getMissCount() + " misses, " + cache.getEvictionCount() + " evictions");
+    }
+    
+    /**
+     * Show the diagnostics report (latency percentiles and database internals)
+     */
+    private void showDiagnostics() {
+        ActivityRepository.observeOnce(repository.getDiagnostics(), this, report -> {
+            textDiagnostics.setText(report);
+        });
+    }
+    
+    /**
+     * Write the diagnostics report to the app's external files directory
+     * (no storage permission needed)
+     */
+    private void dumpDiagnostics() {
+        btnDumpMetrics.setEnabled(false);
+        ActivityRepository.observeOnce(repository.read(this::getOutputDirectory), this, directory -> {
+            File file = new File(directory, "fitlogger-metrics.txt");
+            ActivityRepository.observeOnce(repository.dumpDiagnostics(file), this, written -> {
+                btnDumpMetrics.setEnabled(true);
+                if (written) {
+                    Toast.makeText(this, "Metrics written to " + file.getAbsolutePath(), Toast.LENGTH_LONG).show();
+                } else {
+                    Toast.makeText(this, "Writing metrics failed", Toast.LENGTH_SHORT).show();
+                }
+            });
+        });
+    }
+    
+    /**
+     * Let the user pick the row cache size
+     */
+    private void showCacheSizeDialog() {
+        String[] labels = new String[CACHE_SIZES.length];
+        int checked = -1;
+        int current = repository.getActivityCache().getMaxEntries();
+        for (int i = 0; i < CACHE_SIZES.length; i++) {
+            labels[i] = CACHE_SIZES[i] > 0 ? CACHE_SIZES[i] + " rows" : "Off";
+            if (CACHE_SIZES[i] == current) {
+                checked = i;
+            }
+        }
+        
+        new androidx.appcompat.app.AlertDialog.Builder(this)
+            .setTitle("Row Cache Size")
+            .setSingleChoiceItems(labels, checked, (dialog, which) -> {
+                dialog.dismiss();
+                ActivityRepository.observeOnce(repository.setActivityCacheSize(CACHE_SIZES[which]), this,
+                        applied -> showCacheStatistics());
+            })
+            .setNegativeButton("Cancel", null)
+            .show();
+    }
+    
+    /**
+     * Format a rollup bucket for display
+     * 
+     * @param rollup Statistics bucket
+     * @return e.g. "3 activities, 95 minutes (longest 45 min)"
+     */
+    private String formatRollup(ActivityRollup rollup) {
+        if (rollup.getActivityCount() == 0) {
+            return "0 activities";
+        }
+        return rollup.getActivityCount() + (rollup.getActivityCount() == 1 ? " activity, " : " activities, ") +
+               rollup.getTotalDuration() + " minutes (longest " + rollup.getMaxDuration() + " min)";
+    }
+    
+    /**
+     * Format an activity count and total duration, e.g. "3 activities, 95 minutes"
+     */
+    private String formatTotals(int count, long totalDuration) {
+        if (count == 0) {
+            return "0 activities";
+        }
+        return count + (count == 1 ? " activity, " : " activities, ") + totalDuration + " minutes";
+    }
+    
+    private String formatDays(int days) {
+        return days + (days == 1 ? " day" : " days");
+    }
+    
+    /**
+     * Recompute the weekly/monthly statistics, streaks and personal bests from the activity log
+     * The rebuild runs in the background in small batches
+     */
+    private void rebuildStatistics() {
+        btnRebuildStatistics.setEnabled(false);
+        ActivityRepository.observeOnce(repository.rebuildRollups(), this, scheduled -> {
+            btnRebuildStatistics.setEnabled(true);
+            Toast.makeText(this, scheduled ? "Rebuilding statistics in the background"
+                                           : "Could not rebuild statistics", Toast.LENGTH_SHORT).show();
+        });
     }
     
     /**
@@ -106,14 +488,13 @@ public class SettingsActivity extends AppCompatActivity {
      * Clear all activities from database
      */
     private void clearAllData() {
-        int rowsDeleted = dao.deleteAllActivities();
-        
-        if (rowsDeleted > 0) {
-            Toast.makeText(this, rowsDeleted + " activities deleted", Toast.LENGTH_SHORT).show();
-            loadStatistics(); // Refresh statistics
-        } else {
-            Toast.makeText(this, "No activities to delete", Toast.LENGTH_SHORT).show();
-        }
+        ActivityRepository.observeOnce(repository.deleteAllActivities(), this, rowsDeleted -> {
+            if (rowsDeleted > 0) {
+                Toast.makeText(this, rowsDeleted + " activities deleted", Toast.LENGTH_SHORT).show();
+            } else {
+                Toast.makeText(this, "No activities to delete", Toast.LENGTH_SHORT).show();
+            }
+        });
     }
     
     /**
@@ -127,11 +508,4 @@ public class SettingsActivity extends AppCompatActivity {
         }
         return super.onOptionsItemSelected(item);
     }
-    
-    @Override
-    protected void onResume() {
-        super.onResume();
-        // Refresh statistics when returning to this screen
-        loadStatistics();
-    }
 }
@@ -0,0 +1,98 @@
+package com.fitlogger;
+
+import android.app.Activity;
+import android.os.Build;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.util.Log;
+import com.fitlogger.metrics.Metrics;
+
+/**
+ * StartupTracer - Measures a cold start of the app
+ * 
+ * Two spans are measured from process start (FitLoggerApplication.onCreate):
+ * - Time to first frame: MainActivity drew its first frame
+ *   (toolbar, FAB and an empty or cached list; no database access needed)
+ * - Time to full content: the first page from the database is displayed;
+ *   also reported to the system through Activity.reportFullyDrawn()
+ * 
+ * Both spans are async trace sections in a system trace (Perfetto/systrace,
+ * API 29+), are logged under the "Startup" tag on every API level and are
+ * recorded as the "ui.timeToFirstFrame" / "ui.timeToFullContent" metrics.
+ * Only the first MainActivity of the process is measured (not recreations).
+ * 
+ * Component Interaction:
+ * FitLoggerApplication.onCreate() → onProcessStart()
+ * MainActivity first draw → onFirstFrame()
+ * ActivityPager first page loaded → onFullContent()
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+final class StartupTracer {
+    
+    private static final String TAG = "Startup";
+    
+    // Trace section names (async sections need a cookie; one start per process)
+    private static final String SECTION_FIRST_FRAME = "FitLogger.timeToFirstFrame";
+    private static final String SECTION_FULL_CONTENT = "FitLogger.timeToFullContent";
+    private static final int COOKIE = 0;
+    
+    // Metric names (see Metrics)
+    private static final String METRIC_FIRST_FRAME = "ui.timeToFirstFrame";
+    private static final String METRIC_FULL_CONTENT = "ui.timeToFullContent";
+    
+    // All methods run on the main thread
+    private static long processStartMs = -1;
+    private static boolean firstFrameReported;
+    private static boolean fullContentReported;
+    
+    private StartupTracer() {
+    }
+    
+    /**
+     * Start both spans (call first thing in Application.onCreate)
+     */
+    static void onProcessStart() {
+        processStartMs = SystemClock.uptimeMillis();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.beginAsyncSection(SECTION_FIRST_FRAME, COOKIE);
+            Trace.beginAsyncSection(SECTION_FULL_CONTENT, COOKIE);
+        }
+    }
+    
+    /**
+     * End the time-to-first-frame span
+     */
+    static void onFirstFrame() {
+        if (processStartMs < 0 || firstFrameReported) {
+            return;
+        }
+        firstFrameReported = true;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.endAsyncSection(SECTION_FIRST_FRAME, COOKIE);
+        }
+        long millis = SystemClock.uptimeMillis() - processStartMs;
+        Metrics.timer(METRIC_FIRST_FRAME).recordMillis(millis);
+        Log.i(TAG, "Time to first frame: " + millis + " ms");
+    }
+    
+    /**
+     * End the time-to-full-content span
+     * 
+     * @param activity Activity that now shows its real content
+     */
+    static void onFullContent(Activity activity) {
+        if (processStartMs < 0 || fullContentReported) {
+            return;
+        }
+        fullContentReported = true;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.endAsyncSection(SECTION_FULL_CONTENT, COOKIE);
+        }
+        activity.reportFullyDrawn();
+        long millis = SystemClock.uptimeMillis() - processStartMs;
+        Metrics.timer(METRIC_FULL_CONTENT).recordMillis(millis);
+        Log.i(TAG, "Time to full content: " + millis + " ms");
+    }
+}
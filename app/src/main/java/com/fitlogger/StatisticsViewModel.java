@@ -0,0 +1,102 @@
+package com.fitlogger;
+
+import android.app.Application;
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import com.fitlogger.database.ActivityRepository;
+import com.fitlogger.database.ActivityRollup;
+import com.fitlogger.database.ActivityStats;
+import com.fitlogger.database.ActivityTypeTotal;
+import com.fitlogger.database.EpochDay;
+import java.util.List;
+
+/**
+ * Statistics shown by SettingsActivity, kept across configuration changes
+ * 
+ * Each value is a LiveData the Activity observes: a new Activity (e.g. after
+ * a rotation) gets the values already read, without a query. load() reads
+ * them again only if activities changed since the last read (see
+ * ActivityChangeBus) or the day changed (rolling windows, streaks).
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public class StatisticsViewModel extends ScreenViewModel {
+    
+    private static final long NOT_LOADED = -1;
+    
+    private final ActivityRepository repository;
+    
+    // A failed read (null) is not published, so the value shown before stays
+    private final MutableLiveData<Integer> activityCount = new MutableLiveData<>();
+    private final MutableLiveData<Integer> totalDuration = new MutableLiveData<>();
+    private final MutableLiveData<ActivityRollup> thisWeek = new MutableLiveData<>();
+    private final MutableLiveData<ActivityRollup> thisMonth = new MutableLiveData<>();
+    private final MutableLiveData<List<ActivityTypeTotal>> typeTotals = new MutableLiveData<>();
+    private final MutableLiveData<ActivityStats> stats = new MutableLiveData<>();
+    
+    // Change version and day the values were read for
+    private long statisticsVersion = NOT_LOADED;
+    private int statisticsDay;
+    
+    public StatisticsViewModel(@NonNull Application application) {
+        super(application);
+        repository = ActivityRepository.getInstance(application);
+    }
+    
+    /**
+     * Read every statistic unless the values already read are current
+     * Every value is read from pre-aggregated rows (summary and rollup tables),
+     * so the cost does not grow with the number of activities
+     */
+    public void load() {
+        long version = repository.getChangeVersion();
+        int today = EpochDay.today();
+        if (version == statisticsVersion && today == statisticsDay) {
+            return;
+        }
+        statisticsVersion = version;
+        statisticsDay = today;
+        
+        // All queries run concurrently on the repository's reader threads
+        ActivityRepository.observeOnce(repository.getActivityCount(), this, value -> publish(activityCount, value));
+        ActivityRepository.observeOnce(repository.getTotalDuration(), this, value -> publish(totalDuration, value));
+        ActivityRepository.observeOnce(repository.getRollup(ActivityRollup.Period.WEEK, today), this,
+                value -> publish(thisWeek, value));
+        ActivityRepository.observeOnce(repository.getRollup(ActivityRollup.Period.MONTH, today), this,
+                value -> publish(thisMonth, value));
+        ActivityRepository.observeOnce(repository.getTypeTotals(), this, value -> publish(typeTotals, value));
+        ActivityRepository.observeOnce(repository.getStats(today), this, value -> publish(stats, value));
+    }
+    
+    private static <T> void publish(MutableLiveData<T> liveData, T value) {
+        if (value != null) {
+            liveData.setValue(value);
+        }
+    }
+    
+    public LiveData<Integer> getActivityCount() {
+        return activityCount;
+    }
+    
+    public LiveData<Integer> getTotalDuration() {
+        return totalDuration;
+    }
+    
+    public LiveData<ActivityRollup> getThisWeek() {
+        return thisWeek;
+    }
+    
+    public LiveData<ActivityRollup> getThisMonth() {
+        return thisMonth;
+    }
+    
+    public LiveData<List<ActivityTypeTotal>> getTypeTotals() {
+        return typeTotals;
+    }
+    
+    public LiveData<ActivityStats> getStats() {
+        return stats;
+    }
+}
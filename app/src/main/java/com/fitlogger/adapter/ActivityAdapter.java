@@ -2,6 +2,7 @@ package com.fitlogger.adapter;
 
 import android.app.AlertDialog;
 import android.content.Context;
+import android.util.SparseArray;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -9,11 +10,20 @@ import android.widget.ImageButton;
 import android.widget.TextView;
 import android.widget.Toast;
 import androidx.annotation.NonNull;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.recyclerview.widget.AdapterListUpdateCallback;
+import androidx.recyclerview.widget.AsyncDifferConfig;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 import com.fitlogger.R;
+import com.fitlogger.database.ActivityRepository;
 import com.fitlogger.database.FitnessActivity;
-import com.fitlogger.database.FitnessActivityDAO;
+import com.fitlogger.metrics.Metrics;
+import com.google.android.material.card.MaterialCardView;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * RecyclerView Adapter for displaying fitness activities in CardView format
@@ -21,14 +31,106 @@ import java.util.List;
  * This adapter implements the ViewHolder pattern for efficient view recycling
  * Handles binding data to views and user interactions (delete)
  * 
+ * Multi-select (enabled by setOnSelectionChangedListener()): a long press
+ * selects a row, taps then toggle more rows, and deleteSelected() removes all
+ * of them with ONE repository call. The list owner removes the rows from
+ * its pages in one snapshot, so the diff dispatches range removals instead
+ * of one notify per row.
+ * 
+ * List updates go through an AsyncListDiffer: every new list is diffed
+ * against the current one on a background thread, and only the resulting
+ * insert/remove/move/change operations are dispatched. Rows keep stable ids
+ * (the database id), so unchanged cards are neither rebound nor re-animated.
+ * 
  * @author RANA MUHAMMAD AWAIS
  * @email rana.16241.ac@iqra.edu.pk
  */
 public class ActivityAdapter extends RecyclerView.Adapter<ActivityAdapter.ActivityViewHolder> {
     
+    /**
+     * Same item = same database id; same contents = equal name, duration and date
+     * (null placeholders are handled by AsyncListDiffer itself)
+     */
+    private static final DiffUtil.ItemCallback<FitnessActivity> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<FitnessActivity>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull FitnessActivity oldItem,
+                                               @NonNull FitnessActivity newItem) {
+                    return oldItem.getId() == newItem.getId();
+                }
+                
+                @Override
+                public boolean areContentsTheSame(@NonNull FitnessActivity oldItem,
+                                                  @NonNull FitnessActivity newItem) {
+                    return oldItem.equals(newItem);
+                }
+            };
+    
+    // Time spent binding one row (see Metrics)
+    private static final Metrics.Timer BIND_TIMER = Metrics.timer("ui.onBindViewHolder");
+    
+    /**
+     * Notified after an activity has been deleted from the database
+     */
+    public interface OnActivityDeletedListener {
+        void onActivityDeleted(FitnessActivity activity);
+    }
+    
+    /**
+     * Notified after the selected activities have been deleted from the database
+     */
+    public interface OnActivitiesDeletedListener {
+        void onActivitiesDeleted(List<FitnessActivity> activities);
+    }
+    
+    /**
+     * Notified every time a row is selected or deselected
+     */
+    public interface OnSelectionChangedListener {
+        void onSelectionChanged(int selectedCount);
+    }
+    
+    // Text of rows whose page is not loaded
+    private static final String LOADING_LABEL = "Loading…";
+    
     private Context context;
-    private List<FitnessActivity> activityList;
-    private FitnessActivityDAO dao;
+    private final AsyncListDiffer<FitnessActivity> differ;
+    private ActivityRepository repository;
+    private LifecycleOwner lifecycleOwner;
+    private OnActivityDeletedListener onActivityDeletedListener;
+    private OnActivitiesDeletedListener onActivitiesDeletedListener;
+    private OnSelectionChangedListener onSelectionChangedListener;
+    
+    // The pager's list currently shown (placeholder ids), or null for a plain list
+    private PagedActivityList pagedList;
+    
+    // Selected rows by id; selection mode is on while it is not empty
+    private final SparseArray<FitnessActivity> selection = new SparseArray<>();
+    
+    // Shared by all ViewHolders (created once, not per bind)
+    private final ActivityViewHolder.OnRowActionListener rowActionListener =
+            new ActivityViewHolder.OnRowActionListener() {
+                @Override
+                public void onDeleteRequested(int position) {
+                    ActivityAdapter.this.onDeleteRequested(position);
+                }
+                
+                @Override
+                public void onRowClicked(int position) {
+                    if (selection.size() > 0) {
+                        toggleSelection(position);
+                    }
+                }
+                
+                @Override
+                public void onRowLongPressed(int position) {
+                    if (onSelectionChangedListener != null) {
+                        toggleSelection(position);
+                    } else {
+                        ActivityAdapter.this.onDeleteRequested(position);
+                    }
+                }
+            };
     
     /**
      * Constructor
@@ -37,17 +139,61 @@ public class ActivityAdapter extends RecyclerView.Adapter<ActivityAdapter.Activi
      * @param activityList List of fitness activities to display
      */
     public ActivityAdapter(Context context, List<FitnessActivity> activityList) {
+        this(context, activityList, null);
+    }
+    
+    /**
+     * Constructor with the thread the lists are diffed on
+     * 
+     * @param context Application context
+     * @param activityList List of fitness activities to display
+     * @param diffExecutor Runs the diffs, or null for AsyncListDiffer's shared
+     *                     background pool (tests pass a direct executor, so a
+     *                     submitted list is shown once the main looper is idle)
+     */
+    ActivityAdapter(Context context, List<FitnessActivity> activityList, Executor diffExecutor) {
         this.context = context;
-        this.activityList = activityList;
+        AsyncDifferConfig.Builder<FitnessActivity> config = new AsyncDifferConfig.Builder<>(DIFF_CALLBACK);
+        if (diffExecutor != null) {
+            config.setBackgroundThreadExecutor(diffExecutor);
+        }
+        differ = new AsyncListDiffer<>(new AdapterListUpdateCallback(this), config.build());
+        setHasStableIds(true);
+        differ.submitList(activityList);
     }
     
     /**
-     * Set DAO for database operations (delete functionality)
+     * Set repository for database operations (delete functionality)
      * 
-     * @param dao FitnessActivityDAO instance
+     * @param repository ActivityRepository instance
+     * @param lifecycleOwner Screen that receives the asynchronous results
+     */
+    public void setRepository(ActivityRepository repository, LifecycleOwner lifecycleOwner) {
+        this.repository = repository;
+        this.lifecycleOwner = lifecycleOwner;
+    }
+    
+    /**
+     * @param listener Called after a row has been deleted (the list owner removes it)
      */
-    public void setDao(FitnessActivityDAO dao) {
-        this.dao = dao;
+    public void setOnActivityDeletedListener(OnActivityDeletedListener listener) {
+        this.onActivityDeletedListener = listener;
+    }
+    
+    /**
+     * @param listener Called after deleteSelected() succeeded, with the deleted rows
+     */
+    public void setOnActivitiesDeletedListener(OnActivitiesDeletedListener listener) {
+        this.onActivitiesDeletedListener = listener;
+    }
+    
+    /**
+     * Enable multi-select: a long press selects a row instead of asking to delete it
+     * 
+     * @param listener Called with the number of selected rows after every change
+     */
+    public void setOnSelectionChangedListener(OnSelectionChangedListener listener) {
+        this.onSelectionChangedListener = listener;
     }
     
     /**
@@ -63,50 +209,152 @@ public class ActivityAdapter extends RecyclerView.Adapter<ActivityAdapter.Activi
     public ActivityViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         // Inflate the CardView layout for each item
         View view = LayoutInflater.from(context).inflate(R.layout.item_activity_card, parent, false);
-        return new ActivityViewHolder(view);
+        return new ActivityViewHolder(view, rowActionListener);
     }
     
     /**
      * Called by RecyclerView to display data at the specified position
      * Updates the contents of the ViewHolder to reflect the item at the given position
      * 
+     * Binding does not allocate: click listeners live in the ViewHolder and
+     * duration labels come from DurationFormatter's cache (the bind time is
+     * recorded as "ui.onBindViewHolder", see Metrics)
+     * 
      * @param holder The ViewHolder which should be updated
      * @param position The position of the item within the adapter's data set
      */
     @Override
     public void onBindViewHolder(@NonNull ActivityViewHolder holder, int position) {
-        // Get the activity at this position
-        FitnessActivity activity = activityList.get(position);
+        long startNanos = BIND_TIMER.begin();
+        try {
+            bind(holder, getItem(position));
+        } finally {
+            BIND_TIMER.end(startNanos);
+        }
+    }
+    
+    /**
+     * Show one row in a ViewHolder
+     * 
+     * @param holder ViewHolder to update
+     * @param activity Activity of the row, or null for a placeholder
+     */
+    private void bind(ActivityViewHolder holder, FitnessActivity activity) {
+        // Row of a page that is not in memory (ActivityPager reloads it)
+        if (activity == null) {
+            holder.textActivityName.setText(LOADING_LABEL);
+            holder.textDuration.setText("");
+            holder.textDate.setText("");
+            holder.card.setChecked(false);
+            return;
+        }
         
         // Bind data to views
         holder.textActivityName.setText(activity.getActivityName());
-        holder.textDuration.setText(activity.getDuration() + " minutes");
+        holder.textDuration.setText(DurationFormatter.format(activity.getDuration()));
         holder.textDate.setText(activity.getDate());
+        holder.card.setChecked(selection.get(activity.getId()) != null);
+    }
+    
+    /**
+     * Select or deselect a row (rebinds only that row)
+     * 
+     * @param position Current adapter position of the row
+     */
+    private void toggleSelection(int position) {
+        FitnessActivity activity = getItem(position);
+        if (activity == null) {
+            return; // placeholder rows cannot be selected
+        }
+        if (selection.get(activity.getId()) != null) {
+            selection.remove(activity.getId());
+        } else {
+            selection.put(activity.getId(), activity);
+        }
+        notifyItemChanged(position);
+        onSelectionChangedListener.onSelectionChanged(selection.size());
+    }
+    
+    /**
+     * @return Number of selected rows (0 when not in selection mode)
+     */
+    public int getSelectedCount() {
+        return selection.size();
+    }
+    
+    /**
+     * Leave selection mode: deselect every row (rebinds only the selected rows)
+     */
+    public void clearSelection() {
+        if (selection.size() == 0) {
+            return;
+        }
+        List<FitnessActivity> current = differ.getCurrentList();
+        for (int position = 0; position < current.size(); position++) {
+            FitnessActivity activity = current.get(position);
+            if (activity != null && selection.get(activity.getId()) != null) {
+                notifyItemChanged(position);
+            }
+        }
+        selection.clear();
+        if (onSelectionChangedListener != null) {
+            onSelectionChangedListener.onSelectionChanged(0);
+        }
+    }
+    
+    /**
+     * Delete every selected activity in one transaction and leave selection mode
+     * The deleted rows are handed to the OnActivitiesDeletedListener, which can
+     * keep them for an undo (see ActivityRepository.restoreActivities())
+     */
+    public void deleteSelected() {
+        if (repository == null || selection.size() == 0) {
+            return;
+        }
+        List<FitnessActivity> deleted = new ArrayList<>(selection.size());
+        int[] ids = new int[selection.size()];
+        for (int i = 0; i < selection.size(); i++) {
+            ids[i] = selection.keyAt(i);
+            deleted.add(selection.valueAt(i));
+        }
+        clearSelection();
         
-        // Set up delete button click listener
-        holder.btnDelete.setOnClickListener(v -> {
-            showDeleteConfirmationDialog(activity, position);
-        });
-        
-        // Optional: Set up long press listener for alternative delete method
-        holder.itemView.setOnLongClickListener(v -> {
-            showDeleteConfirmationDialog(activity, position);
-            return true;
+        ActivityRepository.observeOnce(repository.deleteActivities(ids), lifecycleOwner, rowsDeleted -> {
+            if (rowsDeleted > 0) {
+                if (onActivitiesDeletedListener != null) {
+                    onActivitiesDeletedListener.onActivitiesDeleted(deleted);
+                }
+            } else {
+                Toast.makeText(context, "Failed to delete activities", Toast.LENGTH_SHORT).show();
+            }
         });
     }
     
+    /**
+     * Delete requested from a row (delete button or long press)
+     * The item is looked up at its current position, so it is always the
+     * row the user touched, even after earlier inserts or deletes
+     * 
+     * @param position Current adapter position of the row
+     */
+    private void onDeleteRequested(int position) {
+        FitnessActivity activity = getItem(position);
+        if (activity != null) {
+            showDeleteConfirmationDialog(activity);
+        }
+    }
+    
     /**
      * Show confirmation dialog before deleting an activity
      * 
      * @param activity The activity to delete
-     * @param position The position in the list
      */
-    private void showDeleteConfirmationDialog(FitnessActivity activity, int position) {
+    private void showDeleteConfirmationDialog(FitnessActivity activity) {
         new AlertDialog.Builder(context)
             .setTitle("Delete Activity")
             .setMessage("Are you sure you want to delete \"" + activity.getActivityName() + "\"?")
             .setPositiveButton("Delete", (dialog, which) -> {
-                deleteActivity(activity, position);
+                deleteActivity(activity);
             })
             .setNegativeButton("Cancel", null)
             .setIcon(android.R.drawable.ic_dialog_alert)
@@ -115,29 +363,28 @@ public class ActivityAdapter extends RecyclerView.Adapter<ActivityAdapter.Activi
     
     /**
      * Delete an activity from database and update the list
+     * The delete runs on the repository's writer thread; once it succeeds the
+     * list owner removes the row and submits the new list
      * 
      * @param activity The activity to delete
-     * @param position The position in the list
      */
-    private void deleteActivity(FitnessActivity activity, int position) {
-        if (dao != null) {
-            // Delete from database
-            int rowsDeleted = dao.deleteActivity(activity.getId());
-            
-            if (rowsDeleted > 0) {
-                // Remove from list
-                activityList.remove(position);
-                
-                // Notify adapter
-                notifyItemRemoved(position);
-                notifyItemRangeChanged(position, activityList.size());
-                
-                // Show success message
-                Toast.makeText(context, "Activity deleted successfully", Toast.LENGTH_SHORT).show();
-            } else {
-                // Show error message
-                Toast.makeText(context, "Failed to delete activity", Toast.LENGTH_SHORT).show();
-            }
+    private void deleteActivity(FitnessActivity activity) {
+        if (repository != null) {
+            // Delete from database (off the main thread)
+            ActivityRepository.observeOnce(repository.deleteActivity(activity.getId()), lifecycleOwner, rowsDeleted -> {
+                if (rowsDeleted > 0) {
+                    // Remove from list (the diff dispatches a single notifyItemRemoved)
+                    if (onActivityDeletedListener != null) {
+                        onActivityDeletedListener.onActivityDeleted(activity);
+                    }
+                    
+                    // Show success message
+                    Toast.makeText(context, "Activity deleted successfully", Toast.LENGTH_SHORT).show();
+                } else {
+                    // Show error message
+                    Toast.makeText(context, "Failed to delete activity", Toast.LENGTH_SHORT).show();
+                }
+            });
         }
     }
     
@@ -148,26 +395,69 @@ public class ActivityAdapter extends RecyclerView.Adapter<ActivityAdapter.Activi
      */
     @Override
     public int getItemCount() {
-        return activityList != null ? activityList.size() : 0;
+        return differ.getCurrentList().size();
     }
     
     /**
-     * Update the activity list and refresh the RecyclerView
-     * Called from MainActivity.onResume() to refresh data
+     * Stable id of a row: the database id, or for a placeholder an id made of
+     * its page and its offset in the page, so placeholders keep their ids when
+     * rows are inserted or removed above them
      * 
-     * @param newActivityList Updated list of activities
+     * @param position Row position
+     * @return Stable id of the row
+     */
+    @Override
+    public long getItemId(int position) {
+        FitnessActivity activity = getItem(position);
+        if (activity != null) {
+            return activity.getId();
+        }
+        return pagedList != null ? pagedList.getPlaceholderId(position) : RecyclerView.NO_ID;
+    }
+    
+    /**
+     * @param position Row position
+     * @return Activity at that position, or null for a placeholder
      */
-    public void updateActivities(List<FitnessActivity> newActivityList) {
-        this.activityList = newActivityList;
-        notifyDataSetChanged();
+    public FitnessActivity getItem(int position) {
+        return differ.getCurrentList().get(position);
+    }
+    
+    /**
+     * Replace the displayed list
+     * The new list is diffed against the current one in the background and
+     * only the minimal set of changes is dispatched to the RecyclerView.
+     * Called by ActivityPager with a new snapshot after every change
+     * 
+     * @param newActivityList New list (may contain null placeholders for rows
+     *                        that are not loaded); must not be modified afterwards
+     */
+    public void submitList(List<FitnessActivity> newActivityList) {
+        // getCurrentList() is a read-only wrapper: remember the pager's list once it is shown
+        differ.submitList(newActivityList, () -> {
+            pagedList = newActivityList instanceof PagedActivityList ? (PagedActivityList) newActivityList : null;
+        });
     }
     
     /**
      * ViewHolder class that holds references to the views for each item
      * Implements the ViewHolder pattern for efficient view recycling
+     * 
+     * The click listeners are created once per ViewHolder and resolve the
+     * row through getBindingAdapterPosition() when clicked
      */
     public static class ActivityViewHolder extends RecyclerView.ViewHolder {
         
+        /**
+         * Receives the touches of a row
+         */
+        interface OnRowActionListener {
+            void onDeleteRequested(int position);
+            void onRowClicked(int position);
+            void onRowLongPressed(int position);
+        }
+        
+        MaterialCardView card;
         TextView textActivityName;
         TextView textDuration;
         TextView textDate;
@@ -175,18 +465,45 @@ public class ActivityAdapter extends RecyclerView.Adapter<ActivityAdapter.Activi
         
         /**
          * Constructor
-         * Finds and stores references to views
+         * Finds and stores references to views and sets up the listeners
          * 
          * @param itemView The CardView for this item
+         * @param listener Receives delete requests, taps and long presses
          */
-        public ActivityViewHolder(@NonNull View itemView) {
+        ActivityViewHolder(@NonNull View itemView, OnRowActionListener listener) {
             super(itemView);
             
             // Find views by ID
+            card = (MaterialCardView) itemView;
             textActivityName = itemView.findViewById(R.id.textActivityName);
             textDuration = itemView.findViewById(R.id.textDuration);
             textDate = itemView.findViewById(R.id.textDate);
             btnDelete = itemView.findViewById(R.id.btnDelete);
+            
+            // Set up delete button click listener
+            btnDelete.setOnClickListener(v -> {
+                int position = getBindingAdapterPosition();
+                if (position != RecyclerView.NO_POSITION) {
+                    listener.onDeleteRequested(position);
+                }
+            });
+            
+            // Tap toggles the row while selecting
+            itemView.setOnClickListener(v -> {
+                int position = getBindingAdapterPosition();
+                if (position != RecyclerView.NO_POSITION) {
+                    listener.onRowClicked(position);
+                }
+            });
+            
+            // Long press starts selecting (or asks to delete, without multi-select)
+            itemView.setOnLongClickListener(v -> {
+                int position = getBindingAdapterPosition();
+                if (position != RecyclerView.NO_POSITION) {
+                    listener.onRowLongPressed(position);
+                }
+                return true;
+            });
         }
     }
 }
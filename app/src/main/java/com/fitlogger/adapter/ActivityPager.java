@@ -0,0 +1,520 @@
+package com.fitlogger.adapter;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import com.fitlogger.database.ActivityChange;
+import com.fitlogger.database.ActivityRepository;
+import com.fitlogger.database.EpochDay;
+import com.fitlogger.database.FitnessActivity;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Loads the activity list page by page as the RecyclerView scrolls
+ * 
+ * Pages are read with keyset pagination (see FitnessActivityDAO.getActivitiesPage)
+ * and handed to ActivityAdapter as one flat snapshot List after every change;
+ * the adapter diffs consecutive snapshots off the main thread. Each page
+ * remembers its key range, so pages far away from the visible window can be
+ * dropped from memory (their rows become null placeholders) and re-read later
+ * from the same range. Memory therefore stays bounded by the retained window
+ * (plus a row count per page in each snapshot), not by the table size.
+ * 
+ * All reads go through ActivityRepository (background threads); results are
+ * applied on the main thread while the owner is at least STARTED. With the
+ * screen's ViewModel as the owner the pager outlives a configuration change:
+ * the new Activity hands it its adapter and RecyclerView (setAdapter(),
+ * attachTo()) and is shown the pages already loaded, without a query.
+ * 
+ * Component Interaction:
+ * RecyclerView scroll → ActivityPager → ActivityRepository.getActivitiesPage()
+ * → SQLite (reader thread) → Page → snapshot → ActivityAdapter.submitList()
+ * → DiffUtil (background) → minimal notifyItem*() → RecyclerView
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public class ActivityPager {
+    
+    // Paging configuration
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int PREFETCH_DISTANCE = 20; // rows before the end that trigger the next page
+    private static final int RETAINED_PAGES = 2;     // pages kept on each side of the visible ones
+    
+    /**
+     * Notified every time the first page (re)loads
+     */
+    public interface OnListLoadedListener {
+        void onListLoaded(boolean empty);
+    }
+    
+    private final ActivityRepository repository;
+    private final LifecycleOwner owner;
+    private final int pageSize;
+    private ActivityAdapter adapter; // null while no screen is attached
+    
+    // Loaded (or dropped) pages in list order, and their total row count
+    private final List<Page> pages = new ArrayList<>();
+    private int totalSize;
+    private boolean endReached;
+    private boolean loadingNextPage;
+    
+    // Incremented by loadInitial() so results of older requests are ignored
+    private int generation;
+    
+    private RecyclerView recyclerView;
+    private boolean rangeCheckPending;
+    private OnListLoadedListener onListLoadedListener;
+    
+    /**
+     * Constructor with the default page size
+     * 
+     * @param repository Repository used to read pages off the main thread
+     * @param owner Lifecycle owner that receives the results
+     * @param adapter Adapter that displays the paged list
+     */
+    public ActivityPager(ActivityRepository repository, LifecycleOwner owner, ActivityAdapter adapter) {
+        this(repository, owner, adapter, DEFAULT_PAGE_SIZE);
+    }
+    
+    /**
+     * Constructor
+     * 
+     * @param repository Repository used to read pages off the main thread
+     * @param owner Lifecycle owner that receives the results
+     * @param adapter Adapter that displays the paged list
+     * @param pageSize Number of rows per page
+     */
+    public ActivityPager(ActivityRepository repository, LifecycleOwner owner,
+                         ActivityAdapter adapter, int pageSize) {
+        this.repository = repository;
+        this.owner = owner;
+        this.adapter = adapter;
+        this.pageSize = pageSize;
+    }
+    
+    /**
+     * Start following the scroll position of a RecyclerView
+     * The RecyclerView must use a LinearLayoutManager
+     * 
+     * @param recyclerView RecyclerView showing the adapter
+     */
+    public void attachTo(RecyclerView recyclerView) {
+        this.recyclerView = recyclerView;
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                scheduleRangeCheck();
+            }
+        });
+    }
+    
+    /**
+     * Show the list in another adapter (that of a recreated screen)
+     * The adapter gets the current pages right away
+     * 
+     * @param adapter Adapter that displays the paged list
+     */
+    public void setAdapter(ActivityAdapter adapter) {
+        this.adapter = adapter;
+        publish();
+    }
+    
+    /**
+     * Let go of the screen's adapter, RecyclerView and listener (the screen
+     * is destroyed); loads still running are kept for the next screen
+     */
+    public void detach() {
+        adapter = null;
+        recyclerView = null;
+        rangeCheckPending = false; // posted to the old RecyclerView: never runs
+        onListLoadedListener = null;
+    }
+    
+    /**
+     * @param listener Called after the first page has been loaded
+     */
+    public void setOnListLoadedListener(OnListLoadedListener listener) {
+        this.onListLoadedListener = listener;
+    }
+    
+    /**
+     * Discard everything and load the first page
+     * Called once when the list screen is created
+     */
+    public void loadInitial() {
+        generation++;
+        pages.clear();
+        totalSize = 0;
+        endReached = false;
+        loadingNextPage = false;
+        
+        publish();
+        loadNextPage();
+    }
+    
+    /**
+     * Put inserted rows into the loaded pages they sort into, without a query
+     * (used for the undo of a delete, whose rows are known)
+     * Rows of dropped pages appear when the page is re-read, and rows after
+     * the last page are paged in by the next range check
+     * 
+     * @param rows Rows that were inserted into the database
+     */
+    public void insert(List<FitnessActivity> rows) {
+        boolean inserted = false;
+        for (FitnessActivity row : rows) {
+            Page page = pageFor(row);
+            if (page == null) {
+                endReached = false;
+            } else if (page.items != null) {
+                int index = 0;
+                while (index < page.items.size() && compareListOrder(page.items.get(index), row) < 0) {
+                    index++;
+                }
+                page.items.add(index, row);
+                page.size++;
+                totalSize++;
+                inserted = true;
+            }
+        }
+        if (inserted) {
+            publish();
+        }
+        scheduleRangeCheck();
+    }
+    
+    /**
+     * Show rows saved during the last run until the first page arrives
+     * Ignored once the first page is in (it is always more current)
+     * 
+     * @param rows Saved rows (see FirstPageCache)
+     */
+    public void showCached(List<FitnessActivity> rows) {
+        if (adapter != null && pages.isEmpty() && loadingNextPage && !rows.isEmpty()) {
+            adapter.submitList(new ArrayList<>(rows));
+        }
+    }
+    
+    /**
+     * @param maxRows Maximum number of rows
+     * @return Copy of the first rows of the list, or null if the first page
+     *         is not in memory (not loaded yet, or dropped while scrolling)
+     */
+    public List<FitnessActivity> getFirstRows(int maxRows) {
+        if (pages.isEmpty()) {
+            return endReached ? new ArrayList<>() : null;
+        }
+        List<FitnessActivity> items = pages.get(0).items;
+        if (items == null) {
+            return null;
+        }
+        return new ArrayList<>(items.subList(0, Math.min(maxRows, items.size())));
+    }
+    
+    /**
+     * Re-read every retained page in place from its key range
+     * New rows that sort inside a page's range simply appear in that page,
+     * and dropped pages are re-read the next time they become visible
+     */
+    public void refresh() {
+        if (pages.isEmpty()) {
+            // Nothing loaded yet: (re)load the first page unless it is already on its way
+            if (!loadingNextPage) {
+                loadInitial();
+            }
+            return;
+        }
+        
+        for (Page page : pages) {
+            if (page.items != null) {
+                reloadPage(page);
+            }
+        }
+        
+        // Rows added after the last known key can now be paged in again
+        endReached = false;
+        scheduleRangeCheck();
+    }
+    
+    /**
+     * @return true if the list has no rows at all
+     */
+    public boolean isEmpty() {
+        return totalSize == 0;
+    }
+    
+    /**
+     * Remove a deleted activity from its page
+     * 
+     * @param activity Activity that was deleted from the database
+     */
+    public void remove(FitnessActivity activity) {
+        for (Page page : pages) {
+            if (page.items != null && page.items.remove(activity)) {
+                page.size--;
+                totalSize--;
+                publish();
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Remove the rows of a DELETED change from the loaded pages in one pass
+     * (one snapshot for the adapter, however many rows were deleted)
+     * Rows of dropped pages disappear when the page is re-read
+     * 
+     * @param deleted DELETED change published by ActivityChangeBus
+     */
+    public void remove(ActivityChange deleted) {
+        int[] ids = new int[deleted.getIdCount()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = deleted.getId(i);
+        }
+        Arrays.sort(ids);
+        
+        int removed = 0;
+        for (Page page : pages) {
+            if (page.items == null) {
+                continue;
+            }
+            for (Iterator<FitnessActivity> it = page.items.iterator(); it.hasNext(); ) {
+                if (Arrays.binarySearch(ids, it.next().getId()) >= 0) {
+                    it.remove();
+                    page.size--;
+                    removed++;
+                }
+            }
+        }
+        if (removed > 0) {
+            totalSize -= removed;
+            publish();
+        }
+    }
+    
+    /**
+     * Run the visible-range check after the current frame
+     * Adapter notifications are not allowed from inside a scroll/layout pass
+     */
+    private void scheduleRangeCheck() {
+        if (recyclerView == null || rangeCheckPending) {
+            return;
+        }
+        rangeCheckPending = true;
+        recyclerView.post(() -> {
+            rangeCheckPending = false;
+            checkVisibleRange();
+        });
+    }
+    
+    /**
+     * Prefetch the next page, reload dropped pages that are visible again,
+     * and drop pages that are far outside the visible window
+     */
+    private void checkVisibleRange() {
+        if (recyclerView == null || !(recyclerView.getLayoutManager() instanceof LinearLayoutManager)) {
+            return;
+        }
+        if (recyclerView.getAdapter() != adapter) {
+            return; // another adapter (e.g. search results) is showing: positions are not ours
+        }
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        int firstVisible = Math.max(layoutManager.findFirstVisibleItemPosition(), 0);
+        int lastVisible = Math.max(layoutManager.findLastVisibleItemPosition(), firstVisible);
+        onVisibleRange(firstVisible, lastVisible);
+    }
+    
+    /**
+     * Load, reload and drop pages for the rows on screen
+     * (package-private: tests drive it without a laid-out RecyclerView)
+     * 
+     * @param firstVisible Position of the first visible row
+     * @param lastVisible Position of the last visible row
+     */
+    void onVisibleRange(int firstVisible, int lastVisible) {
+        // 1. Prefetch: load the next page before the user reaches the end
+        if (lastVisible + PREFETCH_DISTANCE >= totalSize) {
+            loadNextPage();
+        }
+        
+        // 2. Keep a window of pages around the visible rows, drop the rest
+        int firstPage = pageIndexOf(firstVisible);
+        int lastPage = pageIndexOf(lastVisible);
+        int keepFrom = firstPage - RETAINED_PAGES;
+        int keepTo = lastPage + RETAINED_PAGES;
+        
+        boolean dropped = false;
+        for (int i = 0; i < pages.size(); i++) {
+            Page page = pages.get(i);
+            boolean keep = i >= keepFrom && i <= keepTo;
+            
+            if (keep && page.items == null) {
+                reloadPage(page);
+            } else if (!keep && page.items != null) {
+                page.items = null; // size is kept so positions stay stable
+                dropped = true;
+            }
+        }
+        if (dropped) {
+            publish();
+        }
+    }
+    
+    /**
+     * Load the page after the last known row and append it when it arrives
+     */
+    private void loadNextPage() {
+        if (endReached || loadingNextPage) {
+            return;
+        }
+        loadingNextPage = true;
+        
+        final int requestGeneration = generation;
+        Page previous = pages.isEmpty() ? null : pages.get(pages.size() - 1);
+        FitnessActivity after = previous != null ? previous.through : null;
+        
+        ActivityRepository.observeOnce(repository.getActivitiesPage(after, pageSize), owner, items -> {
+            if (requestGeneration != generation) {
+                return; // list was reset while this page was loading
+            }
+            loadingNextPage = false;
+            
+            if (items.size() < pageSize) {
+                endReached = true;
+            }
+            if (!items.isEmpty()) {
+                Page page = new Page(after, items.get(items.size() - 1));
+                page.setItems(items);
+                pages.add(page);
+                totalSize += page.size;
+                publish();
+            }
+            
+            if (previous == null && onListLoadedListener != null) {
+                onListLoadedListener.onListLoaded(isEmpty());
+            }
+            scheduleRangeCheck();
+        });
+    }
+    
+    /**
+     * Re-read one page from its key range and swap its rows in place
+     * 
+     * @param page Page to reload
+     */
+    private void reloadPage(Page page) {
+        if (page.loading) {
+            return;
+        }
+        page.loading = true;
+        
+        final int requestGeneration = generation;
+        ActivityRepository.observeOnce(repository.getActivitiesBetween(page.after, page.through), owner, items -> {
+            page.loading = false;
+            if (requestGeneration != generation || !pages.contains(page)) {
+                return;
+            }
+            
+            totalSize += items.size() - page.size;
+            page.setItems(items);
+            publish();
+        });
+    }
+    
+    /**
+     * Hand a snapshot of the current pages to the adapter
+     * The adapter diffs it against the previous snapshot in the background,
+     * so unchanged rows are not rebound and only real changes are animated
+     */
+    private void publish() {
+        if (adapter != null) {
+            adapter.submitList(snapshot());
+        }
+    }
+    
+    /**
+     * @return The current pages as one list, dropped pages as null placeholders
+     *         (memory for the loaded rows only, see PagedActivityList)
+     */
+    PagedActivityList snapshot() {
+        int[] keys = new int[pages.size()];
+        int[] sizes = new int[pages.size()];
+        List<List<FitnessActivity>> rows = new ArrayList<>(pages.size());
+        for (int i = 0; i < sizes.length; i++) {
+            Page page = pages.get(i);
+            keys[i] = page.through.getId(); // key ranges do not overlap
+            sizes[i] = page.size;
+            rows.add(page.items);
+        }
+        return new PagedActivityList(keys, sizes, rows);
+    }
+    
+    /**
+     * @param row Row to place
+     * @return Page whose key range contains the row, or null if it sorts after the last page
+     */
+    private Page pageFor(FitnessActivity row) {
+        for (Page page : pages) {
+            if (compareListOrder(row, page.through) <= 0) {
+                return page;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Compare two rows in list order (epoch_day DESC, id DESC, as in FitnessActivityDAO)
+     * 
+     * @return Negative if a is shown before b, 0 if they are the same row, positive otherwise
+     */
+    private static int compareListOrder(FitnessActivity a, FitnessActivity b) {
+        int dayA = EpochDay.fromDate(a.getDate());
+        int dayB = EpochDay.fromDate(b.getDate());
+        if (dayA != dayB) {
+            return dayA > dayB ? -1 : 1;
+        }
+        return Integer.compare(b.getId(), a.getId());
+    }
+    
+    /**
+     * @param position Row position in the flat list
+     * @return Index of the page containing that row (last page if past the end)
+     */
+    private int pageIndexOf(int position) {
+        int start = 0;
+        for (int i = 0; i < pages.size(); i++) {
+            start += pages.get(i).size;
+            if (position < start) {
+                return i;
+            }
+        }
+        return pages.size() - 1;
+    }
+    
+    /**
+     * One page of the list: a key range (after, through] plus its rows
+     * items is null while the page is dropped from memory
+     */
+    private static class Page {
+        final FitnessActivity after;   // exclusive start key (null = head of the list)
+        final FitnessActivity through; // inclusive end key
+        List<FitnessActivity> items;
+        int size;
+        boolean loading;
+        
+        Page(FitnessActivity after, FitnessActivity through) {
+            this.after = after;
+            this.through = through;
+        }
+        
+        void setItems(List<FitnessActivity> items) {
+            this.items = items;
+            this.size = items.size();
+        }
+    }
+}
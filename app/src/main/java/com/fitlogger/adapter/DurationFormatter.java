@@ -0,0 +1,41 @@
+package com.fitlogger.adapter;
+
+/**
+ * Formats activity durations ("45 minutes") without allocating while binding
+ * 
+ * Labels for 0..MAX_CACHED_MINUTES are built once on first use and reused,
+ * so scrolling through the list never creates new strings for them.
+ * Longer durations (rare) are formatted on demand.
+ * 
+ * Not thread-safe: used from the main thread only (RecyclerView binding).
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+final class DurationFormatter {
+    
+    // One full day covers practically every logged activity
+    private static final int MAX_CACHED_MINUTES = 24 * 60;
+    
+    private static final String[] LABELS = new String[MAX_CACHED_MINUTES + 1];
+    
+    private DurationFormatter() {
+        // Utility class
+    }
+    
+    /**
+     * @param minutes Duration in minutes
+     * @return Label such as "45 minutes" (cached for common values)
+     */
+    static String format(int minutes) {
+        if (minutes < 0 || minutes > MAX_CACHED_MINUTES) {
+            return minutes + " minutes";
+        }
+        String label = LABELS[minutes];
+        if (label == null) {
+            label = minutes + " minutes";
+            LABELS[minutes] = label;
+        }
+        return label;
+    }
+}
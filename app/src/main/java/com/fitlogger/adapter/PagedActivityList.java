@@ -0,0 +1,112 @@
+package com.fitlogger.adapter;
+
+import com.fitlogger.database.FitnessActivity;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Snapshot of ActivityPager's list handed to ActivityAdapter: the rows of the
+ * loaded pages, and a null placeholder for every row of a dropped page
+ * 
+ * Placeholders are not stored: a dropped page is only its row count, so a
+ * snapshot costs memory for the loaded rows plus a few ints per page, not
+ * for the whole list (positions are resolved by a binary search over the
+ * page starts). The snapshot is immutable; the loaded rows are copied, so
+ * the pager can keep editing its pages while the adapter diffs this one.
+ * 
+ * AsyncListDiffer still visits every position while diffing (DiffUtil needs
+ * the whole list), but a run of placeholders only costs a null check per row.
+ * 
+ * Each page is identified by a key (the id of its last row), which gives the
+ * placeholders ids that do not change when rows are inserted or removed in
+ * other pages (see getPlaceholderId()).
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+final class PagedActivityList extends AbstractList<FitnessActivity> {
+    
+    // Position of the first row and key of each non-empty page
+    private final int[] starts;
+    private final int[] keys;
+    // Rows of each of those pages, or null if the page is dropped
+    private final List<List<FitnessActivity>> rows;
+    private final int size;
+    
+    /**
+     * @param keys Key of each page, in list order (positive, unique)
+     * @param sizes Row count of each page
+     * @param pageRows Rows of each page (null for a dropped page)
+     */
+    PagedActivityList(int[] keys, int[] sizes, List<List<FitnessActivity>> pageRows) {
+        starts = new int[sizes.length];
+        this.keys = new int[sizes.length];
+        rows = new ArrayList<>(sizes.length);
+        int pageCount = 0;
+        int position = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            if (sizes[i] == 0) {
+                continue; // emptied by deletes: no position maps to it
+            }
+            List<FitnessActivity> items = pageRows.get(i);
+            this.keys[pageCount] = keys[i];
+            starts[pageCount++] = position;
+            rows.add(items != null ? Collections.unmodifiableList(new ArrayList<>(items)) : null);
+            position += sizes[i];
+        }
+        this.size = position;
+    }
+    
+    @Override
+    public FitnessActivity get(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("position " + position + ", size " + size);
+        }
+        int page = pageIndexOf(position);
+        List<FitnessActivity> items = rows.get(page);
+        return items != null ? items.get(position - starts[page]) : null;
+    }
+    
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * @return Number of rows held in memory (the rows of the loaded pages)
+     */
+    int getLoadedCount() {
+        int count = 0;
+        for (List<FitnessActivity> items : rows) {
+            if (items != null) {
+                count += items.size();
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Stable id of a placeholder row, made of its page's key and its offset in
+     * the page: always below -1, so it never clashes with a database id or
+     * RecyclerView.NO_ID
+     * 
+     * @param position Row position (0 .. size() - 1)
+     * @return Id of the row while it is a placeholder
+     */
+    long getPlaceholderId(int position) {
+        int page = pageIndexOf(position);
+        return -1L - (((long) keys[page] << 32) | (position - starts[page]));
+    }
+    
+    /**
+     * @param position Row position (0 .. size() - 1)
+     * @return Index (among the non-empty pages) of the page holding that row
+     */
+    private int pageIndexOf(int position) {
+        int index = Arrays.binarySearch(starts, 0, rows.size(), position);
+        return index >= 0 ? index : -index - 2;
+    }
+}
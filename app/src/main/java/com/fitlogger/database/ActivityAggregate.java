@@ -0,0 +1,151 @@
+package com.fitlogger.database;
+
+/**
+ * Aggregated statistics of a day range, one bucket per day, week, month or
+ * activity type, as primitive columns
+ * 
+ * Bucket i is described by getKey(i), getCount(i), getTotalDuration(i),
+ * getMinDuration(i) and getMaxDuration(i); only non-empty buckets are
+ * present, in ascending key order. Weeks and months cut by the range only
+ * count the days inside it.
+ * 
+ * Built by FitnessActivityDAO.aggregateInRange(). Never modify the arrays.
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public final class ActivityAggregate {
+    
+    /**
+     * What a bucket groups by, and what its key means
+     */
+    public enum GroupBy {
+        DAY(ActivityRollup.Period.DAY),     // key: epoch day
+        WEEK(ActivityRollup.Period.WEEK),   // key: epoch day of Monday
+        MONTH(ActivityRollup.Period.MONTH), // key: yyyymm
+        ACTIVITY_TYPE(null);                // key: activity_types.id
+        
+        // Calendar bucket, or null for ACTIVITY_TYPE
+        final ActivityRollup.Period period;
+        
+        GroupBy(ActivityRollup.Period period) {
+            this.period = period;
+        }
+    }
+    
+    private final GroupBy groupBy;
+    private final int size;
+    private final int[] keys;
+    private final int[] counts;
+    private final long[] totalDurations;
+    private final int[] minDurations;
+    private final int[] maxDurations;
+    
+    // ACTIVITY_TYPE only: name of each bucket's type (null otherwise)
+    private final String[] typeNames;
+    
+    /**
+     * Constructor - takes ownership of the arrays (the first size elements are used)
+     * 
+     * @param groupBy Grouping of the buckets
+     * @param size Number of buckets
+     * @param keys Bucket keys, ascending
+     * @param counts Number of activities per bucket
+     * @param totalDurations Sum of durations per bucket (minutes)
+     * @param minDurations Shortest activity per bucket (minutes)
+     * @param maxDurations Longest activity per bucket (minutes)
+     * @param typeNames Type name per bucket (ACTIVITY_TYPE), or null
+     */
+    ActivityAggregate(GroupBy groupBy, int size, int[] keys, int[] counts, long[] totalDurations,
+                      int[] minDurations, int[] maxDurations, String[] typeNames) {
+        this.groupBy = groupBy;
+        this.size = size;
+        this.keys = keys;
+        this.counts = counts;
+        this.totalDurations = totalDurations;
+        this.minDurations = minDurations;
+        this.maxDurations = maxDurations;
+        this.typeNames = typeNames;
+    }
+    
+    public GroupBy getGroupBy() {
+        return groupBy;
+    }
+    
+    /**
+     * @return Number of non-empty buckets
+     */
+    public int size() {
+        return size;
+    }
+    
+    public int getKey(int index) {
+        return keys[index];
+    }
+    
+    public int getCount(int index) {
+        return counts[index];
+    }
+    
+    public long getTotalDuration(int index) {
+        return totalDurations[index];
+    }
+    
+    public int getMinDuration(int index) {
+        return minDurations[index];
+    }
+    
+    public int getMaxDuration(int index) {
+        return maxDurations[index];
+    }
+    
+    /**
+     * @param index Bucket index
+     * @return Name of the bucket's activity type, or null unless grouped by ACTIVITY_TYPE
+     */
+    public String getTypeName(int index) {
+        return typeNames != null ? typeNames[index] : null;
+    }
+    
+    /**
+     * Index of a bucket by key
+     * 
+     * @param key Bucket key
+     * @return Index of the bucket, or -1 if it is empty or outside the range
+     */
+    public int indexOfKey(int key) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < key) {
+                low = mid + 1;
+            } else if (keys[mid] > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * @return Number of activities over all buckets
+     */
+    public int getTotalCount() {
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            total += counts[i];
+        }
+        return total;
+    }
+    
+    @Override
+    public String toString() {
+        return "ActivityAggregate{" +
+                "groupBy=" + groupBy +
+                ", buckets=" + size +
+                ", activities=" + getTotalCount() +
+                '}';
+    }
+}
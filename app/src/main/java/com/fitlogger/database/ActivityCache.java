@@ -0,0 +1,273 @@
+package com.fitlogger.database;
+
+import android.util.SparseArray;
+
+/**
+ * Bounded LRU cache of FitnessActivity rows keyed by their int id
+ * 
+ * Sits in front of FitnessActivityDAO as a write-through cache: the DAO
+ * fills it on reads and updates/evicts entries on every write, so it never
+ * serves a row that differs from the database.
+ * 
+ * Design:
+ * - SparseArray index (primitive int keys, no Integer boxing)
+ * - Intrusive doubly-linked list for LRU order (O(1) touch and evict)
+ * - Bounded by entry count AND estimated bytes, whichever is hit first
+ * - Stores and returns copies, so callers can never modify a cached row
+ * - Hit/miss/eviction counters for diagnostics (shown in Settings)
+ * 
+ * Read fills use a write stamp: a reader takes writeStamp() before querying
+ * and fills with putIfUnchanged(); if any write happened in between, the
+ * (possibly stale) row is not cached.
+ * 
+ * Thread-safe: all methods are synchronized (readers and the writer thread share it).
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public class ActivityCache {
+    
+    // Rough per-entry overhead: node + FitnessActivity + two String headers
+    private static final int ENTRY_OVERHEAD_BYTES = 128;
+    
+    private final SparseArray<Node> index = new SparseArray<>();
+    private Node head; // most recently used
+    private Node tail; // least recently used
+    
+    private int maxEntries;
+    private long maxBytes;
+    private long bytes;
+    
+    // Statistics
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    
+    // Incremented by every write-through operation
+    private long writeStamp;
+    
+    /**
+     * Constructor
+     * 
+     * @param maxEntries Maximum number of cached rows (0 disables the cache)
+     * @param maxBytes Maximum estimated memory of the cached rows
+     */
+    public ActivityCache(int maxEntries, long maxBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+    
+    /**
+     * Look up a row
+     * 
+     * @param id Activity ID
+     * @return Copy of the cached row, or null on a miss
+     */
+    public synchronized FitnessActivity get(int id) {
+        Node node = index.get(id);
+        if (node == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        moveToHead(node);
+        return copyOf(node.activity);
+    }
+    
+    /**
+     * @return Current write stamp (take it BEFORE reading a row from the database)
+     */
+    public synchronized long writeStamp() {
+        return writeStamp;
+    }
+    
+    /**
+     * Cache a row read from the database, unless a write happened since the stamp was taken
+     * 
+     * @param activity Row read from the database
+     * @param stamp Value of writeStamp() taken before the read
+     */
+    public synchronized void putIfUnchanged(FitnessActivity activity, long stamp) {
+        if (stamp == writeStamp) {
+            store(activity);
+        }
+    }
+    
+    /**
+     * Write-through: insert or replace a row after it was written to the database
+     * 
+     * @param activity Row as stored in the database (must have its ID)
+     */
+    public synchronized void put(FitnessActivity activity) {
+        writeStamp++;
+        store(activity);
+    }
+    
+    /**
+     * Write-through: remove a row (after it was deleted, or when its new state is unknown)
+     * 
+     * @param id Activity ID
+     */
+    public synchronized void remove(int id) {
+        writeStamp++;
+        Node node = index.get(id);
+        if (node != null) {
+            index.remove(id);
+            unlink(node);
+            bytes -= node.bytes;
+        }
+    }
+    
+    /**
+     * Write-through: remove every row (statistics are kept)
+     */
+    public synchronized void clear() {
+        writeStamp++;
+        index.clear();
+        head = null;
+        tail = null;
+        bytes = 0;
+    }
+    
+    /**
+     * Insert or replace a row, evicting least recently used rows if needed
+     */
+    private void store(FitnessActivity activity) {
+        if (maxEntries <= 0) {
+            return;
+        }
+        int id = activity.getId();
+        Node node = index.get(id);
+        if (node != null) {
+            bytes -= node.bytes;
+            unlink(node);
+        } else {
+            node = new Node(id);
+            index.put(id, node);
+        }
+        node.activity = copyOf(activity);
+        node.bytes = estimateBytes(activity);
+        bytes += node.bytes;
+        linkAtHead(node);
+        trimToSize();
+    }
+    
+    /**
+     * Change the limits, evicting rows immediately if the cache is now too large
+     * 
+     * @param maxEntries Maximum number of cached rows (0 disables the cache)
+     * @param maxBytes Maximum estimated memory of the cached rows
+     */
+    public synchronized void resize(int maxEntries, long maxBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        trimToSize();
+    }
+    
+    public synchronized int size() {
+        return index.size();
+    }
+    
+    public synchronized int getMaxEntries() {
+        return maxEntries;
+    }
+    
+    public synchronized long getEstimatedBytes() {
+        return bytes;
+    }
+    
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+    
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+    
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+    
+    @Override
+    public synchronized String toString() {
+        return "ActivityCache{" +
+                "size=" + index.size() + "/" + maxEntries +
+                ", bytes=" + bytes + "/" + maxBytes +
+                ", hits=" + hitCount +
+                ", misses=" + missCount +
+                ", evictions=" + evictionCount +
+                '}';
+    }
+    
+    // ==================== LRU list ====================
+    
+    private void trimToSize() {
+        while (tail != null && (index.size() > maxEntries || bytes > maxBytes)) {
+            Node eldest = tail;
+            index.remove(eldest.id);
+            unlink(eldest);
+            bytes -= eldest.bytes;
+            evictionCount++;
+        }
+    }
+    
+    private void moveToHead(Node node) {
+        if (node != head) {
+            unlink(node);
+            linkAtHead(node);
+        }
+    }
+    
+    private void linkAtHead(Node node) {
+        node.previous = null;
+        node.next = head;
+        if (head != null) {
+            head.previous = node;
+        }
+        head = node;
+        if (tail == null) {
+            tail = node;
+        }
+    }
+    
+    private void unlink(Node node) {
+        if (node.previous != null) {
+            node.previous.next = node.next;
+        } else if (head == node) {
+            head = node.next;
+        }
+        if (node.next != null) {
+            node.next.previous = node.previous;
+        } else if (tail == node) {
+            tail = node.previous;
+        }
+        node.previous = null;
+        node.next = null;
+    }
+    
+    private static long estimateBytes(FitnessActivity activity) {
+        int chars = (activity.getActivityName() != null ? activity.getActivityName().length() : 0) +
+                    (activity.getDate() != null ? activity.getDate().length() : 0);
+        return ENTRY_OVERHEAD_BYTES + 2L * chars;
+    }
+    
+    private static FitnessActivity copyOf(FitnessActivity activity) {
+        return new FitnessActivity(activity.getId(), activity.getActivityName(),
+                                   activity.getDuration(), activity.getDate());
+    }
+    
+    /**
+     * Cache entry, linked in LRU order
+     */
+    private static class Node {
+        final int id;
+        FitnessActivity activity;
+        long bytes;
+        Node previous;
+        Node next;
+        
+        Node(int id) {
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.fitlogger.database;
+
+/**
+ * One committed change to fitness_activities, published by ActivityChangeBus
+ * 
+ * Versions start at 1 and grow by one per change, so a screen that remembers
+ * the last version it applied knows whether (and how much) it missed.
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public class ActivityChange {
+    
+    /**
+     * Kind of change
+     */
+    public enum Type {
+        INSERTED,   // ids: the new rows
+        UPDATED,    // ids: the changed rows (name, duration and/or date)
+        DELETED,    // ids: the removed rows
+        CLEARED     // every row was deleted (no ids)
+    }
+    
+    private static final int[] NO_IDS = new int[0];
+    
+    private final long version;
+    private final Type type;
+    private final int[] ids;
+    
+    /**
+     * Constructor
+     * 
+     * @param version Version this change moved the table to
+     * @param type Kind of change
+     * @param ids IDs of the affected rows (not copied; the bus owns the array)
+     */
+    ActivityChange(long version, Type type, int[] ids) {
+        this.version = version;
+        this.type = type;
+        this.ids = ids != null ? ids : NO_IDS;
+    }
+    
+    public long getVersion() {
+        return version;
+    }
+    
+    public Type getType() {
+        return type;
+    }
+    
+    /**
+     * @return Number of affected rows (0 for CLEARED)
+     */
+    public int getIdCount() {
+        return ids.length;
+    }
+    
+    /**
+     * @param index Position in 0..getIdCount()-1
+     * @return ID of an affected row
+     */
+    public int getId(int index) {
+        return ids[index];
+    }
+    
+    @Override
+    public String toString() {
+        return "ActivityChange{" +
+                "version=" + version +
+                ", type=" + type +
+                ", ids=" + ids.length +
+                '}';
+    }
+}
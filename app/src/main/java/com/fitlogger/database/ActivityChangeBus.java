@@ -0,0 +1,106 @@
+package com.fitlogger.database;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Publishes every committed change to fitness_activities with a version number
+ * 
+ * FitnessActivityDAO (and DatabaseHelper.deleteAllActivities) call publish()
+ * AFTER the write committed. Screens remember the version they last applied:
+ * if getVersion() has not moved there is nothing to reload, otherwise
+ * changesSince() returns exactly the changes they missed, or null if more
+ * happened than the history keeps (then the screen reloads everything).
+ * 
+ * Listeners are called synchronously on the writing thread; the repository
+ * forwards the latest change to the main thread as LiveData.
+ * 
+ * Thread-safe: publish() and the history are synchronized, listeners may be
+ * added or removed from any thread.
+ * 
+ * Component Interaction:
+ * FitnessActivityDAO → ActivityChangeBus.publish() → ActivityRepository
+ * → LiveData → MainActivity / SettingsActivity
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public class ActivityChangeBus {
+    
+    // Changes kept for changesSince(); a bulk import publishes one per chunk
+    private static final int HISTORY_SIZE = 64;
+    
+    /**
+     * Receives every change, on the thread that made it
+     */
+    public interface Listener {
+        void onActivityChanged(ActivityChange change);
+    }
+    
+    private final ArrayDeque<ActivityChange> history = new ArrayDeque<>(HISTORY_SIZE);
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private long version;
+    
+    /**
+     * @return Version of the last published change (0 before the first one)
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+    
+    /**
+     * Get the changes published after a version, oldest first
+     * 
+     * @param sinceVersion Last version the caller has applied
+     * @return Missed changes (empty if none), or null if some of them are no
+     *         longer in the history
+     */
+    public synchronized List<ActivityChange> changesSince(long sinceVersion) {
+        List<ActivityChange> changes = new ArrayList<>();
+        if (sinceVersion >= version) {
+            return changes;
+        }
+        ActivityChange oldest = history.peekFirst();
+        if (oldest == null || oldest.getVersion() > sinceVersion + 1) {
+            return null;
+        }
+        for (ActivityChange change : history) {
+            if (change.getVersion() > sinceVersion) {
+                changes.add(change);
+            }
+        }
+        return changes;
+    }
+    
+    /**
+     * Publish a committed change
+     * 
+     * @param type Kind of change
+     * @param ids IDs of the affected rows (null for CLEARED); must not be modified afterwards
+     * @return The published change
+     */
+    public ActivityChange publish(ActivityChange.Type type, int... ids) {
+        ActivityChange change;
+        synchronized (this) {
+            change = new ActivityChange(++version, type, ids);
+            if (history.size() == HISTORY_SIZE) {
+                history.removeFirst();
+            }
+            history.addLast(change);
+        }
+        for (Listener listener : listeners) {
+            listener.onActivityChanged(change);
+        }
+        return change;
+    }
+    
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+}
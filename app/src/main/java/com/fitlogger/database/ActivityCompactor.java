@@ -0,0 +1,180 @@
+package com.fitlogger.database;
+
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.os.SystemClock;
+import android.util.Log;
+
+/**
+ * Purges soft-deleted activities and gives their space back to the file system
+ * 
+ * Deletes only mark rows as tombstones (fitness_activities.deleted, v9), so
+ * the user never waits for index maintenance or freed pages. A compaction
+ * run, started by CompactionJobService while the device is idle:
+ * 1. Removes the tombstones in batches of DEFAULT_BATCH_SIZE, each batch in
+ *    its own short transaction (found through idx_activities_tombstones; no
+ *    summary trigger fires for a tombstone), with one pooled statement
+ * 2. Runs PRAGMA incremental_vacuum, which truncates the freed pages off the
+ *    end of the file. A database created without auto_vacuum (see
+ *    DatabaseHelper.onConfigure()) is converted once with a full VACUUM instead.
+ * 3. Reports rows purged, file size before/after and the time spent
+ *    (CompactionReport, also logged)
+ * 
+ * Not thread-safe: the repository runs every step on its writer thread;
+ * only Run.cancel() may be called from any thread.
+ * 
+ * Component Interaction:
+ * CompactionJobService → ActivityRepository.compact() → writer thread
+ * → ActivityCompactor.Run → SQLite
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public class ActivityCompactor {
+    
+    private static final String TAG = "ActivityCompactor";
+    
+    /**
+     * Default number of tombstones purged per batch (one transaction each)
+     */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    
+    // One batch of tombstones, served by the partial index
+    private static final String PURGE_SQL =
+            "DELETE FROM " + DatabaseHelper.TABLE_ACTIVITIES +
+            " WHERE " + DatabaseHelper.COLUMN_ID + " IN (SELECT " + DatabaseHelper.COLUMN_ID +
+            " FROM " + DatabaseHelper.TABLE_ACTIVITIES +
+            " WHERE " + DatabaseHelper.COLUMN_DELETED + " <> " + DatabaseHelper.DELETED_NONE +
+            " LIMIT ?)";
+    
+    private final DatabaseHelper databaseHelper;
+    private volatile CompactionReport lastReport;
+    
+    /**
+     * Constructor
+     * 
+     * @param databaseHelper Shared DatabaseHelper
+     */
+    public ActivityCompactor(DatabaseHelper databaseHelper) {
+        this.databaseHelper = databaseHelper;
+    }
+    
+    /**
+     * Prepare a run (no database access until its first batch)
+     * 
+     * @return New run
+     */
+    public Run newRun() {
+        return new Run();
+    }
+    
+    /**
+     * @return Report of the last finished run in this process, or null if none has finished
+     */
+    public CompactionReport getLastReport() {
+        return lastReport;
+    }
+    
+    /**
+     * One compaction: call purgeBatch() until it returns 0 (or the run is
+     * cancelled), then finish()
+     */
+    public class Run {
+        
+        private long startMillis = -1;
+        private long bytesBefore;
+        private int rowsPurged;
+        private volatile boolean cancelled;
+        
+        Run() {
+        }
+        
+        /**
+         * Remove the next batch of tombstones in its own transaction
+         * 
+         * @param batchSize Maximum number of rows to remove
+         * @return Number of rows removed (0 when none are left)
+         */
+        public int purgeBatch(int batchSize) {
+            SQLiteDatabase db = databaseHelper.getDatabase();
+            if (startMillis < 0) {
+                startMillis = SystemClock.elapsedRealtime();
+                bytesBefore = databaseSize(db);
+            }
+            
+            int rows;
+            SQLiteStatement purge = databaseHelper.getStatementPool().acquire(db, PURGE_SQL);
+            db.beginTransactionNonExclusive();
+            try {
+                purge.bindLong(1, batchSize);
+                rows = purge.executeUpdateDelete();
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+                databaseHelper.getStatementPool().release(purge);
+            }
+            rowsPurged += rows;
+            return rows;
+        }
+        
+        /**
+         * Stop the run after the current batch (safe from any thread)
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+        
+        public boolean isCancelled() {
+            return cancelled;
+        }
+        
+        /**
+         * Reclaim the freed pages (skipped if the run was cancelled) and report
+         * 
+         * @return Report of this run (also kept as the last report)
+         */
+        public CompactionReport finish() {
+            SQLiteDatabase db = databaseHelper.getDatabase();
+            if (startMillis < 0) {
+                startMillis = SystemClock.elapsedRealtime();
+                bytesBefore = databaseSize(db);
+            }
+            
+            boolean fullVacuum = false;
+            if (!cancelled) {
+                if (DatabaseUtils.longForQuery(db, "PRAGMA auto_vacuum", null)
+                        != DatabaseHelper.AUTO_VACUUM_INCREMENTAL) {
+                    // auto_vacuum = INCREMENTAL (set in onConfigure) is applied by this rebuild
+                    db.execSQL("VACUUM");
+                    fullVacuum = true;
+                } else {
+                    // Every step of the pragma frees some pages: read it to the end
+                    Cursor cursor = db.rawQuery("PRAGMA incremental_vacuum", null);
+                    try {
+                        while (cursor.moveToNext()) {
+                            // nothing to read
+                        }
+                    } finally {
+                        cursor.close();
+                    }
+                }
+            }
+            
+            CompactionReport report = new CompactionReport(rowsPurged, bytesBefore, databaseSize(db),
+                    SystemClock.elapsedRealtime() - startMillis, fullVacuum, cancelled);
+            lastReport = report;
+            Log.i(TAG, report.toString());
+            return report;
+        }
+    }
+    
+    /**
+     * @return Size of the main database file in bytes (page_count × page_size)
+     */
+    private static long databaseSize(SQLiteDatabase db) {
+        return DatabaseUtils.longForQuery(db, "PRAGMA page_count", null) *
+               DatabaseUtils.longForQuery(db, "PRAGMA page_size", null);
+    }
+}
@@ -0,0 +1,812 @@
+package com.fitlogger.database;
+
+import android.content.Context;
+import android.os.Process;
+import android.util.Log;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Observer;
+import com.fitlogger.io.ActivityExporter;
+import com.fitlogger.io.ActivityImporter;
+import com.fitlogger.metrics.Metrics;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous repository around FitnessActivityDAO
+ * 
+ * Screens never touch the database on the main thread. Every call is queued on
+ * a background executor and its result is delivered through LiveData, so the
+ * caller observes it with its LifecycleOwner and never receives a result after
+ * it has been destroyed.
+ * 
+ * Threading model:
+ * - Writes run on ONE writer thread (bounded queue), so they are serialized
+ * - Reads run on a small reader pool and proceed concurrently (WAL mode)
+ * - Every DAO call is timed on the thread that runs it ("dao.*" metrics,
+ *   see Metrics), so queue wait is not counted as query time
+ * - Every returned LiveData receives exactly one value: a failed task (e.g.
+ *   SQLException) or a rejected one (write queue full) delivers the
+ *   method's failure value (-1, 0, false, an empty list or null, as
+ *   documented per method) instead of leaving the observer waiting
+ * 
+ * Component Interaction:
+ * Activity → ActivityRepository → executor thread → FitnessActivityDAO → SQLite
+ * → LiveData.postValue() → Observer on the main thread
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public class ActivityRepository {
+    
+    private static final String TAG = "ActivityRepository";
+    
+    // Executor configuration
+    private static final int READ_THREADS = 3;            // WAL allows concurrent readers
+    private static final int WRITE_QUEUE_CAPACITY = 128;  // back-pressure for runaway writers
+    
+    // Latency (and rows returned) of the DAO calls, measured on the executor thread (see Metrics)
+    private static final Metrics.Timer ADD_ACTIVITY_TIMER = Metrics.timer("dao.addActivity");
+    private static final Metrics.Timer UPDATE_ACTIVITY_TIMER = Metrics.timer("dao.updateActivity");
+    private static final Metrics.Timer DELETE_ACTIVITY_TIMER = Metrics.timer("dao.deleteActivity");
+    private static final Metrics.Timer DELETE_ACTIVITIES_TIMER = Metrics.timer("dao.deleteActivities");
+    private static final Metrics.Timer RESTORE_ACTIVITIES_TIMER = Metrics.timer("dao.restoreActivities");
+    private static final Metrics.Timer DELETE_ALL_ACTIVITIES_TIMER = Metrics.timer("dao.deleteAllActivities");
+    private static final Metrics.Timer GET_ALL_ACTIVITIES_TIMER = Metrics.timer("dao.getAllActivities");
+    private static final Metrics.Timer GET_ACTIVITIES_PAGE_TIMER = Metrics.timer("dao.getActivitiesPage");
+    private static final Metrics.Timer GET_ACTIVITIES_BETWEEN_TIMER = Metrics.timer("dao.getActivitiesBetween");
+    private static final Metrics.Timer GET_ACTIVITIES_BY_DATE_TIMER = Metrics.timer("dao.getActivitiesByDate");
+    private static final Metrics.Timer GET_ACTIVITY_COUNT_TIMER = Metrics.timer("dao.getActivityCount");
+    private static final Metrics.Timer GET_TOTAL_DURATION_TIMER = Metrics.timer("dao.getTotalDuration");
+    private static final Metrics.Timer GET_ROLLUP_TIMER = Metrics.timer("dao.getRollup");
+    private static final Metrics.Timer SEARCH_ACTIVITY_IDS_TIMER = Metrics.timer("dao.searchActivityIds");
+    private static final Metrics.Timer GET_ACTIVITIES_BY_IDS_TIMER = Metrics.timer("dao.getActivitiesByIds");
+    private static final Metrics.Timer GET_TYPE_TOTALS_TIMER = Metrics.timer("dao.getTypeTotals");
+    private static final Metrics.Timer GET_STATS_TIMER = Metrics.timer("dao.getStats");
+    private static final Metrics.Timer GET_SNAPSHOT_TIMER = Metrics.timer("dao.getSnapshot");
+    private static final Metrics.Timer GET_ACTIVITIES_IN_RANGE_TIMER = Metrics.timer("dao.getActivitiesInRange");
+    private static final Metrics.Timer AGGREGATE_IN_RANGE_TIMER = Metrics.timer("dao.aggregateInRange");
+    private static final Metrics.Timer GET_ROLLUPS_TIMER = Metrics.timer("dao.getRollups");
+    
+    // Whole imports and exports (the importer times its own dao.addActivities call)
+    private static final Metrics.Timer IMPORT_ACTIVITIES_TIMER = Metrics.timer("io.importActivities");
+    private static final Metrics.Timer EXPORT_ACTIVITIES_TIMER = Metrics.timer("io.exportActivities");
+    
+    // Singleton instance
+    private static ActivityRepository instance;
+    
+    private final DatabaseHelper databaseHelper;
+    private final FitnessActivityDAO dao;
+    private final ActivityExporter exporter;
+    private final ActivityImporter importer;
+    private final FirstPageCache firstPage;
+    private final ActivityCompactor compactor;
+    private final ExecutorService writeExecutor;
+    private final ExecutorService readExecutor;
+    
+    // Latest change from the bus, forwarded to the main thread
+    private final MutableLiveData<ActivityChange> changes = new MutableLiveData<>();
+    
+    // Compaction in progress (null if none), so the job can cancel it
+    private volatile ActivityCompactor.Run compaction;
+    
+    /**
+     * A unit of database work that produces a result
+     */
+    public interface Task<T> {
+        T run();
+    }
+    
+    /**
+     * Constructor; the app uses the singleton (getInstance()), tests create
+     * their own repositories
+     * Does no disk I/O: the database is opened by the first task that needs it
+     * 
+     * @param context Application context
+     * @param databaseHelper Shared DatabaseHelper
+     */
+    ActivityRepository(Context context, DatabaseHelper databaseHelper) {
+        this.databaseHelper = databaseHelper;
+        this.dao = new FitnessActivityDAO(databaseHelper);
+        this.exporter = new ActivityExporter(databaseHelper);
+        this.importer = new ActivityImporter(databaseHelper, dao);
+        this.firstPage = new FirstPageCache(context);
+        this.compactor = new ActivityCompactor(databaseHelper);
+        
+        this.writeExecutor = new ThreadPoolExecutor(
+            1, 1,
+            0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(WRITE_QUEUE_CAPACITY),
+            new DatabaseThreadFactory("FitLogger-db-write")
+        );
+        this.readExecutor = new ThreadPoolExecutor(
+            READ_THREADS, READ_THREADS,
+            0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            new DatabaseThreadFactory("FitLogger-db-read")
+        );
+        
+        databaseHelper.getActivityChanges().addListener(changes::postValue);
+        databaseHelper.getActivityChanges().addListener(change -> {
+            // Runs on the writer thread, right after the table was cleared
+            if (change.getType() == ActivityChange.Type.CLEARED) {
+                firstPage.clear();
+            }
+            // Deleted rows are tombstones until the next idle-time compaction
+            if (change.getType() == ActivityChange.Type.DELETED
+                    || change.getType() == ActivityChange.Type.CLEARED) {
+                CompactionJobService.schedule(context);
+            }
+        });
+        
+        scheduleBackfillBatch();
+    }
+    
+    /**
+     * Get singleton instance of ActivityRepository
+     * 
+     * @param context Any context (the application context is used)
+     * @return Singleton ActivityRepository instance
+     */
+    public static synchronized ActivityRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new ActivityRepository(context.getApplicationContext(),
+                                              DatabaseHelper.getInstance(context));
+        }
+        return instance;
+    }
+    
+    /**
+     * Replace the singleton instance (tests that start screens, see TestDatabases)
+     * 
+     * @param repository New instance returned by getInstance()
+     */
+    static synchronized void setInstance(ActivityRepository repository) {
+        instance = repository;
+    }
+    
+    // ==================== Writes (serialized) ====================
+    
+    /**
+     * Insert a new activity
+     * 
+     * @param activity Activity to insert
+     * @return LiveData receiving the new row ID (or -1 on failure)
+     */
+    public LiveData<Long> addActivity(FitnessActivity activity) {
+        return write(ADD_ACTIVITY_TIMER, () -> dao.addActivity(activity), -1L);
+    }
+    
+    /**
+     * Update an existing activity
+     * 
+     * @param activity Activity with a valid ID
+     * @return LiveData receiving the number of rows updated (0 on failure)
+     */
+    public LiveData<Integer> updateActivity(FitnessActivity activity) {
+        return write(UPDATE_ACTIVITY_TIMER, () -> dao.updateActivity(activity), 0);
+    }
+    
+    /**
+     * Delete an activity by ID
+     * 
+     * @param id ID of the activity to delete
+     * @return LiveData receiving the number of rows deleted (0 on failure)
+     */
+    public LiveData<Integer> deleteActivity(int id) {
+        return write(DELETE_ACTIVITY_TIMER, () -> dao.deleteActivity(id), 0);
+    }
+    
+    /**
+     * Delete many activities in one transaction
+     * 
+     * @param ids IDs of the activities to delete
+     * @return LiveData receiving the number of rows deleted (0 on failure)
+     */
+    public LiveData<Integer> deleteActivities(int[] ids) {
+        return write(DELETE_ACTIVITIES_TIMER, () -> dao.deleteActivities(ids), 0);
+    }
+    
+    /**
+     * Insert deleted activities again with their original IDs (undo)
+     * 
+     * @param activities Activities as they were before the delete
+     * @return LiveData receiving the number of rows restored (0 on failure)
+     */
+    public LiveData<Integer> restoreActivities(List<FitnessActivity> activities) {
+        return write(RESTORE_ACTIVITIES_TIMER, () -> dao.restoreActivities(activities), 0);
+    }
+    
+    /**
+     * Delete every activity
+     * 
+     * @return LiveData receiving the number of rows deleted (0 on failure)
+     */
+    public LiveData<Integer> deleteAllActivities() {
+        return write(DELETE_ALL_ACTIVITIES_TIMER, dao::deleteAllActivities, 0);
+    }
+    
+    /**
+     * Import activities from a CSV or NDJSON file (batched, resumable)
+     * Runs on the writer thread, so other writes wait until the import is done
+     * 
+     * @param source File to import
+     * @param listener Progress callback, called on the writer thread (may be null)
+     * @return LiveData receiving the import result, or null if the file could not be read
+     *         or the import failed
+     */
+    public LiveData<ActivityImporter.Result> importActivities(ActivityImporter.Source source,
+                                                              ActivityImporter.ProgressListener listener) {
+        return write(IMPORT_ACTIVITIES_TIMER, () -> {
+            try {
+                return importer.importFrom(source, listener);
+            } catch (IOException e) {
+                return null;
+            }
+        }, null);
+    }
+    
+    /**
+     * Recompute all rollup statistics in the background (batched)
+     * 
+     * @return LiveData receiving true once the rebuild has been scheduled (false on failure)
+     */
+    public LiveData<Boolean> rebuildRollups() {
+        LiveData<Boolean> result = write(null, () -> {
+            databaseHelper.rebuildRollups();
+            return true;
+        }, false);
+        scheduleBackfillBatch();
+        return result;
+    }
+    
+    /**
+     * Purge deleted activities and reclaim their space (see ActivityCompactor)
+     * One batch per queued task, so user writes queued in between wait for at
+     * most one batch
+     * 
+     * @return LiveData receiving the report once the run is over, or null if
+     *         the run failed or could not be queued
+     */
+    public LiveData<CompactionReport> compact() {
+        MutableLiveData<CompactionReport> result = new MutableLiveData<>();
+        ActivityCompactor.Run run = compactor.newRun();
+        compaction = run;
+        try {
+            writeExecutor.execute(() -> runCompactionBatch(run, result));
+        } catch (RejectedExecutionException e) {
+            compaction = null;
+            result.postValue(null);
+        }
+        return result;
+    }
+    
+    /**
+     * Stop the running compaction after its current batch
+     * (its report still arrives, marked as cancelled)
+     */
+    public void cancelCompaction() {
+        ActivityCompactor.Run run = compaction;
+        if (run != null) {
+            run.cancel();
+        }
+    }
+    
+    /**
+     * Safe to call on the main thread: the report is in memory only
+     * 
+     * @return Report of the last compaction in this process, or null if none has run
+     */
+    public CompactionReport getLastCompactionReport() {
+        return compactor.getLastReport();
+    }
+    
+    /**
+     * Change (and remember) the maximum number of rows in the row cache
+     * 
+     * @param maxEntries New limit; 0 disables the cache
+     * @return LiveData receiving true once applied (false on failure)
+     */
+    public LiveData<Boolean> setActivityCacheSize(int maxEntries) {
+        return write(null, () -> {
+            databaseHelper.setActivityCacheSize(maxEntries);
+            return true;
+        }, false);
+    }
+    
+    // ==================== Reads (concurrent) ====================
+    
+    /**
+     * Load every activity, newest first
+     * Memory grows with the table: prefer getActivitiesPage() for lists and
+     * exportActivities() for files
+     * 
+     * @return LiveData receiving all activities (empty if the read failed)
+     */
+    public LiveData<List<FitnessActivity>> getAllActivities() {
+        return read(GET_ALL_ACTIVITIES_TIMER, dao::getAllActivities, new ArrayList<>());
+    }
+    
+    /**
+     * Load one keyset page of the activity list
+     * 
+     * @param after Last activity of the previous page, or null for the first page
+     * @param limit Maximum number of rows
+     * @return LiveData receiving the page (empty if the read failed)
+     */
+    public LiveData<List<FitnessActivity>> getActivitiesPage(FitnessActivity after, int limit) {
+        return read(GET_ACTIVITIES_PAGE_TIMER, () -> dao.getActivitiesPage(after, limit), new ArrayList<>());
+    }
+    
+    /**
+     * Reload a page by its key range
+     * 
+     * @param after Exclusive start key (null = head of the list)
+     * @param through Inclusive end key
+     * @return LiveData receiving the rows in the range (empty if the read failed)
+     */
+    public LiveData<List<FitnessActivity>> getActivitiesBetween(FitnessActivity after,
+                                                                FitnessActivity through) {
+        return read(GET_ACTIVITIES_BETWEEN_TIMER, () -> dao.getActivitiesBetween(after, through), new ArrayList<>());
+    }
+    
+    /**
+     * Activities logged on one day
+     * 
+     * @param date Date in YYYY-MM-DD format
+     * @return LiveData receiving the day's activities (empty if the read failed)
+     */
+    public LiveData<List<FitnessActivity>> getActivitiesByDate(String date) {
+        return read(GET_ACTIVITIES_BY_DATE_TIMER, () -> dao.getActivitiesByDate(date), new ArrayList<>());
+    }
+    
+    /**
+     * @return LiveData receiving the total number of activities (null if the read failed)
+     */
+    public LiveData<Integer> getActivityCount() {
+        return read(GET_ACTIVITY_COUNT_TIMER, dao::getActivityCount, null);
+    }
+    
+    /**
+     * @return LiveData receiving the total duration of all activities in minutes
+     *         (null if the read failed)
+     */
+    public LiveData<Integer> getTotalDuration() {
+        return read(GET_TOTAL_DURATION_TIMER, dao::getTotalDuration, null);
+    }
+    
+    /**
+     * Statistics of the day/week/month containing a given day
+     * 
+     * @param period Bucket size
+     * @param epochDay Any day inside the bucket
+     * @return LiveData receiving the bucket (empty bucket if there are no activities,
+     *         null if the read failed)
+     */
+    public LiveData<ActivityRollup> getRollup(ActivityRollup.Period period, int epochDay) {
+        return read(GET_ROLLUP_TIMER, () -> dao.getRollup(period, epochDay), null);
+    }
+    
+    /**
+     * Search activity names (word prefixes, full-text index)
+     * 
+     * @param query Text typed by the user
+     * @param limit Maximum number of results
+     * @return LiveData receiving the best matches first (empty if the read failed)
+     */
+    public LiveData<List<FitnessActivity>> searchActivities(String query, int limit) {
+        // Two DAO calls, timed separately
+        return read(null, () -> {
+            int[] ids = run(SEARCH_ACTIVITY_IDS_TIMER, () -> dao.searchActivityIds(query, 0, limit));
+            return run(GET_ACTIVITIES_BY_IDS_TIMER, () -> dao.getActivitiesByIds(ids));
+        }, new ArrayList<>());
+    }
+    
+    /**
+     * Activity count and total duration per activity name, most logged first
+     * 
+     * @return LiveData receiving the per-type totals (empty if the read failed)
+     */
+    public LiveData<List<ActivityTypeTotal>> getTypeTotals() {
+        return read(GET_TYPE_TOTALS_TIMER, dao::getTypeTotals, new ArrayList<>());
+    }
+    
+    /**
+     * Streaks, personal records and rolling 7/30-day totals (see ActivityStats)
+     * 
+     * @param today Epoch day to compute them for
+     * @return LiveData receiving the statistics (null if the read failed)
+     */
+    public LiveData<ActivityStats> getStats(int today) {
+        return read(GET_STATS_TIMER, () -> dao.getStats(today), null);
+    }
+    
+    /**
+     * Columnar snapshot of all activities, for analytics (see ActivitySnapshot)
+     * Cached until the next write
+     * 
+     * @return LiveData receiving the snapshot (null if the read failed)
+     */
+    public LiveData<ActivitySnapshot> getSnapshot() {
+        return read(GET_SNAPSHOT_TIMER, dao::getSnapshot, null);
+    }
+    
+    /**
+     * Activities of a half-open day range as primitive columns
+     * 
+     * @param fromDay First epoch day, inclusive
+     * @param toDay Epoch day after the range (exclusive)
+     * @param limit Maximum number of rows (the earliest ones are kept)
+     * @return LiveData receiving the rows in (epoch_day, id) order (null if the read failed)
+     */
+    public LiveData<ActivitySnapshot> getActivitiesInRange(int fromDay, int toDay, int limit) {
+        return read(GET_ACTIVITIES_IN_RANGE_TIMER, () -> dao.getActivitiesInRange(fromDay, toDay, limit), null);
+    }
+    
+    /**
+     * Count, total, min and max duration per day, week, month or activity
+     * type of a half-open day range
+     * 
+     * @param fromDay First epoch day, inclusive
+     * @param toDay Epoch day after the range (exclusive)
+     * @param groupBy Bucket kind
+     * @return LiveData receiving the non-empty buckets in key order (null if the read failed)
+     */
+    public LiveData<ActivityAggregate> aggregateInRange(int fromDay, int toDay,
+                                                        ActivityAggregate.GroupBy groupBy) {
+        return read(AGGREGATE_IN_RANGE_TIMER, () -> dao.aggregateInRange(fromDay, toDay, groupBy), null);
+    }
+    
+    /**
+     * Statistics for a range of buckets (e.g. for charts)
+     * 
+     * @param period Bucket size
+     * @param fromKey First bucket key, inclusive
+     * @param toKey Last bucket key, inclusive
+     * @return LiveData receiving the non-empty buckets in key order (empty if the read failed)
+     */
+    public LiveData<List<ActivityRollup>> getRollups(ActivityRollup.Period period, int fromKey, int toKey) {
+        return read(GET_ROLLUPS_TIMER, () -> dao.getRollups(period, fromKey, toKey), new ArrayList<>());
+    }
+    
+    // ==================== First screen cache ====================
+    
+    /**
+     * Read the rows saved by saveFirstPage() (usually during the last run)
+     * Does not touch the database, so it is not delayed by opening it
+     * 
+     * @return LiveData receiving the saved rows (empty list if none or unreadable)
+     */
+    public LiveData<List<FitnessActivity>> getCachedFirstPage() {
+        return read(null, firstPage::read, new ArrayList<>());
+    }
+    
+    /**
+     * Save the rows at the top of the list for the next cold start
+     * (in the background; dropped if the write queue is full)
+     * 
+     * @param rows Rows in list order
+     */
+    public void saveFirstPage(List<FitnessActivity> rows) {
+        try {
+            writeExecutor.execute(() -> firstPage.write(rows));
+        } catch (RejectedExecutionException e) {
+            // Only a startup optimization: the previous file stays in place
+        }
+    }
+    
+    // ==================== Change notifications ====================
+    
+    /**
+     * Observe committed changes to the activities
+     * Only the latest change is delivered (LiveData keeps one value), and an
+     * observer that was stopped receives it once when it starts again; use
+     * getChangesSince() to find out everything that happened in between
+     * 
+     * @return LiveData holding the latest change (no value before the first write)
+     */
+    public LiveData<ActivityChange> getChanges() {
+        return changes;
+    }
+    
+    /**
+     * Safe to call on the main thread: the version is in memory only
+     * 
+     * @return Version of the last committed change (0 before the first one)
+     */
+    public long getChangeVersion() {
+        return databaseHelper.getActivityChanges().getVersion();
+    }
+    
+    /**
+     * Get the changes committed after a version, oldest first
+     * Safe to call on the main thread: the history is in memory only
+     * 
+     * @param version Last version the caller has applied
+     * @return Missed changes (empty if none), or null if the history no longer
+     *         reaches back that far (reload everything)
+     */
+    public List<ActivityChange> getChangesSince(long version) {
+        return databaseHelper.getActivityChanges().changesSince(version);
+    }
+    
+    /**
+     * Get the row cache (for its size and hit/miss/eviction statistics)
+     * Safe to call on the main thread: the cache is in memory only
+     * 
+     * @return Shared row cache
+     */
+    public ActivityCache getActivityCache() {
+        return databaseHelper.getActivityCache();
+    }
+    
+    /**
+     * Stream every activity to a file (constant memory, see ActivityExporter)
+     * 
+     * @param file Destination file (replaced if it exists)
+     * @param format CSV or NDJSON
+     * @param listener Progress callback, called on the background thread (may be null)
+     * @return LiveData receiving the number of rows written, or -1 if writing failed
+     */
+    public LiveData<Long> exportActivities(File file, ActivityExporter.Format format,
+                                           ActivityExporter.ProgressListener listener) {
+        return read(EXPORT_ACTIVITIES_TIMER, () -> {
+            try {
+                return exporter.export(file, format, listener);
+            } catch (IOException e) {
+                return -1L;
+            }
+        }, -1L);
+    }
+    
+    // ==================== Diagnostics ====================
+    
+    /**
+     * Collect the diagnostics report: latency percentiles of every metric
+     * (see Metrics) plus the database internals (row cache, statement pool,
+     * last compaction and schema migration)
+     * 
+     * @return LiveData receiving the report (null if it could not be collected)
+     */
+    public LiveData<String> getDiagnostics() {
+        return read(null, this::buildDiagnostics, null);
+    }
+    
+    /**
+     * Write the diagnostics report to a file
+     * 
+     * @param file Destination file (replaced if it exists)
+     * @return LiveData receiving true once written, false if writing failed
+     */
+    public LiveData<Boolean> dumpDiagnostics(File file) {
+        return read(null, () -> {
+            try {
+                Writer out = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8);
+                try {
+                    out.write(buildDiagnostics());
+                } finally {
+                    out.close();
+                }
+                return true;
+            } catch (IOException e) {
+                return false;
+            }
+        }, false);
+    }
+    
+    private String buildDiagnostics() {
+        return Metrics.getReport() +
+               databaseHelper.getActivityCache() + "\n" +
+               databaseHelper.getStatementPool() + "\n" +
+               "Last compaction: " + compactor.getLastReport() + "\n" +
+               "Last migration: " + databaseHelper.getLastMigrationReport() + "\n";
+    }
+    
+    // ==================== Execution helpers ====================
+    
+    /**
+     * Finish unfinished migration backfills on the writer thread
+     * One batch per queued task, so user writes queued in between run
+     * without waiting for the whole backfill
+     */
+    private void scheduleBackfillBatch() {
+        try {
+            writeExecutor.execute(() -> {
+                if (databaseHelper.runPendingBackfillBatch()) {
+                    scheduleBackfillBatch();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Write queue is full; the backfill is recorded in the database
+            // and resumes on the next start
+        }
+    }
+    
+    /**
+     * Purge one batch of a compaction and queue the next one, or finish the
+     * run when no tombstones are left (runs on the writer thread)
+     */
+    private void runCompactionBatch(ActivityCompactor.Run run, MutableLiveData<CompactionReport> result) {
+        CompactionReport report = null;
+        try {
+            if (!run.isCancelled() && run.purgeBatch(ActivityCompactor.DEFAULT_BATCH_SIZE) > 0) {
+                try {
+                    writeExecutor.execute(() -> runCompactionBatch(run, result));
+                    return;
+                } catch (RejectedExecutionException e) {
+                    // Write queue is full: stop here, the next run purges the rest
+                }
+            }
+            report = run.finish();
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Compaction failed", e);
+        }
+        if (compaction == run) {
+            compaction = null;
+        }
+        result.postValue(report);
+    }
+    
+    /**
+     * Run a task on the writer thread
+     * 
+     * @param task Work to run
+     * @return LiveData receiving the task's result, or null if the task threw
+     *         or could not be queued (write queue full)
+     */
+    public <T> LiveData<T> write(Task<T> task) {
+        return write(null, task, null);
+    }
+    
+    /**
+     * Run a task on the reader pool
+     * 
+     * @param task Work to run
+     * @return LiveData receiving the task's result, or null if the task threw
+     */
+    public <T> LiveData<T> read(Task<T> task) {
+        return read(null, task, null);
+    }
+    
+    private <T> LiveData<T> write(Metrics.Timer timer, Task<T> task, T failureValue) {
+        return submit(writeExecutor, timer, task, failureValue);
+    }
+    
+    private <T> LiveData<T> read(Metrics.Timer timer, Task<T> task, T failureValue) {
+        return submit(readExecutor, timer, task, failureValue);
+    }
+    
+    /**
+     * Queue a task and deliver its result through LiveData
+     * The LiveData always receives exactly one value: failureValue when the
+     * task throws (e.g. SQLException on a full disk) or when the executor
+     * rejects it, so no observer waits forever
+     * 
+     * @param executor Writer thread or reader pool
+     * @param timer Metric of the call, or null to run it untimed
+     * @param task Work to run
+     * @param failureValue Value delivered if the task fails or is rejected
+     * @return LiveData receiving the result
+     */
+    private static <T> LiveData<T> submit(ExecutorService executor, Metrics.Timer timer,
+                                          Task<T> task, T failureValue) {
+        MutableLiveData<T> result = new MutableLiveData<>();
+        try {
+            executor.execute(() -> {
+                T value = failureValue;
+                try {
+                    value = run(timer, task);
+                } catch (RuntimeException e) {
+                    Log.e(TAG, "Database task failed", e);
+                }
+                result.postValue(value);
+            });
+        } catch (RejectedExecutionException e) {
+            Log.w(TAG, "Database task rejected: queue full");
+            result.postValue(failureValue);
+        }
+        return result;
+    }
+    
+    /**
+     * Run a task on the current (executor) thread
+     * This is where the DAO calls are timed (only the importer's bulk insert
+     * is timed in ActivityImporter): the DAO itself stays free of instrumentation
+     * 
+     * @param timer Metric of the call, or null to run it untimed
+     * @param task Work to run
+     * @return The task's result
+     */
+    private static <T> T run(Metrics.Timer timer, Task<T> task) {
+        if (timer == null) {
+            return task.run();
+        }
+        long startNanos = timer.begin();
+        int rows = -1;
+        try {
+            T value = task.run();
+            rows = rowCountOf(value);
+            return value;
+        } finally {
+            timer.end(startNanos, rows);
+        }
+    }
+    
+    /**
+     * @param value Result of a DAO call
+     * @return Number of rows it holds, or -1 for a count, id, flag or single row
+     */
+    private static int rowCountOf(Object value) {
+        if (value instanceof Collection) {
+            return ((Collection<?>) value).size();
+        }
+        if (value instanceof int[]) {
+            return ((int[]) value).length; // row ids
+        }
+        if (value instanceof ActivitySnapshot) {
+            return ((ActivitySnapshot) value).size();
+        }
+        if (value instanceof ActivityAggregate) {
+            return ((ActivityAggregate) value).size();
+        }
+        if (value instanceof ActivityStats) {
+            return ((ActivityStats) value).getRecords().size(); // one row per activity type
+        }
+        return -1;
+    }
+    
+    /**
+     * Observe a one-shot result: the observer is removed after the first value,
+     * and is never called if the owner is destroyed before the result arrives
+     * 
+     * @param liveData Result returned by one of the repository methods
+     * @param owner Lifecycle owner (Activity) receiving the result
+     * @param observer Callback invoked on the main thread
+     */
+    public static <T> void observeOnce(LiveData<T> liveData, LifecycleOwner owner,
+                                       Observer<T> observer) {
+        liveData.observe(owner, new Observer<T>() {
+            @Override
+            public void onChanged(T value) {
+                liveData.removeObserver(this);
+                observer.onChanged(value);
+            }
+        });
+    }
+    
+    /**
+     * Creates named background-priority threads for the executors
+     */
+    private static class DatabaseThreadFactory implements ThreadFactory {
+        
+        private final String namePrefix;
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+        
+        DatabaseThreadFactory(String namePrefix) {
+            this.namePrefix = namePrefix;
+        }
+        
+        @Override
+        public Thread newThread(Runnable runnable) {
+            return new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            }, namePrefix + "-" + threadNumber.getAndIncrement());
+        }
+    }
+}
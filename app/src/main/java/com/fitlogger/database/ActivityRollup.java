@@ -0,0 +1,110 @@
+package com.fitlogger.database;
+
+/**
+ * Model class for one pre-aggregated statistics bucket (a day, week or month)
+ * 
+ * Rollup rows are maintained by triggers on fitness_activities, so reading
+ * statistics for a period touches one row per bucket instead of every activity.
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public class ActivityRollup {
+    
+    /**
+     * Bucket size of a rollup, with the table and key column that store it
+     */
+    public enum Period {
+        DAY(DatabaseHelper.TABLE_ROLLUP_DAILY, DatabaseHelper.COLUMN_EPOCH_DAY),      // key: epoch day
+        WEEK(DatabaseHelper.TABLE_ROLLUP_WEEKLY, DatabaseHelper.COLUMN_WEEK_START),   // key: epoch day of Monday
+        MONTH(DatabaseHelper.TABLE_ROLLUP_MONTHLY, DatabaseHelper.COLUMN_MONTH);      // key: yyyymm
+        
+        final String table;
+        final String keyColumn;
+        
+        Period(String table, String keyColumn) {
+            this.table = table;
+            this.keyColumn = keyColumn;
+        }
+        
+        /**
+         * Key of the bucket that contains a given day
+         * 
+         * @param epochDay Days since 1970-01-01
+         * @return Bucket key for this period
+         */
+        public int keyOf(int epochDay) {
+            switch (this) {
+                case WEEK:
+                    return EpochDay.startOfWeek(epochDay);
+                case MONTH:
+                    return EpochDay.toMonthKey(epochDay);
+                default:
+                    return epochDay;
+            }
+        }
+    }
+    
+    private final Period period;
+    private final int key;
+    private final int activityCount;
+    private final long totalDuration;
+    private final int minDuration;
+    private final int maxDuration;
+    
+    /**
+     * Constructor
+     * 
+     * @param period Bucket size
+     * @param key Bucket key (see Period)
+     * @param activityCount Number of activities in the bucket
+     * @param totalDuration Sum of durations in minutes
+     * @param minDuration Shortest activity in minutes
+     * @param maxDuration Longest activity in minutes
+     */
+    public ActivityRollup(Period period, int key, int activityCount, long totalDuration,
+                          int minDuration, int maxDuration) {
+        this.period = period;
+        this.key = key;
+        this.activityCount = activityCount;
+        this.totalDuration = totalDuration;
+        this.minDuration = minDuration;
+        this.maxDuration = maxDuration;
+    }
+    
+    public Period getPeriod() {
+        return period;
+    }
+    
+    public int getKey() {
+        return key;
+    }
+    
+    public int getActivityCount() {
+        return activityCount;
+    }
+    
+    public long getTotalDuration() {
+        return totalDuration;
+    }
+    
+    public int getMinDuration() {
+        return minDuration;
+    }
+    
+    public int getMaxDuration() {
+        return maxDuration;
+    }
+    
+    @Override
+    public String toString() {
+        return "ActivityRollup{" +
+                "period=" + period +
+                ", key=" + key +
+                ", activityCount=" + activityCount +
+                ", totalDuration=" + totalDuration +
+                ", minDuration=" + minDuration +
+                ", maxDuration=" + maxDuration +
+                '}';
+    }
+}
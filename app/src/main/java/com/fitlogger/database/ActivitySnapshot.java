@@ -0,0 +1,264 @@
+package com.fitlogger.database;
+
+/**
+ * Read-only, columnar copy of every activity, for analytics
+ * 
+ * Instead of one FitnessActivity object (plus a date String) per row, the
+ * snapshot keeps one primitive array per column, sorted by (epoch_day, id)
+ * ascending:
+ * - ids[i], durations[i], epochDays[i], typeIds[i] describe row i
+ * - type names are looked up once per type (getTypeName), not stored per row
+ * 
+ * A day range is therefore a contiguous slice of the arrays (found with a
+ * binary search), and the aggregation helpers are plain counted loops over
+ * int arrays that the JIT can unroll and vectorize.
+ * 
+ * Built by FitnessActivityDAO.getSnapshot() in one cursor pass and cached
+ * until the next write (see ActivitySnapshotCache). Never modify the arrays.
+ * FitnessActivityDAO.getActivitiesInRange() returns the same structure for
+ * one day range only (not cached).
+ * 
+ * Component Interaction:
+ * Analytics (streaks, weekly totals, ...) → ActivityRepository.getSnapshot() → FitnessActivityDAO.getSnapshot()
+ * → ActivitySnapshotCache (or one SQLite pass) → ActivitySnapshot.sumDuration() / ...
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public final class ActivitySnapshot {
+    
+    private final int size;
+    private final int[] ids;
+    private final int[] durations;
+    private final int[] epochDays;
+    private final int[] typeIds;
+    
+    // Name of each type, indexed by type id (null for unused ids)
+    private final String[] typeNames;
+    
+    /**
+     * Constructor - takes ownership of the arrays (all of the same length)
+     * 
+     * @param ids Activity IDs
+     * @param durations Durations in minutes
+     * @param epochDays Days since 1970-01-01, ascending
+     * @param typeIds activity_types.id of each row
+     * @param typeNames Type names indexed by type id
+     */
+    ActivitySnapshot(int[] ids, int[] durations, int[] epochDays, int[] typeIds, String[] typeNames) {
+        this.size = ids.length;
+        this.ids = ids;
+        this.durations = durations;
+        this.epochDays = epochDays;
+        this.typeIds = typeIds;
+        this.typeNames = typeNames;
+    }
+    
+    /**
+     * @return Number of activities
+     */
+    public int size() {
+        return size;
+    }
+    
+    public int getId(int index) {
+        return ids[index];
+    }
+    
+    public int getDuration(int index) {
+        return durations[index];
+    }
+    
+    public int getEpochDay(int index) {
+        return epochDays[index];
+    }
+    
+    public int getTypeId(int index) {
+        return typeIds[index];
+    }
+    
+    /**
+     * @param typeId activity_types.id
+     * @return Name of the type, or null if no activity in the snapshot has it
+     */
+    public String getTypeName(int typeId) {
+        return typeId >= 0 && typeId < typeNames.length ? typeNames[typeId] : null;
+    }
+    
+    /**
+     * @return One past the largest type id (length for arrays indexed by type id)
+     */
+    public int getTypeIdLimit() {
+        return typeNames.length;
+    }
+    
+    /**
+     * @return Earliest day with an activity, or -1 if the snapshot is empty
+     */
+    public int getFirstDay() {
+        return size == 0 ? -1 : epochDays[0];
+    }
+    
+    /**
+     * @return Latest day with an activity, or -1 if the snapshot is empty
+     */
+    public int getLastDay() {
+        return size == 0 ? -1 : epochDays[size - 1];
+    }
+    
+    /**
+     * Index of the first row on or after a day
+     * 
+     * @param epochDay Day to look for
+     * @return First index whose epoch day is >= epochDay (size() if none)
+     */
+    public int indexOfDay(int epochDay) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDays[mid] < epochDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    /**
+     * @param fromDay First day, inclusive
+     * @param toDay Last day, inclusive
+     * @return Number of activities in the range
+     */
+    public int count(int fromDay, int toDay) {
+        return fromDay > toDay ? 0 : indexOfDay(toDay + 1) - indexOfDay(fromDay);
+    }
+    
+    /**
+     * @param fromDay First day, inclusive
+     * @param toDay Last day, inclusive
+     * @return Total duration of the activities in the range (minutes)
+     */
+    public long sumDuration(int fromDay, int toDay) {
+        if (fromDay > toDay) {
+            return 0;
+        }
+        int end = indexOfDay(toDay + 1);
+        long sum = 0;
+        for (int i = indexOfDay(fromDay); i < end; i++) {
+            sum += durations[i];
+        }
+        return sum;
+    }
+    
+    /**
+     * @param fromDay First day, inclusive
+     * @param toDay Last day, inclusive
+     * @return Shortest duration in the range, or 0 if the range is empty
+     */
+    public int minDuration(int fromDay, int toDay) {
+        if (fromDay > toDay) {
+            return 0;
+        }
+        int start = indexOfDay(fromDay);
+        int end = indexOfDay(toDay + 1);
+        if (start == end) {
+            return 0;
+        }
+        int min = Integer.MAX_VALUE;
+        for (int i = start; i < end; i++) {
+            min = Math.min(min, durations[i]);
+        }
+        return min;
+    }
+    
+    /**
+     * @param fromDay First day, inclusive
+     * @param toDay Last day, inclusive
+     * @return Longest duration in the range, or 0 if the range is empty
+     */
+    public int maxDuration(int fromDay, int toDay) {
+        if (fromDay > toDay) {
+            return 0;
+        }
+        int end = indexOfDay(toDay + 1);
+        int max = 0;
+        for (int i = indexOfDay(fromDay); i < end; i++) {
+            max = Math.max(max, durations[i]);
+        }
+        return max;
+    }
+    
+    /**
+     * Total duration per day (a histogram with one bucket per day)
+     * 
+     * @param fromDay First day, inclusive
+     * @param toDay Last day, inclusive
+     * @return Array of toDay - fromDay + 1 totals; element d is day fromDay + d
+     */
+    public long[] dailyDurations(int fromDay, int toDay) {
+        return bucketDurations(fromDay, toDay, 1);
+    }
+    
+    /**
+     * Total duration per fixed-size bucket of days (e.g. 7 for weeks starting on fromDay)
+     * 
+     * @param fromDay First day, inclusive (start of bucket 0)
+     * @param toDay Last day, inclusive
+     * @param daysPerBucket Bucket width in days
+     * @return One total per bucket; element b covers days fromDay + b * daysPerBucket onwards
+     */
+    public long[] bucketDurations(int fromDay, int toDay, int daysPerBucket) {
+        if (daysPerBucket <= 0) {
+            throw new IllegalArgumentException("daysPerBucket must be positive: " + daysPerBucket);
+        }
+        if (fromDay > toDay) {
+            return new long[0];
+        }
+        long[] buckets = new long[(toDay - fromDay) / daysPerBucket + 1];
+        int end = indexOfDay(toDay + 1);
+        for (int i = indexOfDay(fromDay); i < end; i++) {
+            buckets[(epochDays[i] - fromDay) / daysPerBucket] += durations[i];
+        }
+        return buckets;
+    }
+    
+    /**
+     * Number of activities per type in a day range
+     * 
+     * @param fromDay First day, inclusive
+     * @param toDay Last day, inclusive
+     * @return Counts indexed by type id (length getTypeIdLimit())
+     */
+    public int[] countByType(int fromDay, int toDay) {
+        int[] counts = new int[typeNames.length];
+        if (fromDay > toDay) {
+            return counts;
+        }
+        int end = indexOfDay(toDay + 1);
+        for (int i = indexOfDay(fromDay); i < end; i++) {
+            counts[typeIds[i]]++;
+        }
+        return counts;
+    }
+    
+    /**
+     * Approximate heap size of the snapshot
+     * 
+     * @return Bytes held by the four column arrays and the name table (names not counted)
+     */
+    public long getEstimatedBytes() {
+        return 16L * size + 4L * typeNames.length;
+    }
+    
+    @Override
+    public String toString() {
+        return "ActivitySnapshot{" +
+                "size=" + size +
+                ", firstDay=" + getFirstDay() +
+                ", lastDay=" + getLastDay() +
+                ", types=" + typeNames.length +
+                '}';
+    }
+}
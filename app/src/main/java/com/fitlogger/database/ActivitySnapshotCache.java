@@ -0,0 +1,56 @@
+package com.fitlogger.database;
+
+/**
+ * Holds the current ActivitySnapshot until the next write
+ * 
+ * Same write-stamp protocol as ActivityCache: a reader takes writeStamp()
+ * before building a snapshot and stores it with putIfUnchanged(); every DAO
+ * write calls invalidate() AFTER its transaction committed, so a snapshot
+ * that may have missed the write is never stored.
+ * 
+ * Thread-safe: all methods are synchronized (readers and the writer thread share it).
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public class ActivitySnapshotCache {
+    
+    private ActivitySnapshot snapshot;
+    
+    // Incremented by every invalidate()
+    private long writeStamp;
+    
+    /**
+     * @return The cached snapshot, or null if none is current
+     */
+    public synchronized ActivitySnapshot get() {
+        return snapshot;
+    }
+    
+    /**
+     * @return Current write stamp (take it BEFORE reading the rows from the database)
+     */
+    public synchronized long writeStamp() {
+        return writeStamp;
+    }
+    
+    /**
+     * Store a snapshot, unless a write happened since the stamp was taken
+     * 
+     * @param snapshot Snapshot read from the database
+     * @param stamp Value of writeStamp() taken before the read
+     */
+    public synchronized void putIfUnchanged(ActivitySnapshot snapshot, long stamp) {
+        if (stamp == writeStamp) {
+            this.snapshot = snapshot;
+        }
+    }
+    
+    /**
+     * Drop the snapshot (call after every committed write to fitness_activities)
+     */
+    public synchronized void invalidate() {
+        writeStamp++;
+        snapshot = null;
+    }
+}
@@ -0,0 +1,252 @@
+package com.fitlogger.database;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Model class for the streak, personal-record and rolling-total statistics
+ * 
+ * Normally read from the trigger-maintained tables (activity_streaks,
+ * activity_type_records, activity_rollup_daily) by
+ * FitnessActivityDAO.getStats(), which costs a few index lookups no matter
+ * how long the history is. compute() derives the same values from scratch
+ * out of an ActivitySnapshot; equals() compares the two results.
+ * 
+ * Definitions:
+ * - A streak is a run of consecutive days that each have an activity
+ * - The current streak is the run that contains today or ended yesterday
+ *   (today still counts as "not missed yet"), counted up to today
+ * - The longest streak is the longest run ever (ties: the most recent)
+ * - The rolling totals cover the last 7 / 30 days including today
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public class ActivityStats {
+    
+    /**
+     * Day value of a streak that does not exist
+     */
+    public static final int NO_DAY = -1;
+    
+    private final int today;
+    private final int currentStreak;
+    private final int currentStreakStart;
+    private final int longestStreak;
+    private final int longestStreakStart;
+    private final int last7DaysCount;
+    private final long last7DaysDuration;
+    private final int last30DaysCount;
+    private final long last30DaysDuration;
+    private final List<PersonalRecord> records;
+    
+    /**
+     * Constructor
+     * 
+     * @param today Epoch day the statistics were computed for
+     * @param currentStreak Length of the current streak in days (0 if none)
+     * @param currentStreakStart First day of the current streak, or NO_DAY
+     * @param longestStreak Length of the longest streak in days (0 if none)
+     * @param longestStreakStart First day of the longest streak, or NO_DAY
+     * @param last7DaysCount Activities in the last 7 days
+     * @param last7DaysDuration Minutes in the last 7 days
+     * @param last30DaysCount Activities in the last 30 days
+     * @param last30DaysDuration Minutes in the last 30 days
+     * @param records Personal record of every type, in type id order
+     */
+    public ActivityStats(int today, int currentStreak, int currentStreakStart,
+                         int longestStreak, int longestStreakStart,
+                         int last7DaysCount, long last7DaysDuration,
+                         int last30DaysCount, long last30DaysDuration,
+                         List<PersonalRecord> records) {
+        this.today = today;
+        this.currentStreak = currentStreak;
+        this.currentStreakStart = currentStreakStart;
+        this.longestStreak = longestStreak;
+        this.longestStreakStart = longestStreakStart;
+        this.last7DaysCount = last7DaysCount;
+        this.last7DaysDuration = last7DaysDuration;
+        this.last30DaysCount = last30DaysCount;
+        this.last30DaysDuration = last30DaysDuration;
+        this.records = Collections.unmodifiableList(records);
+    }
+    
+    /**
+     * FULL RECOMPUTE - Derive every statistic from a snapshot of all activities
+     * Linear in the number of activities; used to verify the incremental tables
+     * 
+     * @param snapshot Snapshot of all activities
+     * @param today Epoch day to compute the current streak and rolling totals for
+     * @return Statistics equal to FitnessActivityDAO.getStats(today) for the same data
+     */
+    public static ActivityStats compute(ActivitySnapshot snapshot, int today) {
+        int size = snapshot.size();
+        
+        // Streaks: the snapshot is in day order, so runs are contiguous
+        int currentStreak = 0;
+        int currentStart = NO_DAY;
+        int longestStreak = 0;
+        int longestStart = NO_DAY;
+        int i = 0;
+        while (i < size) {
+            int start = snapshot.getEpochDay(i);
+            int end = start;
+            while (i < size && snapshot.getEpochDay(i) <= end + 1) {
+                end = snapshot.getEpochDay(i);
+                i++;
+            }
+            int length = end - start + 1;
+            if (length >= longestStreak) {
+                longestStreak = length;
+                longestStart = start;
+            }
+            if (start <= today && end >= today - 1) {
+                currentStreak = Math.min(end, today) - start + 1;
+                currentStart = start;
+            }
+        }
+        
+        // Records: longest activity per type, ties to the smallest id
+        int typeLimit = snapshot.getTypeIdLimit();
+        int[] bestIndex = new int[typeLimit];
+        Arrays.fill(bestIndex, -1);
+        for (int row = 0; row < size; row++) {
+            int typeId = snapshot.getTypeId(row);
+            int best = bestIndex[typeId];
+            if (best < 0
+                    || snapshot.getDuration(row) > snapshot.getDuration(best)
+                    || (snapshot.getDuration(row) == snapshot.getDuration(best)
+                        && snapshot.getId(row) < snapshot.getId(best))) {
+                bestIndex[typeId] = row;
+            }
+        }
+        List<PersonalRecord> records = new ArrayList<>();
+        for (int typeId = 0; typeId < typeLimit; typeId++) {
+            int row = bestIndex[typeId];
+            if (row >= 0) {
+                records.add(new PersonalRecord(typeId, snapshot.getTypeName(typeId),
+                        snapshot.getDuration(row), snapshot.getId(row), snapshot.getEpochDay(row)));
+            }
+        }
+        
+        return new ActivityStats(today, currentStreak, currentStart, longestStreak, longestStart,
+                snapshot.count(today - 6, today), snapshot.sumDuration(today - 6, today),
+                snapshot.count(today - 29, today), snapshot.sumDuration(today - 29, today),
+                records);
+    }
+    
+    public int getToday() {
+        return today;
+    }
+    
+    public int getCurrentStreak() {
+        return currentStreak;
+    }
+    
+    public int getCurrentStreakStart() {
+        return currentStreakStart;
+    }
+    
+    public int getLongestStreak() {
+        return longestStreak;
+    }
+    
+    public int getLongestStreakStart() {
+        return longestStreakStart;
+    }
+    
+    public int getLast7DaysCount() {
+        return last7DaysCount;
+    }
+    
+    public long getLast7DaysDuration() {
+        return last7DaysDuration;
+    }
+    
+    public int getLast30DaysCount() {
+        return last30DaysCount;
+    }
+    
+    public long getLast30DaysDuration() {
+        return last30DaysDuration;
+    }
+    
+    /**
+     * @return Personal record of every type that has activities, in type id order
+     */
+    public List<PersonalRecord> getRecords() {
+        return records;
+    }
+    
+    /**
+     * @return The longest record over all types, or null if there are no activities
+     */
+    public PersonalRecord getBestRecord() {
+        PersonalRecord best = null;
+        for (PersonalRecord record : records) {
+            if (best == null || record.getDuration() > best.getDuration()) {
+                best = record;
+            }
+        }
+        return best;
+    }
+    
+    /**
+     * Two results are equal when every statistic is equal
+     * (used to check the incremental tables against compute())
+     * 
+     * @param o Object to compare with
+     * @return true if o is an equal ActivityStats
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ActivityStats)) {
+            return false;
+        }
+        ActivityStats other = (ActivityStats) o;
+        return today == other.today &&
+                currentStreak == other.currentStreak &&
+                currentStreakStart == other.currentStreakStart &&
+                longestStreak == other.longestStreak &&
+                longestStreakStart == other.longestStreakStart &&
+                last7DaysCount == other.last7DaysCount &&
+                last7DaysDuration == other.last7DaysDuration &&
+                last30DaysCount == other.last30DaysCount &&
+                last30DaysDuration == other.last30DaysDuration &&
+                records.equals(other.records);
+    }
+    
+    /**
+     * @return Hash code consistent with equals()
+     */
+    @Override
+    public int hashCode() {
+        int result = today;
+        result = 31 * result + currentStreak;
+        result = 31 * result + longestStreak;
+        result = 31 * result + last30DaysCount;
+        result = 31 * result + records.hashCode();
+        return result;
+    }
+    
+    @Override
+    public String toString() {
+        return "ActivityStats{" +
+                "today=" + today +
+                ", currentStreak=" + currentStreak +
+                ", currentStreakStart=" + currentStreakStart +
+                ", longestStreak=" + longestStreak +
+                ", longestStreakStart=" + longestStreakStart +
+                ", last7DaysCount=" + last7DaysCount +
+                ", last7DaysDuration=" + last7DaysDuration +
+                ", last30DaysCount=" + last30DaysCount +
+                ", last30DaysDuration=" + last30DaysDuration +
+                ", records=" + records +
+                '}';
+    }
+}
@@ -0,0 +1,146 @@
+package com.fitlogger.database;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteTransactionListener;
+import android.util.SparseArray;
+import java.util.HashMap;
+
+/**
+ * In-memory copy of the activity_types dictionary (type id ↔ activity name)
+ * 
+ * fitness_activities stores an INTEGER type_id per row; this dictionary turns
+ * it back into the name without a JOIN, and hands out ONE shared String
+ * instance per type, so a list of thousands of "Running" rows holds a single
+ * "Running" String. The table is small (one row per distinct name), so it is
+ * loaded completely on first use.
+ * 
+ * Writes: idOf() adds unknown names to activity_types. Type rows are never
+ * updated or deleted, so cached entries stay valid - except when a transaction
+ * that created a type rolls back. Such transactions must be started with
+ * getTransactionListener(), which forgets the whole dictionary on rollback
+ * (it is reloaded on next use).
+ * 
+ * Thread-safe: all methods are synchronized (readers and the writer thread share it).
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public class ActivityTypeDictionary {
+    
+    private final HashMap<String, Integer> idsByName = new HashMap<>();
+    private final SparseArray<String> namesById = new SparseArray<>();
+    private boolean loaded;
+    
+    private final SQLiteTransactionListener transactionListener = new SQLiteTransactionListener() {
+        @Override
+        public void onBegin() {
+        }
+        
+        @Override
+        public void onCommit() {
+        }
+        
+        @Override
+        public void onRollback() {
+            clear();
+        }
+    };
+    
+    /**
+     * Get the shared name of a type
+     * 
+     * @param db Database to load the dictionary from if needed
+     * @param typeId activity_types.id
+     * @return The name (the same instance for every call), or null if the type does not exist
+     */
+    public synchronized String nameOf(SQLiteDatabase db, int typeId) {
+        String name = namesById.get(typeId);
+        if (name == null) {
+            load(db);
+            name = namesById.get(typeId);
+        }
+        return name;
+    }
+    
+    /**
+     * Get the id of a name, adding it to activity_types if it is new
+     * Call on the writer thread; inside a transaction, start the transaction
+     * with getTransactionListener()
+     * 
+     * @param db Writable database
+     * @param name Activity name (stored exactly as given)
+     * @return activity_types.id of the name
+     */
+    public synchronized int idOf(SQLiteDatabase db, String name) {
+        Integer id = idsByName.get(name);
+        if (id == null && !loaded) {
+            load(db);
+            id = idsByName.get(name);
+        }
+        if (id != null) {
+            return id;
+        }
+        
+        db.execSQL("INSERT OR IGNORE INTO " + DatabaseHelper.TABLE_ACTIVITY_TYPES +
+                   " (" + DatabaseHelper.COLUMN_TYPE_NAME + ") VALUES (?)", new Object[]{name});
+        Cursor cursor = db.rawQuery("SELECT " + DatabaseHelper.COLUMN_ID +
+                                    " FROM " + DatabaseHelper.TABLE_ACTIVITY_TYPES +
+                                    " WHERE " + DatabaseHelper.COLUMN_TYPE_NAME + " = ?", new String[]{name});
+        try {
+            cursor.moveToFirst();
+            int newId = cursor.getInt(0);
+            add(newId, name);
+            return newId;
+        } finally {
+            cursor.close();
+        }
+    }
+    
+    /**
+     * @return Listener for transactions that may create types (forgets the dictionary on rollback)
+     */
+    public SQLiteTransactionListener getTransactionListener() {
+        return transactionListener;
+    }
+    
+    /**
+     * Forget every entry (the dictionary is reloaded on next use)
+     */
+    public synchronized void clear() {
+        idsByName.clear();
+        namesById.clear();
+        loaded = false;
+    }
+    
+    /**
+     * @return Number of types currently held in memory
+     */
+    public synchronized int size() {
+        return namesById.size();
+    }
+    
+    /**
+     * Read the whole activity_types table
+     */
+    private void load(SQLiteDatabase db) {
+        Cursor cursor = db.rawQuery("SELECT " + DatabaseHelper.COLUMN_ID + ", " + DatabaseHelper.COLUMN_TYPE_NAME +
+                                    " FROM " + DatabaseHelper.TABLE_ACTIVITY_TYPES, null);
+        try {
+            while (cursor.moveToNext()) {
+                int id = cursor.getInt(0);
+                if (namesById.get(id) == null) {
+                    add(id, cursor.getString(1));
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+        loaded = true;
+    }
+    
+    private void add(int id, String name) {
+        idsByName.put(name, id);
+        namesById.put(id, name);
+    }
+}
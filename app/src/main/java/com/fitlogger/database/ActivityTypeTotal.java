@@ -0,0 +1,59 @@
+package com.fitlogger.database;
+
+/**
+ * Model class for the totals of one activity type (all activities sharing a name)
+ * 
+ * Computed with an integer GROUP BY type_id over fitness_activities; the
+ * name comes from ActivityTypeDictionary (shared instance, no JOIN).
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public class ActivityTypeTotal {
+    
+    private final int typeId;
+    private final String activityName;
+    private final int activityCount;
+    private final long totalDuration;
+    
+    /**
+     * Constructor
+     * 
+     * @param typeId activity_types.id
+     * @param activityName Name of the type
+     * @param activityCount Number of activities of this type
+     * @param totalDuration Sum of their durations in minutes
+     */
+    public ActivityTypeTotal(int typeId, String activityName, int activityCount, long totalDuration) {
+        this.typeId = typeId;
+        this.activityName = activityName;
+        this.activityCount = activityCount;
+        this.totalDuration = totalDuration;
+    }
+    
+    public int getTypeId() {
+        return typeId;
+    }
+    
+    public String getActivityName() {
+        return activityName;
+    }
+    
+    public int getActivityCount() {
+        return activityCount;
+    }
+    
+    public long getTotalDuration() {
+        return totalDuration;
+    }
+    
+    @Override
+    public String toString() {
+        return "ActivityTypeTotal{" +
+                "typeId=" + typeId +
+                ", activityName='" + activityName + '\'' +
+                ", activityCount=" + activityCount +
+                ", totalDuration=" + totalDuration +
+                '}';
+    }
+}
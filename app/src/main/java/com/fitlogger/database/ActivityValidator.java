@@ -0,0 +1,72 @@
+package com.fitlogger.database;
+
+/**
+ * Validation rules for a fitness activity, shared by every write path
+ * (AddActivityActivity's form and the file importer), so the same input is
+ * accepted or rejected everywhere
+ * 
+ * Each check returns null when the value is valid, or a user-readable error message.
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public final class ActivityValidator {
+    
+    // Duration limits in minutes
+    public static final int MIN_DURATION = 1;
+    public static final int MAX_DURATION = 1440; // 24 hours = 1440 minutes
+    
+    private ActivityValidator() {
+        // Utility class
+    }
+    
+    /**
+     * @param activityName Activity name (already trimmed)
+     * @return null if valid, otherwise the error message
+     */
+    public static String checkName(String activityName) {
+        if (activityName == null || activityName.isEmpty()) {
+            return "Activity name is required";
+        }
+        return null;
+    }
+    
+    /**
+     * @param durationText Duration in minutes as entered (already trimmed)
+     * @return null if valid, otherwise the error message
+     */
+    public static String checkDuration(String durationText) {
+        if (durationText == null || durationText.isEmpty()) {
+            return "Duration is required";
+        }
+        int duration;
+        try {
+            duration = Integer.parseInt(durationText);
+        } catch (NumberFormatException e) {
+            return "Please enter a valid number";
+        }
+        if (duration < MIN_DURATION) {
+            return "Duration must be greater than 0";
+        }
+        if (duration > MAX_DURATION) {
+            return "Duration cannot exceed 24 hours (1440 minutes)";
+        }
+        return null;
+    }
+    
+    /**
+     * @param date Date of the activity
+     * @return null if valid, otherwise the error message
+     */
+    public static String checkDate(String date) {
+        try {
+            // Round-trip rejects impossible days such as 2024-02-30
+            if (date != null && EpochDay.toDate(EpochDay.fromDate(date)).equals(date)) {
+                return null;
+            }
+        } catch (IllegalArgumentException e) {
+            // Not YYYY-MM-DD
+        }
+        return "Date must be a valid YYYY-MM-DD date";
+    }
+}
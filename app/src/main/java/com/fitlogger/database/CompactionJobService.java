@@ -0,0 +1,71 @@
+package com.fitlogger.database;
+
+import android.app.job.JobInfo;
+import android.app.job.JobParameters;
+import android.app.job.JobScheduler;
+import android.app.job.JobService;
+import android.content.ComponentName;
+import android.content.Context;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+
+/**
+ * Runs ActivityCompactor while the device is idle
+ * 
+ * Scheduled by ActivityRepository whenever activities are deleted (scheduling
+ * again only replaces the pending job). The system starts it once the device
+ * is idle and stops it as soon as it is not: the current batch completes,
+ * the run ends without vacuuming and the job is retried at the next idle
+ * window.
+ * 
+ * Component Interaction:
+ * ActivityRepository (DELETED / CLEARED change) → schedule() → JobScheduler
+ * → onStartJob() → ActivityRepository.compact() → ActivityCompactor
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public class CompactionJobService extends JobService {
+    
+    private static final int JOB_ID = 1;
+    
+    /**
+     * Schedule a compaction for the next time the device is idle
+     * 
+     * @param context Any context
+     */
+    public static void schedule(Context context) {
+        JobScheduler scheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.schedule(new JobInfo.Builder(JOB_ID,
+                new ComponentName(context, CompactionJobService.class))
+                .setRequiresDeviceIdle(true)
+                .build());
+    }
+    
+    @Override
+    public boolean onStartJob(JobParameters params) {
+        LiveData<CompactionReport> result = ActivityRepository.getInstance(this).compact();
+        result.observeForever(new Observer<CompactionReport>() {
+            @Override
+            public void onChanged(CompactionReport report) {
+                result.removeObserver(this);
+                if (report == null) {
+                    jobFinished(params, true); // failed or not queued: retry later
+                } else if (!report.isCancelled()) {
+                    // A cancelled run has tombstones left: onStopJob() already asked for a retry
+                    jobFinished(params, false);
+                }
+            }
+        });
+        return true; // the run continues on the writer thread
+    }
+    
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        ActivityRepository.getInstance(this).cancelCompaction();
+        return true; // retry at the next idle window
+    }
+}
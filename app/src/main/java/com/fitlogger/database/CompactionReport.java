@@ -0,0 +1,81 @@
+package com.fitlogger.database;
+
+/**
+ * Result of one ActivityCompactor run: what was purged, how much space came
+ * back and how long it took
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public class CompactionReport {
+    
+    private final int rowsPurged;
+    private final long bytesBefore;
+    private final long bytesAfter;
+    private final long durationMillis;
+    private final boolean fullVacuum;
+    private final boolean cancelled;
+    
+    /**
+     * Constructor
+     * 
+     * @param rowsPurged Tombstones removed from fitness_activities
+     * @param bytesBefore Database file size before the run
+     * @param bytesAfter Database file size after the run
+     * @param durationMillis Time spent in the run (batches and vacuum)
+     * @param fullVacuum true if the file was rebuilt with VACUUM (auto_vacuum conversion)
+     * @param cancelled true if the run stopped early (device no longer idle)
+     */
+    public CompactionReport(int rowsPurged, long bytesBefore, long bytesAfter,
+                            long durationMillis, boolean fullVacuum, boolean cancelled) {
+        this.rowsPurged = rowsPurged;
+        this.bytesBefore = bytesBefore;
+        this.bytesAfter = bytesAfter;
+        this.durationMillis = durationMillis;
+        this.fullVacuum = fullVacuum;
+        this.cancelled = cancelled;
+    }
+    
+    public int getRowsPurged() {
+        return rowsPurged;
+    }
+    
+    public long getBytesBefore() {
+        return bytesBefore;
+    }
+    
+    public long getBytesAfter() {
+        return bytesAfter;
+    }
+    
+    /**
+     * @return Bytes returned to the file system (0 if the file did not shrink)
+     */
+    public long getReclaimedBytes() {
+        return Math.max(0, bytesBefore - bytesAfter);
+    }
+    
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+    
+    public boolean isFullVacuum() {
+        return fullVacuum;
+    }
+    
+    public boolean isCancelled() {
+        return cancelled;
+    }
+    
+    @Override
+    public String toString() {
+        return "CompactionReport{" +
+                "rowsPurged=" + rowsPurged +
+                ", reclaimed=" + getReclaimedBytes() + " B" +
+                " (" + bytesBefore + " -> " + bytesAfter + ")" +
+                ", duration=" + durationMillis + " ms" +
+                (fullVacuum ? ", full vacuum" : "") +
+                (cancelled ? ", cancelled" : "") +
+                '}';
+    }
+}
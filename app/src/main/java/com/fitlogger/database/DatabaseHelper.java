@@ -1,8 +1,16 @@
 package com.fitlogger.database;
 
+import android.content.ContentValues;
 import android.content.Context;
+import android.content.SharedPreferences;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDoneException;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+import com.fitlogger.database.migration.MigrationReport;
+import com.fitlogger.database.migration.MigrationRegistry;
 
 /**
  * DatabaseHelper class manages SQLite database creation and version management
@@ -10,37 +18,210 @@ import android.database.sqlite.SQLiteOpenHelper;
  * 
  * This class extends SQLiteOpenHelper to handle database creation and upgrades
  * 
+ * Connection lifecycle:
+ * The helper owns ONE long-lived SQLiteDatabase handle for the whole process
+ * (app-scoped ownership). Callers obtain it through getDatabase() and must
+ * never close it - reopening the file on every call re-parses the schema and
+ * throws away the page cache. The handle runs in WAL mode so readers do not
+ * block the writer. Statements compiled on it are kept in a StatementPool
+ * and closed together with it (close()).
+ * 
+ * Schema versions:
+ * onCreate() creates the v1 baseline table and then runs the same migration
+ * chain as onUpgrade() (see database.migration), so fresh installs and
+ * upgraded installs always end up with an identical schema. Upgrades never
+ * drop user data; slow data rewrites continue in the background through
+ * runPendingBackfillBatch().
+ * 
  * @author RANA MUHAMMAD AWAIS
  * @email rana.16241.ac@iqra.edu.pk
  */
 public class DatabaseHelper extends SQLiteOpenHelper {
     
+    private static final String TAG = "DatabaseHelper";
+    
     // Database Information
     private static final String DATABASE_NAME = "FitLogger.db";
-    private static final int DATABASE_VERSION = 1;
+    private static final int DATABASE_VERSION = 9;
     
-    // Table Name
+    // Table Names
     public static final String TABLE_ACTIVITIES = "fitness_activities";
+    public static final String TABLE_ACTIVITY_TOTALS = "activity_totals";
+    public static final String TABLE_ROLLUP_DAILY = "activity_rollup_daily";
+    public static final String TABLE_ROLLUP_WEEKLY = "activity_rollup_weekly";
+    public static final String TABLE_ROLLUP_MONTHLY = "activity_rollup_monthly";
+    public static final String TABLE_IMPORT_CHECKPOINTS = "import_checkpoints";
+    public static final String TABLE_ACTIVITY_SEARCH = "activity_search"; // FTS4 over activities (v6 only)
+    public static final String TABLE_ACTIVITY_TYPES = "activity_types";
+    public static final String TABLE_ACTIVITY_TYPE_SEARCH = "activity_type_search"; // FTS4, docid = type id
+    public static final String TABLE_STREAKS = "activity_streaks";
+    public static final String TABLE_TYPE_RECORDS = "activity_type_records";
     
     // Column Names
     public static final String COLUMN_ID = "id";
-    public static final String COLUMN_ACTIVITY_NAME = "activity_name";
+    public static final String COLUMN_ACTIVITY_NAME = "activity_name"; // v1-v6; still the field name in import/export files
+    public static final String COLUMN_TYPE_ID = "type_id";             // activity_types.id (v7)
     public static final String COLUMN_DURATION = "duration";
     public static final String COLUMN_DATE = "date";
+    public static final String COLUMN_EPOCH_DAY = "epoch_day";
+    // epoch_day computed from the date column (julianday('1970-01-01') = 2440587.5);
+    // NULL for an unparseable date
+    public static final String EXPRESSION_EPOCH_DAY_OF_DATE =
+            "CAST(julianday(" + COLUMN_DATE + ") - 2440587.5 AS INTEGER)";
+    public static final String COLUMN_DELETED = "deleted";             // tombstone flag (v9), see DELETED_*
+    
+    // fitness_activities.deleted values: rows with a non-zero value are tombstones
+    // that every query skips and ActivityCompactor purges later
+    public static final int DELETED_NONE = 0;
+    public static final int DELETED_ROW = 1;     // deleted one by one; the triggers updated the summaries
+    public static final int DELETED_CLEARED = 2; // "clear all"; the summaries were reset wholesale
+    
+    // Selection matching the rows that are not deleted
+    public static final String SELECTION_LIVE = COLUMN_DELETED + " = " + DELETED_NONE;
+    
+    // activity_totals Column Names (single row, id = 1)
+    public static final String COLUMN_ACTIVITY_COUNT = "activity_count";
+    public static final String COLUMN_TOTAL_DURATION = "total_duration";
+    
+    // Rollup Column Names (plus activity_count / total_duration above)
+    public static final String COLUMN_WEEK_START = "week_start"; // epoch day of the week's Monday
+    public static final String COLUMN_MONTH = "month";           // yyyymm
+    public static final String COLUMN_MIN_DURATION = "min_duration";
+    public static final String COLUMN_MAX_DURATION = "max_duration";
+    
+    // activity_types Column Names (plus id)
+    public static final String COLUMN_TYPE_NAME = "name";
+    
+    // activity_streaks Column Names (one row per run of consecutive active days)
+    public static final String COLUMN_START_DAY = "start_day";   // epoch day, first day of the run
+    public static final String COLUMN_END_DAY = "end_day";       // epoch day, last day of the run
+    
+    // activity_type_records Column Names (one row per type, plus type_id / epoch_day)
+    public static final String COLUMN_BEST_DURATION = "best_duration";
+    public static final String COLUMN_ACTIVITY_ID = "activity_id"; // fitness_activities.id of the record
+    
+    // import_checkpoints Column Names (one row per imported file)
+    public static final String COLUMN_SOURCE = "source";
+    public static final String COLUMN_RECORDS_DONE = "records_done";     // input records consumed
+    public static final String COLUMN_ROWS_IMPORTED = "rows_imported";
+    public static final String COLUMN_ROWS_REJECTED = "rows_rejected";
+    public static final String COLUMN_COMPLETE = "complete";             // 1 once the whole file is in
+    public static final String COLUMN_UPDATED_AT = "updated_at";         // System.currentTimeMillis()
+    
+    // Index Names
+    public static final String INDEX_ACTIVITIES_EPOCH_DAY = "idx_activities_epoch_day";
+    public static final String INDEX_ACTIVITIES_TYPE = "idx_activities_type";
+    public static final String INDEX_ACTIVITIES_TYPE_DURATION = "idx_activities_type_duration";
+    public static final String INDEX_STREAKS_END_DAY = "idx_streaks_end_day";
+    public static final String INDEX_ACTIVITIES_TOMBSTONES = "idx_activities_tombstones";
+    
+    // View Names
+    public static final String VIEW_COUNTED_ACTIVITIES = "counted_activities"; // rows the summaries count
+    
+    // Migration step whose backfill fills epoch_day from date (v1 → v2)
+    private static final int EPOCH_DAY_MIGRATION_FROM_VERSION = 1;
+    
+    // Migration step whose backfill (re)builds the rollup tables (v3 → v4)
+    private static final int ROLLUP_MIGRATION_FROM_VERSION = 3;
+    
+    // Migration step whose backfill (re)builds streaks and personal records (v7 → v8)
+    private static final int STATS_MIGRATION_FROM_VERSION = 7;
+    
+    // Row cache limits (entry limit is user-adjustable in Settings)
+    public static final int DEFAULT_CACHE_ENTRIES = 500;
+    private static final long CACHE_MAX_BYTES = 1024 * 1024; // 1 MB
+    private static final String PREFS_NAME = "fitlogger_settings";
+    private static final String PREF_CACHE_ENTRIES = "activity_cache_entries";
+    
+    // Connection tuning (applied in onConfigure)
+    private static final int PAGE_CACHE_SIZE_KB = 2048; // 2 MB page cache
+    static final int AUTO_VACUUM_INCREMENTAL = 2;       // PRAGMA auto_vacuum value of INCREMENTAL
+    
+    // Summary row reads (pooled statements, see queryTotal)
+    private static final String SELECT_ACTIVITY_COUNT_SQL =
+            "SELECT " + COLUMN_ACTIVITY_COUNT + " FROM " + TABLE_ACTIVITY_TOTALS + " WHERE id = 1";
+    private static final String SELECT_TOTAL_DURATION_SQL =
+            "SELECT " + COLUMN_TOTAL_DURATION + " FROM " + TABLE_ACTIVITY_TOTALS + " WHERE id = 1";
     
     // Singleton instance
     private static DatabaseHelper instance;
     
+    // Long-lived database handle shared by every DAO call
+    private SQLiteDatabase database;
+    
+    // App-scoped row cache shared by every DAO (write-through, see ActivityCache)
+    private final ActivityCache activityCache;
+    
+    // App-scoped type id ↔ name dictionary (see ActivityTypeDictionary)
+    private final ActivityTypeDictionary activityTypes = new ActivityTypeDictionary();
+    
+    // App-scoped columnar snapshot, dropped by every write (see ActivitySnapshot)
+    private final ActivitySnapshotCache activitySnapshots = new ActivitySnapshotCache();
+    
+    // App-scoped change notifications with a version number (see ActivityChangeBus)
+    private final ActivityChangeBus activityChanges = new ActivityChangeBus();
+    
+    // Compiled statements reused on the shared handle (see StatementPool)
+    private final StatementPool statementPool = new StatementPool();
+    
+    // Settings file, resolved together with the database (off the main thread)
+    private final Context context;
+    private SharedPreferences preferences;
+    
+    // Schema migration steps and the report of the last create/upgrade
+    private final MigrationRegistry migrations = MigrationRegistry.createDefault();
+    private MigrationReport lastMigrationReport;
+    
+    // True while the epoch_day backfill has rows left (read by list queries, see FitnessActivityDAO)
+    private volatile boolean epochDayBackfillPending;
+    
     /**
-     * SQL query to create the fitness_activities table
+     * SQL query to create the v1 (baseline) fitness_activities table
+     * Later columns and indexes are added by the migration steps
      * 
-     * Table Structure:
+     * Table Structure (current version):
      * - id: INTEGER PRIMARY KEY AUTOINCREMENT (unique identifier)
-     * - activity_name: TEXT NOT NULL (name of the fitness activity)
+     * - type_id: INTEGER NOT NULL (activity_types.id of the activity's name;
+     *   replaced the activity_name TEXT column in v7)
      * - duration: INTEGER NOT NULL (duration in minutes)
      * - date: TEXT NOT NULL (date in YYYY-MM-DD format)
+     * - epoch_day: INTEGER (days since 1970-01-01, same day as date; added in v2)
+     * - deleted: INTEGER NOT NULL DEFAULT 0 (tombstone flag, see DELETED_*;
+     *   deletes only set it and ActivityCompactor purges the rows later; v9)
+     * 
+     * Indexes:
+     * - idx_activities_epoch_day (epoch_day DESC, id DESC): list order, keyset
+     *   paging and date lookups, answered without a temp B-tree sort (v2)
+     * - idx_activities_type (type_id): per-type lookups and GROUP BYs (v7)
+     * - idx_activities_type_duration (type_id, duration DESC): best activity
+     *   of a type in one index seek (v8)
+     * - idx_activities_tombstones (id) WHERE deleted <> 0: partial index
+     *   listing only the rows waiting to be purged (v9)
+     * 
+     * Name dictionary (v7): activity_types (id, name UNIQUE), each distinct
+     * activity name stored once; names are resolved in memory through
+     * ActivityTypeDictionary
+     * 
+     * Summary table activity_totals (v3): one row holding activity_count and
+     * total_duration, kept exact by INSERT/UPDATE/DELETE triggers
+     * 
+     * Rollup tables (v4): activity_rollup_daily / _weekly / _monthly, one row
+     * per day, ISO week or month with count, total, min and max duration,
+     * kept current by triggers (see ActivityRollup)
+     * 
+     * Import checkpoints (v5): import_checkpoints, progress of every file
+     * import, committed together with the imported rows (see ActivityImporter)
+     * 
+     * Search index: activity_type_search (v7), an FTS4 external-content index
+     * over activity_types.name kept in sync by triggers (replaces the v6
+     * per-activity activity_search; see FitnessActivityDAO.searchActivityIds)
+     * 
+     * Streaks and personal records (v8): activity_streaks holds every run of
+     * consecutive days that have activities (maintained by triggers on
+     * activity_rollup_daily); activity_type_records holds the longest
+     * activity of each type (maintained by triggers on fitness_activities)
      */
-    private static final String CREATE_TABLE_ACTIVITIES = 
+    private static final String CREATE_TABLE_ACTIVITIES_V1 = 
             "CREATE TABLE " + TABLE_ACTIVITIES + " (" +
             COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
             COLUMN_ACTIVITY_NAME + " TEXT NOT NULL, " +
@@ -49,12 +230,21 @@ public class DatabaseHelper extends SQLiteOpenHelper {
             ")";
     
     /**
-     * Private constructor to prevent direct instantiation (Singleton pattern)
+     * Constructor; the app uses the singleton (getInstance()), tests create
+     * their own helpers
      * 
      * @param context Application context
      */
-    private DatabaseHelper(Context context) {
+    DatabaseHelper(Context context) {
         super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        
+        // Write-ahead logging: concurrent readers, cheaper commits
+        setWriteAheadLoggingEnabled(true);
+        
+        // Nothing is read from disk here: the settings file and the stored cache
+        // size are loaded when the database is opened (off the main thread)
+        this.context = context;
+        activityCache = new ActivityCache(DEFAULT_CACHE_ENTRIES, CACHE_MAX_BYTES);
     }
     
     /**
@@ -72,24 +262,161 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         return instance;
     }
     
+    /**
+     * Replace the singleton instance (tests that start screens, see TestDatabases)
+     * 
+     * @param databaseHelper New instance returned by getInstance()
+     */
+    static synchronized void setInstance(DatabaseHelper databaseHelper) {
+        instance = databaseHelper;
+    }
+    
+    /**
+     * Get the shared, long-lived database handle
+     * Opened once on first use and kept open for the lifetime of the process
+     * 
+     * IMPORTANT: Do NOT call close() on the returned handle
+     * 
+     * @return Writable SQLiteDatabase shared by all callers
+     */
+    public synchronized SQLiteDatabase getDatabase() {
+        if (database == null || !database.isOpen()) {
+            database = getWritableDatabase();
+            epochDayBackfillPending = migrations.isBackfillPending(database, EPOCH_DAY_MIGRATION_FROM_VERSION);
+            activityCache.resize(getPreferences().getInt(PREF_CACHE_ENTRIES, DEFAULT_CACHE_ENTRIES),
+                                 CACHE_MAX_BYTES);
+        }
+        return database;
+    }
+    
+    /**
+     * Get the app-scoped row cache
+     * 
+     * @return Cache shared by every FitnessActivityDAO
+     */
+    public ActivityCache getActivityCache() {
+        return activityCache;
+    }
+    
+    /**
+     * Get the app-scoped activity name dictionary
+     * 
+     * @return Dictionary shared by every FitnessActivityDAO
+     */
+    public ActivityTypeDictionary getActivityTypes() {
+        return activityTypes;
+    }
+    
+    /**
+     * Get the app-scoped analytics snapshot cache
+     * 
+     * @return Snapshot cache shared by every FitnessActivityDAO
+     */
+    public ActivitySnapshotCache getActivitySnapshots() {
+        return activitySnapshots;
+    }
+    
+    /**
+     * Get the app-scoped change bus
+     * 
+     * @return Bus every write to fitness_activities is published on
+     */
+    public ActivityChangeBus getActivityChanges() {
+        return activityChanges;
+    }
+    
+    /**
+     * Get the pool of compiled statements
+     * 
+     * @return Pool bound to the shared handle, closed by close()
+     */
+    public StatementPool getStatementPool() {
+        return statementPool;
+    }
+    
+    /**
+     * Close the shared handle and every pooled statement compiled on it
+     * Only for process teardown: the next getDatabase() reopens the file
+     */
+    @Override
+    public synchronized void close() {
+        statementPool.close();
+        super.close();
+        database = null;
+    }
+    
+    /**
+     * Change (and remember) the maximum number of cached rows
+     * 
+     * @param maxEntries New limit; 0 disables the cache
+     */
+    public void setActivityCacheSize(int maxEntries) {
+        getPreferences().edit().putInt(PREF_CACHE_ENTRIES, maxEntries).apply();
+        activityCache.resize(maxEntries, CACHE_MAX_BYTES);
+    }
+    
+    /**
+     * @return App settings, loaded on first use
+     */
+    private synchronized SharedPreferences getPreferences() {
+        if (preferences == null) {
+            preferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        }
+        return preferences;
+    }
+    
+    /**
+     * Called when the database connection is being configured,
+     * before onCreate / onUpgrade / onOpen
+     * 
+     * Tunes the connection for a small, write-light, read-heavy workload:
+     * - synchronous = NORMAL (safe with WAL, avoids an fsync per commit)
+     * - temp_store = MEMORY (sorts and temp indexes stay off flash)
+     * - cache_size = 2 MB (negative value means size in KiB)
+     * - auto_vacuum = INCREMENTAL: freed pages can be returned to the file
+     *   system on demand (PRAGMA incremental_vacuum, see ActivityCompactor).
+     *   The pragma alone only applies to a file without tables, and the
+     *   framework has already created android_metadata when onConfigure()
+     *   runs: a new database (user_version 0) is therefore rebuilt once with
+     *   VACUUM here, while it holds nothing but that table. Databases created
+     *   without it are converted by ActivityCompactor's first run (one full VACUUM)
+     * 
+     * Note: these pragmas are per-connection; they apply to the primary
+     * (writer) connection, WAL reader connections keep the framework defaults
+     * 
+     * @param db The database being configured
+     */
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        super.onConfigure(db);
+        db.execSQL("PRAGMA synchronous = NORMAL");
+        db.execSQL("PRAGMA temp_store = MEMORY");
+        db.execSQL("PRAGMA cache_size = -" + PAGE_CACHE_SIZE_KB);
+        db.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
+        if (db.getVersion() == 0
+                && DatabaseUtils.longForQuery(db, "PRAGMA auto_vacuum", null) != AUTO_VACUUM_INCREMENTAL) {
+            db.execSQL("VACUUM");
+        }
+    }
+    
     /**
      * Called when the database is created for the first time
-     * Creates the fitness_activities table
+     * Creates the baseline table and migrates it to the current version
      * 
      * @param db The database being created
      */
     @Override
     public void onCreate(SQLiteDatabase db) {
-        // Create the fitness_activities table
-        db.execSQL(CREATE_TABLE_ACTIVITIES);
+        db.execSQL(CREATE_TABLE_ACTIVITIES_V1);
+        lastMigrationReport = migrations.migrate(db, 1, DATABASE_VERSION);
     }
     
     /**
      * Called when the database needs to be upgraded
      * This happens when DATABASE_VERSION is increased
      * 
-     * Current implementation: Drop old table and create new one
-     * In production, you might want to migrate data instead
+     * Runs every migration step from oldVersion to newVersion in order
+     * (existing rows are always kept)
      * 
      * @param db The database being upgraded
      * @param oldVersion The old database version
@@ -97,16 +424,15 @@ public class DatabaseHelper extends SQLiteOpenHelper {
      */
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        // Drop older table if it exists
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_ACTIVITIES);
-        
-        // Create new table
-        onCreate(db);
+        lastMigrationReport = migrations.migrate(db, oldVersion, newVersion);
     }
     
     /**
      * Called when the database needs to be downgraded
-     * This happens when DATABASE_VERSION is decreased
+     * This happens when DATABASE_VERSION is decreased (e.g. an older build is installed)
+     * 
+     * The newer schema is kept as-is: older code only uses a subset of it, and
+     * since every migration step is idempotent, upgrading again later is safe.
      * 
      * @param db The database being downgraded
      * @param oldVersion The old database version
@@ -114,35 +440,150 @@ public class DatabaseHelper extends SQLiteOpenHelper {
      */
     @Override
     public void onDowngrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        // Same as upgrade - drop and recreate
-        onUpgrade(db, oldVersion, newVersion);
+        Log.w(TAG, "Downgrade " + oldVersion + " -> " + newVersion + ": keeping schema and data");
+    }
+    
+    /**
+     * Get the report of the schema create/upgrade that ran in this process
+     * 
+     * @return Step timings, or null if the database was already up to date
+     */
+    public MigrationReport getLastMigrationReport() {
+        getDatabase(); // make sure onCreate/onUpgrade has run
+        return lastMigrationReport;
+    }
+    
+    /**
+     * Run one batch of any unfinished migration backfill
+     * Call repeatedly from a background thread until it returns false
+     * 
+     * @return true if more backfill work may remain
+     */
+    public boolean runPendingBackfillBatch() {
+        SQLiteDatabase db = getDatabase();
+        boolean more = migrations.runBackfillBatch(db, MigrationRegistry.DEFAULT_BATCH_SIZE, lastMigrationReport);
+        if (epochDayBackfillPending) {
+            epochDayBackfillPending = migrations.isBackfillPending(db, EPOCH_DAY_MIGRATION_FROM_VERSION);
+        }
+        return more;
+    }
+    
+    /**
+     * Whether rows may still have a NULL epoch_day (the v1 → v2 backfill has
+     * not finished): queries that filter or sort by epoch_day must then take
+     * the day of those rows from the date column (EXPRESSION_EPOCH_DAY_OF_DATE)
+     * 
+     * @return true until the epoch_day backfill is complete
+     */
+    public boolean isEpochDayBackfillPending() {
+        getDatabase(); // make sure onCreate/onUpgrade has run
+        return epochDayBackfillPending;
+    }
+    
+    /**
+     * Recompute every rollup table, the streak runs and the personal records
+     * from fitness_activities
+     * Only schedules the work: the rebuild runs in batches through
+     * runPendingBackfillBatch() (rollups first, since streaks are derived from
+     * the daily rollup), and triggers keep new writes correct meanwhile
+     */
+    public void rebuildRollups() {
+        migrations.restartBackfill(getDatabase(), ROLLUP_MIGRATION_FROM_VERSION);
+        migrations.restartBackfill(getDatabase(), STATS_MIGRATION_FROM_VERSION);
     }
     
     /**
      * Delete all records from the fitness_activities table
      * Useful for testing or clearing all data
      * 
+     * Soft delete in ONE transaction: every live row is marked
+     * DELETED_CLEARED, which fires none of the per-row summary triggers, and
+     * the summary tables are emptied directly instead. The rows themselves
+     * are purged later by ActivityCompactor.
+     * 
      * @return Number of rows deleted
      */
     public int deleteAllActivities() {
-        SQLiteDatabase db = this.getWritableDatabase();
-        int rowsDeleted = db.delete(TABLE_ACTIVITIES, null, null);
-        db.close();
+        SQLiteDatabase db = getDatabase();
+        int rowsDeleted;
+        db.beginTransactionNonExclusive();
+        try {
+            ContentValues values = new ContentValues();
+            values.put(COLUMN_DELETED, DELETED_CLEARED);
+            rowsDeleted = db.update(TABLE_ACTIVITIES, values, SELECTION_LIVE, null);
+            resetSummaries(db);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        activityCache.clear();
+        activitySnapshots.invalidate();
+        activityChanges.publish(ActivityChange.Type.CLEARED);
         return rowsDeleted;
     }
     
+    /**
+     * Empty every trigger-maintained table (no live activities are left)
+     */
+    private static void resetSummaries(SQLiteDatabase db) {
+        db.execSQL("UPDATE " + TABLE_ACTIVITY_TOTALS + " SET " + COLUMN_ACTIVITY_COUNT + " = 0, " +
+                   COLUMN_TOTAL_DURATION + " = 0 WHERE id = 1");
+        // Streaks first: the daily rollup's delete trigger then has no run left to split
+        db.delete(TABLE_STREAKS, null, null);
+        db.delete(TABLE_ROLLUP_DAILY, null, null);
+        db.delete(TABLE_ROLLUP_WEEKLY, null, null);
+        db.delete(TABLE_ROLLUP_MONTHLY, null, null);
+        db.delete(TABLE_TYPE_RECORDS, null, null);
+    }
+    
     /**
      * Get the total count of activities in the database
+     * Reads the trigger-maintained activity_totals row: constant time,
+     * no matter how many activities are stored
      * 
      * @return Total number of activity records
      */
     public int getActivityCount() {
-        String countQuery = "SELECT * FROM " + TABLE_ACTIVITIES;
-        SQLiteDatabase db = this.getReadableDatabase();
-        android.database.Cursor cursor = db.rawQuery(countQuery, null);
-        int count = cursor.getCount();
-        cursor.close();
-        db.close();
-        return count;
+        SQLiteDatabase db = getDatabase();
+        try {
+            return (int) queryTotal(db, SELECT_ACTIVITY_COUNT_SQL);
+        } catch (SQLiteDoneException e) {
+            // No summary row (should not happen after migration): plain COUNT(*)
+            return (int) DatabaseUtils.queryNumEntries(db, TABLE_ACTIVITIES, SELECTION_LIVE);
+        }
+    }
+    
+    /**
+     * Get the total duration of all activities
+     * Reads the trigger-maintained activity_totals row (constant time)
+     * 
+     * @return Total duration in minutes
+     */
+    public int getTotalDuration() {
+        SQLiteDatabase db = getDatabase();
+        try {
+            return (int) queryTotal(db, SELECT_TOTAL_DURATION_SQL);
+        } catch (SQLiteDoneException e) {
+            return (int) DatabaseUtils.longForQuery(db,
+                    "SELECT IFNULL(SUM(" + COLUMN_DURATION + "), 0) FROM " + TABLE_ACTIVITIES +
+                    " WHERE " + SELECTION_LIVE, null);
+        }
+    }
+    
+    /**
+     * Run a single-value query on the summary row with a pooled statement
+     * 
+     * @param db Shared handle
+     * @param sql SELECT_ACTIVITY_COUNT_SQL or SELECT_TOTAL_DURATION_SQL
+     * @return Value of the first column
+     * @throws SQLiteDoneException if there is no summary row
+     */
+    private long queryTotal(SQLiteDatabase db, String sql) {
+        SQLiteStatement statement = statementPool.acquire(db, sql);
+        try {
+            return statement.simpleQueryForLong();
+        } finally {
+            statementPool.release(statement);
+        }
     }
 }
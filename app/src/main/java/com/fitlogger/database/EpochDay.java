@@ -0,0 +1,169 @@
+package com.fitlogger.database;
+
+import java.util.Calendar;
+
+/**
+ * Conversion between YYYY-MM-DD date strings and epoch days
+ * 
+ * An epoch day is the number of days since 1970-01-01 (which is day 0).
+ * Storing it as an INTEGER column lets SQLite index, sort and range-scan
+ * dates as plain numbers instead of comparing TEXT values.
+ * 
+ * Implemented with integer arithmetic only (proleptic Gregorian calendar),
+ * because java.time is not available on every supported API level.
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public final class EpochDay {
+    
+    // Days between 0000-03-01 and 1970-01-01
+    private static final int DAYS_0000_TO_1970 = 719468;
+    private static final int DAYS_PER_400_YEARS = 146097;
+    
+    private EpochDay() {
+        // Utility class
+    }
+    
+    /**
+     * Convert a YYYY-MM-DD date to its epoch day
+     * 
+     * @param date Date in YYYY-MM-DD format
+     * @return Days since 1970-01-01
+     * @throws IllegalArgumentException if the date is not in YYYY-MM-DD format
+     */
+    public static int fromDate(String date) {
+        if (date == null || date.length() != 10 || date.charAt(4) != '-' || date.charAt(7) != '-') {
+            throw new IllegalArgumentException("Expected YYYY-MM-DD: " + date);
+        }
+        int year = parseDigits(date, 0, 4);
+        int month = parseDigits(date, 5, 7);
+        int day = parseDigits(date, 8, 10);
+        if (month < 1 || month > 12 || day < 1 || day > 31) {
+            throw new IllegalArgumentException("Expected YYYY-MM-DD: " + date);
+        }
+        return fromYearMonthDay(year, month, day);
+    }
+    
+    /**
+     * Convert a calendar date to its epoch day
+     * 
+     * @param year Year (e.g. 2024)
+     * @param month Month of year, 1-12
+     * @param day Day of month, 1-31
+     * @return Days since 1970-01-01
+     */
+    public static int fromYearMonthDay(int year, int month, int day) {
+        // Shift the year so it starts in March (leap day becomes the last day)
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * DAYS_PER_400_YEARS + dayOfEra - DAYS_0000_TO_1970;
+    }
+    
+    /**
+     * @return Epoch day of today in the device's time zone
+     */
+    public static int today() {
+        Calendar calendar = Calendar.getInstance();
+        return fromYearMonthDay(calendar.get(Calendar.YEAR),
+                                calendar.get(Calendar.MONTH) + 1,
+                                calendar.get(Calendar.DAY_OF_MONTH));
+    }
+    
+    /**
+     * Start of the ISO week (Monday) containing an epoch day
+     * Used as the key of weekly statistics
+     * 
+     * @param epochDay Days since 1970-01-01
+     * @return Epoch day of that week's Monday
+     */
+    public static int startOfWeek(int epochDay) {
+        // 1970-01-01 was a Thursday, so Monday is 3 days before day 0
+        return epochDay - ((epochDay + 3) % 7 + 7) % 7;
+    }
+    
+    /**
+     * Month key (yyyymm, e.g. 202403) of an epoch day
+     * Used as the key of monthly statistics
+     * 
+     * @param epochDay Days since 1970-01-01
+     * @return Year * 100 + month
+     */
+    public static int toMonthKey(int epochDay) {
+        return toYearMonthDay(epochDay) / 100;
+    }
+    
+    /**
+     * First day of a month
+     * 
+     * @param monthKey Month key (yyyymm)
+     * @return Epoch day of the 1st of that month
+     */
+    public static int startOfMonth(int monthKey) {
+        return fromYearMonthDay(monthKey / 100, monthKey % 100, 1);
+    }
+    
+    /**
+     * Convert an epoch day back to a YYYY-MM-DD date
+     * 
+     * @param epochDay Days since 1970-01-01
+     * @return Date in YYYY-MM-DD format
+     */
+    public static String toDate(int epochDay) {
+        int ymd = toYearMonthDay(epochDay);
+        char[] chars = new char[10];
+        writeDigits(chars, 0, 4, ymd / 10000);
+        chars[4] = '-';
+        writeDigits(chars, 5, 2, ymd / 100 % 100);
+        chars[7] = '-';
+        writeDigits(chars, 8, 2, ymd % 100);
+        return new String(chars);
+    }
+    
+    /**
+     * Convert an epoch day to a packed calendar date
+     * 
+     * @param epochDay Days since 1970-01-01
+     * @return Year * 10000 + month * 100 + day (e.g. 20240315)
+     */
+    public static int toYearMonthDay(int epochDay) {
+        int z = epochDay + DAYS_0000_TO_1970;
+        int era = (z >= 0 ? z : z - DAYS_PER_400_YEARS + 1) / DAYS_PER_400_YEARS;
+        int dayOfEra = z - era * DAYS_PER_400_YEARS;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int mp = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 10000 + month * 100 + day;
+    }
+    
+    /**
+     * Parse the decimal digits date[start, end)
+     */
+    private static int parseDigits(String date, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = date.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("Expected YYYY-MM-DD: " + date);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+    
+    /**
+     * Write value as zero-padded decimal digits into chars[offset, offset + width)
+     */
+    private static void writeDigits(char[] chars, int offset, int width, int value) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
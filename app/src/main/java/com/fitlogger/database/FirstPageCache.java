@@ -0,0 +1,116 @@
+package com.fitlogger.database;
+
+import android.content.Context;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keeps the first screen of the activity list in a small file between runs
+ * 
+ * MainActivity saves the rows it shows when it stops; on the next cold start
+ * they are read back (a few KB, much faster than opening the database and
+ * running pending migrations) and displayed until the first real page
+ * arrives. The rows may be slightly out of date; the real page replaces them
+ * through the adapter's diff. Clearing all data deletes the file.
+ * 
+ * Format: version, row count, then id / name / duration / date per row
+ * (DataOutputStream). Written to a temp file and renamed, so a crash never
+ * leaves a half-written file; an unreadable file reads as "no rows".
+ * 
+ * Not thread-safe: call from the repository's background threads only
+ * (the cache directory is resolved there, never on the main thread).
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public class FirstPageCache {
+    
+    private static final String FILE_NAME = "first_page.bin";
+    private static final int FORMAT_VERSION = 1;
+    
+    private final Context context;
+    
+    /**
+     * Constructor
+     * 
+     * @param context Any context (the application context is kept)
+     */
+    public FirstPageCache(Context context) {
+        this.context = context.getApplicationContext();
+    }
+    
+    /**
+     * @return Saved rows in list order, or an empty list if there are none
+     */
+    public List<FitnessActivity> read() {
+        File file = getFile();
+        if (!file.exists()) {
+            return Collections.emptyList();
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                return Collections.emptyList();
+            }
+            int count = in.readInt();
+            List<FitnessActivity> rows = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int id = in.readInt();
+                String name = in.readUTF();
+                int duration = in.readInt();
+                String date = in.readUTF();
+                rows.add(new FitnessActivity(id, name, duration, date));
+            }
+            return rows;
+        } catch (IOException e) {
+            return Collections.emptyList();
+        }
+    }
+    
+    /**
+     * Replace the saved rows
+     * 
+     * @param rows Rows at the top of the list, in list order
+     */
+    public void write(List<FitnessActivity> rows) {
+        File file = getFile();
+        File temp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(rows.size());
+            for (FitnessActivity activity : rows) {
+                out.writeInt(activity.getId());
+                out.writeUTF(activity.getActivityName());
+                out.writeInt(activity.getDuration());
+                out.writeUTF(activity.getDate());
+            }
+        } catch (IOException e) {
+            temp.delete();
+            return;
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+        }
+    }
+    
+    /**
+     * Delete the saved rows
+     */
+    public void clear() {
+        getFile().delete();
+    }
+    
+    private File getFile() {
+        return new File(context.getCacheDir(), FILE_NAME);
+    }
+}
@@ -1,5 +1,7 @@
 package com.fitlogger.database;
 
+import java.util.Objects;
+
 /**
  * Model class representing a Fitness Activity
  * This class encapsulates all the data for a single fitness activity record
@@ -115,6 +117,40 @@ public class FitnessActivity {
         this.date = date;
     }
     
+    /**
+     * Two activities are equal when id, name, duration and date are all equal
+     * (used by the list diff to detect changed rows)
+     * 
+     * @param o Object to compare with
+     * @return true if o is an equal FitnessActivity
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FitnessActivity)) {
+            return false;
+        }
+        FitnessActivity other = (FitnessActivity) o;
+        return id == other.id &&
+                duration == other.duration &&
+                Objects.equals(activityName, other.activityName) &&
+                Objects.equals(date, other.date);
+    }
+    
+    /**
+     * @return Hash code consistent with equals()
+     */
+    @Override
+    public int hashCode() {
+        int result = id;
+        result = 31 * result + (activityName != null ? activityName.hashCode() : 0);
+        result = 31 * result + duration;
+        result = 31 * result + (date != null ? date.hashCode() : 0);
+        return result;
+    }
+    
     /**
      * String representation of the activity
      * Useful for debugging and logging
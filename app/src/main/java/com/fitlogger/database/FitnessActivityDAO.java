@@ -1,9 +1,15 @@
 package com.fitlogger.database;
 
-import android.content.ContentValues;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.util.SparseArray;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -20,8 +26,112 @@ import java.util.List;
  */
 public class FitnessActivityDAO {
     
+    /**
+     * Default number of rows committed per transaction by the bulk insert API
+     */
+    public static final int DEFAULT_BULK_CHUNK_SIZE = 500;
+    
+    // insertAll() expectedSize meaning "do not collect row IDs"
+    private static final int NO_IDS = -1;
+    
+    // Pooled statements (see StatementPool), re-bound for every row
+    private static final String INSERT_ACTIVITY_SQL =
+            "INSERT INTO " + DatabaseHelper.TABLE_ACTIVITIES + " (" +
+            DatabaseHelper.COLUMN_TYPE_ID + ", " +
+            DatabaseHelper.COLUMN_DURATION + ", " +
+            DatabaseHelper.COLUMN_DATE + ", " +
+            DatabaseHelper.COLUMN_EPOCH_DAY + ") VALUES (?, ?, ?, ?)";
+    
+    private static final String UPDATE_ACTIVITY_SQL =
+            "UPDATE " + DatabaseHelper.TABLE_ACTIVITIES + " SET " +
+            DatabaseHelper.COLUMN_TYPE_ID + " = ?, " +
+            DatabaseHelper.COLUMN_DURATION + " = ?, " +
+            DatabaseHelper.COLUMN_DATE + " = ?, " +
+            DatabaseHelper.COLUMN_EPOCH_DAY + " = ?" +
+            " WHERE " + DatabaseHelper.COLUMN_ID + " = ? AND " + DatabaseHelper.SELECTION_LIVE;
+    
+    // Soft delete (see MigrationV9SoftDelete)
+    private static final String DELETE_ACTIVITY_SQL =
+            "UPDATE " + DatabaseHelper.TABLE_ACTIVITIES +
+            " SET " + DatabaseHelper.COLUMN_DELETED + " = " + DatabaseHelper.DELETED_ROW +
+            " WHERE " + DatabaseHelper.COLUMN_ID + " = ? AND " + DatabaseHelper.SELECTION_LIVE;
+    
+    // Undo of a delete: flip the tombstone back...
+    private static final String REVIVE_ACTIVITY_SQL =
+            "UPDATE " + DatabaseHelper.TABLE_ACTIVITIES +
+            " SET " + DatabaseHelper.COLUMN_DELETED + " = " + DatabaseHelper.DELETED_NONE +
+            " WHERE " + DatabaseHelper.COLUMN_ID + " = ?" +
+            " AND " + DatabaseHelper.COLUMN_DELETED + " = " + DatabaseHelper.DELETED_ROW;
+    
+    // ...or, if the compactor purged it meanwhile, insert it again with its original ID
+    private static final String RESTORE_ACTIVITY_SQL =
+            "INSERT INTO " + DatabaseHelper.TABLE_ACTIVITIES + " (" +
+            DatabaseHelper.COLUMN_ID + ", " +
+            DatabaseHelper.COLUMN_TYPE_ID + ", " +
+            DatabaseHelper.COLUMN_DURATION + ", " +
+            DatabaseHelper.COLUMN_DATE + ", " +
+            DatabaseHelper.COLUMN_EPOCH_DAY + ") VALUES (?, ?, ?, ?, ?)";
+    
+    // Sort order shared by the list screen and the keyset queries
+    // (served by the (epoch_day DESC, id) index, no sort step; QueryPlanTest checks the plan)
+    static final String LIST_ORDER =
+            DatabaseHelper.COLUMN_EPOCH_DAY + " DESC, " + DatabaseHelper.COLUMN_ID + " DESC";
+    
+    // Rows that sort strictly after a key (epoch_day, id) in LIST_ORDER
+    // The leading "epoch_day <= ?" gives SQLite an explicit index range to seek
+    static final String KEYSET_AFTER =
+            "(" + DatabaseHelper.COLUMN_EPOCH_DAY + " <= ? AND (" +
+            DatabaseHelper.COLUMN_EPOCH_DAY + " < ? OR " + DatabaseHelper.COLUMN_ID + " < ?))";
+    
+    // Rows that sort at or before a key (epoch_day, id) in LIST_ORDER
+    private static final String KEYSET_THROUGH =
+            "(" + DatabaseHelper.COLUMN_EPOCH_DAY + " >= ? AND (" +
+            DatabaseHelper.COLUMN_EPOCH_DAY + " > ? OR " + DatabaseHelper.COLUMN_ID + " >= ?))";
+    
+    // Day of a row while the epoch_day backfill is unfinished (rows it has not
+    // reached yet have a NULL epoch_day); see withEpochDayFallback()
+    // The outer CAST gives the expression INTEGER affinity, so it compares with
+    // the String-bound keyset arguments as a number, like the column does
+    private static final String EPOCH_DAY_OR_DATE =
+            "CAST(COALESCE(" + DatabaseHelper.COLUMN_EPOCH_DAY + ", " +
+            DatabaseHelper.EXPRESSION_EPOCH_DAY_OF_DATE + ") AS INTEGER)";
+    
+    // Activity types whose name matches a full-text expression
+    private static final String TYPE_SEARCH_SQL =
+            "SELECT docid FROM " + DatabaseHelper.TABLE_ACTIVITY_TYPE_SEARCH +
+            " WHERE " + DatabaseHelper.TABLE_ACTIVITY_TYPE_SEARCH + " MATCH ?";
+    
+    // Same, minus the types matched by a second (leading-word) expression
+    private static final String TYPE_SEARCH_EXCLUDING_SQL = TYPE_SEARCH_SQL +
+            " AND docid NOT IN (" + TYPE_SEARCH_SQL + ")";
+    
+    // Above this many types, "type_id IN (...)" plus a sort replaces the per-type merge
+    // (SQLite allows at most 500 SELECTs in one compound query)
+    private static final int MAX_MERGED_TYPES = 200;
+    
+    // Bound parameters per "id IN (...)" query (SQLite allows 999)
+    private static final int MAX_IN_PARAMETERS = 500;
+    
+    // Rows that are not deleted (see MigrationV9SoftDelete)
+    private static final String LIVE = DatabaseHelper.SELECTION_LIVE;
+    
     private DatabaseHelper databaseHelper;
     
+    // Write-through row cache (shared through DatabaseHelper)
+    private final ActivityCache cache;
+    
+    // Type id ↔ shared name String (shared through DatabaseHelper)
+    private final ActivityTypeDictionary types;
+    
+    // Columnar snapshot for analytics, dropped by every write (shared through DatabaseHelper)
+    private final ActivitySnapshotCache snapshots;
+    
+    // Committed writes are published here (shared through DatabaseHelper)
+    private final ActivityChangeBus changes;
+    
+    // Compiled statements of the writes (shared through DatabaseHelper)
+    private final StatementPool statements;
+    
     /**
      * Constructor
      * 
@@ -29,6 +139,11 @@ public class FitnessActivityDAO {
      */
     public FitnessActivityDAO(DatabaseHelper databaseHelper) {
         this.databaseHelper = databaseHelper;
+        this.cache = databaseHelper.getActivityCache();
+        this.types = databaseHelper.getActivityTypes();
+        this.snapshots = databaseHelper.getActivitySnapshots();
+        this.changes = databaseHelper.getActivityChanges();
+        this.statements = databaseHelper.getStatementPool();
     }
     
     /**
@@ -41,22 +156,191 @@ public class FitnessActivityDAO {
      * @return Row ID of the newly inserted activity, or -1 if an error occurred
      */
     public long addActivity(FitnessActivity activity) {
-        // Get writable database instance
-        SQLiteDatabase db = databaseHelper.getWritableDatabase();
+        // Get the shared database handle
+        SQLiteDatabase db = databaseHelper.getDatabase();
         
-        // Create ContentValues object to store column values
-        ContentValues values = new ContentValues();
-        values.put(DatabaseHelper.COLUMN_ACTIVITY_NAME, activity.getActivityName());
-        values.put(DatabaseHelper.COLUMN_DURATION, activity.getDuration());
-        values.put(DatabaseHelper.COLUMN_DATE, activity.getDate());
+        // Insert the new row through the pooled statement and get the row ID
+        long id;
+        SQLiteStatement insert = statements.acquire(db, INSERT_ACTIVITY_SQL);
+        // idOf() may add an activity_types row: keep it only if the insert commits
+        db.beginTransactionWithListenerNonExclusive(types.getTransactionListener());
+        try {
+            bindActivity(db, insert, activity);
+            id = insert.executeInsert();
+            db.setTransactionSuccessful();
+        } catch (SQLException e) {
+            // Same contract as SQLiteDatabase.insert(): -1 on a constraint violation
+            id = -1;
+        } finally {
+            db.endTransaction();
+            statements.release(insert);
+        }
         
-        // Insert the new row and get the row ID
-        long id = db.insert(DatabaseHelper.TABLE_ACTIVITIES, null, values);
+        // Write-through: the new row is likely to be read back soon
+        if (id != -1) {
+            cache.put(new FitnessActivity((int) id, activity.getActivityName(),
+                                          activity.getDuration(), activity.getDate()));
+            snapshots.invalidate();
+            changes.publish(ActivityChange.Type.INSERTED, (int) id);
+        }
+        return id;
+    }
+    
+    /**
+     * ADD ACTIVITIES (BULK) - Insert many activities at once
+     * 
+     * Component Interaction:
+     * Import → FitnessActivityDAO.addActivities() → DatabaseHelper → SQLite
+     * 
+     * @param activities Activities to insert
+     * @return Row IDs of the inserted activities, in iteration order
+     */
+    public long[] addActivities(Collection<FitnessActivity> activities) {
+        return addActivities(activities, DEFAULT_BULK_CHUNK_SIZE);
+    }
+    
+    /**
+     * ADD ACTIVITIES (BULK) - Insert many activities, committing every chunkSize rows
+     * 
+     * @param activities Activities to insert
+     * @param chunkSize Number of rows per transaction (must be positive)
+     * @return Row IDs of the inserted activities, in iteration order
+     */
+    public long[] addActivities(Collection<FitnessActivity> activities, int chunkSize) {
+        return insertAll(activities.iterator(), chunkSize, activities.size(), null);
+    }
+    
+    /**
+     * ADD ACTIVITIES (STREAMING) - Insert activities produced by an iterator
+     * Rows are pulled one at a time, so the source never has to be in memory
+     * 
+     * @param activities Iterator over the activities to insert
+     * @return Row IDs of the inserted activities, in iteration order
+     */
+    public long[] addActivities(Iterator<FitnessActivity> activities) {
+        return addActivities(activities, DEFAULT_BULK_CHUNK_SIZE);
+    }
+    
+    /**
+     * ADD ACTIVITIES (STREAMING) - Insert activities produced by an iterator,
+     * committing every chunkSize rows
+     * 
+     * @param activities Iterator over the activities to insert
+     * @param chunkSize Number of rows per transaction (must be positive)
+     * @return Row IDs of the inserted activities, in iteration order
+     */
+    public long[] addActivities(Iterator<FitnessActivity> activities, int chunkSize) {
+        return insertAll(activities, chunkSize, chunkSize, null);
+    }
+    
+    /**
+     * ADD ACTIVITIES (IMPORT) - Insert activities produced by an iterator without
+     * collecting their IDs, letting the caller write its own bookkeeping (such as
+     * an import checkpoint) inside every chunk's transaction
+     * 
+     * Component Interaction:
+     * ActivityImporter → FitnessActivityDAO.addActivities() → SQLite
+     * 
+     * @param activities Iterator over the activities to insert
+     * @param chunkSize Number of rows per transaction (must be positive)
+     * @param listener Called inside each chunk's transaction, just before it commits
+     * @return Number of rows inserted
+     */
+    public int addActivities(Iterator<FitnessActivity> activities, int chunkSize, ChunkListener listener) {
+        int[] inserted = new int[1];
+        insertAll(activities, chunkSize, NO_IDS, (db, rowsInChunk) -> {
+            inserted[0] += rowsInChunk;
+            listener.onChunkInserted(db, rowsInChunk);
+        });
+        return inserted[0];
+    }
+    
+    /**
+     * Hook into the bulk insert transactions
+     */
+    public interface ChunkListener {
+        /**
+         * Called inside a chunk's transaction after its rows were inserted;
+         * anything written here commits or rolls back together with the chunk
+         * 
+         * @param db Database (inside the chunk's transaction)
+         * @param rowsInChunk Number of rows inserted by this chunk
+         */
+        void onChunkInserted(SQLiteDatabase db, int rowsInChunk);
+    }
+    
+    /**
+     * Insert every activity from the iterator through ONE compiled INSERT statement
+     * Each chunk runs in its own (non-exclusive) transaction, so a failure only
+     * rolls back the current chunk; earlier chunks stay committed
+     * Bulk rows are not added to the row cache (new IDs cannot be stale,
+     * and an import would only flush the rows that are actually in use)
+     * 
+     * @param activities Source of activities
+     * @param chunkSize Number of rows per transaction
+     * @param expectedSize Initial capacity of the ID array (grown when full),
+     *                     or NO_IDS to skip collecting IDs
+     * @param listener Called before each chunk commits (may be null)
+     * @return Row IDs of the inserted activities, trimmed to the inserted count
+     *         (null with NO_IDS)
+     * @throws android.database.SQLException if a row violates a constraint
+     *         (e.g. missing name or date); the current chunk is rolled back
+     */
+    private long[] insertAll(Iterator<FitnessActivity> activities, int chunkSize, int expectedSize,
+                             ChunkListener listener) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
         
-        // Close database connection
-        db.close();
+        SQLiteDatabase db = databaseHelper.getDatabase();
+        SQLiteStatement insert = statements.acquire(db, INSERT_ACTIVITY_SQL);
+        long[] ids = expectedSize != NO_IDS ? new long[Math.max(16, expectedSize)] : null;
+        int count = 0;
         
-        return id;
+        try {
+            while (activities.hasNext()) {
+                // New names may add activity_types rows: a rollback must also reset the dictionary
+                db.beginTransactionWithListenerNonExclusive(types.getTransactionListener());
+                int[] chunkIds = new int[Math.min(chunkSize, DEFAULT_BULK_CHUNK_SIZE)];
+                int inChunk = 0;
+                try {
+                    for (; inChunk < chunkSize && activities.hasNext(); inChunk++) {
+                        FitnessActivity activity = activities.next();
+                        
+                        insert.clearBindings();
+                        bindActivity(db, insert, activity);
+                        long id = insert.executeInsert();
+                        if (inChunk == chunkIds.length) {
+                            chunkIds = Arrays.copyOf(chunkIds, inChunk * 2);
+                        }
+                        chunkIds[inChunk] = (int) id;
+                        if (ids != null) {
+                            if (count == ids.length) {
+                                ids = Arrays.copyOf(ids, count * 2);
+                            }
+                            ids[count] = id;
+                        }
+                        count++;
+                    }
+                    if (listener != null) {
+                        listener.onChunkInserted(db, inChunk);
+                    }
+                    db.setTransactionSuccessful();
+                } finally {
+                    db.endTransaction();
+                    snapshots.invalidate();
+                }
+                // One change per committed chunk
+                changes.publish(ActivityChange.Type.INSERTED,
+                        inChunk == chunkIds.length ? chunkIds : Arrays.copyOf(chunkIds, inChunk));
+            }
+        } finally {
+            statements.release(insert);
+        }
+        if (ids == null) {
+            return null;
+        }
+        return count == ids.length ? ids : Arrays.copyOf(ids, count);
     }
     
     /**
@@ -69,40 +353,129 @@ public class FitnessActivityDAO {
      * @return List of all FitnessActivity objects, ordered by date (newest first)
      */
     public List<FitnessActivity> getAllActivities() {
-        List<FitnessActivity> activityList = new ArrayList<>();
-        
-        // SQL query to select all activities, ordered by date descending
-        String selectQuery = "SELECT * FROM " + DatabaseHelper.TABLE_ACTIVITIES + 
-                           " ORDER BY " + DatabaseHelper.COLUMN_DATE + " DESC";
-        
-        // Get readable database instance
-        SQLiteDatabase db = databaseHelper.getReadableDatabase();
-        
-        // Execute query and get cursor
-        Cursor cursor = db.rawQuery(selectQuery, null);
-        
-        // Loop through all rows and add to list
-        if (cursor.moveToFirst()) {
-            do {
-                // Extract data from cursor
-                int id = cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_ID));
-                String activityName = cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_ACTIVITY_NAME));
-                int duration = cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_DURATION));
-                String date = cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_DATE));
-                
-                // Create FitnessActivity object
-                FitnessActivity activity = new FitnessActivity(id, activityName, duration, date);
-                
-                // Add to list
-                activityList.add(activity);
-            } while (cursor.moveToNext());
+        return getAllActivities(RowMapper.ALL_COLUMNS);
+    }
+    
+    /**
+     * GET ALL ACTIVITIES - Projection variant
+     * Reads only the given columns (e.g. RowMapper.STATS_COLUMNS for duration
+     * statistics); the other fields of the returned activities stay 0 / null
+     * 
+     * @param columns Columns to read (a subset of RowMapper.ALL_COLUMNS)
+     * @return List of FitnessActivity objects, ordered by date (newest first)
+     */
+    public List<FitnessActivity> getAllActivities(String[] columns) {
+        // All activities, newest first (index order)
+        return queryActivities(columns, null, null, null);
+    }
+    
+    /**
+     * GET ACTIVITIES PAGE - Keyset pagination over (epoch_day DESC, id DESC)
+     * 
+     * Instead of OFFSET (which scans and discards every skipped row), the next
+     * page is selected by the sort key of the last row already shown, so every
+     * page costs the same no matter how deep the user has scrolled
+     * 
+     * Component Interaction:
+     * ActivityPager (scroll) → FitnessActivityDAO.getActivitiesPage() → SQLite
+     * → Page of FitnessActivity → ActivityAdapter → RecyclerView
+     * 
+     * @param after Last activity of the previous page, or null for the first page
+     * @param limit Maximum number of activities to return
+     * @return Up to limit activities that sort strictly after the given one
+     */
+    public List<FitnessActivity> getActivitiesPage(FitnessActivity after, int limit) {
+        if (after == null) {
+            return queryActivities(RowMapper.ALL_COLUMNS, null, null, String.valueOf(limit));
+        }
+        String afterDay = String.valueOf(EpochDay.fromDate(after.getDate()));
+        return queryActivities(
+            RowMapper.ALL_COLUMNS,
+            KEYSET_AFTER,
+            new String[]{afterDay, afterDay, String.valueOf(after.getId())},
+            String.valueOf(limit)
+        );
+    }
+    
+    /**
+     * GET ACTIVITIES BETWEEN - Reload a page by its key range
+     * 
+     * Returns every activity that sorts after "after" and up to and including
+     * "through". Used to re-read a page whose rows were dropped from memory,
+     * or to refresh a page in place, without disturbing the neighbouring pages
+     * 
+     * @param after Exclusive start key (null means "from the newest activity")
+     * @param through Inclusive end key
+     * @return Activities inside the key range, in list order
+     */
+    public List<FitnessActivity> getActivitiesBetween(FitnessActivity after, FitnessActivity through) {
+        String throughDay = String.valueOf(EpochDay.fromDate(through.getDate()));
+        String throughId = String.valueOf(through.getId());
+        
+        if (after == null) {
+            return queryActivities(
+                RowMapper.ALL_COLUMNS,
+                KEYSET_THROUGH,
+                new String[]{throughDay, throughDay, throughId},
+                null
+            );
         }
+        String afterDay = String.valueOf(EpochDay.fromDate(after.getDate()));
+        return queryActivities(
+            RowMapper.ALL_COLUMNS,
+            KEYSET_AFTER + " AND " + KEYSET_THROUGH,
+            new String[]{afterDay, afterDay, String.valueOf(after.getId()),
+                         throughDay, throughDay, throughId},
+            null
+        );
+    }
+    
+    /**
+     * Run a list query in (epoch_day DESC, id DESC) order and map every row
+     * Deleted rows (tombstones) are always skipped
+     * 
+     * @param columns Projection (a subset of RowMapper.ALL_COLUMNS)
+     * @param selection WHERE clause (null for none)
+     * @param selectionArgs Arguments for the WHERE clause
+     * @param limit LIMIT clause (null for none)
+     * @return Activities in list order
+     */
+    private List<FitnessActivity> queryActivities(String[] columns, String selection,
+                                                  String[] selectionArgs, String limit) {
+        SQLiteDatabase db = databaseHelper.getDatabase();
         
-        // Close cursor and database
-        cursor.close();
-        db.close();
+        Cursor cursor = db.query(
+            DatabaseHelper.TABLE_ACTIVITIES,
+            columns,
+            withEpochDayFallback(selection != null ? LIVE + " AND " + selection : LIVE),
+            selectionArgs,
+            null, null,
+            withEpochDayFallback(LIST_ORDER),
+            limit
+        );
         
-        return activityList;
+        try {
+            return new RowMapper(db, types, cursor, columns).mapAll(new ArrayList<>(cursor.getCount()));
+        } finally {
+            cursor.close();
+        }
+    }
+    
+    /**
+     * Make a fitness_activities clause correct while the v1 → v2 backfill is
+     * unfinished: every epoch_day in it becomes EPOCH_DAY_OR_DATE, so rows
+     * the backfill has not reached yet are listed on their day instead of
+     * being left out. That form cannot use the epoch_day index, so once the
+     * backfill is complete the clause is returned unchanged.
+     * 
+     * @param clause SQL over fitness_activities (null for none)
+     * @return The clause to run
+     */
+    private String withEpochDayFallback(String clause) {
+        if (clause == null || !databaseHelper.isEpochDayBackfillPending()) {
+            return clause;
+        }
+        return clause.replace(DatabaseHelper.COLUMN_EPOCH_DAY, EPOCH_DAY_OR_DATE);
     }
     
     /**
@@ -111,36 +484,41 @@ public class FitnessActivityDAO {
      * Component Interaction:
      * Any Activity → FitnessActivityDAO.getActivityById() → DatabaseHelper → SQLite
      * 
+     * Served from the row cache when possible
+     * 
      * @param id The ID of the activity to retrieve
      * @return FitnessActivity object if found, null otherwise
      */
     public FitnessActivity getActivityById(int id) {
-        SQLiteDatabase db = databaseHelper.getReadableDatabase();
+        FitnessActivity cached = cache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = cache.writeStamp();
+        
+        SQLiteDatabase db = databaseHelper.getDatabase();
         
         // Query with WHERE clause to get specific activity
         Cursor cursor = db.query(
             DatabaseHelper.TABLE_ACTIVITIES,
-            null, // Select all columns
-            DatabaseHelper.COLUMN_ID + " = ?",
+            RowMapper.ALL_COLUMNS,
+            DatabaseHelper.COLUMN_ID + " = ? AND " + LIVE,
             new String[]{String.valueOf(id)},
             null, null, null
         );
         
         FitnessActivity activity = null;
         
-        if (cursor != null && cursor.moveToFirst()) {
-            // Extract data from cursor
-            String activityName = cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_ACTIVITY_NAME));
-            int duration = cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_DURATION));
-            String date = cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_DATE));
-            
-            // Create FitnessActivity object
-            activity = new FitnessActivity(id, activityName, duration, date);
-            
+        try {
+            if (cursor.moveToFirst()) {
+                activity = new RowMapper(db, types, cursor, RowMapper.ALL_COLUMNS).map();
+            }
+        } finally {
             cursor.close();
         }
-        
-        db.close();
+        if (activity != null) {
+            cache.putIfUnchanged(activity, stamp);
+        }
         return activity;
     }
     
@@ -154,23 +532,33 @@ public class FitnessActivityDAO {
      * @return Number of rows affected (1 if successful, 0 if failed)
      */
     public int updateActivity(FitnessActivity activity) {
-        SQLiteDatabase db = databaseHelper.getWritableDatabase();
-        
-        // Create ContentValues with updated data
-        ContentValues values = new ContentValues();
-        values.put(DatabaseHelper.COLUMN_ACTIVITY_NAME, activity.getActivityName());
-        values.put(DatabaseHelper.COLUMN_DURATION, activity.getDuration());
-        values.put(DatabaseHelper.COLUMN_DATE, activity.getDate());
+        SQLiteDatabase db = databaseHelper.getDatabase();
         
-        // Update the row
-        int rowsAffected = db.update(
-            DatabaseHelper.TABLE_ACTIVITIES,
-            values,
-            DatabaseHelper.COLUMN_ID + " = ?",
-            new String[]{String.valueOf(activity.getId())}
-        );
+        // Update the row (unless it was deleted meanwhile)
+        int rowsAffected;
+        SQLiteStatement update = statements.acquire(db, UPDATE_ACTIVITY_SQL);
+        // idOf() may add an activity_types row: keep it only if a row was updated
+        db.beginTransactionWithListenerNonExclusive(types.getTransactionListener());
+        try {
+            bindActivity(db, update, activity);
+            update.bindLong(5, activity.getId());
+            rowsAffected = update.executeUpdateDelete();
+            if (rowsAffected > 0) {
+                db.setTransactionSuccessful();
+            }
+        } finally {
+            db.endTransaction();
+            statements.release(update);
+        }
         
-        db.close();
+        // Write-through: cache the new state, or forget a row that no longer exists
+        if (rowsAffected > 0) {
+            cache.put(activity);
+            snapshots.invalidate();
+            changes.publish(ActivityChange.Type.UPDATED, activity.getId());
+        } else {
+            cache.remove(activity.getId());
+        }
         return rowsAffected;
     }
     
@@ -178,23 +566,33 @@ public class FitnessActivityDAO {
      * DELETE ACTIVITY - Delete a fitness activity from the database
      * 
      * Component Interaction:
-     * MainActivity (Long Press) → FitnessActivityDAO.deleteActivity() → DatabaseHelper → SQLite
+     * MainActivity (delete button) → FitnessActivityDAO.deleteActivity() → DatabaseHelper → SQLite
      * → Refresh RecyclerView
      * 
+     * Soft delete: the row is only marked as a tombstone (queries skip it,
+     * ActivityCompactor removes it later)
+     * 
      * @param id The ID of the activity to delete
      * @return Number of rows deleted (1 if successful, 0 if failed)
      */
     public int deleteActivity(int id) {
-        SQLiteDatabase db = databaseHelper.getWritableDatabase();
+        SQLiteDatabase db = databaseHelper.getDatabase();
         
-        // Delete the row with the specified ID
-        int rowsDeleted = db.delete(
-            DatabaseHelper.TABLE_ACTIVITIES,
-            DatabaseHelper.COLUMN_ID + " = ?",
-            new String[]{String.valueOf(id)}
-        );
+        // Mark the row with the specified ID as deleted
+        int rowsDeleted;
+        SQLiteStatement delete = statements.acquire(db, DELETE_ACTIVITY_SQL);
+        try {
+            delete.bindLong(1, id);
+            rowsDeleted = delete.executeUpdateDelete();
+        } finally {
+            statements.release(delete);
+        }
         
-        db.close();
+        cache.remove(id);
+        if (rowsDeleted > 0) {
+            snapshots.invalidate();
+            changes.publish(ActivityChange.Type.DELETED, id);
+        }
         return rowsDeleted;
     }
     
@@ -208,6 +606,109 @@ public class FitnessActivityDAO {
         return deleteActivity(activity.getId());
     }
     
+    /**
+     * DELETE ACTIVITIES - Delete many activities at once (multi-select)
+     * 
+     * One "UPDATE ... SET deleted = 1 WHERE id IN (...)" per 500 IDs (soft
+     * delete, see deleteActivity()), all in ONE transaction: either every row
+     * is deleted or none, and the triggers' summary/rollup updates commit once
+     * instead of once per row
+     * 
+     * Component Interaction:
+     * MainActivity (selection mode) → ActivityAdapter → FitnessActivityDAO.deleteActivities()
+     * → SQLite → ActivityChange (DELETED, all IDs) → ActivityPager
+     * 
+     * @param ids IDs of the activities to delete
+     * @return Number of rows deleted
+     */
+    public int deleteActivities(int[] ids) {
+        if (ids.length == 0) {
+            return 0;
+        }
+        SQLiteDatabase db = databaseHelper.getDatabase();
+        int rowsDeleted = 0;
+        
+        db.beginTransactionNonExclusive();
+        try {
+            for (int start = 0; start < ids.length; start += MAX_IN_PARAMETERS) {
+                int chunk = Math.min(MAX_IN_PARAMETERS, ids.length - start);
+                // Pooled by shape: full chunks reuse the 500-parameter statement across calls
+                SQLiteStatement delete = statements.acquire(db, deleteInSql(chunk));
+                try {
+                    for (int i = 0; i < chunk; i++) {
+                        delete.bindLong(i + 1, ids[start + i]);
+                    }
+                    rowsDeleted += delete.executeUpdateDelete();
+                } finally {
+                    statements.release(delete);
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        
+        for (int id : ids) {
+            cache.remove(id);
+        }
+        if (rowsDeleted > 0) {
+            snapshots.invalidate();
+            changes.publish(ActivityChange.Type.DELETED, ids.clone());
+        }
+        return rowsDeleted;
+    }
+    
+    /**
+     * RESTORE ACTIVITIES - Undo of deleteActivities()
+     * Usually the rows are still tombstones and only the flag is flipped back;
+     * rows the compactor already purged are inserted again with their original
+     * IDs (AUTOINCREMENT never hands out a deleted ID, so they are still free).
+     * One transaction: all rows or none.
+     * 
+     * @param activities Deleted activities, as they were before the delete
+     * @return Number of rows restored (0 if any of them could not be restored)
+     */
+    public int restoreActivities(List<FitnessActivity> activities) {
+        if (activities.isEmpty()) {
+            return 0;
+        }
+        SQLiteDatabase db = databaseHelper.getDatabase();
+        SQLiteStatement revive = statements.acquire(db, REVIVE_ACTIVITY_SQL);
+        SQLiteStatement insert = statements.acquire(db, RESTORE_ACTIVITY_SQL);
+        int[] ids = new int[activities.size()];
+        
+        // idOf() may add activity_types rows: a rollback must also reset the dictionary
+        db.beginTransactionWithListenerNonExclusive(types.getTransactionListener());
+        try {
+            for (int i = 0; i < ids.length; i++) {
+                FitnessActivity activity = activities.get(i);
+                ids[i] = activity.getId();
+                revive.bindLong(1, activity.getId());
+                if (revive.executeUpdateDelete() > 0) {
+                    continue;
+                }
+                insert.bindLong(1, activity.getId());
+                insert.bindLong(2, types.idOf(db, activity.getActivityName()));
+                insert.bindLong(3, activity.getDuration());
+                insert.bindString(4, activity.getDate());
+                insert.bindLong(5, EpochDay.fromDate(activity.getDate()));
+                insert.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } catch (SQLException e) {
+            // e.g. the ID is taken again; endTransaction() rolls everything back
+            return 0;
+        } finally {
+            db.endTransaction();
+            statements.release(revive);
+            statements.release(insert);
+        }
+        
+        snapshots.invalidate();
+        changes.publish(ActivityChange.Type.INSERTED, ids);
+        return ids.length;
+    }
+    
     /**
      * GET ACTIVITIES BY DATE - Retrieve activities for a specific date
      * 
@@ -218,60 +719,654 @@ public class FitnessActivityDAO {
      * @return List of FitnessActivity objects for the specified date
      */
     public List<FitnessActivity> getActivitiesByDate(String date) {
-        List<FitnessActivity> activityList = new ArrayList<>();
-        SQLiteDatabase db = databaseHelper.getReadableDatabase();
-        
-        // Query with WHERE clause for specific date
-        Cursor cursor = db.query(
-            DatabaseHelper.TABLE_ACTIVITIES,
-            null,
-            DatabaseHelper.COLUMN_DATE + " = ?",
-            new String[]{date},
-            null, null,
-            DatabaseHelper.COLUMN_DATE + " DESC"
+        return getActivitiesByDate(date, RowMapper.ALL_COLUMNS);
+    }
+    
+    /**
+     * GET ACTIVITIES BY DATE - Projection variant
+     * 
+     * @param date Date in YYYY-MM-DD format
+     * @param columns Columns to read (a subset of RowMapper.ALL_COLUMNS)
+     * @return List of FitnessActivity objects for the specified date
+     */
+    public List<FitnessActivity> getActivitiesByDate(String date, String[] columns) {
+        // WHERE clause for specific day (index equality lookup)
+        return queryActivities(
+            columns,
+            DatabaseHelper.COLUMN_EPOCH_DAY + " = ?",
+            new String[]{String.valueOf(EpochDay.fromDate(date))},
+            null
         );
+    }
+    
+    /**
+     * SEARCH ACTIVITY IDS - Prefix search over activity names
+     * 
+     * Component Interaction:
+     * MainActivity search box → ActivityRepository.searchActivities()
+     * → FitnessActivityDAO.searchActivityIds() → activity_type_search (FTS4)
+     * → idx_activities_type → SQLite
+     * 
+     * Every word of the query matches the start of a word in the name
+     * ("mor ru" finds "Morning Run"). Ranking: names whose first word starts
+     * with the query come first, then all other matches; within each rank the
+     * most recently added come first.
+     * 
+     * Names are matched in the full-text index over activity_types (one entry
+     * per distinct name, not per row); the activities of the matching types
+     * are then paged from idx_activities_type without sorting all matches.
+     * 
+     * @param query Text typed by the user
+     * @param offset Number of ranked results to skip
+     * @param limit Maximum number of IDs to return
+     * @return Matching activity IDs, best match first (empty if the query has no words)
+     */
+    public int[] searchActivityIds(String query, int offset, int limit) {
+        String normalized = normalizeSearchQuery(query);
+        if (normalized.isEmpty() || limit <= 0) {
+            return new int[0];
+        }
+        String match = normalized.replace(" ", "* ") + "*"; // "mor ru" → "mor* ru*"
+        String leadingMatch = "^" + match;                   // first word of the name starts with "mor"
+        SQLiteDatabase db = databaseHelper.getDatabase();
+        
+        // There are few types: find the matching ones first
+        int[] leadingTypes = queryIds(db, TYPE_SEARCH_SQL, leadingMatch);
+        int[] otherTypes = queryIds(db, TYPE_SEARCH_EXCLUDING_SQL, match, leadingMatch);
+        
+        // Rank 1: activities whose name's first word starts with the query
+        int[] leading = activityIdsOfTypes(db, leadingTypes, offset, limit);
+        if (leading.length == limit) {
+            return leading;
+        }
+        
+        // Rank 2: every other match, continuing where rank 1 ran out
+        long leadingTotal;
+        if (leading.length > 0) {
+            leadingTotal = offset + leading.length; // rank 1 ended inside this page
+        } else if (leadingTypes.length == 0) {
+            leadingTotal = 0;
+        } else {
+            leadingTotal = DatabaseUtils.longForQuery(db,
+                    "SELECT COUNT(*) FROM " + DatabaseHelper.TABLE_ACTIVITIES +
+                    " WHERE " + DatabaseHelper.COLUMN_TYPE_ID + " IN (" + joinIds(leadingTypes) + ")" +
+                    " AND " + LIVE, null);
+        }
+        int[] others = activityIdsOfTypes(db, otherTypes, Math.max(0, offset - leadingTotal),
+                                          limit - leading.length);
+        
+        int[] ids = Arrays.copyOf(leading, leading.length + others.length);
+        System.arraycopy(others, 0, ids, leading.length, others.length);
+        return ids;
+    }
+    
+    /**
+     * One page of the activities of some types, most recently added first
+     * 
+     * Each type is one range of idx_activities_type, already in id order, so
+     * SQLite merges the ranges (MERGE (UNION ALL)) and stops after the page:
+     * the matches are never sorted as a whole
+     * 
+     * @param typeIds activity_types ids
+     * @param offset Number of activities to skip
+     * @param limit Maximum number of activity IDs to return
+     * @return Activity IDs, highest first
+     */
+    private static int[] activityIdsOfTypes(SQLiteDatabase db, int[] typeIds, long offset, int limit) {
+        if (typeIds.length == 0) {
+            return new int[0];
+        }
+        
+        StringBuilder sql = new StringBuilder();
+        if (typeIds.length <= MAX_MERGED_TYPES) {
+            for (int i = 0; i < typeIds.length; i++) {
+                if (i > 0) {
+                    sql.append(" UNION ALL ");
+                }
+                sql.append("SELECT ").append(DatabaseHelper.COLUMN_ID)
+                   .append(" FROM ").append(DatabaseHelper.TABLE_ACTIVITIES)
+                   .append(" WHERE ").append(DatabaseHelper.COLUMN_TYPE_ID).append(" = ").append(typeIds[i])
+                   .append(" AND ").append(LIVE);
+            }
+        } else {
+            sql.append("SELECT ").append(DatabaseHelper.COLUMN_ID)
+               .append(" FROM ").append(DatabaseHelper.TABLE_ACTIVITIES)
+               .append(" WHERE ").append(DatabaseHelper.COLUMN_TYPE_ID).append(" IN (").append(joinIds(typeIds)).append(')')
+               .append(" AND ").append(LIVE);
+        }
+        sql.append(" ORDER BY ").append(DatabaseHelper.COLUMN_ID).append(" DESC LIMIT ? OFFSET ?");
+        return queryIds(db, sql.toString(), String.valueOf(limit), String.valueOf(offset));
+    }
+    
+    /**
+     * @return The IDs as a comma separated SQL list (integers only, safe to inline)
+     */
+    private static String joinIds(int[] ids) {
+        StringBuilder list = new StringBuilder();
+        for (int i = 0; i < ids.length; i++) {
+            if (i > 0) {
+                list.append(',');
+            }
+            list.append(ids[i]);
+        }
+        return list.toString();
+    }
+    
+    /**
+     * Run a query whose first column is an activity ID
+     * 
+     * @return The IDs in result order
+     */
+    private static int[] queryIds(SQLiteDatabase db, String sql, String... args) {
+        Cursor cursor = db.rawQuery(sql, args);
+        try {
+            int[] ids = new int[cursor.getCount()];
+            for (int i = 0; cursor.moveToNext(); i++) {
+                ids[i] = cursor.getInt(0);
+            }
+            return ids;
+        } finally {
+            cursor.close();
+        }
+    }
+    
+    /**
+     * Bind an activity's columns as parameters 1-4 (type_id, duration, date,
+     * epoch_day) of INSERT_ACTIVITY_SQL or UPDATE_ACTIVITY_SQL
+     * A missing name or date stays NULL, so the NOT NULL constraints reject it
+     * 
+     * @param db Shared handle (for new activity_types rows; call inside a transaction
+     *           started with types.getTransactionListener())
+     * @param statement Statement without bindings (freshly acquired or cleared)
+     * @param activity Activity to bind
+     */
+    private void bindActivity(SQLiteDatabase db, SQLiteStatement statement, FitnessActivity activity) {
+        if (activity.getActivityName() != null) {
+            statement.bindLong(1, types.idOf(db, activity.getActivityName()));
+        }
+        statement.bindLong(2, activity.getDuration());
+        if (activity.getDate() != null) {
+            statement.bindString(3, activity.getDate());
+            statement.bindLong(4, EpochDay.fromDate(activity.getDate()));
+        }
+    }
+    
+    /**
+     * @param count Number of IDs (1 to MAX_IN_PARAMETERS)
+     * @return "UPDATE ... SET deleted = 1 WHERE live AND id IN (?,...)" with count parameters
+     */
+    private static String deleteInSql(int count) {
+        StringBuilder sql = new StringBuilder("UPDATE " + DatabaseHelper.TABLE_ACTIVITIES +
+                " SET " + DatabaseHelper.COLUMN_DELETED + " = " + DatabaseHelper.DELETED_ROW +
+                " WHERE " + LIVE + " AND " + DatabaseHelper.COLUMN_ID + " IN (?");
+        for (int i = 1; i < count; i++) {
+            sql.append(",?");
+        }
+        return sql.append(')').toString();
+    }
+    
+    /**
+     * Reduce a query to the words the FTS tokenizer would index, lower-cased and
+     * separated by single spaces. Punctuation and FTS operators are dropped, so
+     * user input can never change the structure of the MATCH expression.
+     * 
+     * @param query Text typed by the user
+     * @return Normalized words (empty if there are none)
+     */
+    static String normalizeSearchQuery(String query) {
+        StringBuilder normalized = new StringBuilder(query != null ? query.length() : 0);
+        boolean inWord = false;
+        for (int i = 0; query != null && i < query.length(); i++) {
+            char c = query.charAt(i);
+            // Same token characters as FTS4's "simple" tokenizer: ASCII letters/digits and non-ASCII
+            boolean wordChar = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c >= 0x80;
+            if (!wordChar) {
+                inWord = false;
+                continue;
+            }
+            if (!inWord && normalized.length() > 0) {
+                normalized.append(' ');
+            }
+            inWord = true;
+            normalized.append(c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c);
+        }
+        return normalized.toString();
+    }
+    
+    /**
+     * GET ACTIVITIES BY IDS - Load several activities, keeping the given order
+     * 
+     * Rows in the row cache are not read again; the rest are read with
+     * one "id IN (...)" query per 500 IDs and added to the cache.
+     * 
+     * @param ids Activity IDs (e.g. from searchActivityIds)
+     * @return Activities in the order of ids (IDs that no longer exist or are deleted are skipped)
+     */
+    public List<FitnessActivity> getActivitiesByIds(int[] ids) {
+        SparseArray<FitnessActivity> found = new SparseArray<>(ids.length);
+        List<String> missing = new ArrayList<>();
+        for (int id : ids) {
+            FitnessActivity cached = cache.get(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                missing.add(String.valueOf(id));
+            }
+        }
         
-        if (cursor.moveToFirst()) {
-            do {
-                int id = cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_ID));
-                String activityName = cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_ACTIVITY_NAME));
-                int duration = cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_DURATION));
-                String activityDate = cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_DATE));
+        if (!missing.isEmpty()) {
+            long stamp = cache.writeStamp();
+            SQLiteDatabase db = databaseHelper.getDatabase();
+            for (int start = 0; start < missing.size(); start += MAX_IN_PARAMETERS) {
+                List<String> chunk = missing.subList(start, Math.min(start + MAX_IN_PARAMETERS, missing.size()));
+                StringBuilder selection = new StringBuilder(LIVE + " AND " + DatabaseHelper.COLUMN_ID + " IN (?");
+                for (int i = 1; i < chunk.size(); i++) {
+                    selection.append(",?");
+                }
+                selection.append(')');
                 
-                FitnessActivity activity = new FitnessActivity(id, activityName, duration, activityDate);
-                activityList.add(activity);
-            } while (cursor.moveToNext());
+                Cursor cursor = db.query(DatabaseHelper.TABLE_ACTIVITIES, RowMapper.ALL_COLUMNS,
+                        selection.toString(), chunk.toArray(new String[0]), null, null, null);
+                try {
+                    RowMapper mapper = new RowMapper(db, types, cursor, RowMapper.ALL_COLUMNS);
+                    while (cursor.moveToNext()) {
+                        FitnessActivity activity = mapper.map();
+                        found.put(activity.getId(), activity);
+                        cache.putIfUnchanged(activity, stamp);
+                    }
+                } finally {
+                    cursor.close();
+                }
+            }
         }
         
-        cursor.close();
-        db.close();
-        return activityList;
+        List<FitnessActivity> activities = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            FitnessActivity activity = found.get(id);
+            if (activity != null) {
+                activities.add(activity);
+            }
+        }
+        return activities;
+    }
+    
+    /**
+     * GET SNAPSHOT - Every activity as primitive column arrays, for analytics
+     * 
+     * Component Interaction:
+     * ActivityRepository.getSnapshot() → FitnessActivityDAO.getSnapshot()
+     * → ActivitySnapshotCache, or one SQLite pass over fitness_activities
+     * 
+     * The cached snapshot is reused until the next write. Otherwise the rows
+     * are read once in (epoch_day, id) order (the list index scanned
+     * backwards, no sort step) into four int arrays.
+     * 
+     * @return Read-only snapshot of all activities
+     */
+    public ActivitySnapshot getSnapshot() {
+        ActivitySnapshot snapshot = snapshots.get();
+        if (snapshot != null) {
+            return snapshot;
+        }
+        long stamp = snapshots.writeStamp();
+        snapshot = readSnapshot(null, null, null);
+        snapshots.putIfUnchanged(snapshot, stamp);
+        return snapshot;
     }
     
     /**
-     * GET TOTAL DURATION - Calculate total duration of all activities
+     * GET ACTIVITIES IN RANGE - Activities of a half-open day range, as columns
+     * 
+     * Component Interaction:
+     * Week / 90-day views → ActivityRepository.getActivitiesInRange()
+     * → FitnessActivityDAO.getActivitiesInRange() → idx_activities_epoch_day range → SQLite
+     * 
+     * One range scan of the list index (read backwards, so no sort step);
+     * the rows arrive as an ActivitySnapshot of just that range, so the
+     * snapshot helpers (sums, histograms, per-type counts) work on it too.
+     * 
+     * @param fromDay First epoch day, inclusive
+     * @param toDay Epoch day after the range (exclusive)
+     * @param limit Maximum number of rows (the earliest ones are kept)
+     * @return Activities in the range in (epoch_day, id) order (empty if fromDay >= toDay)
+     */
+    public ActivitySnapshot getActivitiesInRange(int fromDay, int toDay, int limit) {
+        if (fromDay >= toDay || limit <= 0) {
+            return new ActivitySnapshot(new int[0], new int[0], new int[0], new int[0], new String[0]);
+        }
+        return readSnapshot(
+            DatabaseHelper.COLUMN_EPOCH_DAY + " >= ? AND " + DatabaseHelper.COLUMN_EPOCH_DAY + " < ?",
+            new String[]{String.valueOf(fromDay), String.valueOf(toDay)},
+            String.valueOf(limit)
+        );
+    }
+    
+    /**
+     * Read live activities in (epoch_day, id) order into a snapshot
+     * 
+     * @param selection Extra WHERE clause (null for none)
+     * @param selectionArgs Arguments for the WHERE clause
+     * @param limit LIMIT clause (null for none)
+     */
+    private ActivitySnapshot readSnapshot(String selection, String[] selectionArgs, String limit) {
+        SQLiteDatabase db = databaseHelper.getDatabase();
+        ActivitySnapshot snapshot;
+        
+        Cursor cursor = db.rawQuery(withEpochDayFallback(
+                "SELECT " + DatabaseHelper.COLUMN_ID + ", " + DatabaseHelper.COLUMN_DURATION + ", " +
+                DatabaseHelper.COLUMN_EPOCH_DAY + ", " + DatabaseHelper.COLUMN_TYPE_ID +
+                " FROM " + DatabaseHelper.TABLE_ACTIVITIES +
+                " WHERE " + LIVE + (selection != null ? " AND " + selection : "") +
+                " ORDER BY " + DatabaseHelper.COLUMN_EPOCH_DAY + ", " + DatabaseHelper.COLUMN_ID +
+                (limit != null ? " LIMIT " + limit : "")), selectionArgs);
+        try {
+            int count = cursor.getCount();
+            int[] ids = new int[count];
+            int[] durations = new int[count];
+            int[] epochDays = new int[count];
+            int[] typeIds = new int[count];
+            int maxTypeId = 0;
+            for (int i = 0; i < count && cursor.moveToNext(); i++) {
+                ids[i] = cursor.getInt(0);
+                durations[i] = cursor.getInt(1);
+                epochDays[i] = cursor.getInt(2);
+                typeIds[i] = cursor.getInt(3);
+                maxTypeId = Math.max(maxTypeId, typeIds[i]);
+            }
+            
+            // One name lookup per type, not per row
+            String[] typeNames = new String[maxTypeId + 1];
+            for (int typeId : typeIds) {
+                if (typeNames[typeId] == null) {
+                    typeNames[typeId] = types.nameOf(db, typeId);
+                }
+            }
+            
+            snapshot = new ActivitySnapshot(ids, durations, epochDays, typeIds, typeNames);
+        } finally {
+            cursor.close();
+        }
+        return snapshot;
+    }
+    
+    /**
+     * AGGREGATE IN RANGE - Count, total, min and max duration per bucket
+     * of a half-open day range
+     * 
+     * Component Interaction:
+     * Charts / summaries → ActivityRepository.aggregateInRange()
+     * → FitnessActivityDAO.aggregateInRange() → SQLite
+     * 
+     * - DAY / WEEK / MONTH: one primary-key range scan of activity_rollup_daily
+     *   (at most one row per day, never the activities themselves); the days
+     *   are folded into weeks or months in the same pass, so buckets cut by
+     *   the range only count the days inside it
+     * - ACTIVITY_TYPE: one range scan of idx_activities_epoch_day, grouped by
+     *   type_id in SQL
+     * 
+     * @param fromDay First epoch day, inclusive
+     * @param toDay Epoch day after the range (exclusive)
+     * @param groupBy Bucket kind
+     * @return Non-empty buckets in key order (empty if fromDay >= toDay)
+     */
+    public ActivityAggregate aggregateInRange(int fromDay, int toDay, ActivityAggregate.GroupBy groupBy) {
+        SQLiteDatabase db = databaseHelper.getDatabase();
+        String[] range = {String.valueOf(fromDay), String.valueOf(toDay)};
+        boolean byType = groupBy == ActivityAggregate.GroupBy.ACTIVITY_TYPE;
+        
+        Cursor cursor;
+        if (byType) {
+            cursor = db.rawQuery(
+                    "SELECT " + DatabaseHelper.COLUMN_TYPE_ID + ", COUNT(*), SUM(" + DatabaseHelper.COLUMN_DURATION +
+                    "), MIN(" + DatabaseHelper.COLUMN_DURATION + "), MAX(" + DatabaseHelper.COLUMN_DURATION + ")" +
+                    " FROM " + DatabaseHelper.TABLE_ACTIVITIES +
+                    " WHERE " + DatabaseHelper.COLUMN_EPOCH_DAY + " >= ? AND " + DatabaseHelper.COLUMN_EPOCH_DAY + " < ?" +
+                    " AND " + LIVE +
+                    " GROUP BY " + DatabaseHelper.COLUMN_TYPE_ID +
+                    " ORDER BY " + DatabaseHelper.COLUMN_TYPE_ID, range);
+        } else {
+            cursor = db.rawQuery(
+                    "SELECT " + DatabaseHelper.COLUMN_EPOCH_DAY + ", " + DatabaseHelper.COLUMN_ACTIVITY_COUNT + ", " +
+                    DatabaseHelper.COLUMN_TOTAL_DURATION + ", " + DatabaseHelper.COLUMN_MIN_DURATION + ", " +
+                    DatabaseHelper.COLUMN_MAX_DURATION +
+                    " FROM " + DatabaseHelper.TABLE_ROLLUP_DAILY +
+                    " WHERE " + DatabaseHelper.COLUMN_EPOCH_DAY + " >= ? AND " + DatabaseHelper.COLUMN_EPOCH_DAY + " < ?" +
+                    " ORDER BY " + DatabaseHelper.COLUMN_EPOCH_DAY, range);
+        }
+        try {
+            // Days arrive in order, so every week or month is a run of consecutive rows
+            int rows = cursor.getCount();
+            int[] keys = new int[rows];
+            int[] counts = new int[rows];
+            long[] totals = new long[rows];
+            int[] mins = new int[rows];
+            int[] maxes = new int[rows];
+            int size = 0;
+            while (cursor.moveToNext()) {
+                int key = byType ? cursor.getInt(0) : groupBy.period.keyOf(cursor.getInt(0));
+                int count = cursor.getInt(1);
+                long total = cursor.getLong(2);
+                int min = cursor.getInt(3);
+                int max = cursor.getInt(4);
+                if (size > 0 && keys[size - 1] == key) {
+                    counts[size - 1] += count;
+                    totals[size - 1] += total;
+                    mins[size - 1] = Math.min(mins[size - 1], min);
+                    maxes[size - 1] = Math.max(maxes[size - 1], max);
+                } else {
+                    keys[size] = key;
+                    counts[size] = count;
+                    totals[size] = total;
+                    mins[size] = min;
+                    maxes[size] = max;
+                    size++;
+                }
+            }
+            
+            String[] names = null;
+            if (byType) {
+                names = new String[size];
+                for (int i = 0; i < size; i++) {
+                    names[i] = types.nameOf(db, keys[i]);
+                }
+            }
+            return new ActivityAggregate(groupBy, size, keys, counts, totals, mins, maxes, names);
+        } finally {
+            cursor.close();
+        }
+    }
+    
+    /**
+     * GET TOTAL DURATION - Total duration of all activities
+     * Constant time: read from the trigger-maintained summary row
      * 
      * @return Total duration in minutes
      */
     public int getTotalDuration() {
-        int totalDuration = 0;
-        SQLiteDatabase db = databaseHelper.getReadableDatabase();
+        return databaseHelper.getTotalDuration();
+    }
+    
+    /**
+     * GET TYPE TOTALS - Activity count and total duration per activity name
+     * 
+     * Component Interaction:
+     * SettingsActivity → ActivityRepository.getTypeTotals() → FitnessActivityDAO.getTypeTotals() → SQLite
+     * 
+     * Groups by the integer type_id (idx_activities_type), not by text
+     * 
+     * @return One entry per type that has activities, most logged first
+     */
+    public List<ActivityTypeTotal> getTypeTotals() {
+        List<ActivityTypeTotal> totals = new ArrayList<>();
+        SQLiteDatabase db = databaseHelper.getDatabase();
         
-        String query = "SELECT SUM(" + DatabaseHelper.COLUMN_DURATION + ") as total FROM " + 
-                      DatabaseHelper.TABLE_ACTIVITIES;
-        Cursor cursor = db.rawQuery(query, null);
+        Cursor cursor = db.rawQuery(
+                "SELECT " + DatabaseHelper.COLUMN_TYPE_ID + ", COUNT(*), SUM(" + DatabaseHelper.COLUMN_DURATION + ")" +
+                " FROM " + DatabaseHelper.TABLE_ACTIVITIES + " WHERE " + LIVE +
+                " GROUP BY " + DatabaseHelper.COLUMN_TYPE_ID +
+                " ORDER BY COUNT(*) DESC, " + DatabaseHelper.COLUMN_TYPE_ID, null);
+        try {
+            while (cursor.moveToNext()) {
+                int typeId = cursor.getInt(0);
+                totals.add(new ActivityTypeTotal(typeId, types.nameOf(db, typeId),
+                                                 cursor.getInt(1), cursor.getLong(2)));
+            }
+        } finally {
+            cursor.close();
+        }
+        return totals;
+    }
+    
+    /**
+     * GET STATS - Streaks, personal records and rolling 7/30-day totals
+     * 
+     * Component Interaction:
+     * SettingsActivity → ActivityRepository.getStats() → FitnessActivityDAO.getStats()
+     * → activity_streaks / activity_type_records / activity_rollup_daily → SQLite
+     * 
+     * Reads the trigger-maintained tables only (a few index lookups, at most
+     * 30 daily rollup rows and one row per type), never the activities
+     * 
+     * @param today Epoch day to compute the current streak and rolling totals for
+     * @return The statistics (equal to computeStats(today))
+     */
+    public ActivityStats getStats(int today) {
+        SQLiteDatabase db = databaseHelper.getDatabase();
+        String streakColumns = DatabaseHelper.COLUMN_START_DAY + ", " + DatabaseHelper.COLUMN_END_DAY +
+                               " FROM " + DatabaseHelper.TABLE_STREAKS;
+        
+        // Current: the (only) run overlapping yesterday..today
+        int currentStreak = 0;
+        int currentStart = ActivityStats.NO_DAY;
+        Cursor cursor = db.rawQuery(
+                "SELECT " + streakColumns +
+                " WHERE " + DatabaseHelper.COLUMN_END_DAY + " >= ? AND " + DatabaseHelper.COLUMN_START_DAY + " <= ?" +
+                " ORDER BY " + DatabaseHelper.COLUMN_END_DAY + " LIMIT 1",
+                new String[]{String.valueOf(today - 1), String.valueOf(today)});
+        try {
+            if (cursor.moveToFirst()) {
+                currentStart = cursor.getInt(0);
+                currentStreak = Math.min(cursor.getInt(1), today) - currentStart + 1;
+            }
+        } finally {
+            cursor.close();
+        }
         
-        if (cursor.moveToFirst()) {
-            totalDuration = cursor.getInt(0);
+        // Longest: one row per run, so the scan stays small
+        int longestStreak = 0;
+        int longestStart = ActivityStats.NO_DAY;
+        cursor = db.rawQuery(
+                "SELECT " + streakColumns +
+                " ORDER BY " + DatabaseHelper.COLUMN_END_DAY + " - " + DatabaseHelper.COLUMN_START_DAY + " DESC, " +
+                DatabaseHelper.COLUMN_START_DAY + " DESC LIMIT 1", null);
+        try {
+            if (cursor.moveToFirst()) {
+                longestStart = cursor.getInt(0);
+                longestStreak = cursor.getInt(1) - longestStart + 1;
+            }
+        } finally {
+            cursor.close();
+        }
+        
+        // Rolling totals: daily rollup rows of the last 7 / 30 days
+        int last7Count = 0;
+        long last7Duration = 0;
+        int last30Count = 0;
+        long last30Duration = 0;
+        for (ActivityRollup day : getRollups(ActivityRollup.Period.DAY, today - 29, today)) {
+            last30Count += day.getActivityCount();
+            last30Duration += day.getTotalDuration();
+            if (day.getKey() > today - 7) {
+                last7Count += day.getActivityCount();
+                last7Duration += day.getTotalDuration();
+            }
+        }
+        
+        List<PersonalRecord> records = new ArrayList<>();
+        cursor = db.query(
+            DatabaseHelper.TABLE_TYPE_RECORDS,
+            new String[]{DatabaseHelper.COLUMN_TYPE_ID, DatabaseHelper.COLUMN_BEST_DURATION,
+                         DatabaseHelper.COLUMN_ACTIVITY_ID, DatabaseHelper.COLUMN_EPOCH_DAY},
+            null, null, null, null,
+            DatabaseHelper.COLUMN_TYPE_ID
+        );
+        try {
+            while (cursor.moveToNext()) {
+                int typeId = cursor.getInt(0);
+                records.add(new PersonalRecord(typeId, types.nameOf(db, typeId),
+                                               cursor.getInt(1), cursor.getInt(2), cursor.getInt(3)));
+            }
+        } finally {
+            cursor.close();
         }
         
-        cursor.close();
-        db.close();
-        return totalDuration;
+        return new ActivityStats(today, currentStreak, currentStart, longestStreak, longestStart,
+                                 last7Count, last7Duration, last30Count, last30Duration, records);
+    }
+    
+    /**
+     * COMPUTE STATS - Same statistics as getStats(), recomputed from every activity
+     * Linear in the number of activities (reuses the cached snapshot when current);
+     * for verifying the incremental tables, e.g. getStats(d).equals(computeStats(d))
+     * 
+     * @param today Epoch day to compute the current streak and rolling totals for
+     * @return The statistics
+     */
+    public ActivityStats computeStats(int today) {
+        return ActivityStats.compute(getSnapshot(), today);
+    }
+    
+    /**
+     * GET ROLLUPS - Pre-aggregated statistics for a range of days, weeks or months
+     * Reads one row per bucket (maintained by triggers), never the activities themselves
+     * 
+     * @param period Bucket size
+     * @param fromKey First bucket key, inclusive (see ActivityRollup.Period)
+     * @param toKey Last bucket key, inclusive
+     * @return Non-empty buckets in ascending key order
+     */
+    public List<ActivityRollup> getRollups(ActivityRollup.Period period, int fromKey, int toKey) {
+        List<ActivityRollup> rollups = new ArrayList<>();
+        SQLiteDatabase db = databaseHelper.getDatabase();
+        
+        Cursor cursor = db.query(
+            period.table,
+            new String[]{period.keyColumn, DatabaseHelper.COLUMN_ACTIVITY_COUNT,
+                         DatabaseHelper.COLUMN_TOTAL_DURATION, DatabaseHelper.COLUMN_MIN_DURATION,
+                         DatabaseHelper.COLUMN_MAX_DURATION},
+            period.keyColumn + " BETWEEN ? AND ?",
+            new String[]{String.valueOf(fromKey), String.valueOf(toKey)},
+            null, null,
+            period.keyColumn
+        );
+        
+        try {
+            while (cursor.moveToNext()) {
+                rollups.add(new ActivityRollup(period, cursor.getInt(0), cursor.getInt(1),
+                                               cursor.getLong(2), cursor.getInt(3), cursor.getInt(4)));
+            }
+        } finally {
+            cursor.close();
+        }
+        return rollups;
+    }
+    
+    /**
+     * GET ROLLUP - Statistics of the single bucket containing a day
+     * 
+     * @param period Bucket size
+     * @param epochDay Any day inside the bucket
+     * @return The bucket, or an empty bucket if no activity falls in it
+     */
+    public ActivityRollup getRollup(ActivityRollup.Period period, int epochDay) {
+        int key = period.keyOf(epochDay);
+        List<ActivityRollup> rollups = getRollups(period, key, key);
+        return rollups.isEmpty() ? new ActivityRollup(period, key, 0, 0, 0, 0) : rollups.get(0);
     }
     
     /**
      * GET ACTIVITY COUNT - Get total number of activities
+     * Constant time: read from the trigger-maintained summary row
      * 
      * @return Total count of activities
      */
@@ -281,6 +1376,7 @@ public class FitnessActivityDAO {
     
     /**
      * DELETE ALL ACTIVITIES - Remove all activities from database
+     * (also empties the row cache)
      * 
      * @return Number of rows deleted
      */
@@ -293,19 +1389,22 @@ public class FitnessActivityDAO {
  * COMPONENT INTERACTION SUMMARY (Question Part b):
  * 
  * 1. ADD ACTIVITY FLOW:
- *    User Input → AddActivityActivity → DAO.addActivity() → DatabaseHelper.getWritableDatabase()
+ *    User Input → AddActivityActivity → DAO.addActivity() → DatabaseHelper.getDatabase()
  *    → SQLite INSERT → Return row ID → Show success message
  * 
  * 2. RETRIEVE ALL ACTIVITIES FLOW:
- *    MainActivity.onResume() → DAO.getAllActivities() → DatabaseHelper.getReadableDatabase()
+ *    MainActivity.onResume() → DAO.getAllActivities() → DatabaseHelper.getDatabase()
  *    → SQLite SELECT → Cursor → List<FitnessActivity> → ActivityAdapter → RecyclerView
  * 
  * 3. DELETE ACTIVITY FLOW:
- *    Long Press Card → Confirm Dialog → DAO.deleteActivity() → DatabaseHelper.getWritableDatabase()
- *    → SQLite DELETE → Return rows deleted → Refresh RecyclerView
+ *    Delete Button → Confirm Dialog → DAO.deleteActivity() → DatabaseHelper.getDatabase()
+ *    → SQLite UPDATE (tombstone) → Return rows deleted → Refresh RecyclerView
+ *    → ActivityCompactor purges the tombstones later (device idle)
+ *    Long Press Cards (multi-select) → DAO.deleteActivities() → one transaction
+ *    → ActivityChange (DELETED) → one list update → Snackbar → DAO.restoreActivities() (undo)
  * 
  * 4. UPDATE ACTIVITY FLOW:
- *    Edit Activity → DAO.updateActivity() → DatabaseHelper.getWritableDatabase()
+ *    Edit Activity → DAO.updateActivity() → DatabaseHelper.getDatabase()
  *    → SQLite UPDATE → Return rows affected → Refresh RecyclerView
  * 
  * This DAO pattern provides:
@@ -0,0 +1,104 @@
+package com.fitlogger.database;
+
+import java.util.Objects;
+
+/**
+ * Model class for the personal best of one activity type: its longest activity
+ * 
+ * Ties go to the activity logged first (smallest id).
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public class PersonalRecord {
+    
+    private final int typeId;
+    private final String activityName;
+    private final int duration;
+    private final int activityId;
+    private final int epochDay;
+    
+    /**
+     * Constructor
+     * 
+     * @param typeId activity_types.id
+     * @param activityName Name of the type
+     * @param duration Duration of the record activity in minutes
+     * @param activityId ID of the record activity
+     * @param epochDay Day of the record activity
+     */
+    public PersonalRecord(int typeId, String activityName, int duration, int activityId, int epochDay) {
+        this.typeId = typeId;
+        this.activityName = activityName;
+        this.duration = duration;
+        this.activityId = activityId;
+        this.epochDay = epochDay;
+    }
+    
+    public int getTypeId() {
+        return typeId;
+    }
+    
+    public String getActivityName() {
+        return activityName;
+    }
+    
+    public int getDuration() {
+        return duration;
+    }
+    
+    public int getActivityId() {
+        return activityId;
+    }
+    
+    public int getEpochDay() {
+        return epochDay;
+    }
+    
+    /**
+     * Two records are equal when every field is equal
+     * (used to compare the incremental statistics with a full recompute)
+     * 
+     * @param o Object to compare with
+     * @return true if o is an equal PersonalRecord
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PersonalRecord)) {
+            return false;
+        }
+        PersonalRecord other = (PersonalRecord) o;
+        return typeId == other.typeId &&
+                duration == other.duration &&
+                activityId == other.activityId &&
+                epochDay == other.epochDay &&
+                Objects.equals(activityName, other.activityName);
+    }
+    
+    /**
+     * @return Hash code consistent with equals()
+     */
+    @Override
+    public int hashCode() {
+        int result = typeId;
+        result = 31 * result + (activityName != null ? activityName.hashCode() : 0);
+        result = 31 * result + duration;
+        result = 31 * result + activityId;
+        result = 31 * result + epochDay;
+        return result;
+    }
+    
+    @Override
+    public String toString() {
+        return "PersonalRecord{" +
+                "typeId=" + typeId +
+                ", activityName='" + activityName + '\'' +
+                ", duration=" + duration +
+                ", activityId=" + activityId +
+                ", epochDay=" + epochDay +
+                '}';
+    }
+}
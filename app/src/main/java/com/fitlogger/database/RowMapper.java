@@ -0,0 +1,112 @@
+package com.fitlogger.database;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import java.util.List;
+
+/**
+ * Maps fitness_activities cursor rows to FitnessActivity objects
+ * 
+ * Column indexes are resolved ONCE, when the mapper is created for a cursor,
+ * instead of calling getColumnIndexOrThrow() for every column of every row.
+ * The type_id column is turned back into the shared name String through
+ * ActivityTypeDictionary.
+ * 
+ * Projection mode: queries select only the columns they need (never
+ * "SELECT *"). A mapper created for a projection reads only those columns;
+ * the fields of the other columns keep their default (0 / null). Only
+ * activities mapped from ALL_COLUMNS are complete and may be cached.
+ * 
+ * Component Interaction:
+ * FitnessActivityDAO query → Cursor → RowMapper.map() → FitnessActivity
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public final class RowMapper {
+    
+    /**
+     * Every column of a FitnessActivity
+     */
+    public static final String[] ALL_COLUMNS = {
+        DatabaseHelper.COLUMN_ID,
+        DatabaseHelper.COLUMN_TYPE_ID,
+        DatabaseHelper.COLUMN_DURATION,
+        DatabaseHelper.COLUMN_DATE
+    };
+    
+    /**
+     * Columns needed for duration statistics (name and date are left null)
+     */
+    public static final String[] STATS_COLUMNS = {
+        DatabaseHelper.COLUMN_ID,
+        DatabaseHelper.COLUMN_DURATION
+    };
+    
+    // Index of a column that is not part of the projection
+    private static final int ABSENT = -1;
+    
+    private final SQLiteDatabase db;
+    private final ActivityTypeDictionary types;
+    private final Cursor cursor;
+    
+    private final int idIndex;
+    private final int typeIndex;
+    private final int durationIndex;
+    private final int dateIndex;
+    
+    /**
+     * Constructor - resolves the column indexes of the projection
+     * 
+     * @param db Database the cursor was read from (used to load type names)
+     * @param types Type id ↔ name dictionary
+     * @param cursor Cursor over fitness_activities rows
+     * @param columns Projection the cursor was queried with (a subset of ALL_COLUMNS)
+     * @throws IllegalArgumentException if a projected column is missing from the cursor
+     */
+    RowMapper(SQLiteDatabase db, ActivityTypeDictionary types, Cursor cursor, String[] columns) {
+        this.db = db;
+        this.types = types;
+        this.cursor = cursor;
+        this.idIndex = indexOf(cursor, columns, DatabaseHelper.COLUMN_ID);
+        this.typeIndex = indexOf(cursor, columns, DatabaseHelper.COLUMN_TYPE_ID);
+        this.durationIndex = indexOf(cursor, columns, DatabaseHelper.COLUMN_DURATION);
+        this.dateIndex = indexOf(cursor, columns, DatabaseHelper.COLUMN_DATE);
+    }
+    
+    /**
+     * Map the row the cursor is positioned on
+     * 
+     * @return New FitnessActivity holding the projected columns
+     */
+    FitnessActivity map() {
+        return new FitnessActivity(
+            idIndex == ABSENT ? 0 : cursor.getInt(idIndex),
+            typeIndex == ABSENT ? null : types.nameOf(db, cursor.getInt(typeIndex)),
+            durationIndex == ABSENT ? 0 : cursor.getInt(durationIndex),
+            dateIndex == ABSENT ? null : cursor.getString(dateIndex)
+        );
+    }
+    
+    /**
+     * Map every remaining row of the cursor
+     * 
+     * @param activities List the activities are appended to
+     * @return The same list
+     */
+    List<FitnessActivity> mapAll(List<FitnessActivity> activities) {
+        while (cursor.moveToNext()) {
+            activities.add(map());
+        }
+        return activities;
+    }
+    
+    private static int indexOf(Cursor cursor, String[] columns, String column) {
+        for (String projected : columns) {
+            if (projected.equals(column)) {
+                return cursor.getColumnIndexOrThrow(column);
+            }
+        }
+        return ABSENT;
+    }
+}
@@ -0,0 +1,162 @@
+package com.fitlogger.database;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compiled SQLiteStatements kept for reuse, keyed by their SQL text (shape)
+ * 
+ * compileStatement() prepares and validates the SQL on a database connection
+ * every time. The DAO's single-row writes and the count/sum reads run the
+ * same few statements over and over, so they borrow a compiled one here:
+ * 
+ *   SQLiteStatement insert = pool.acquire(db, sql);
+ *   try { bind ...; insert.executeInsert(); } finally { pool.release(insert); }
+ * 
+ * - acquire() hands a statement to ONE caller at a time; a concurrent caller
+ *   of the same shape gets a freshly compiled copy, and release() closes
+ *   the copy if the shape is already pooled again
+ * - release() clears the bindings, so no argument leaks into the next call
+ * - Statements belong to one SQLiteDatabase handle: they are closed with the
+ *   connection (DatabaseHelper.close()) or when another handle asks for them
+ * - At most MAX_IDLE shapes are kept (least recently used closed first)
+ * - Hit/miss counters for diagnostics
+ * 
+ * Only for statements without a result set (INSERT/UPDATE/DELETE and
+ * single-value queries); cursors go through SQLiteDatabase.query()/rawQuery().
+ * 
+ * Thread-safe: readers and the writer thread share one pool.
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public class StatementPool {
+    
+    // Shapes kept idle; SQLite's own per-connection cache holds 25 statements
+    private static final int MAX_IDLE = 16;
+    
+    // Idle statements in LRU order (access order)
+    private final LinkedHashMap<String, SQLiteStatement> idle = new LinkedHashMap<>(MAX_IDLE, 0.75f, true);
+    
+    // Statements handed out and not released yet → their SQL
+    private final Map<SQLiteStatement, String> borrowed = new IdentityHashMap<>();
+    
+    // Handle the statements were compiled on
+    private SQLiteDatabase database;
+    
+    // Statistics
+    private long hitCount;
+    private long missCount;
+    
+    /**
+     * Borrow a compiled statement (compiled now if none is idle)
+     * 
+     * @param db Database handle the statement runs on
+     * @param sql Statement text (the pool key)
+     * @return Statement with no bindings; give it back with release()
+     */
+    public SQLiteStatement acquire(SQLiteDatabase db, String sql) {
+        SQLiteStatement statement;
+        synchronized (this) {
+            if (db != database) {
+                closeIdle();
+                borrowed.clear(); // compiled on the old handle: closed by release()
+                database = db;
+            }
+            statement = idle.remove(sql);
+            if (statement != null) {
+                hitCount++;
+                borrowed.put(statement, sql);
+                return statement;
+            }
+            missCount++;
+        }
+        
+        // Compile outside the lock: other shapes need not wait
+        statement = db.compileStatement(sql);
+        synchronized (this) {
+            if (db == database) {
+                borrowed.put(statement, sql);
+            }
+        }
+        return statement;
+    }
+    
+    /**
+     * Give a statement back (call in a finally block)
+     * 
+     * @param statement Statement returned by acquire()
+     */
+    public void release(SQLiteStatement statement) {
+        statement.clearBindings();
+        synchronized (this) {
+            String sql = borrowed.remove(statement);
+            if (sql != null && !idle.containsKey(sql)) {
+                idle.put(sql, statement);
+                trimIdle();
+                return;
+            }
+        }
+        // Extra copy of a pooled shape, or compiled on a closed handle
+        statement.close();
+    }
+    
+    /**
+     * Close every idle statement; borrowed ones are closed when released
+     */
+    public synchronized void close() {
+        closeIdle();
+        borrowed.clear();
+        database = null;
+    }
+    
+    /**
+     * @return Number of acquire() calls served by an idle statement
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+    
+    /**
+     * @return Number of acquire() calls that had to compile
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+    
+    /**
+     * @return Number of idle statements
+     */
+    public synchronized int size() {
+        return idle.size();
+    }
+    
+    private void trimIdle() {
+        Iterator<SQLiteStatement> eldest = idle.values().iterator();
+        while (idle.size() > MAX_IDLE) {
+            eldest.next().close();
+            eldest.remove();
+        }
+    }
+    
+    private void closeIdle() {
+        for (SQLiteStatement statement : idle.values()) {
+            statement.close();
+        }
+        idle.clear();
+    }
+    
+    @Override
+    public synchronized String toString() {
+        return "StatementPool{" +
+                "idle=" + idle.size() +
+                ", borrowed=" + borrowed.size() +
+                ", hits=" + hitCount +
+                ", misses=" + missCount +
+                '}';
+    }
+}
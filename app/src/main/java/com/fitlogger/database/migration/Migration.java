@@ -0,0 +1,126 @@
+package com.fitlogger.database.migration;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+/**
+ * One schema migration step: version N → N + 1
+ * 
+ * Rules for every step:
+ * - migrate() only changes the schema and must be IDEMPOTENT (use IF NOT EXISTS,
+ *   check columns before ALTER TABLE), so re-running a step is always safe
+ * - Never drop user data; copy it when a table has to be rebuilt
+ * - Large data rewrites go into backfill(), which runs in small batches
+ *   (each in its own transaction) instead of inside the upgrade transaction
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public abstract class Migration {
+    
+    private final int fromVersion;
+    
+    /**
+     * Constructor
+     * 
+     * @param fromVersion Version this step upgrades from (it upgrades to fromVersion + 1)
+     */
+    protected Migration(int fromVersion) {
+        this.fromVersion = fromVersion;
+    }
+    
+    /**
+     * @return Version this step upgrades from
+     */
+    public final int getFromVersion() {
+        return fromVersion;
+    }
+    
+    /**
+     * @return Version this step upgrades to
+     */
+    public final int getToVersion() {
+        return fromVersion + 1;
+    }
+    
+    /**
+     * @return Short human-readable description (used in logs and reports)
+     */
+    public abstract String getDescription();
+    
+    /**
+     * Apply the schema change
+     * Runs inside a transaction; must be idempotent
+     * 
+     * @param db Database being upgraded
+     */
+    public abstract void migrate(SQLiteDatabase db);
+    
+    /**
+     * @return true if this step has data to backfill after migrate()
+     */
+    public boolean hasBackfill() {
+        return false;
+    }
+    
+    /**
+     * Rewind the backfill so the next batches start over from the beginning
+     * Used to re-run a backfill on demand (see MigrationRegistry.restartBackfill)
+     * 
+     * @param db Database
+     */
+    public void resetBackfill(SQLiteDatabase db) {
+    }
+    
+    /**
+     * Process ONE batch of the data backfill
+     * Called repeatedly (each call in its own transaction) until it returns 0
+     * 
+     * @param db Database
+     * @param batchSize Maximum number of rows to process in this batch
+     * @return Number of rows processed; 0 when the backfill is complete
+     */
+    public int backfill(SQLiteDatabase db, int batchSize) {
+        return 0;
+    }
+    
+    /**
+     * Run an UPDATE/DELETE statement and return the number of rows it changed
+     * 
+     * @param db Database
+     * @param sql Statement to run
+     * @return Rows changed
+     */
+    protected static int executeUpdateDelete(SQLiteDatabase db, String sql) {
+        SQLiteStatement statement = db.compileStatement(sql);
+        try {
+            return statement.executeUpdateDelete();
+        } finally {
+            statement.close();
+        }
+    }
+    
+    /**
+     * Check whether a table has a column (used to keep ALTER TABLE idempotent)
+     * 
+     * @param db Database
+     * @param table Table name
+     * @param column Column name
+     * @return true if the column exists
+     */
+    protected static boolean columnExists(SQLiteDatabase db, String table, String column) {
+        Cursor cursor = db.rawQuery("PRAGMA table_info(" + table + ")", null);
+        try {
+            int nameIndex = cursor.getColumnIndexOrThrow("name");
+            while (cursor.moveToNext()) {
+                if (column.equalsIgnoreCase(cursor.getString(nameIndex))) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            cursor.close();
+        }
+    }
+}
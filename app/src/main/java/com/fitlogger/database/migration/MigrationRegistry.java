@@ -0,0 +1,220 @@
+package com.fitlogger.database.migration;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.SystemClock;
+import android.util.Log;
+import android.util.SparseArray;
+
+/**
+ * Ordered registry of schema migrations (replaces drop-and-recreate upgrades)
+ * 
+ * How an upgrade from version A to version B runs:
+ * 1. Every step A → A+1 → ... → B runs in order, each in its own transaction
+ *    (nested inside SQLiteOpenHelper's upgrade transaction, so a failing step
+ *    rolls the whole upgrade back and the version number stays at A)
+ * 2. Steps with a data backfill are recorded in the schema_backfills table
+ * 3. Backfills run in batches for a short time budget during the upgrade;
+ *    whatever is left continues in the background via runBackfillBatch()
+ * 
+ * Per-step timings are logged and returned as a MigrationReport.
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public class MigrationRegistry {
+    
+    private static final String TAG = "MigrationRegistry";
+    
+    /**
+     * Default number of rows processed per backfill batch (one transaction each)
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    
+    // Backfill time allowed inside the upgrade itself (keeps start-up snappy)
+    private static final long INLINE_BACKFILL_BUDGET_MS = 200;
+    
+    // Bookkeeping table: versions whose backfill has not finished yet
+    private static final String TABLE_PENDING_BACKFILLS = "schema_backfills";
+    
+    // Registered steps keyed by the version they upgrade from
+    private final SparseArray<Migration> migrations = new SparseArray<>();
+    
+    /**
+     * Create the registry with every migration of the app, in version order
+     * 
+     * @return Registry ready to upgrade any released schema version
+     */
+    public static MigrationRegistry createDefault() {
+        MigrationRegistry registry = new MigrationRegistry();
+        registry.register(new MigrationV2EpochDay());
+        registry.register(new MigrationV3ActivityTotals());
+        registry.register(new MigrationV4Rollups());
+        registry.register(new MigrationV5ImportCheckpoints());
+        registry.register(new MigrationV6ActivitySearch());
+        registry.register(new MigrationV7ActivityTypes());
+        registry.register(new MigrationV8ActivityStats());
+        registry.register(new MigrationV9SoftDelete());
+        return registry;
+    }
+    
+    /**
+     * Register a migration step
+     * 
+     * @param migration Step to register
+     * @throws IllegalArgumentException if a step for the same version already exists
+     */
+    public void register(Migration migration) {
+        if (migrations.get(migration.getFromVersion()) != null) {
+            throw new IllegalArgumentException(
+                "Duplicate migration from version " + migration.getFromVersion());
+        }
+        migrations.put(migration.getFromVersion(), migration);
+    }
+    
+    /**
+     * Upgrade the schema from oldVersion to newVersion
+     * 
+     * @param db Database being upgraded (inside SQLiteOpenHelper's transaction)
+     * @param oldVersion Current schema version
+     * @param newVersion Target schema version
+     * @return Timing report of the steps that ran
+     * @throws IllegalStateException if a step in the chain is missing
+     */
+    public MigrationReport migrate(SQLiteDatabase db, int oldVersion, int newVersion) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + TABLE_PENDING_BACKFILLS +
+                   " (version INTEGER PRIMARY KEY)");
+        
+        MigrationReport report = new MigrationReport();
+        for (int version = oldVersion; version < newVersion; version++) {
+            Migration migration = migrations.get(version);
+            if (migration == null) {
+                throw new IllegalStateException("No migration from version " + version);
+            }
+            
+            long start = SystemClock.elapsedRealtime();
+            db.beginTransaction();
+            try {
+                migration.migrate(db);
+                if (migration.hasBackfill()) {
+                    db.execSQL("INSERT OR IGNORE INTO " + TABLE_PENDING_BACKFILLS +
+                               " (version) VALUES (" + version + ")");
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+            
+            MigrationReport.Step step =
+                new MigrationReport.Step(migration, SystemClock.elapsedRealtime() - start);
+            report.add(step);
+            Log.i(TAG, "Migrated " + step);
+        }
+        
+        // Small databases finish their backfills right here; large ones continue
+        // in the background so the upgrade never blocks start-up for long
+        long deadline = SystemClock.elapsedRealtime() + INLINE_BACKFILL_BUDGET_MS;
+        while (SystemClock.elapsedRealtime() < deadline
+                && runBackfillBatch(db, DEFAULT_BATCH_SIZE, report)) {
+            // keep going until done or out of budget
+        }
+        return report;
+    }
+    
+    /**
+     * Start a step's backfill over from the beginning (e.g. to rebuild derived data)
+     * The batches then run through runBackfillBatch() like after an upgrade
+     * 
+     * @param db Open database
+     * @param fromVersion Version the step upgrades from
+     * @throws IllegalArgumentException if there is no such step or it has no backfill
+     */
+    public void restartBackfill(SQLiteDatabase db, int fromVersion) {
+        Migration migration = migrations.get(fromVersion);
+        if (migration == null || !migration.hasBackfill()) {
+            throw new IllegalArgumentException("No backfill for migration from version " + fromVersion);
+        }
+        
+        db.beginTransaction();
+        try {
+            migration.resetBackfill(db);
+            db.execSQL("INSERT OR IGNORE INTO " + TABLE_PENDING_BACKFILLS +
+                       " (version) VALUES (" + fromVersion + ")");
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+    
+    /**
+     * Run ONE batch of the oldest pending backfill in its own transaction
+     * 
+     * @param db Open database
+     * @param batchSize Maximum rows in this batch
+     * @param report Report to add the timing to (may be null)
+     * @return true if backfill work may remain (call again), false when all are done
+     */
+    public boolean runBackfillBatch(SQLiteDatabase db, int batchSize, MigrationReport report) {
+        int version = oldestPendingBackfill(db);
+        if (version < 0) {
+            return false;
+        }
+        
+        Migration migration = migrations.get(version);
+        long start = SystemClock.elapsedRealtime();
+        int rows = 0;
+        
+        db.beginTransaction();
+        try {
+            if (migration != null) {
+                rows = migration.backfill(db, batchSize);
+            }
+            if (rows == 0) {
+                db.execSQL("DELETE FROM " + TABLE_PENDING_BACKFILLS + " WHERE version = " + version);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        
+        MigrationReport.Step step = report != null ? report.find(version) : null;
+        if (step != null) {
+            step.backfillRows += rows;
+            step.backfillMillis += SystemClock.elapsedRealtime() - start;
+            step.backfillComplete = rows == 0;
+        }
+        if (rows == 0) {
+            Log.i(TAG, "Backfill for v" + version + " -> v" + (version + 1) + " complete");
+        }
+        return true;
+    }
+    
+    /**
+     * Check whether a step's backfill has not finished yet
+     * 
+     * @param db Open database
+     * @param fromVersion Version the step upgrades from
+     * @return true if the backfill has work left
+     */
+    public boolean isBackfillPending(SQLiteDatabase db, int fromVersion) {
+        Cursor cursor = db.rawQuery("SELECT 1 FROM " + TABLE_PENDING_BACKFILLS +
+                                    " WHERE version = " + fromVersion, null);
+        try {
+            return cursor.moveToFirst();
+        } finally {
+            cursor.close();
+        }
+    }
+    
+    /**
+     * @return Oldest version with a pending backfill, or -1 if there is none
+     */
+    private int oldestPendingBackfill(SQLiteDatabase db) {
+        Cursor cursor = db.rawQuery("SELECT MIN(version) FROM " + TABLE_PENDING_BACKFILLS, null);
+        try {
+            return cursor.moveToFirst() && !cursor.isNull(0) ? cursor.getInt(0) : -1;
+        } finally {
+            cursor.close();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.fitlogger.database.migration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Timing report of a schema upgrade: one entry per migration step
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public class MigrationReport {
+    
+    /**
+     * Timing of one migration step
+     */
+    public static class Step {
+        public final int fromVersion;
+        public final int toVersion;
+        public final String description;
+        public final long schemaMillis;
+        long backfillMillis;
+        long backfillRows;
+        boolean backfillComplete;
+        
+        Step(Migration migration, long schemaMillis) {
+            this.fromVersion = migration.getFromVersion();
+            this.toVersion = migration.getToVersion();
+            this.description = migration.getDescription();
+            this.schemaMillis = schemaMillis;
+            this.backfillComplete = !migration.hasBackfill();
+        }
+        
+        public long getBackfillMillis() {
+            return backfillMillis;
+        }
+        
+        public long getBackfillRows() {
+            return backfillRows;
+        }
+        
+        public boolean isBackfillComplete() {
+            return backfillComplete;
+        }
+        
+        @Override
+        public String toString() {
+            return "v" + fromVersion + " -> v" + toVersion + " (" + description + "): " +
+                   "schema " + schemaMillis + " ms, " +
+                   "backfill " + backfillRows + " rows in " + backfillMillis + " ms" +
+                   (backfillComplete ? "" : " (continuing in background)");
+        }
+    }
+    
+    private final List<Step> steps = new ArrayList<>();
+    
+    void add(Step step) {
+        steps.add(step);
+    }
+    
+    Step find(int fromVersion) {
+        for (Step step : steps) {
+            if (step.fromVersion == fromVersion) {
+                return step;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * @return Steps in the order they ran
+     */
+    public List<Step> getSteps() {
+        return Collections.unmodifiableList(steps);
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("MigrationReport");
+        for (Step step : steps) {
+            builder.append("\n  ").append(step);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,66 @@
+package com.fitlogger.database.migration;
+
+import android.database.sqlite.SQLiteDatabase;
+import com.fitlogger.database.DatabaseHelper;
+
+/**
+ * v1 → v2: integer epoch_day column plus the (epoch_day DESC, id DESC) index
+ * 
+ * The column is filled from the TEXT date column by backfill(), in batches,
+ * so a large history does not block app start-up. Until it is done, list
+ * and range queries take the day of unfilled rows from the date column
+ * (see DatabaseHelper.isEpochDayBackfillPending()).
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+class MigrationV2EpochDay extends Migration {
+    
+    MigrationV2EpochDay() {
+        super(1);
+    }
+    
+    @Override
+    public String getDescription() {
+        return "Add epoch_day column and index";
+    }
+    
+    @Override
+    public void migrate(SQLiteDatabase db) {
+        if (!columnExists(db, DatabaseHelper.TABLE_ACTIVITIES, DatabaseHelper.COLUMN_EPOCH_DAY)) {
+            db.execSQL("ALTER TABLE " + DatabaseHelper.TABLE_ACTIVITIES +
+                       " ADD COLUMN " + DatabaseHelper.COLUMN_EPOCH_DAY + " INTEGER");
+        }
+        createIndex(db);
+    }
+    
+    /**
+     * Create the list-order index on fitness_activities
+     * (also used when a later step rebuilds the table)
+     */
+    static void createIndex(SQLiteDatabase db) {
+        db.execSQL("CREATE INDEX IF NOT EXISTS " + DatabaseHelper.INDEX_ACTIVITIES_EPOCH_DAY +
+                   " ON " + DatabaseHelper.TABLE_ACTIVITIES + " (" +
+                   DatabaseHelper.COLUMN_EPOCH_DAY + " DESC, " + DatabaseHelper.COLUMN_ID + " DESC)");
+    }
+    
+    @Override
+    public boolean hasBackfill() {
+        return true;
+    }
+    
+    @Override
+    public int backfill(SQLiteDatabase db, int batchSize) {
+        // Rows with an unparseable date are skipped (julianday() returns NULL)
+        // so the backfill always terminates
+        return executeUpdateDelete(db,
+                   "UPDATE " + DatabaseHelper.TABLE_ACTIVITIES +
+                   " SET " + DatabaseHelper.COLUMN_EPOCH_DAY +
+                   " = " + DatabaseHelper.EXPRESSION_EPOCH_DAY_OF_DATE +
+                   " WHERE " + DatabaseHelper.COLUMN_ID + " IN (" +
+                   "SELECT " + DatabaseHelper.COLUMN_ID + " FROM " + DatabaseHelper.TABLE_ACTIVITIES +
+                   " WHERE " + DatabaseHelper.COLUMN_EPOCH_DAY + " IS NULL" +
+                   " AND julianday(" + DatabaseHelper.COLUMN_DATE + ") IS NOT NULL" +
+                   " LIMIT " + batchSize + ")");
+    }
+}
@@ -0,0 +1,75 @@
+package com.fitlogger.database.migration;
+
+import android.database.sqlite.SQLiteDatabase;
+import com.fitlogger.database.DatabaseHelper;
+
+/**
+ * v2 → v3: single-row activity_totals table kept exact by triggers
+ * 
+ * Holds the row count and the duration sum of fitness_activities, so the
+ * activity count and total duration are read in constant time instead of
+ * scanning the table. The triggers fire inside the same transaction as the
+ * INSERT/UPDATE/DELETE that caused them, so the totals can never drift.
+ * 
+ * The table is seeded with one COUNT/SUM pass in the same transaction that
+ * creates the triggers (a batched backfill could miss concurrent writes).
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+class MigrationV3ActivityTotals extends Migration {
+    
+    private static final String TABLE = DatabaseHelper.TABLE_ACTIVITY_TOTALS;
+    private static final String COUNT = DatabaseHelper.COLUMN_ACTIVITY_COUNT;
+    private static final String TOTAL = DatabaseHelper.COLUMN_TOTAL_DURATION;
+    private static final String ACTIVITIES = DatabaseHelper.TABLE_ACTIVITIES;
+    private static final String DURATION = DatabaseHelper.COLUMN_DURATION;
+    
+    MigrationV3ActivityTotals() {
+        super(2);
+    }
+    
+    @Override
+    public String getDescription() {
+        return "Add trigger-maintained activity_totals";
+    }
+    
+    @Override
+    public void migrate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + TABLE + " (" +
+                   "id INTEGER PRIMARY KEY CHECK (id = 1), " +
+                   COUNT + " INTEGER NOT NULL, " +
+                   TOTAL + " INTEGER NOT NULL)");
+        
+        createTriggers(db);
+        
+        // Seed (or re-seed, when the step is re-run) from the current rows
+        db.execSQL("INSERT OR REPLACE INTO " + TABLE + " (id, " + COUNT + ", " + TOTAL + ")" +
+                   " SELECT 1, COUNT(*), IFNULL(SUM(" + DURATION + "), 0) FROM " + ACTIVITIES);
+    }
+    
+    /**
+     * Create the triggers that keep activity_totals exact
+     * (also used when a later step rebuilds fitness_activities;
+     * replaced by tombstone-aware triggers in v9, see MigrationV9SoftDelete)
+     */
+    static void createTriggers(SQLiteDatabase db) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_activity_totals_insert" +
+                   " AFTER INSERT ON " + ACTIVITIES + " BEGIN" +
+                   " UPDATE " + TABLE + " SET " +
+                   COUNT + " = " + COUNT + " + 1, " +
+                   TOTAL + " = " + TOTAL + " + NEW." + DURATION +
+                   " WHERE id = 1; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_activity_totals_delete" +
+                   " AFTER DELETE ON " + ACTIVITIES + " BEGIN" +
+                   " UPDATE " + TABLE + " SET " +
+                   COUNT + " = " + COUNT + " - 1, " +
+                   TOTAL + " = " + TOTAL + " - OLD." + DURATION +
+                   " WHERE id = 1; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_activity_totals_update" +
+                   " AFTER UPDATE OF " + DURATION + " ON " + ACTIVITIES + " BEGIN" +
+                   " UPDATE " + TABLE + " SET " +
+                   TOTAL + " = " + TOTAL + " - OLD." + DURATION + " + NEW." + DURATION +
+                   " WHERE id = 1; END");
+    }
+}
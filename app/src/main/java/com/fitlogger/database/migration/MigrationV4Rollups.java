@@ -0,0 +1,293 @@
+package com.fitlogger.database.migration;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import com.fitlogger.database.DatabaseHelper;
+import com.fitlogger.database.EpochDay;
+
+/**
+ * v3 → v4: daily, weekly and monthly rollup tables kept current by triggers
+ * 
+ * Every rollup row holds activity_count, total_duration, min_duration and
+ * max_duration for one bucket:
+ * - activity_rollup_daily   keyed by epoch_day
+ * - activity_rollup_weekly  keyed by week_start (epoch day of the ISO week's Monday)
+ * - activity_rollup_monthly keyed by month (yyyymm)
+ * 
+ * Trigger strategy (runs inside the writing transaction):
+ * - INSERT: increment the three buckets in place
+ * - DELETE / UPDATE: min and max cannot be "decremented", so the affected day
+ *   is recomputed from its index range, and its week/month from at most
+ *   7/31 daily rows
+ * 
+ * Existing rows are aggregated by backfill(), which walks the
+ * counted_activities view in epoch_day order in batches. The view is every
+ * row of fitness_activities here; a later step that changes which rows count
+ * redefines it (v9 leaves out the tombstones), so this step's SQL never
+ * names a column of a later version. The same backfill is the "rebuild"
+ * command (see DatabaseHelper.rebuildRollups()): resetBackfill() rewinds it.
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+class MigrationV4Rollups extends Migration {
+    
+    private static final String ACTIVITIES = DatabaseHelper.TABLE_ACTIVITIES;
+    private static final String EPOCH_DAY = DatabaseHelper.COLUMN_EPOCH_DAY;
+    private static final String DURATION = DatabaseHelper.COLUMN_DURATION;
+    private static final String COUNTED = DatabaseHelper.VIEW_COUNTED_ACTIVITIES;
+    
+    private static final String DAILY = DatabaseHelper.TABLE_ROLLUP_DAILY;
+    private static final String WEEKLY = DatabaseHelper.TABLE_ROLLUP_WEEKLY;
+    private static final String MONTHLY = DatabaseHelper.TABLE_ROLLUP_MONTHLY;
+    private static final String WEEK_START = DatabaseHelper.COLUMN_WEEK_START;
+    private static final String MONTH = DatabaseHelper.COLUMN_MONTH;
+    
+    private static final String COUNT = DatabaseHelper.COLUMN_ACTIVITY_COUNT;
+    private static final String TOTAL = DatabaseHelper.COLUMN_TOTAL_DURATION;
+    private static final String MIN = DatabaseHelper.COLUMN_MIN_DURATION;
+    private static final String MAX = DatabaseHelper.COLUMN_MAX_DURATION;
+    
+    // Rebuild progress: next epoch day to aggregate (row absent = nothing to rebuild)
+    private static final String REBUILD_STATE = "activity_rollup_rebuild";
+    
+    // julianday('1970-01-01')
+    private static final String JULIAN_EPOCH = "2440587.5";
+    
+    MigrationV4Rollups() {
+        super(3);
+    }
+    
+    @Override
+    public String getDescription() {
+        return "Add daily/weekly/monthly rollup tables";
+    }
+    
+    @Override
+    public void migrate(SQLiteDatabase db) {
+        createRollupTable(db, DAILY, EPOCH_DAY);
+        createRollupTable(db, WEEKLY, WEEK_START);
+        createRollupTable(db, MONTHLY, MONTH);
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + REBUILD_STATE + " (" +
+                   "id INTEGER PRIMARY KEY CHECK (id = 1), next_epoch_day INTEGER NOT NULL)");
+        
+        createCountedView(db);
+        createTriggers(db);
+        resetBackfill(db);
+    }
+    
+    /**
+     * Create counted_activities as every row of fitness_activities
+     * (also used when a later step rebuilds fitness_activities;
+     * redefined in v9, see MigrationV9SoftDelete)
+     */
+    static void createCountedView(SQLiteDatabase db) {
+        db.execSQL("CREATE VIEW IF NOT EXISTS " + COUNTED + " AS SELECT * FROM " + ACTIVITIES);
+    }
+    
+    /**
+     * Create the triggers that keep the rollup tables current
+     * (also used when a later step rebuilds fitness_activities;
+     * replaced by tombstone-aware triggers in v9, see MigrationV9SoftDelete)
+     */
+    static void createTriggers(SQLiteDatabase db) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_rollup_insert" +
+                   " AFTER INSERT ON " + ACTIVITIES +
+                   " WHEN NEW." + EPOCH_DAY + " IS NOT NULL BEGIN " +
+                   increment(DAILY, EPOCH_DAY, "NEW." + EPOCH_DAY) +
+                   increment(WEEKLY, WEEK_START, weekOf("NEW." + EPOCH_DAY)) +
+                   increment(MONTHLY, MONTH, monthOf("NEW." + EPOCH_DAY)) +
+                   "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_rollup_delete" +
+                   " AFTER DELETE ON " + ACTIVITIES +
+                   " WHEN OLD." + EPOCH_DAY + " IS NOT NULL BEGIN " +
+                   recompute("OLD." + EPOCH_DAY) +
+                   "END");
+        // A NULL epoch_day (row not backfilled yet) matches nothing, so no WHEN is needed
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_rollup_update" +
+                   " AFTER UPDATE OF " + DURATION + ", " + EPOCH_DAY + " ON " + ACTIVITIES + " BEGIN " +
+                   recompute("OLD." + EPOCH_DAY) +
+                   recompute("NEW." + EPOCH_DAY) +
+                   "END");
+    }
+    
+    @Override
+    public boolean hasBackfill() {
+        return true;
+    }
+    
+    @Override
+    public void resetBackfill(SQLiteDatabase db) {
+        db.execSQL("INSERT OR REPLACE INTO " + REBUILD_STATE + " (id, next_epoch_day)" +
+                   " VALUES (1, " + Integer.MIN_VALUE + ")");
+    }
+    
+    /**
+     * Re-aggregate the next range of about batchSize activities
+     * 
+     * The range [from, to) always ends on a day boundary, so every day is
+     * aggregated in one go; weeks and months cut by the boundary are
+     * recomputed again by the next batch.
+     */
+    @Override
+    public int backfill(SQLiteDatabase db, int batchSize) {
+        long from;
+        Cursor cursor = db.rawQuery("SELECT next_epoch_day FROM " + REBUILD_STATE + " WHERE id = 1", null);
+        try {
+            if (!cursor.moveToFirst()) {
+                return 0;
+            }
+            from = cursor.getLong(0);
+        } finally {
+            cursor.close();
+        }
+        
+        // First day after this batch (walks the epoch_day index)
+        long to = Long.MAX_VALUE;
+        cursor = db.rawQuery("SELECT " + EPOCH_DAY + " FROM " + COUNTED +
+                             " WHERE " + EPOCH_DAY + " >= " + from +
+                             " ORDER BY " + EPOCH_DAY + " LIMIT 1 OFFSET " + batchSize, null);
+        try {
+            if (cursor.moveToFirst()) {
+                to = Math.max(cursor.getLong(0), from + 1);
+            }
+        } finally {
+            cursor.close();
+        }
+        boolean first = from == Integer.MIN_VALUE;
+        boolean last = to == Long.MAX_VALUE;
+        
+        // Days
+        db.execSQL("DELETE FROM " + DAILY + " WHERE " + EPOCH_DAY + " >= " + from +
+                   " AND " + EPOCH_DAY + " < " + to);
+        int days = executeUpdateDelete(db,
+                   "INSERT INTO " + DAILY + " (" + EPOCH_DAY + ", " + COUNT + ", " + TOTAL + ", " +
+                   MIN + ", " + MAX + ")" +
+                   " SELECT " + EPOCH_DAY + ", COUNT(*), SUM(" + DURATION + "), MIN(" + DURATION +
+                   "), MAX(" + DURATION + ") FROM " + COUNTED +
+                   " WHERE " + EPOCH_DAY + " >= " + from + " AND " + EPOCH_DAY + " < " + to +
+                   " GROUP BY " + EPOCH_DAY);
+        
+        // Weeks touching [from, to)
+        long firstWeek = first ? Integer.MIN_VALUE : EpochDay.startOfWeek((int) from);
+        long lastWeek = last ? Integer.MAX_VALUE : EpochDay.startOfWeek((int) (to - 1));
+        db.execSQL("DELETE FROM " + WEEKLY + " WHERE " + WEEK_START + " BETWEEN " +
+                   firstWeek + " AND " + lastWeek);
+        db.execSQL(aggregateDaily(WEEKLY, WEEK_START, weekOf(EPOCH_DAY),
+                                  firstWeek, lastWeek + 7));
+        
+        // Months touching [from, to)
+        long firstMonth = first ? Integer.MIN_VALUE : EpochDay.toMonthKey((int) from);
+        long lastMonth = last ? Integer.MAX_VALUE : EpochDay.toMonthKey((int) (to - 1));
+        long firstMonthDay = first ? Integer.MIN_VALUE : EpochDay.startOfMonth((int) firstMonth);
+        long endMonthDay = last ? Long.MAX_VALUE : EpochDay.startOfMonth(nextMonth((int) lastMonth));
+        db.execSQL("DELETE FROM " + MONTHLY + " WHERE " + MONTH + " BETWEEN " +
+                   firstMonth + " AND " + lastMonth);
+        db.execSQL(aggregateDaily(MONTHLY, MONTH, monthOf(EPOCH_DAY),
+                                  firstMonthDay, endMonthDay));
+        
+        if (last) {
+            db.execSQL("DELETE FROM " + REBUILD_STATE);
+        } else {
+            db.execSQL("UPDATE " + REBUILD_STATE + " SET next_epoch_day = " + to + " WHERE id = 1");
+        }
+        // Report progress even for an empty range; the next call returns 0
+        return Math.max(days, 1);
+    }
+    
+    // ==================== SQL builders ====================
+    
+    private static void createRollupTable(SQLiteDatabase db, String table, String keyColumn) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + table + " (" +
+                   keyColumn + " INTEGER PRIMARY KEY, " +
+                   COUNT + " INTEGER NOT NULL, " +
+                   TOTAL + " INTEGER NOT NULL, " +
+                   MIN + " INTEGER NOT NULL, " +
+                   MAX + " INTEGER NOT NULL)");
+    }
+    
+    /**
+     * Trigger statements adding NEW.duration to one bucket
+     */
+    static String increment(String table, String keyColumn, String key) {
+        return "INSERT OR IGNORE INTO " + table +
+               " (" + keyColumn + ", " + COUNT + ", " + TOTAL + ", " + MIN + ", " + MAX + ")" +
+               " VALUES (" + key + ", 0, 0, NEW." + DURATION + ", NEW." + DURATION + "); " +
+               "UPDATE " + table + " SET " +
+               COUNT + " = " + COUNT + " + 1, " +
+               TOTAL + " = " + TOTAL + " + NEW." + DURATION + ", " +
+               MIN + " = MIN(" + MIN + ", NEW." + DURATION + "), " +
+               MAX + " = MAX(" + MAX + ", NEW." + DURATION + ")" +
+               " WHERE " + keyColumn + " = " + key + "; ";
+    }
+    
+    /**
+     * Trigger statements recomputing the day, week and month of one epoch day
+     */
+    private static String recompute(String day) {
+        return recompute(day, "");
+    }
+    
+    /**
+     * Same, counting only the activities that match an extra condition
+     * 
+     * @param filter " AND ..." condition on fitness_activities, or ""
+     */
+    static String recompute(String day, String filter) {
+        String week = weekOf(day);
+        String month = monthOf(day);
+        return "DELETE FROM " + DAILY + " WHERE " + EPOCH_DAY + " = " + day + "; " +
+               "INSERT INTO " + DAILY +
+               " SELECT " + day + ", COUNT(*), SUM(" + DURATION + "), MIN(" + DURATION + "), MAX(" +
+               DURATION + ") FROM " + ACTIVITIES + " WHERE " + EPOCH_DAY + " = " + day + filter +
+               " HAVING COUNT(*) > 0; " +
+               
+               "DELETE FROM " + WEEKLY + " WHERE " + WEEK_START + " = " + week + "; " +
+               "INSERT INTO " + WEEKLY +
+               " SELECT " + week + ", SUM(" + COUNT + "), SUM(" + TOTAL + "), MIN(" + MIN + "), MAX(" +
+               MAX + ") FROM " + DAILY + " WHERE " + EPOCH_DAY + " BETWEEN " + week +
+               " AND " + week + " + 6 HAVING COUNT(*) > 0; " +
+               
+               "DELETE FROM " + MONTHLY + " WHERE " + MONTH + " = " + month + "; " +
+               "INSERT INTO " + MONTHLY +
+               " SELECT " + month + ", SUM(" + COUNT + "), SUM(" + TOTAL + "), MIN(" + MIN + "), MAX(" +
+               MAX + ") FROM " + DAILY + " WHERE " + EPOCH_DAY + " >= " + startOfMonthOf(day) +
+               " AND " + EPOCH_DAY + " < " + startOfNextMonthOf(day) + " HAVING COUNT(*) > 0; ";
+    }
+    
+    /**
+     * INSERT aggregating daily rows in [fromDay, toDay) into week or month buckets
+     */
+    private static String aggregateDaily(String table, String keyColumn, String keyExpression,
+                                         long fromDay, long toDay) {
+        return "INSERT INTO " + table + " (" + keyColumn + ", " + COUNT + ", " + TOTAL + ", " +
+               MIN + ", " + MAX + ")" +
+               " SELECT " + keyExpression + " AS bucket, SUM(" + COUNT + "), SUM(" + TOTAL + "), MIN(" +
+               MIN + "), MAX(" + MAX + ") FROM " + DAILY +
+               " WHERE " + EPOCH_DAY + " >= " + fromDay + " AND " + EPOCH_DAY + " < " + toDay +
+               " GROUP BY bucket";
+    }
+    
+    // Same arithmetic as EpochDay.startOfWeek (1970-01-01 was a Thursday)
+    static String weekOf(String day) {
+        return "(" + day + " - ((" + day + " + 3) % 7 + 7) % 7)";
+    }
+    
+    static String monthOf(String day) {
+        return "CAST(strftime('%Y%m', " + day + " + " + JULIAN_EPOCH + ") AS INTEGER)";
+    }
+    
+    private static String startOfMonthOf(String day) {
+        return "CAST(julianday(" + day + " + " + JULIAN_EPOCH + ", 'start of month') - " +
+               JULIAN_EPOCH + " AS INTEGER)";
+    }
+    
+    private static String startOfNextMonthOf(String day) {
+        return "CAST(julianday(" + day + " + " + JULIAN_EPOCH + ", 'start of month', '+1 month') - " +
+               JULIAN_EPOCH + " AS INTEGER)";
+    }
+    
+    private static int nextMonth(int monthKey) {
+        return monthKey % 100 == 12 ? (monthKey / 100 + 1) * 100 + 1 : monthKey + 1;
+    }
+}
@@ -0,0 +1,39 @@
+package com.fitlogger.database.migration;
+
+import android.database.sqlite.SQLiteDatabase;
+import com.fitlogger.database.DatabaseHelper;
+
+/**
+ * v4 → v5: import_checkpoints table used by the file importer
+ * 
+ * One row per import source (file) recording how many input records have been
+ * consumed and how many rows were imported or rejected so far. The importer
+ * updates it inside the same transaction as each chunk of inserted rows, so
+ * after a crash the checkpoint always matches the committed rows and the
+ * import resumes exactly where it stopped.
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+class MigrationV5ImportCheckpoints extends Migration {
+    
+    MigrationV5ImportCheckpoints() {
+        super(4);
+    }
+    
+    @Override
+    public String getDescription() {
+        return "Add import_checkpoints";
+    }
+    
+    @Override
+    public void migrate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + DatabaseHelper.TABLE_IMPORT_CHECKPOINTS + " (" +
+                   DatabaseHelper.COLUMN_SOURCE + " TEXT PRIMARY KEY, " +
+                   DatabaseHelper.COLUMN_RECORDS_DONE + " INTEGER NOT NULL, " +
+                   DatabaseHelper.COLUMN_ROWS_IMPORTED + " INTEGER NOT NULL, " +
+                   DatabaseHelper.COLUMN_ROWS_REJECTED + " INTEGER NOT NULL, " +
+                   DatabaseHelper.COLUMN_COMPLETE + " INTEGER NOT NULL DEFAULT 0, " +
+                   DatabaseHelper.COLUMN_UPDATED_AT + " INTEGER NOT NULL)");
+    }
+}
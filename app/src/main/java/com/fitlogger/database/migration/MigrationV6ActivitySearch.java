@@ -0,0 +1,61 @@
+package com.fitlogger.database.migration;
+
+import android.database.sqlite.SQLiteDatabase;
+import com.fitlogger.database.DatabaseHelper;
+
+/**
+ * v5 → v6: full-text index over activity names
+ * 
+ * activity_search is an FTS4 "external content" table: it stores only the
+ * index (terms → docids), while the text itself stays in fitness_activities
+ * (docid = id). Triggers keep the index in step with every write, inside the
+ * same transaction:
+ * - the old terms are removed BEFORE a row is deleted or renamed (FTS reads
+ *   the current content to know which terms to remove)
+ * - the new terms are added AFTER a row is inserted or renamed
+ * 
+ * The index is (re)built from the existing rows with FTS4's 'rebuild' command.
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+class MigrationV6ActivitySearch extends Migration {
+    
+    private static final String SEARCH = DatabaseHelper.TABLE_ACTIVITY_SEARCH;
+    private static final String ACTIVITIES = DatabaseHelper.TABLE_ACTIVITIES;
+    private static final String ID = DatabaseHelper.COLUMN_ID;
+    private static final String NAME = DatabaseHelper.COLUMN_ACTIVITY_NAME;
+    
+    MigrationV6ActivitySearch() {
+        super(5);
+    }
+    
+    @Override
+    public String getDescription() {
+        return "Add FTS4 activity_search index";
+    }
+    
+    @Override
+    public void migrate(SQLiteDatabase db) {
+        db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS " + SEARCH +
+                   " USING fts4(content=\"" + ACTIVITIES + "\", " + NAME + ")");
+        
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_search_insert" +
+                   " AFTER INSERT ON " + ACTIVITIES + " BEGIN" +
+                   " INSERT INTO " + SEARCH + " (docid, " + NAME + ")" +
+                   " VALUES (NEW." + ID + ", NEW." + NAME + "); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_search_delete" +
+                   " BEFORE DELETE ON " + ACTIVITIES + " BEGIN" +
+                   " DELETE FROM " + SEARCH + " WHERE docid = OLD." + ID + "; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_search_update_before" +
+                   " BEFORE UPDATE OF " + NAME + " ON " + ACTIVITIES + " BEGIN" +
+                   " DELETE FROM " + SEARCH + " WHERE docid = OLD." + ID + "; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_search_update_after" +
+                   " AFTER UPDATE OF " + NAME + " ON " + ACTIVITIES + " BEGIN" +
+                   " INSERT INTO " + SEARCH + " (docid, " + NAME + ")" +
+                   " VALUES (NEW." + ID + ", NEW." + NAME + "); END");
+        
+        // Index the existing rows (also repairs the index when the step is re-run)
+        db.execSQL("INSERT INTO " + SEARCH + " (" + SEARCH + ") VALUES ('rebuild')");
+    }
+}
@@ -0,0 +1,122 @@
+package com.fitlogger.database.migration;
+
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import com.fitlogger.database.DatabaseHelper;
+
+/**
+ * v6 → v7: activity names move into the activity_types dictionary
+ * 
+ * Every distinct name is stored once in activity_types, and
+ * fitness_activities keeps an INTEGER type_id instead of the repeated text.
+ * SQLite cannot drop a column (before 3.35), so the table is rebuilt:
+ * 1. fill activity_types with every distinct name
+ * 2. copy the rows into a new table, replacing the name by its type_id
+ *    (same ids, so caches, checkpoints and rollups stay valid)
+ * 3. drop the old table (its triggers and indexes go with it), the view
+ *    over it and the per-activity search index, rename the new table
+ * 4. re-create the index, the totals/rollup triggers and the view of v2-v4
+ *    (the summary tables themselves are unchanged: same rows, same values)
+ * 5. index the type names for search (FTS4 over activity_types)
+ * 
+ * The whole rebuild runs in the migration transaction, so it either
+ * completes or leaves the v6 table untouched. The copy is deliberately ONE
+ * INSERT ... SELECT rather than a batched backfill (schema_backfills): v7
+ * code reads type_id and cannot insert into the v6 table (activity_name is
+ * NOT NULL), so the new table has to be complete before the upgrade ends,
+ * and batches committed separately would only expose a half-copied table.
+ * The single statement is also the cheapest copy: about 0.4 s per 100k rows
+ * on the JVM, the file shrinking by about a fifth (MigrationV7ActivityTypesTest).
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+class MigrationV7ActivityTypes extends Migration {
+    
+    private static final String TYPES = DatabaseHelper.TABLE_ACTIVITY_TYPES;
+    private static final String TYPE_SEARCH = DatabaseHelper.TABLE_ACTIVITY_TYPE_SEARCH;
+    private static final String ACTIVITIES = DatabaseHelper.TABLE_ACTIVITIES;
+    private static final String REBUILT = ACTIVITIES + "_v7";
+    
+    private static final String ID = DatabaseHelper.COLUMN_ID;
+    private static final String NAME = DatabaseHelper.COLUMN_TYPE_NAME;
+    private static final String TYPE_ID = DatabaseHelper.COLUMN_TYPE_ID;
+    private static final String OLD_NAME = DatabaseHelper.COLUMN_ACTIVITY_NAME;
+    private static final String DURATION = DatabaseHelper.COLUMN_DURATION;
+    private static final String DATE = DatabaseHelper.COLUMN_DATE;
+    private static final String EPOCH_DAY = DatabaseHelper.COLUMN_EPOCH_DAY;
+    
+    MigrationV7ActivityTypes() {
+        super(6);
+    }
+    
+    @Override
+    public String getDescription() {
+        return "Move activity names into activity_types";
+    }
+    
+    @Override
+    public void migrate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + TYPES + " (" +
+                   ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                   NAME + " TEXT NOT NULL UNIQUE)");
+        
+        // Only rebuild while the old text column still exists (the step may be re-run)
+        if (columnExists(db, ACTIVITIES, OLD_NAME)) {
+            rebuildActivities(db);
+        }
+        db.execSQL("CREATE INDEX IF NOT EXISTS " + DatabaseHelper.INDEX_ACTIVITIES_TYPE +
+                   " ON " + ACTIVITIES + " (" + TYPE_ID + ")");
+        
+        // Search index over the (few) type names instead of every row
+        db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS " + TYPE_SEARCH +
+                   " USING fts4(content=\"" + TYPES + "\", " + NAME + ")");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_type_search_insert" +
+                   " AFTER INSERT ON " + TYPES + " BEGIN" +
+                   " INSERT INTO " + TYPE_SEARCH + " (docid, " + NAME + ")" +
+                   " VALUES (NEW." + ID + ", NEW." + NAME + "); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_type_search_delete" +
+                   " BEFORE DELETE ON " + TYPES + " BEGIN" +
+                   " DELETE FROM " + TYPE_SEARCH + " WHERE docid = OLD." + ID + "; END");
+        db.execSQL("INSERT INTO " + TYPE_SEARCH + " (" + TYPE_SEARCH + ") VALUES ('rebuild')");
+    }
+    
+    /**
+     * Replace fitness_activities by a copy that stores type_id instead of the name
+     */
+    private static void rebuildActivities(SQLiteDatabase db) {
+        // Names in order of first use, so the most established types get the lowest ids
+        db.execSQL("INSERT OR IGNORE INTO " + TYPES + " (" + NAME + ")" +
+                   " SELECT " + OLD_NAME + " FROM " + ACTIVITIES +
+                   " GROUP BY " + OLD_NAME + " ORDER BY MIN(" + ID + ")");
+        
+        db.execSQL("DROP TABLE IF EXISTS " + REBUILT);
+        db.execSQL("CREATE TABLE " + REBUILT + " (" +
+                   ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                   TYPE_ID + " INTEGER NOT NULL REFERENCES " + TYPES + " (" + ID + "), " +
+                   DURATION + " INTEGER NOT NULL, " +
+                   DATE + " TEXT NOT NULL, " +
+                   EPOCH_DAY + " INTEGER)");
+        db.execSQL("INSERT INTO " + REBUILT + " (" +
+                   ID + ", " + TYPE_ID + ", " + DURATION + ", " + DATE + ", " + EPOCH_DAY + ")" +
+                   " SELECT a." + ID + ", t." + ID + ", a." + DURATION + ", a." + DATE + ", a." + EPOCH_DAY +
+                   " FROM " + ACTIVITIES + " a JOIN " + TYPES + " t ON t." + NAME + " = a." + OLD_NAME);
+        
+        // Keep AUTOINCREMENT from handing out ids of rows deleted before the rebuild
+        long sequence = DatabaseUtils.longForQuery(db,
+                "SELECT IFNULL(MAX(seq), 0) FROM sqlite_sequence WHERE name = ?", new String[]{ACTIVITIES});
+        
+        // The rename checks every view, so none may point at the dropped table
+        db.execSQL("DROP VIEW IF EXISTS " + DatabaseHelper.VIEW_COUNTED_ACTIVITIES);
+        db.execSQL("DROP TABLE IF EXISTS " + DatabaseHelper.TABLE_ACTIVITY_SEARCH);
+        db.execSQL("DROP TABLE " + ACTIVITIES);
+        db.execSQL("ALTER TABLE " + REBUILT + " RENAME TO " + ACTIVITIES);
+        db.execSQL("UPDATE sqlite_sequence SET seq = MAX(seq, " + sequence + ") WHERE name = ?",
+                   new Object[]{ACTIVITIES});
+        
+        MigrationV2EpochDay.createIndex(db);
+        MigrationV3ActivityTotals.createTriggers(db);
+        MigrationV4Rollups.createTriggers(db);
+        MigrationV4Rollups.createCountedView(db);
+    }
+}
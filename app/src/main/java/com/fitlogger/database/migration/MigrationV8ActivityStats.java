@@ -0,0 +1,252 @@
+package com.fitlogger.database.migration;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import com.fitlogger.database.DatabaseHelper;
+
+/**
+ * v7 → v8: streak runs and per-type personal records kept current by triggers
+ * 
+ * - activity_streaks (start_day PRIMARY KEY, end_day): one row per run of
+ *   consecutive days that have at least one activity. A day becomes active
+ *   or inactive exactly when its activity_rollup_daily row is inserted or
+ *   deleted, so the triggers sit on the daily rollup: an inserted day joins
+ *   its neighbouring runs, a deleted day splits its run in two.
+ * - activity_type_records (type_id PRIMARY KEY, best_duration, activity_id,
+ *   epoch_day): the longest activity of every type (ties: the earliest id).
+ *   An insert only compares against the stored record; deleting or changing
+ *   the record activity looks the type up again in
+ *   idx_activities_type_duration (one index seek, no scan).
+ * 
+ * Trigger statements never use an ON CONFLICT clause: inside a trigger it
+ * would be overridden by the clause of the outer statement (the rollup
+ * triggers insert with OR IGNORE).
+ * 
+ * Both tables are derived data: backfill() recomputes them from scratch,
+ * from the daily rollup and from the rows of counted_activities (the v4 view,
+ * which v9 narrows to the live rows). It is also the "rebuild" command (see
+ * DatabaseHelper.rebuildRollups()).
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+class MigrationV8ActivityStats extends Migration {
+    
+    private static final String ACTIVITIES = DatabaseHelper.TABLE_ACTIVITIES;
+    private static final String ID = DatabaseHelper.COLUMN_ID;
+    private static final String TYPE_ID = DatabaseHelper.COLUMN_TYPE_ID;
+    private static final String DURATION = DatabaseHelper.COLUMN_DURATION;
+    private static final String EPOCH_DAY = DatabaseHelper.COLUMN_EPOCH_DAY;
+    private static final String COUNTED = DatabaseHelper.VIEW_COUNTED_ACTIVITIES;
+    
+    private static final String DAILY = DatabaseHelper.TABLE_ROLLUP_DAILY;
+    
+    private static final String STREAKS = DatabaseHelper.TABLE_STREAKS;
+    private static final String START_DAY = DatabaseHelper.COLUMN_START_DAY;
+    private static final String END_DAY = DatabaseHelper.COLUMN_END_DAY;
+    
+    private static final String RECORDS = DatabaseHelper.TABLE_TYPE_RECORDS;
+    private static final String BEST_DURATION = DatabaseHelper.COLUMN_BEST_DURATION;
+    private static final String ACTIVITY_ID = DatabaseHelper.COLUMN_ACTIVITY_ID;
+    
+    // Rebuild request flag (row absent = nothing to rebuild)
+    private static final String REBUILD_STATE = "activity_stats_rebuild";
+    
+    MigrationV8ActivityStats() {
+        super(7);
+    }
+    
+    @Override
+    public String getDescription() {
+        return "Add activity_streaks and activity_type_records";
+    }
+    
+    @Override
+    public void migrate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + STREAKS + " (" +
+                   START_DAY + " INTEGER PRIMARY KEY, " +
+                   END_DAY + " INTEGER NOT NULL)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS " + DatabaseHelper.INDEX_STREAKS_END_DAY +
+                   " ON " + STREAKS + " (" + END_DAY + ")");
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + RECORDS + " (" +
+                   TYPE_ID + " INTEGER PRIMARY KEY, " +
+                   BEST_DURATION + " INTEGER NOT NULL, " +
+                   ACTIVITY_ID + " INTEGER NOT NULL, " +
+                   EPOCH_DAY + " INTEGER)");
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + REBUILD_STATE + " (" +
+                   "id INTEGER PRIMARY KEY CHECK (id = 1))");
+        
+        // Streak triggers live on the daily rollup, which fitness_activities rebuilds keep
+        String day = "NEW." + EPOCH_DAY;
+        String rightEnd = "IFNULL((SELECT " + END_DAY + " FROM " + STREAKS +
+                          " WHERE " + START_DAY + " = " + day + " + 1), " + day + ")";
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_streak_day_insert" +
+                   " AFTER INSERT ON " + DAILY + " BEGIN " +
+                   // New run from the day (through the run that starts the next day),
+                   // unless the run ending the day before is extended instead
+                   "INSERT INTO " + STREAKS + " (" + START_DAY + ", " + END_DAY + ")" +
+                   " SELECT " + day + ", " + rightEnd +
+                   " WHERE NOT EXISTS (SELECT 1 FROM " + STREAKS +
+                   " WHERE " + END_DAY + " = " + day + " - 1); " +
+                   "UPDATE " + STREAKS + " SET " + END_DAY + " = " + rightEnd +
+                   " WHERE " + END_DAY + " = " + day + " - 1; " +
+                   "DELETE FROM " + STREAKS + " WHERE " + START_DAY + " = " + day + " + 1; " +
+                   "END");
+        
+        day = "OLD." + EPOCH_DAY;
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_streak_day_delete" +
+                   " AFTER DELETE ON " + DAILY + " BEGIN " +
+                   // The part of the run after the day becomes a run of its own...
+                   "INSERT INTO " + STREAKS + " (" + START_DAY + ", " + END_DAY + ")" +
+                   " SELECT " + day + " + 1, " + END_DAY + " FROM " + STREAKS +
+                   " WHERE " + START_DAY + " = (SELECT MAX(" + START_DAY + ") FROM " + STREAKS +
+                   " WHERE " + START_DAY + " <= " + day + ") AND " + END_DAY + " > " + day + "; " +
+                   // ...the part before it ends the day before (or is removed if empty)
+                   "UPDATE " + STREAKS + " SET " + END_DAY + " = " + day + " - 1" +
+                   " WHERE " + START_DAY + " = (SELECT MAX(" + START_DAY + ") FROM " + STREAKS +
+                   " WHERE " + START_DAY + " < " + day + ") AND " + END_DAY + " >= " + day + "; " +
+                   "DELETE FROM " + STREAKS + " WHERE " + START_DAY + " = " + day + "; " +
+                   "END");
+        
+        createTriggers(db);
+        resetBackfill(db);
+    }
+    
+    /**
+     * Create the personal-record index and triggers on fitness_activities
+     * (for a later step that rebuilds the table; replaced by tombstone-aware
+     * triggers in v9, see MigrationV9SoftDelete)
+     */
+    static void createTriggers(SQLiteDatabase db) {
+        db.execSQL("CREATE INDEX IF NOT EXISTS " + DatabaseHelper.INDEX_ACTIVITIES_TYPE_DURATION +
+                   " ON " + ACTIVITIES + " (" + TYPE_ID + ", " + DURATION + " DESC)");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_record_insert" +
+                   " AFTER INSERT ON " + ACTIVITIES + " BEGIN " +
+                   challenge() +
+                   "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_record_delete" +
+                   " AFTER DELETE ON " + ACTIVITIES + " BEGIN " +
+                   forgetRecord("") +
+                   "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_record_update" +
+                   " AFTER UPDATE OF " + TYPE_ID + ", " + DURATION + ", " + EPOCH_DAY +
+                   " ON " + ACTIVITIES + " BEGIN " +
+                   forgetRecord("") +
+                   challenge() +
+                   "END");
+    }
+    
+    @Override
+    public boolean hasBackfill() {
+        return true;
+    }
+    
+    @Override
+    public void resetBackfill(SQLiteDatabase db) {
+        db.execSQL("INSERT OR IGNORE INTO " + REBUILD_STATE + " (id) VALUES (1)");
+    }
+    
+    /**
+     * Recompute both tables in one batch: they hold one row per type and per
+     * run of days, so the work is one pass over the daily rollup plus one
+     * index seek per type
+     */
+    @Override
+    public int backfill(SQLiteDatabase db, int batchSize) {
+        if (executeUpdateDelete(db, "DELETE FROM " + REBUILD_STATE) == 0) {
+            return 0;
+        }
+        
+        // Streaks: walk the active days in order and close a run at every gap
+        db.execSQL("DELETE FROM " + STREAKS);
+        int runs = 0;
+        SQLiteStatement insert = db.compileStatement(
+                "INSERT INTO " + STREAKS + " (" + START_DAY + ", " + END_DAY + ") VALUES (?, ?)");
+        Cursor cursor = db.rawQuery("SELECT " + EPOCH_DAY + " FROM " + DAILY +
+                                    " ORDER BY " + EPOCH_DAY, null);
+        try {
+            long start = 0;
+            long end = 0;
+            while (cursor.moveToNext()) {
+                long day = cursor.getLong(0);
+                if (runs > 0 && day == end + 1) {
+                    end = day;
+                    continue;
+                }
+                if (runs > 0) {
+                    insertRun(insert, start, end);
+                }
+                start = day;
+                end = day;
+                runs++;
+            }
+            if (runs > 0) {
+                insertRun(insert, start, end);
+            }
+        } finally {
+            cursor.close();
+            insert.close();
+        }
+        
+        // Records: the first entry of every type in (type_id, duration DESC, id)
+        db.execSQL("DELETE FROM " + RECORDS);
+        int records = executeUpdateDelete(db,
+                "INSERT INTO " + RECORDS + " (" + TYPE_ID + ", " + BEST_DURATION + ", " +
+                ACTIVITY_ID + ", " + EPOCH_DAY + ")" +
+                " SELECT " + TYPE_ID + ", " + DURATION + ", " + ID + ", " + EPOCH_DAY +
+                " FROM " + ACTIVITIES + " WHERE " + ID + " IN (SELECT (" + bestOf("t." + ID) + ")" +
+                " FROM " + DatabaseHelper.TABLE_ACTIVITY_TYPES + " t)");
+        
+        // Report progress even when both are empty; the next call returns 0
+        return Math.max(runs + records, 1);
+    }
+    
+    private static void insertRun(SQLiteStatement insert, long start, long end) {
+        insert.bindLong(1, start);
+        insert.bindLong(2, end);
+        insert.executeInsert();
+    }
+    
+    // ==================== SQL builders ====================
+    
+    /**
+     * Subquery selecting the id of the best counted activity of a type
+     * (served by idx_activities_type_duration: seek, no sort)
+     */
+    private static String bestOf(String typeId) {
+        return "SELECT " + ID + " FROM " + COUNTED + " WHERE " + TYPE_ID + " = " + typeId +
+               " ORDER BY " + DURATION + " DESC, " + ID + " LIMIT 1";
+    }
+    
+    /**
+     * Trigger statements making NEW the record of its type if it beats the
+     * stored one (longer, or as long with a smaller id)
+     */
+    static String challenge() {
+        return "DELETE FROM " + RECORDS + " WHERE " + TYPE_ID + " = NEW." + TYPE_ID +
+               " AND (" + BEST_DURATION + " < NEW." + DURATION +
+               " OR (" + BEST_DURATION + " = NEW." + DURATION + " AND " + ACTIVITY_ID + " > NEW." + ID + ")); " +
+               "INSERT INTO " + RECORDS + " (" + TYPE_ID + ", " + BEST_DURATION + ", " +
+               ACTIVITY_ID + ", " + EPOCH_DAY + ")" +
+               " SELECT NEW." + TYPE_ID + ", NEW." + DURATION + ", NEW." + ID + ", NEW." + EPOCH_DAY +
+               " WHERE NOT EXISTS (SELECT 1 FROM " + RECORDS + " WHERE " + TYPE_ID + " = NEW." + TYPE_ID + "); ";
+    }
+    
+    /**
+     * Trigger statements dropping the record of OLD's type if OLD held it,
+     * and looking up the new best activity of that type
+     * 
+     * @param filter " AND ..." condition on the activities that may become the record, or ""
+     */
+    static String forgetRecord(String filter) {
+        return "DELETE FROM " + RECORDS + " WHERE " + TYPE_ID + " = OLD." + TYPE_ID +
+               " AND " + ACTIVITY_ID + " = OLD." + ID + "; " +
+               "INSERT INTO " + RECORDS + " (" + TYPE_ID + ", " + BEST_DURATION + ", " +
+               ACTIVITY_ID + ", " + EPOCH_DAY + ")" +
+               " SELECT " + TYPE_ID + ", " + DURATION + ", " + ID + ", " + EPOCH_DAY +
+               " FROM " + ACTIVITIES + " WHERE " + TYPE_ID + " = OLD." + TYPE_ID + filter +
+               " AND NOT EXISTS (SELECT 1 FROM " + RECORDS + " WHERE " + TYPE_ID + " = OLD." + TYPE_ID + ")" +
+               " ORDER BY " + DURATION + " DESC, " + ID + " LIMIT 1; ";
+    }
+}
@@ -0,0 +1,202 @@
+package com.fitlogger.database.migration;
+
+import android.database.sqlite.SQLiteDatabase;
+import com.fitlogger.database.DatabaseHelper;
+
+/**
+ * v8 → v9: soft delete through a tombstone column
+ * 
+ * fitness_activities.deleted turns a delete into a one-column UPDATE: no
+ * index entries are removed and no pages are freed while the user waits, and
+ * an undo only flips the flag back. Every query reads live rows only
+ * (DatabaseHelper.SELECTION_LIVE); ActivityCompactor purges the tombstones
+ * later, in batches, while the device is idle.
+ * 
+ * The summary triggers of v3 (totals), v4 (rollups) and v8 (records) are
+ * replaced by versions that only count live rows:
+ * - INSERT / UPDATE / DELETE of a live row: same as before
+ * - live → DELETED_ROW acts like the DELETE, DELETED_ROW → live (undo) like
+ *   the INSERT
+ * - DELETED_CLEARED rows ("clear all") fire nothing: DatabaseHelper resets
+ *   the summaries in the same transaction instead of row by row
+ * - Purging a tombstone fires nothing either (it no longer counts anywhere),
+ *   which keeps the purge cheap
+ * 
+ * counted_activities (the view the v4/v8 backfills aggregate) is redefined
+ * as the live rows, so a rebuild leaves the tombstones out as well.
+ * 
+ * idx_activities_tombstones is a partial index over the tombstones only:
+ * the compactor finds them without touching the live rows, and the index is
+ * empty between purges.
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+class MigrationV9SoftDelete extends Migration {
+    
+    private static final String ACTIVITIES = DatabaseHelper.TABLE_ACTIVITIES;
+    private static final String ID = DatabaseHelper.COLUMN_ID;
+    private static final String TYPE_ID = DatabaseHelper.COLUMN_TYPE_ID;
+    private static final String DURATION = DatabaseHelper.COLUMN_DURATION;
+    private static final String EPOCH_DAY = DatabaseHelper.COLUMN_EPOCH_DAY;
+    private static final String DELETED = DatabaseHelper.COLUMN_DELETED;
+    
+    private static final String TOTALS = DatabaseHelper.TABLE_ACTIVITY_TOTALS;
+    private static final String COUNT = DatabaseHelper.COLUMN_ACTIVITY_COUNT;
+    private static final String TOTAL = DatabaseHelper.COLUMN_TOTAL_DURATION;
+    
+    // Trigger conditions
+    private static final String NEW_LIVE = "NEW." + DELETED + " = " + DatabaseHelper.DELETED_NONE;
+    private static final String OLD_LIVE = "OLD." + DELETED + " = " + DatabaseHelper.DELETED_NONE;
+    private static final String TOMBSTONED = OLD_LIVE + " AND NEW." + DELETED + " = " + DatabaseHelper.DELETED_ROW;
+    private static final String REVIVED = "OLD." + DELETED + " = " + DatabaseHelper.DELETED_ROW + " AND " + NEW_LIVE;
+    
+    // Extra condition for the lookups inside the triggers
+    private static final String AND_LIVE = " AND " + DatabaseHelper.SELECTION_LIVE;
+    
+    // Triggers of v3, v4 and v8 that counted every row
+    private static final String[] REPLACED_TRIGGERS = {
+        "trg_activity_totals_insert", "trg_activity_totals_delete", "trg_activity_totals_update",
+        "trg_rollup_insert", "trg_rollup_delete", "trg_rollup_update",
+        "trg_record_insert", "trg_record_delete", "trg_record_update"
+    };
+    
+    MigrationV9SoftDelete() {
+        super(8);
+    }
+    
+    @Override
+    public String getDescription() {
+        return "Add the deleted tombstone column";
+    }
+    
+    @Override
+    public void migrate(SQLiteDatabase db) {
+        if (!columnExists(db, ACTIVITIES, DELETED)) {
+            db.execSQL("ALTER TABLE " + ACTIVITIES + " ADD COLUMN " + DELETED +
+                       " INTEGER NOT NULL DEFAULT " + DatabaseHelper.DELETED_NONE);
+        }
+        db.execSQL("CREATE INDEX IF NOT EXISTS " + DatabaseHelper.INDEX_ACTIVITIES_TOMBSTONES +
+                   " ON " + ACTIVITIES + " (" + ID + ")" +
+                   " WHERE " + DELETED + " <> " + DatabaseHelper.DELETED_NONE);
+        
+        for (String trigger : REPLACED_TRIGGERS) {
+            db.execSQL("DROP TRIGGER IF EXISTS " + trigger);
+        }
+        createTriggers(db);
+        
+        db.execSQL("DROP VIEW IF EXISTS " + DatabaseHelper.VIEW_COUNTED_ACTIVITIES);
+        db.execSQL("CREATE VIEW " + DatabaseHelper.VIEW_COUNTED_ACTIVITIES +
+                   " AS SELECT * FROM " + ACTIVITIES + " WHERE " + DatabaseHelper.SELECTION_LIVE);
+    }
+    
+    /**
+     * Create the tombstone-aware triggers that keep activity_totals, the
+     * rollup tables and activity_type_records current
+     * (for a later step that rebuilds fitness_activities)
+     */
+    static void createTriggers(SQLiteDatabase db) {
+        // activity_totals
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_activity_totals_insert" +
+                   " AFTER INSERT ON " + ACTIVITIES + " WHEN " + NEW_LIVE + " BEGIN " +
+                   addToTotals("+", "NEW") +
+                   "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_activity_totals_delete" +
+                   " AFTER DELETE ON " + ACTIVITIES + " WHEN " + OLD_LIVE + " BEGIN " +
+                   addToTotals("-", "OLD") +
+                   "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_activity_totals_update" +
+                   " AFTER UPDATE OF " + DURATION + " ON " + ACTIVITIES +
+                   " WHEN " + OLD_LIVE + " AND " + NEW_LIVE + " BEGIN " +
+                   "UPDATE " + TOTALS + " SET " +
+                   TOTAL + " = " + TOTAL + " - OLD." + DURATION + " + NEW." + DURATION +
+                   " WHERE id = 1; " +
+                   "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_activity_totals_tombstone" +
+                   " AFTER UPDATE OF " + DELETED + " ON " + ACTIVITIES + " WHEN " + TOMBSTONED + " BEGIN " +
+                   addToTotals("-", "OLD") +
+                   "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_activity_totals_revive" +
+                   " AFTER UPDATE OF " + DELETED + " ON " + ACTIVITIES + " WHEN " + REVIVED + " BEGIN " +
+                   addToTotals("+", "NEW") +
+                   "END");
+        
+        // Rollups (same strategy as v4: increment on insert, recompute the day otherwise)
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_rollup_insert" +
+                   " AFTER INSERT ON " + ACTIVITIES +
+                   " WHEN " + NEW_LIVE + " AND NEW." + EPOCH_DAY + " IS NOT NULL BEGIN " +
+                   incrementRollups() +
+                   "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_rollup_delete" +
+                   " AFTER DELETE ON " + ACTIVITIES +
+                   " WHEN " + OLD_LIVE + " AND OLD." + EPOCH_DAY + " IS NOT NULL BEGIN " +
+                   MigrationV4Rollups.recompute("OLD." + EPOCH_DAY, AND_LIVE) +
+                   "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_rollup_update" +
+                   " AFTER UPDATE OF " + DURATION + ", " + EPOCH_DAY + " ON " + ACTIVITIES +
+                   " WHEN " + OLD_LIVE + " AND " + NEW_LIVE + " BEGIN " +
+                   MigrationV4Rollups.recompute("OLD." + EPOCH_DAY, AND_LIVE) +
+                   MigrationV4Rollups.recompute("NEW." + EPOCH_DAY, AND_LIVE) +
+                   "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_rollup_tombstone" +
+                   " AFTER UPDATE OF " + DELETED + " ON " + ACTIVITIES +
+                   " WHEN " + TOMBSTONED + " AND OLD." + EPOCH_DAY + " IS NOT NULL BEGIN " +
+                   MigrationV4Rollups.recompute("OLD." + EPOCH_DAY, AND_LIVE) +
+                   "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_rollup_revive" +
+                   " AFTER UPDATE OF " + DELETED + " ON " + ACTIVITIES +
+                   " WHEN " + REVIVED + " AND NEW." + EPOCH_DAY + " IS NOT NULL BEGIN " +
+                   incrementRollups() +
+                   "END");
+        
+        // Personal records
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_record_insert" +
+                   " AFTER INSERT ON " + ACTIVITIES + " WHEN " + NEW_LIVE + " BEGIN " +
+                   MigrationV8ActivityStats.challenge() +
+                   "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_record_delete" +
+                   " AFTER DELETE ON " + ACTIVITIES + " WHEN " + OLD_LIVE + " BEGIN " +
+                   MigrationV8ActivityStats.forgetRecord(AND_LIVE) +
+                   "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_record_update" +
+                   " AFTER UPDATE OF " + TYPE_ID + ", " + DURATION + ", " + EPOCH_DAY +
+                   " ON " + ACTIVITIES + " WHEN " + OLD_LIVE + " AND " + NEW_LIVE + " BEGIN " +
+                   MigrationV8ActivityStats.forgetRecord(AND_LIVE) +
+                   MigrationV8ActivityStats.challenge() +
+                   "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_record_tombstone" +
+                   " AFTER UPDATE OF " + DELETED + " ON " + ACTIVITIES + " WHEN " + TOMBSTONED + " BEGIN " +
+                   MigrationV8ActivityStats.forgetRecord(AND_LIVE) +
+                   "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_record_revive" +
+                   " AFTER UPDATE OF " + DELETED + " ON " + ACTIVITIES + " WHEN " + REVIVED + " BEGIN " +
+                   MigrationV8ActivityStats.challenge() +
+                   "END");
+    }
+    
+    // ==================== SQL builders ====================
+    
+    /**
+     * Trigger statement adding (sign "+") or removing (sign "-") one row in activity_totals
+     */
+    private static String addToTotals(String sign, String row) {
+        return "UPDATE " + TOTALS + " SET " +
+               COUNT + " = " + COUNT + " " + sign + " 1, " +
+               TOTAL + " = " + TOTAL + " " + sign + " " + row + "." + DURATION +
+               " WHERE id = 1; ";
+    }
+    
+    /**
+     * Trigger statements adding NEW to its day, week and month
+     */
+    private static String incrementRollups() {
+        String day = "NEW." + EPOCH_DAY;
+        return MigrationV4Rollups.increment(DatabaseHelper.TABLE_ROLLUP_DAILY, EPOCH_DAY, day) +
+               MigrationV4Rollups.increment(DatabaseHelper.TABLE_ROLLUP_WEEKLY,
+                                            DatabaseHelper.COLUMN_WEEK_START,
+                                            MigrationV4Rollups.weekOf(day)) +
+               MigrationV4Rollups.increment(DatabaseHelper.TABLE_ROLLUP_MONTHLY,
+                                            DatabaseHelper.COLUMN_MONTH,
+                                            MigrationV4Rollups.monthOf(day));
+    }
+}
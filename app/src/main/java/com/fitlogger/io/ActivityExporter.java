@@ -0,0 +1,352 @@
+package com.fitlogger.io;
+
+import android.database.CharArrayBuffer;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import com.fitlogger.database.DatabaseHelper;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streams the whole activity log to a file as CSV or newline-delimited JSON
+ * 
+ * Rows go straight from the Cursor into the file with constant memory:
+ * - no FitnessActivity (or String) is created per row: text columns are
+ *   copied into reusable CharArrayBuffers with Cursor.copyStringToBuffer()
+ *   and numbers are written digit by digit
+ * - characters are staged in one CharBuffer, encoded to UTF-8 into one
+ *   direct ByteBuffer and written through a FileChannel when it fills up
+ * - the Cursor only keeps one CursorWindow (about 2 MB) of rows in memory
+ * 
+ * Rows are written in id order. Writes that happen while an export is running
+ * may or may not be included (the export does not lock the database).
+ * 
+ * Component Interaction:
+ * SettingsActivity → ActivityRepository.exportActivities() → ActivityExporter
+ * → Cursor (reader thread) → CharBuffer → UTF-8 ByteBuffer → FileChannel
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public class ActivityExporter {
+    
+    /**
+     * Output format
+     */
+    public enum Format {
+        CSV("csv"),       // header line + one quoted-as-needed line per row
+        NDJSON("ndjson"); // one JSON object per line
+        
+        private final String extension;
+        
+        Format(String extension) {
+            this.extension = extension;
+        }
+        
+        /**
+         * @return File name extension without the dot
+         */
+        public String getExtension() {
+            return extension;
+        }
+    }
+    
+    /**
+     * Receives export progress (called on the exporting thread)
+     */
+    public interface ProgressListener {
+        void onProgress(long rowsWritten, long totalRows);
+    }
+    
+    // Buffer sizes (allocated once per export)
+    private static final int CHAR_BUFFER_SIZE = 8 * 1024;
+    private static final int BYTE_BUFFER_SIZE = 64 * 1024;
+    
+    // Progress is reported every this many rows (and once at the end)
+    private static final int PROGRESS_INTERVAL = 1000;
+    
+    // Longest decimal int ("-2147483648")
+    private static final int MAX_NUMBER_CHARS = 11;
+    
+    private static final String CSV_HEADER = "id,activity_name,duration,date\n";
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    
+    private final DatabaseHelper databaseHelper;
+    
+    // Per-export state (an exporter instance runs one export at a time)
+    private final CharArrayBuffer nameBuffer = new CharArrayBuffer(64);
+    private final CharArrayBuffer dateBuffer = new CharArrayBuffer(16);
+    private CharBuffer chars;
+    private ByteBuffer bytes;
+    private CharsetEncoder encoder;
+    private FileChannel channel;
+    
+    /**
+     * Constructor
+     * 
+     * @param databaseHelper DatabaseHelper instance for database access
+     */
+    public ActivityExporter(DatabaseHelper databaseHelper) {
+        this.databaseHelper = databaseHelper;
+    }
+    
+    /**
+     * Export every activity to a file (replacing it if it exists)
+     * Must be called on a background thread
+     * 
+     * @param file Destination file
+     * @param format CSV or NDJSON
+     * @param listener Progress callback (may be null)
+     * @return Number of rows written
+     * @throws IOException if the file cannot be written (the partial file is deleted)
+     */
+    public synchronized long export(File file, Format format, ProgressListener listener) throws IOException {
+        SQLiteDatabase db = databaseHelper.getDatabase();
+        long totalRows = databaseHelper.getActivityCount(); // O(1), from the summary row
+        long rowsWritten = 0;
+        
+        chars = CharBuffer.allocate(CHAR_BUFFER_SIZE);
+        bytes = ByteBuffer.allocateDirect(BYTE_BUFFER_SIZE);
+        encoder = StandardCharsets.UTF_8.newEncoder();
+        
+        boolean complete = false;
+        FileOutputStream output = new FileOutputStream(file);
+        Cursor cursor = db.rawQuery(
+                "SELECT a." + DatabaseHelper.COLUMN_ID + ", t." + DatabaseHelper.COLUMN_TYPE_NAME + ", " +
+                "a." + DatabaseHelper.COLUMN_DURATION + ", a." + DatabaseHelper.COLUMN_DATE +
+                " FROM " + DatabaseHelper.TABLE_ACTIVITIES + " a" +
+                " JOIN " + DatabaseHelper.TABLE_ACTIVITY_TYPES + " t" +
+                " ON t." + DatabaseHelper.COLUMN_ID + " = a." + DatabaseHelper.COLUMN_TYPE_ID +
+                " WHERE a." + DatabaseHelper.SELECTION_LIVE +
+                " ORDER BY a." + DatabaseHelper.COLUMN_ID, null);
+        try {
+            channel = output.getChannel();
+            if (format == Format.CSV) {
+                append(CSV_HEADER);
+            }
+            
+            while (cursor.moveToNext()) {
+                int id = cursor.getInt(0);
+                cursor.copyStringToBuffer(1, nameBuffer);
+                int duration = cursor.getInt(2);
+                cursor.copyStringToBuffer(3, dateBuffer);
+                
+                if (format == Format.CSV) {
+                    writeCsvRow(id, duration);
+                } else {
+                    writeJsonRow(id, duration);
+                }
+                
+                rowsWritten++;
+                if (listener != null && rowsWritten % PROGRESS_INTERVAL == 0) {
+                    listener.onProgress(rowsWritten, Math.max(totalRows, rowsWritten));
+                }
+            }
+            
+            flushChars(true);
+            channel.force(false);
+            complete = true;
+        } finally {
+            cursor.close();
+            output.close();
+            if (!complete) {
+                file.delete();
+            }
+            channel = null;
+            chars = null;
+            bytes = null;
+            encoder = null;
+        }
+        
+        if (listener != null) {
+            listener.onProgress(rowsWritten, rowsWritten);
+        }
+        return rowsWritten;
+    }
+    
+    // ==================== Row writers ====================
+    
+    private void writeCsvRow(int id, int duration) throws IOException {
+        appendInt(id);
+        append(',');
+        appendCsvField(nameBuffer);
+        append(',');
+        appendInt(duration);
+        append(',');
+        appendCsvField(dateBuffer);
+        append('\n');
+    }
+    
+    private void writeJsonRow(int id, int duration) throws IOException {
+        append("{\"id\":");
+        appendInt(id);
+        append(",\"activity_name\":");
+        appendJsonString(nameBuffer);
+        append(",\"duration\":");
+        appendInt(duration);
+        append(",\"date\":");
+        appendJsonString(dateBuffer);
+        append("}\n");
+    }
+    
+    /**
+     * CSV field (RFC 4180): quoted only if it contains a comma, quote or line break
+     */
+    private void appendCsvField(CharArrayBuffer field) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < field.sizeCopied; i++) {
+            char c = field.data[i];
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                quote = true;
+                break;
+            }
+        }
+        if (!quote) {
+            append(field.data, field.sizeCopied);
+            return;
+        }
+        append('"');
+        for (int i = 0; i < field.sizeCopied; i++) {
+            char c = field.data[i];
+            if (c == '"') {
+                append('"');
+            }
+            append(c);
+        }
+        append('"');
+    }
+    
+    /**
+     * JSON string literal with the required escapes
+     */
+    private void appendJsonString(CharArrayBuffer field) throws IOException {
+        append('"');
+        for (int i = 0; i < field.sizeCopied; i++) {
+            char c = field.data[i];
+            switch (c) {
+                case '"':
+                    append("\\\"");
+                    break;
+                case '\\':
+                    append("\\\\");
+                    break;
+                case '\n':
+                    append("\\n");
+                    break;
+                case '\r':
+                    append("\\r");
+                    break;
+                case '\t':
+                    append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        append("\\u00");
+                        append(HEX_DIGITS[c >> 4]);
+                        append(HEX_DIGITS[c & 0xF]);
+                    } else {
+                        append(c);
+                    }
+            }
+        }
+        append('"');
+    }
+    
+    // ==================== Buffered output ====================
+    
+    private void append(char c) throws IOException {
+        if (!chars.hasRemaining()) {
+            flushChars(false);
+        }
+        chars.put(c);
+    }
+    
+    private void append(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            append(text.charAt(i));
+        }
+    }
+    
+    private void append(char[] data, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            if (!chars.hasRemaining()) {
+                flushChars(false);
+            }
+            int count = Math.min(length - offset, chars.remaining());
+            chars.put(data, offset, count);
+            offset += count;
+        }
+    }
+    
+    /**
+     * Write a decimal int without creating a String
+     */
+    private void appendInt(int value) throws IOException {
+        if (chars.remaining() < MAX_NUMBER_CHARS) {
+            flushChars(false);
+        }
+        if (value == Integer.MIN_VALUE) {
+            append("-2147483648");
+            return;
+        }
+        if (value < 0) {
+            chars.put('-');
+            value = -value;
+        }
+        int start = chars.position();
+        do {
+            chars.put((char) ('0' + value % 10));
+            value /= 10;
+        } while (value != 0);
+        
+        // Digits were written least significant first: reverse them in place
+        for (int i = start, j = chars.position() - 1; i < j; i++, j--) {
+            char swap = chars.get(i);
+            chars.put(i, chars.get(j));
+            chars.put(j, swap);
+        }
+    }
+    
+    /**
+     * Encode the staged characters to UTF-8 and write full byte buffers to the file
+     * 
+     * @param endOfInput true for the final flush of the export
+     */
+    private void flushChars(boolean endOfInput) throws IOException {
+        chars.flip();
+        while (true) {
+            CoderResult result = encoder.encode(chars, bytes, endOfInput);
+            if (result.isOverflow()) {
+                writeBytes();
+            } else if (result.isUnderflow()) {
+                break;
+            } else {
+                result.throwException();
+            }
+        }
+        if (endOfInput) {
+            while (encoder.flush(bytes).isOverflow()) {
+                writeBytes();
+            }
+            writeBytes();
+        }
+        // Keeps a dangling high surrogate (if any) for the next round
+        chars.compact();
+    }
+    
+    private void writeBytes() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+}
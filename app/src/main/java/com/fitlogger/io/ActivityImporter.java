@@ -0,0 +1,728 @@
+package com.fitlogger.io;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.SystemClock;
+import android.util.Log;
+import com.fitlogger.database.ActivityValidator;
+import com.fitlogger.database.DatabaseHelper;
+import com.fitlogger.database.FitnessActivity;
+import com.fitlogger.database.FitnessActivityDAO;
+import com.fitlogger.metrics.Metrics;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+
+/**
+ * Imports activities from a CSV or newline-delimited JSON file
+ * 
+ * The file is parsed incrementally (one record at a time, constant memory) and
+ * the same format ActivityExporter writes is accepted, as well as files from
+ * other trackers that use the same column names:
+ * - CSV: a header line naming the columns activity_name (or name), duration
+ *   and date, in any order; other columns (such as id) are ignored
+ * - NDJSON: one flat JSON object per line with the same keys
+ * The format is detected from the first character ('{' means NDJSON).
+ * 
+ * Every record is checked with ActivityValidator (the rules of the Add Activity
+ * form); invalid records are counted and skipped. Valid rows are inserted in
+ * chunks, one transaction per chunk, through FitnessActivityDAO's compiled
+ * INSERT statement. Imported rows always get new IDs.
+ * 
+ * Resuming:
+ * The number of records consumed is written to import_checkpoints inside the
+ * same transaction as each chunk, so the checkpoint never disagrees with the
+ * committed rows. Importing the same source again (same key) skips the records
+ * that are already in, or does nothing if the source was imported completely.
+ * 
+ * Component Interaction:
+ * SettingsActivity → ActivityRepository.importActivities() → ActivityImporter
+ * → parser → ActivityValidator → FitnessActivityDAO.addActivities() (writer thread)
+ * → SQLite (rows + checkpoint per transaction)
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public class ActivityImporter {
+    
+    private static final String TAG = "ActivityImporter";
+    
+    // The bulk insert, timed here because the importer calls the DAO directly (see Metrics)
+    private static final Metrics.Timer ADD_ACTIVITIES_TIMER = Metrics.timer("dao.addActivities");
+    
+    /**
+     * File to import
+     */
+    public interface Source {
+        /**
+         * @return Stable identity of the file (e.g. its URI and size), used as checkpoint key
+         */
+        String getKey();
+        
+        /**
+         * @return A new stream over the file's bytes (closed by the importer)
+         * @throws IOException if the file cannot be opened
+         */
+        InputStream open() throws IOException;
+    }
+    
+    /**
+     * Receives import progress (called on the importing thread after each chunk)
+     */
+    public interface ProgressListener {
+        void onProgress(long rowsImported, long rowsRejected);
+    }
+    
+    /**
+     * Outcome of one importFrom() call
+     */
+    public static class Result {
+        private final long rowsImported;
+        private final long rowsRejected;
+        private final long recordsSkipped;
+        private final long elapsedMillis;
+        private final boolean alreadyImported;
+        
+        Result(long rowsImported, long rowsRejected, long recordsSkipped,
+               long elapsedMillis, boolean alreadyImported) {
+            this.rowsImported = rowsImported;
+            this.rowsRejected = rowsRejected;
+            this.recordsSkipped = recordsSkipped;
+            this.elapsedMillis = elapsedMillis;
+            this.alreadyImported = alreadyImported;
+        }
+        
+        /**
+         * @return Rows inserted by this call
+         */
+        public long getRowsImported() {
+            return rowsImported;
+        }
+        
+        /**
+         * @return Records that failed validation in this call
+         */
+        public long getRowsRejected() {
+            return rowsRejected;
+        }
+        
+        /**
+         * @return Records skipped because an earlier (interrupted) import already consumed them
+         */
+        public long getRecordsSkipped() {
+            return recordsSkipped;
+        }
+        
+        /**
+         * @return Wall time of this call in milliseconds
+         */
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+        
+        /**
+         * @return Import throughput of this call
+         */
+        public long getRowsPerSecond() {
+            return rowsImported * 1000 / Math.max(elapsedMillis, 1);
+        }
+        
+        /**
+         * @return true if the source had already been imported completely (nothing was done)
+         */
+        public boolean isAlreadyImported() {
+            return alreadyImported;
+        }
+    }
+    
+    // Rows per transaction
+    public static final int DEFAULT_CHUNK_SIZE = FitnessActivityDAO.DEFAULT_BULK_CHUNK_SIZE;
+    
+    private static final int READ_BUFFER_SIZE = 16 * 1024; // chars
+    
+    private static final String UPSERT_CHECKPOINT_SQL =
+            "INSERT OR REPLACE INTO " + DatabaseHelper.TABLE_IMPORT_CHECKPOINTS + " (" +
+            DatabaseHelper.COLUMN_SOURCE + ", " + DatabaseHelper.COLUMN_RECORDS_DONE + ", " +
+            DatabaseHelper.COLUMN_ROWS_IMPORTED + ", " + DatabaseHelper.COLUMN_ROWS_REJECTED + ", " +
+            DatabaseHelper.COLUMN_COMPLETE + ", " + DatabaseHelper.COLUMN_UPDATED_AT +
+            ") VALUES (?, ?, ?, ?, ?, ?)";
+    
+    private final DatabaseHelper databaseHelper;
+    private final FitnessActivityDAO dao;
+    
+    /**
+     * Constructor
+     * 
+     * @param databaseHelper DatabaseHelper instance for database access
+     * @param dao DAO used for the batched inserts
+     */
+    public ActivityImporter(DatabaseHelper databaseHelper, FitnessActivityDAO dao) {
+        this.databaseHelper = databaseHelper;
+        this.dao = dao;
+    }
+    
+    /**
+     * Import a file, resuming from its checkpoint if an earlier import was interrupted
+     * Must be called on a background thread
+     * 
+     * @param source File to import
+     * @param listener Progress callback (may be null)
+     * @return What was imported
+     * @throws IOException if the file cannot be read or is neither activity CSV nor NDJSON
+     *                     (rows committed before the failure stay, and so does their checkpoint)
+     */
+    public synchronized Result importFrom(Source source, ProgressListener listener) throws IOException {
+        SQLiteDatabase db = databaseHelper.getDatabase();
+        String key = source.getKey();
+        long start = SystemClock.elapsedRealtime();
+        
+        // Where the previous attempt stopped (all zero for a new source)
+        Checkpoint checkpoint = readCheckpoint(db, key);
+        if (checkpoint.complete) {
+            Log.i(TAG, "Already imported: " + key);
+            return new Result(0, 0, checkpoint.recordsDone, 0, true);
+        }
+        
+        Reader reader = new InputStreamReader(source.open(), StandardCharsets.UTF_8);
+        try {
+            RecordReader records = RecordReader.open(reader);
+            for (long skipped = 0; skipped < checkpoint.recordsDone && records.next(); skipped++) {
+                // Consumed by the interrupted import (its rows are committed)
+            }
+            
+            ValidRows rows = new ValidRows(records, checkpoint.recordsDone, checkpoint.rowsRejected);
+            long[] imported = {checkpoint.rowsImported};
+            long startNanos = ADD_ACTIVITIES_TIMER.begin();
+            try {
+                dao.addActivities(rows, DEFAULT_CHUNK_SIZE, (chunkDb, rowsInChunk) -> {
+                    imported[0] += rowsInChunk;
+                    writeCheckpoint(chunkDb, key, rows.recordsDone, imported[0], rows.rejectedDone, false);
+                    if (listener != null) {
+                        listener.onProgress(imported[0] - checkpoint.rowsImported,
+                                            rows.rejectedDone - checkpoint.rowsRejected);
+                    }
+                });
+            } catch (ReadFailure e) {
+                throw e.getCause();
+            } finally {
+                ADD_ACTIVITIES_TIMER.end(startNanos,
+                        (int) Math.min(imported[0] - checkpoint.rowsImported, Integer.MAX_VALUE));
+            }
+            
+            // Trailing rejected records are only known once the whole file was read
+            writeCheckpoint(db, key, rows.recordsRead, imported[0], rows.rejected, true);
+            
+            Result result = new Result(imported[0] - checkpoint.rowsImported,
+                                       rows.rejected - checkpoint.rowsRejected,
+                                       checkpoint.recordsDone,
+                                       SystemClock.elapsedRealtime() - start, false);
+            Log.i(TAG, "Imported " + result.getRowsImported() + " rows (" +
+                       result.getRowsRejected() + " rejected, " + result.getRecordsSkipped() +
+                       " skipped) in " + result.getElapsedMillis() + " ms, " +
+                       result.getRowsPerSecond() + " rows/s");
+            return result;
+        } finally {
+            reader.close();
+        }
+    }
+    
+    /**
+     * Progress of one source as stored in import_checkpoints
+     */
+    private static class Checkpoint {
+        long recordsDone;
+        long rowsImported;
+        long rowsRejected;
+        boolean complete;
+    }
+    
+    /**
+     * @return The stored checkpoint of a source (all zero if there is none)
+     */
+    private static Checkpoint readCheckpoint(SQLiteDatabase db, String key) {
+        Checkpoint checkpoint = new Checkpoint();
+        Cursor cursor = db.query(DatabaseHelper.TABLE_IMPORT_CHECKPOINTS,
+                new String[]{DatabaseHelper.COLUMN_RECORDS_DONE, DatabaseHelper.COLUMN_ROWS_IMPORTED,
+                             DatabaseHelper.COLUMN_ROWS_REJECTED, DatabaseHelper.COLUMN_COMPLETE},
+                DatabaseHelper.COLUMN_SOURCE + " = ?", new String[]{key}, null, null, null);
+        try {
+            if (cursor.moveToFirst()) {
+                checkpoint.recordsDone = cursor.getLong(0);
+                checkpoint.rowsImported = cursor.getLong(1);
+                checkpoint.rowsRejected = cursor.getLong(2);
+                checkpoint.complete = cursor.getInt(3) != 0;
+            }
+        } finally {
+            cursor.close();
+        }
+        return checkpoint;
+    }
+    
+    private static void writeCheckpoint(SQLiteDatabase db, String key, long recordsDone,
+                                        long rowsImported, long rowsRejected, boolean complete) {
+        db.execSQL(UPSERT_CHECKPOINT_SQL, new Object[]{
+                key, recordsDone, rowsImported, rowsRejected, complete ? 1 : 0, System.currentTimeMillis()});
+    }
+    
+    /**
+     * Iterator over the valid records, as FitnessActivity rows
+     * 
+     * hasNext() reads ahead past rejected records, so the counters "as of the
+     * last row returned by next()" (recordsDone / rejectedDone) are tracked
+     * separately: those are the ones that match a committed chunk.
+     */
+    private static class ValidRows implements Iterator<FitnessActivity> {
+        private final RecordReader records;
+        private FitnessActivity pending;
+        private boolean ended;
+        
+        // Including read-ahead
+        long recordsRead;
+        long rejected;
+        
+        // As of the last row handed out
+        long recordsDone;
+        long rejectedDone;
+        
+        ValidRows(RecordReader records, long recordsRead, long rejected) {
+            this.records = records;
+            this.recordsRead = recordsDone = recordsRead;
+            this.rejected = rejectedDone = rejected;
+        }
+        
+        @Override
+        public boolean hasNext() {
+            try {
+                while (pending == null && !ended) {
+                    if (!records.next()) {
+                        ended = true;
+                        break;
+                    }
+                    recordsRead++;
+                    if (ActivityValidator.checkName(records.name) == null
+                            && ActivityValidator.checkDuration(records.duration) == null
+                            && ActivityValidator.checkDate(records.date) == null) {
+                        pending = new FitnessActivity(records.name,
+                                Integer.parseInt(records.duration), records.date);
+                    } else {
+                        rejected++;
+                    }
+                }
+            } catch (IOException e) {
+                throw new ReadFailure(e);
+            }
+            return pending != null;
+        }
+        
+        @Override
+        public FitnessActivity next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            FitnessActivity activity = pending;
+            pending = null;
+            recordsDone = recordsRead;
+            rejectedDone = rejected;
+            return activity;
+        }
+    }
+    
+    /**
+     * Carries an IOException out of Iterator.hasNext()
+     */
+    private static class ReadFailure extends RuntimeException {
+        ReadFailure(IOException cause) {
+            super(cause);
+        }
+        
+        @Override
+        public synchronized IOException getCause() {
+            return (IOException) super.getCause();
+        }
+    }
+    
+    /**
+     * Buffered character input shared by the record readers
+     * (format detection peeks into it before the reader is chosen)
+     */
+    private static class CharInput {
+        private final Reader reader;
+        private final char[] buffer = new char[READ_BUFFER_SIZE];
+        private int position;
+        private int limit;
+        
+        CharInput(Reader reader) {
+            this.reader = reader;
+        }
+        
+        int read() throws IOException {
+            int c = peek();
+            if (c != -1) {
+                position++;
+            }
+            return c;
+        }
+        
+        int peek() throws IOException {
+            if (position == limit) {
+                int count = reader.read(buffer, 0, buffer.length);
+                if (count <= 0) {
+                    return -1;
+                }
+                position = 0;
+                limit = count;
+            }
+            return buffer[position];
+        }
+    }
+    
+    /**
+     * Reads one record at a time; name / duration / date hold the current
+     * record's (trimmed) fields, or null where a field is missing or malformed
+     * (package-private: the parser is tested without a database)
+     */
+    abstract static class RecordReader {
+        final CharInput input;
+        
+        String name;
+        String duration;
+        String date;
+        
+        RecordReader(CharInput input) {
+            this.input = input;
+        }
+        
+        /**
+         * Detect the format from the first non-blank character
+         * 
+         * @throws IOException if the file cannot be read or has no valid CSV header
+         */
+        static RecordReader open(Reader reader) throws IOException {
+            CharInput input = new CharInput(reader);
+            int c = input.peek();
+            while (c == '\uFEFF' || c == ' ' || c == '\t' || c == '\r' || c == '\n') { // BOM, blanks
+                input.read();
+                c = input.peek();
+            }
+            if (c == '{') {
+                return new JsonLinesReader(input);
+            }
+            CsvReader csv = new CsvReader(input);
+            csv.readHeader();
+            return csv;
+        }
+        
+        /**
+         * Advance to the next record
+         * 
+         * @return false at the end of the file
+         */
+        abstract boolean next() throws IOException;
+        
+        static String trim(String value) {
+            return value != null ? value.trim() : null;
+        }
+    }
+    
+    /**
+     * RFC 4180 CSV: comma separated, fields optionally quoted with "",
+     * quotes inside quoted fields doubled, CRLF or LF line ends
+     */
+    private static class CsvReader extends RecordReader {
+        private final List<String> fields = new ArrayList<>();
+        private final StringBuilder field = new StringBuilder();
+        private int nameColumn = -1;
+        private int durationColumn = -1;
+        private int dateColumn = -1;
+        
+        CsvReader(CharInput input) {
+            super(input);
+        }
+        
+        void readHeader() throws IOException {
+            if (!readFields()) {
+                throw new IOException("The file is empty");
+            }
+            for (int i = 0; i < fields.size(); i++) {
+                String column = fields.get(i).trim().toLowerCase(Locale.ROOT);
+                if (column.equals(DatabaseHelper.COLUMN_ACTIVITY_NAME) || column.equals("name")) {
+                    nameColumn = i;
+                } else if (column.equals(DatabaseHelper.COLUMN_DURATION)) {
+                    durationColumn = i;
+                } else if (column.equals(DatabaseHelper.COLUMN_DATE)) {
+                    dateColumn = i;
+                }
+            }
+            if (nameColumn < 0 || durationColumn < 0 || dateColumn < 0) {
+                throw new IOException("CSV header must contain activity_name, duration and date columns");
+            }
+        }
+        
+        @Override
+        boolean next() throws IOException {
+            if (!readFields()) {
+                return false;
+            }
+            name = trim(field(nameColumn));
+            duration = trim(field(durationColumn));
+            date = trim(field(dateColumn));
+            return true;
+        }
+        
+        private String field(int column) {
+            return column < fields.size() ? fields.get(column) : null;
+        }
+        
+        /**
+         * Read the next non-blank line's fields
+         * 
+         * @return false at the end of the file
+         */
+        private boolean readFields() throws IOException {
+            fields.clear();
+            int c = input.read();
+            while (c == '\r' || c == '\n') { // blank lines are not records
+                c = input.read();
+            }
+            if (c == -1) {
+                return false;
+            }
+            
+            field.setLength(0);
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        break; // unterminated quote: keep what was read
+                    } else if (c == '"') {
+                        if (input.peek() == '"') {
+                            input.read();
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == '\r' || c == -1) {
+                    if (c == '\r' && input.peek() == '\n') {
+                        input.read();
+                    }
+                    break;
+                } else {
+                    field.append((char) c);
+                }
+                c = input.read();
+            }
+            fields.add(field.toString());
+            return true;
+        }
+    }
+    
+    /**
+     * Newline-delimited JSON: one flat object per line with string, number,
+     * true/false or null values. A line that is not such an object is a
+     * record without fields (rejected by validation).
+     */
+    private static class JsonLinesReader extends RecordReader {
+        private final StringBuilder line = new StringBuilder();
+        private final StringBuilder token = new StringBuilder();
+        private int index;
+        private String value; // last value parsed by parseValue() (null for JSON null)
+        
+        JsonLinesReader(CharInput input) {
+            super(input);
+        }
+        
+        @Override
+        boolean next() throws IOException {
+            do {
+                if (!readLine()) {
+                    return false;
+                }
+            } while (isBlank(line));
+            
+            name = null;
+            duration = null;
+            date = null;
+            if (!parseObject()) {
+                name = null;
+                duration = null;
+                date = null;
+            }
+            return true;
+        }
+        
+        private boolean readLine() throws IOException {
+            line.setLength(0);
+            int c = input.read();
+            if (c == -1) {
+                return false;
+            }
+            while (c != -1 && c != '\n') {
+                line.append((char) c);
+                c = input.read();
+            }
+            return true;
+        }
+        
+        private static boolean isBlank(CharSequence text) {
+            for (int i = 0; i < text.length(); i++) {
+                if (!Character.isWhitespace(text.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        /**
+         * Parse the current line as {"key": value, ...}
+         * 
+         * @return false if the line is not a flat JSON object
+         */
+        private boolean parseObject() {
+            index = 0;
+            skipSpace();
+            if (!consume('{')) {
+                return false;
+            }
+            skipSpace();
+            if (consume('}')) {
+                return atEndOfLine();
+            }
+            do {
+                skipSpace();
+                if (!parseString()) {
+                    return false;
+                }
+                String key = token.toString();
+                skipSpace();
+                if (!consume(':')) {
+                    return false;
+                }
+                skipSpace();
+                if (!parseValue()) {
+                    return false;
+                }
+                if (key.equals(DatabaseHelper.COLUMN_ACTIVITY_NAME) || key.equals("name")) {
+                    name = trim(value);
+                } else if (key.equals(DatabaseHelper.COLUMN_DURATION)) {
+                    duration = trim(value);
+                } else if (key.equals(DatabaseHelper.COLUMN_DATE)) {
+                    date = trim(value);
+                }
+                skipSpace();
+            } while (consume(','));
+            return consume('}') && atEndOfLine();
+        }
+        
+        /**
+         * Parse a string, number or literal into value
+         * Numbers are kept as text so validation sees them exactly as written
+         * 
+         * @return false if there is no scalar value at the current position
+         */
+        private boolean parseValue() {
+            if (index < line.length() && line.charAt(index) == '"') {
+                if (!parseString()) {
+                    return false;
+                }
+                value = token.toString();
+                return true;
+            }
+            
+            int start = index;
+            while (index < line.length()) {
+                char c = line.charAt(index);
+                if ((c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || c == '-' || c == '+' || c == '.' || c == 'E') {
+                    index++;
+                } else {
+                    break;
+                }
+            }
+            if (index == start) {
+                return false; // object, array or garbage
+            }
+            String literal = line.substring(start, index);
+            value = literal.equals("null") ? null : literal;
+            return true;
+        }
+        
+        /**
+         * Parse a JSON string into token
+         * 
+         * @return false if there is no complete string at the current position
+         */
+        private boolean parseString() {
+            token.setLength(0);
+            if (!consume('"')) {
+                return false;
+            }
+            while (index < line.length()) {
+                char c = line.charAt(index++);
+                if (c == '"') {
+                    return true;
+                }
+                if (c != '\\') {
+                    token.append(c);
+                    continue;
+                }
+                if (index >= line.length()) {
+                    return false;
+                }
+                char escape = line.charAt(index++);
+                switch (escape) {
+                    case 'n': token.append('\n'); break;
+                    case 't': token.append('\t'); break;
+                    case 'r': token.append('\r'); break;
+                    case 'b': token.append('\b'); break;
+                    case 'f': token.append('\f'); break;
+                    case 'u':
+                        if (index + 4 > line.length()) {
+                            return false;
+                        }
+                        try {
+                            token.append((char) Integer.parseInt(line.substring(index, index + 4), 16));
+                        } catch (NumberFormatException e) {
+                            return false;
+                        }
+                        index += 4;
+                        break;
+                    default: token.append(escape); break; // \" \\ \/
+                }
+            }
+            return false;
+        }
+        
+        private boolean consume(char expected) {
+            if (index < line.length() && line.charAt(index) == expected) {
+                index++;
+                return true;
+            }
+            return false;
+        }
+        
+        private void skipSpace() {
+            while (index < line.length() && Character.isWhitespace(line.charAt(index))) {
+                index++;
+            }
+        }
+        
+        private boolean atEndOfLine() {
+            skipSpace();
+            return index == line.length();
+        }
+    }
+}
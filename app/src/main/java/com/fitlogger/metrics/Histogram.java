@@ -0,0 +1,153 @@
+package com.fitlogger.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of non-negative values in fixed memory (HDR-style log-linear buckets)
+ * 
+ * Values below 16 get a bucket each; above that every power of two is split
+ * into 8 equal buckets, so a bucket is never wider than 1/8 of its value and a
+ * percentile is off by at most 12.5% (reported as the bucket's upper edge,
+ * never above the largest recorded value). Values above MAX_VALUE are counted
+ * as MAX_VALUE. 232 counters, whatever the number of values recorded.
+ * 
+ * Thread-safe and lock-free: record() is a handful of atomic adds, cheap
+ * enough for every DAO call and every bound row. Readers may see a value
+ * recorded concurrently in some statistics and not yet in others.
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public final class Histogram {
+    
+    /**
+     * Largest value kept exactly (about 35 minutes in microseconds)
+     */
+    public static final long MAX_VALUE = Integer.MAX_VALUE;
+    
+    // Bucket layout: 16 linear buckets, then 8 per power of two
+    private static final int LINEAR_BITS = 4;
+    private static final int LINEAR_BUCKETS = 1 << LINEAR_BITS;    // 16
+    private static final int SUB_BUCKETS = LINEAR_BUCKETS >> 1;    // 8
+    private static final int BUCKET_COUNT = indexOf(MAX_VALUE) + 1;
+    
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+    
+    /**
+     * Record one value
+     * 
+     * @param value Value to record (negative values count as 0)
+     */
+    public void record(long value) {
+        record(value, 1);
+    }
+    
+    /**
+     * Record a value that stands for several (e.g. one sampled call out of weight)
+     * 
+     * @param value Value to record (negative values count as 0)
+     * @param weight Number of values it stands for (at least 1)
+     */
+    public void record(long value, int weight) {
+        value = Math.max(0, Math.min(value, MAX_VALUE));
+        buckets.addAndGet(indexOf(value), weight);
+        count.addAndGet(weight);
+        total.addAndGet(value * weight);
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+    
+    /**
+     * @return Number of recorded values
+     */
+    public long getCount() {
+        return count.get();
+    }
+    
+    /**
+     * @return Largest recorded value (0 if none)
+     */
+    public long getMax() {
+        return max.get();
+    }
+    
+    /**
+     * @return Average of the recorded values (0 if none)
+     */
+    public double getMean() {
+        long n = count.get();
+        return n > 0 ? (double) total.get() / n : 0;
+    }
+    
+    /**
+     * Value at or below which the given fraction of the recorded values lie
+     * 
+     * @param fraction Fraction between 0 and 1 (e.g. 0.99 for p99)
+     * @return Upper edge of the bucket holding that value (0 if nothing was recorded)
+     */
+    public long getPercentile(double fraction) {
+        long n = 0;
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            n += counts[i];
+        }
+        if (n == 0) {
+            return 0;
+        }
+        
+        long rank = Math.max(1, (long) Math.ceil(fraction * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperEdgeOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+    
+    /**
+     * Forget every recorded value
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        total.set(0);
+        max.set(0);
+    }
+    
+    /**
+     * @param value Value between 0 and MAX_VALUE
+     * @return Index of the bucket holding the value
+     */
+    static int indexOf(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        // value >>> shift keeps the 4 leading bits: 8..15
+        int shift = 64 - Long.numberOfLeadingZeros(value) - LINEAR_BITS;
+        return LINEAR_BUCKETS + (shift - 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+    
+    /**
+     * @param index Bucket index
+     * @return Largest value that falls into the bucket
+     */
+    static long upperEdgeOf(int index) {
+        if (index < LINEAR_BUCKETS) {
+            return index;
+        }
+        int shift = (index - LINEAR_BUCKETS) / SUB_BUCKETS + 1;
+        long leading = (index - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((leading + 1) << shift) - 1;
+    }
+}
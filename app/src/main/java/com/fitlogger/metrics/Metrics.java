@@ -0,0 +1,223 @@
+package com.fitlogger.metrics;
+
+import android.os.Trace;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+
+/**
+ * Metrics - Process-wide latency and row-count histograms of the hot paths
+ * 
+ * Each measured operation has one Timer, created once (usually a static
+ * final field) and used at ONE call boundary rather than inside the code it
+ * measures:
+ * 
+ *   long startNanos = TIMER.begin();
+ *   try { ... } finally { TIMER.end(startNanos); }
+ * 
+ * - "dao.*": every FitnessActivityDAO call, timed by ActivityRepository on
+ *   the executor thread that runs it (the DAO has no instrumentation); the
+ *   bulk insert of an import is timed by ActivityImporter, which calls it
+ * - "io.*": whole imports and exports, timed by ActivityRepository
+ * - "ui.*": adapter binds and the startup spans
+ * - Latency is recorded in microseconds (Histogram, fixed memory)
+ * - Operations that return rows also record how many (end(startNanos, rows))
+ * - begin()/end() also open and close an android.os.Trace section named
+ *   after the timer, so the same spans show up in a system trace
+ * 
+ * Fast operations are sampled: while a timer's calls take less than
+ * FAST_CALL_MICROS, only one call in SAMPLE_INTERVAL is timed and traced,
+ * and recorded with that weight (so counts stay right). The other calls
+ * cost a field check and an increment. A slower call switches the timer
+ * back to timing every call.
+ * 
+ * Cost per timed call: two System.nanoTime() reads, the trace section (a
+ * flag check while no trace is being recorded) and a few atomic adds -
+ * measured by MetricsOverheadTest, which fails if the average exceeds 1% of
+ * the list's page read or of the cheapest DAO call.
+ * 
+ * The diagnostics panel in SettingsActivity shows p50/p95/p99 of every timer
+ * and dumps getReport() to a file.
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public final class Metrics {
+    
+    /**
+     * Calls faster than this are sampled (see SAMPLE_INTERVAL)
+     */
+    public static final long FAST_CALL_MICROS = 10;
+    
+    /**
+     * One call in this many is timed while a timer's calls are fast
+     */
+    public static final int SAMPLE_INTERVAL = 16;
+    
+    // begin() value of a call that is not timed
+    private static final long NOT_SAMPLED = Long.MIN_VALUE;
+    
+    // Every timer of the process, by name (sorted for the report)
+    private static final TreeMap<String, Timer> timers = new TreeMap<>();
+    
+    private Metrics() {
+    }
+    
+    /**
+     * Get (or create) the timer of an operation
+     * 
+     * @param name Operation name, at most 127 characters (trace section limit)
+     * @return The one timer with that name
+     */
+    public static synchronized Timer timer(String name) {
+        Timer timer = timers.get(name);
+        if (timer == null) {
+            timer = new Timer(name);
+            timers.put(name, timer);
+        }
+        return timer;
+    }
+    
+    /**
+     * @return Every timer, sorted by name
+     */
+    public static synchronized List<Timer> getTimers() {
+        return new ArrayList<>(timers.values());
+    }
+    
+    /**
+     * Forget every recorded value (the timers stay registered)
+     */
+    public static synchronized void reset() {
+        for (Timer timer : timers.values()) {
+            timer.reset();
+        }
+    }
+    
+    /**
+     * @return One line per timer that has recorded something (see Timer.toString())
+     */
+    public static String getReport() {
+        StringBuilder report = new StringBuilder();
+        for (Timer timer : getTimers()) {
+            if (timer.getLatency().getCount() > 0) {
+                report.append(timer).append('\n');
+            }
+        }
+        return report.toString();
+    }
+    
+    /**
+     * Latency (and optionally row count) histograms of one operation
+     */
+    public static final class Timer {
+        
+        private final String name;
+        private final Histogram latency = new Histogram();
+        private final Histogram rows = new Histogram();
+        
+        // Whether the last timed call took less than FAST_CALL_MICROS
+        private volatile boolean fast;
+        // Calls skipped since the last timed one (unsynchronized: a lost
+        // update only shifts the next sample by a call)
+        private int skipped;
+        
+        private Timer(String name) {
+            this.name = name;
+        }
+        
+        /**
+         * Start one call (on the thread that will call end())
+         * 
+         * @return Start time (or a "not sampled" marker) to pass to end()
+         */
+        public long begin() {
+            if (fast && ++skipped < SAMPLE_INTERVAL) {
+                return NOT_SAMPLED;
+            }
+            skipped = 0;
+            Trace.beginSection(name);
+            return System.nanoTime();
+        }
+        
+        /**
+         * Finish one call (call in a finally block)
+         * 
+         * @param startNanos Value returned by begin()
+         */
+        public void end(long startNanos) {
+            end(startNanos, -1);
+        }
+        
+        /**
+         * Finish one call that returned rows (call in a finally block)
+         * 
+         * @param startNanos Value returned by begin()
+         * @param rowCount Number of rows the call returned, or -1 for none
+         */
+        public void end(long startNanos, int rowCount) {
+            if (startNanos == NOT_SAMPLED) {
+                return;
+            }
+            long micros = (System.nanoTime() - startNanos) / 1000;
+            Trace.endSection();
+            
+            // A sample taken while fast stands for the calls skipped before it
+            int weight = fast ? SAMPLE_INTERVAL : 1;
+            latency.record(micros, weight);
+            if (rowCount >= 0) {
+                rows.record(rowCount, weight);
+            }
+            fast = micros < FAST_CALL_MICROS;
+        }
+        
+        /**
+         * Record a span measured elsewhere (no trace section)
+         * 
+         * @param millis Duration in milliseconds
+         */
+        public void recordMillis(long millis) {
+            latency.record(millis * 1000);
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        /**
+         * @return Latency of the calls in microseconds
+         */
+        public Histogram getLatency() {
+            return latency;
+        }
+        
+        /**
+         * @return Rows returned per call (empty for operations without rows)
+         */
+        public Histogram getRows() {
+            return rows;
+        }
+        
+        void reset() {
+            latency.reset();
+            rows.reset();
+            fast = false;
+        }
+        
+        /**
+         * @return e.g. "dao.getActivitiesPage n=120 p50=0.41 p95=1.20 p99=2.05 max=3.10 ms rows p50=50 max=50"
+         */
+        @Override
+        public String toString() {
+            String line = String.format(Locale.US, "%s n=%d p50=%.2f p95=%.2f p99=%.2f max=%.2f ms",
+                    name, latency.getCount(), latency.getPercentile(0.50) / 1000.0,
+                    latency.getPercentile(0.95) / 1000.0, latency.getPercentile(0.99) / 1000.0,
+                    latency.getMax() / 1000.0);
+            if (rows.getCount() > 0) {
+                line += " rows p50=" + rows.getPercentile(0.50) + " max=" + rows.getMax();
+            }
+            return line;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.fitlogger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Looper;
+import android.widget.TextView;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.RecyclerView;
+import com.fitlogger.adapter.ActivityPager;
+import com.fitlogger.database.DatabaseHelper;
+import com.fitlogger.database.FitnessActivity;
+import com.fitlogger.database.FitnessActivityDAO;
+import com.fitlogger.database.TestDatabases;
+import com.fitlogger.metrics.Metrics;
+import java.util.function.BooleanSupplier;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.shadows.ShadowToast;
+
+/**
+ * A configuration change (ActivityController.recreate(), as for a rotation)
+ * costs no query: MainActivity shows the pages its ViewModel kept and does
+ * not show the welcome message again, SettingsActivity shows the statistics
+ * already read. Only a write in between makes them read again.
+ * 
+ * Queries are counted with the "dao.*" timers: Metrics.reset() also clears
+ * their sampling state, so the first call after it is always recorded.
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ConfigurationChangeTest {
+    
+    private static final int ROWS = 30;
+    private static final long TIMEOUT_MILLIS = 10_000;
+    
+    private DatabaseHelper databaseHelper;
+    private FitnessActivityDAO dao;
+    
+    @Before
+    public void setUp() {
+        databaseHelper = TestDatabases.newSingletons(RuntimeEnvironment.getApplication());
+        dao = new FitnessActivityDAO(databaseHelper);
+    }
+    
+    @After
+    public void tearDown() {
+        databaseHelper.close();
+    }
+    
+    @Test
+    public void mainActivityKeepsItsListAcrossRecreate() throws InterruptedException {
+        addRows(ROWS);
+        ActivityController<MainActivity> controller = Robolectric.buildActivity(MainActivity.class).setup();
+        waitFor(() -> itemCount(controller.get()) == ROWS);
+        ActivityPager pager = new ViewModelProvider(controller.get()).get(ActivityListViewModel.class).getPager();
+        MainActivity before = controller.get();
+        
+        Metrics.reset();
+        controller.recreate();
+        shadowOf(Looper.getMainLooper()).idle();
+        
+        assertNotSame(before, controller.get());
+        assertSame(pager, new ViewModelProvider(controller.get()).get(ActivityListViewModel.class).getPager());
+        assertEquals(ROWS, itemCount(controller.get()));
+        assertEquals(0, daoCalls());
+        
+        // A write while the screen is shown is applied as before
+        dao.addActivity(new FitnessActivity("Yoga", 20, "2024-06-01"));
+        controller.pause().stop().restart().start().resume();
+        waitFor(() -> itemCount(controller.get()) == ROWS + 1);
+        controller.pause().stop().destroy();
+    }
+    
+    @Test
+    public void welcomeMessageIsNotShownAgainOnRecreate() throws InterruptedException {
+        ActivityController<MainActivity> controller = Robolectric.buildActivity(MainActivity.class).setup();
+        waitFor(() -> ShadowToast.shownToastCount() == 1);
+        
+        ShadowToast.reset();
+        Metrics.reset();
+        controller.recreate();
+        shadowOf(Looper.getMainLooper()).idle();
+        
+        assertEquals(0, ShadowToast.shownToastCount());
+        assertEquals(0, daoCalls());
+        controller.pause().stop().destroy();
+    }
+    
+    @Test
+    public void settingsActivityKeepsItsStatisticsAcrossRecreate() throws InterruptedException {
+        addRows(3);
+        ActivityController<SettingsActivity> controller = Robolectric.buildActivity(SettingsActivity.class).setup();
+        waitFor(() -> "Total Activities: 3".equals(totalActivities(controller.get())));
+        
+        Metrics.reset();
+        controller.recreate();
+        shadowOf(Looper.getMainLooper()).idle();
+        
+        assertEquals("Total Activities: 3", totalActivities(controller.get()));
+        assertEquals(0, daoCalls());
+        
+        // After a write the statistics are read again
+        dao.addActivity(new FitnessActivity("Yoga", 20, "2024-06-01"));
+        controller.recreate();
+        waitFor(() -> "Total Activities: 4".equals(totalActivities(controller.get())));
+        assertTrue(daoCalls() > 0);
+        controller.pause().stop().destroy();
+    }
+    
+    private void addRows(int count) {
+        for (int i = 0; i < count; i++) {
+            dao.addActivity(new FitnessActivity("Running", 30 + i, "2024-05-" + (10 + i % 20)));
+        }
+    }
+    
+    private static int itemCount(MainActivity activity) {
+        RecyclerView recyclerView = activity.findViewById(R.id.recyclerViewActivities);
+        return recyclerView.getAdapter().getItemCount();
+    }
+    
+    private static String totalActivities(SettingsActivity activity) {
+        return ((TextView) activity.findViewById(R.id.textTotalActivities)).getText().toString();
+    }
+    
+    /**
+     * @return Number of repository reads and writes recorded since Metrics.reset()
+     */
+    private static long daoCalls() {
+        long calls = 0;
+        for (Metrics.Timer timer : Metrics.getTimers()) {
+            if (timer.getName().startsWith("dao.")) {
+                calls += timer.getLatency().getCount();
+            }
+        }
+        return calls;
+    }
+    
+    /**
+     * Run the main looper until the condition holds (reads finish on the repository's threads)
+     */
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            shadowOf(Looper.getMainLooper()).idle();
+            Thread.sleep(10);
+        }
+        assertTrue("timed out", condition.getAsBoolean());
+    }
+}
@@ -0,0 +1,94 @@
+package com.fitlogger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Looper;
+import android.os.StrictMode;
+import android.os.strictmode.Violation;
+import androidx.recyclerview.widget.RecyclerView;
+import com.fitlogger.database.DatabaseHelper;
+import com.fitlogger.database.FitnessActivity;
+import com.fitlogger.database.FitnessActivityDAO;
+import com.fitlogger.database.TestDatabases;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.android.controller.ActivityController;
+
+/**
+ * MainActivity on a main thread that must not touch the disk: the thread
+ * policy (disk reads and writes, penaltyDeath) is set by the test itself, not
+ * left to FitLoggerApplication's debug setup, and the activity goes through
+ * onCreate(), onStart() and onResume() until the first page of saved rows is
+ * on screen. penaltyDeath fails the test at the violating call; the listener
+ * also collects the violations StrictMode reports later, from the looper.
+ * 
+ * The rows are saved before the policy is set, so the launch reads a real
+ * database; the database and the repository are the app's singletons, as in
+ * a real launch (new ones for the test, see TestDatabases.newSingletons()).
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+@RunWith(RobolectricTestRunner.class)
+public class MainActivityStrictModeTest {
+    
+    private static final int ROWS = 30;
+    private static final long TIMEOUT_MILLIS = 10_000;
+    
+    private final List<Violation> violations = new CopyOnWriteArrayList<>();
+    private DatabaseHelper databaseHelper;
+    private StrictMode.ThreadPolicy previousPolicy;
+    private ActivityController<MainActivity> controller;
+    
+    @Before
+    public void setUp() {
+        databaseHelper = TestDatabases.newSingletons(RuntimeEnvironment.getApplication());
+        FitnessActivityDAO dao = new FitnessActivityDAO(databaseHelper);
+        for (int i = 0; i < ROWS; i++) {
+            dao.addActivity(new FitnessActivity("Running", 30 + i, "2024-05-" + (10 + i % 20)));
+        }
+        
+        previousPolicy = StrictMode.getThreadPolicy();
+        StrictMode.setThreadPolicy(new StrictMode.ThreadPolicy.Builder()
+            .detectDiskReads()
+            .detectDiskWrites()
+            .penaltyListener(Runnable::run, violations::add)
+            .penaltyDeath()
+            .build());
+    }
+    
+    @After
+    public void tearDown() {
+        StrictMode.setThreadPolicy(previousPolicy);
+        if (controller != null) {
+            controller.pause().stop().destroy();
+        }
+        databaseHelper.close();
+    }
+    
+    @Test
+    public void launchDoesNoDiskIoOnTheMainThread() throws InterruptedException {
+        controller = Robolectric.buildActivity(MainActivity.class).create().start().resume();
+        
+        // The first page is loaded off the main thread and posted back to it
+        RecyclerView recyclerView = controller.get().findViewById(R.id.recyclerViewActivities);
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (recyclerView.getAdapter().getItemCount() < ROWS && System.currentTimeMillis() < deadline) {
+            shadowOf(Looper.getMainLooper()).idle();
+            Thread.sleep(10);
+        }
+        shadowOf(Looper.getMainLooper()).idle();
+        
+        assertEquals(ROWS, recyclerView.getAdapter().getItemCount());
+        assertTrue("main thread disk I/O: " + violations, violations.isEmpty());
+    }
+}
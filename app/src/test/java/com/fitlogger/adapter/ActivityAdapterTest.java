@@ -0,0 +1,151 @@
+package com.fitlogger.adapter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Looper;
+import androidx.recyclerview.widget.RecyclerView;
+import com.fitlogger.database.FitnessActivity;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/**
+ * ActivityAdapter: what a new snapshot dispatches to the RecyclerView, and
+ * the stable ids of placeholder rows
+ * 
+ * The adapter diffs on the calling (main) thread through a direct executor,
+ * and AsyncListDiffer posts the result to the main looper, so a snapshot is
+ * shown once the looper is idle. Every notification is recorded by an
+ * AdapterDataObserver.
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ActivityAdapterTest {
+    
+    private ActivityAdapter adapter;
+    private final List<String> events = new ArrayList<>();
+    
+    @Before
+    public void setUp() {
+        adapter = new ActivityAdapter(RuntimeEnvironment.getApplication(), new ArrayList<>(), Runnable::run);
+        adapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+            @Override
+            public void onChanged() {
+                events.add("changed all");
+            }
+            
+            @Override
+            public void onItemRangeChanged(int positionStart, int itemCount) {
+                events.add("changed " + positionStart + "+" + itemCount);
+            }
+            
+            @Override
+            public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+                events.add("changed " + positionStart + "+" + itemCount);
+            }
+            
+            @Override
+            public void onItemRangeInserted(int positionStart, int itemCount) {
+                events.add("inserted " + positionStart + "+" + itemCount);
+            }
+            
+            @Override
+            public void onItemRangeRemoved(int positionStart, int itemCount) {
+                events.add("removed " + positionStart + "+" + itemCount);
+            }
+            
+            @Override
+            public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+                events.add("moved " + fromPosition + "->" + toPosition);
+            }
+        });
+    }
+    
+    @Test
+    public void oneInsertIsOneNotifyItemInserted() {
+        List<FitnessActivity> rows = rows(100, 20);
+        show(page(rows), 20);
+        events.clear();
+        
+        rows.add(7, new FitnessActivity(500, "Yoga", 15, "2024-01-01"));
+        show(page(rows), 21);
+        assertEquals(Collections.singletonList("inserted 7+1"), events);
+        
+        // An edited row is one change, and nothing else is rebound
+        events.clear();
+        rows.set(3, new FitnessActivity(rows.get(3).getId(), "Walking", 40, "2024-01-01"));
+        show(page(rows), 21);
+        assertEquals(Collections.singletonList("changed 3+1"), events);
+    }
+    
+    @Test
+    public void placeholdersKeepTheirIdsWhenRowsAreInsertedAbove() {
+        List<FitnessActivity> first = rows(100, 5);
+        show(new PagedActivityList(new int[]{96, 50}, new int[]{5, 5}, Arrays.asList(first, null)), 10);
+        long[] before = new long[5];
+        for (int offset = 0; offset < 5; offset++) {
+            before[offset] = adapter.getItemId(5 + offset);
+        }
+        assertEquals(100, adapter.getItemId(0));
+        
+        first.add(0, new FitnessActivity(200, "Yoga", 15, "2024-01-02"));
+        events.clear();
+        show(new PagedActivityList(new int[]{96, 50}, new int[]{6, 5}, Arrays.asList(first, null)), 11);
+        assertEquals(Collections.singletonList("inserted 0+1"), events);
+        for (int offset = 0; offset < 5; offset++) {
+            assertEquals(before[offset], adapter.getItemId(6 + offset));
+            assertTrue(before[offset] < RecyclerView.NO_ID);
+        }
+    }
+    
+    /**
+     * Submit a list and let the main looper deliver the diff
+     */
+    private void show(List<FitnessActivity> list, int expectedCount) {
+        adapter.submitList(list);
+        shadowOf(Looper.getMainLooper()).idle();
+        assertTrue("list not shown", isShown(list));
+        assertEquals(expectedCount, adapter.getItemCount());
+    }
+    
+    private boolean isShown(List<FitnessActivity> list) {
+        if (adapter.getItemCount() != list.size()) {
+            return false;
+        }
+        for (int position = 0; position < list.size(); position++) {
+            if (adapter.getItem(position) != list.get(position)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * @return The rows as one loaded page (a snapshot, as ActivityPager publishes them)
+     */
+    private static PagedActivityList page(List<FitnessActivity> rows) {
+        return new PagedActivityList(new int[]{rows.get(rows.size() - 1).getId()}, new int[]{rows.size()},
+                Collections.singletonList(rows));
+    }
+    
+    /**
+     * @return count rows with ids firstId, firstId - 1, ... (newest first)
+     */
+    private static List<FitnessActivity> rows(int firstId, int count) {
+        List<FitnessActivity> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(new FitnessActivity(firstId - i, "Running", 30, "2024-01-01"));
+        }
+        return rows;
+    }
+}
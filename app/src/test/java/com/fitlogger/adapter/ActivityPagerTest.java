@@ -0,0 +1,159 @@
+package com.fitlogger.adapter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.Application;
+import android.os.Looper;
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LifecycleRegistry;
+import com.fitlogger.database.DatabaseHelper;
+import com.fitlogger.database.EpochDay;
+import com.fitlogger.database.FitnessActivity;
+import com.fitlogger.database.FitnessActivityDAO;
+import com.fitlogger.database.TestDatabases;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/**
+ * ActivityPager: pages far from the visible rows are dropped while scrolling
+ * and re-read when they come back, so the rows in memory stay bounded
+ * 
+ * The scroll position is fed to onVisibleRange() directly (ten rows on
+ * screen, moving ten rows at a time); page reads run on the repository's
+ * threads and are awaited on the main looper.
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ActivityPagerTest implements LifecycleOwner {
+    
+    private static final int ROWS = 1000;
+    private static final int PAGE_SIZE = 50;
+    private static final int VISIBLE_ROWS = 10;
+    private static final int FIRST_DAY = 19_000;
+    private static final long TIMEOUT_MILLIS = 10_000;
+    
+    // Visible pages (at most 2) plus RETAINED_PAGES on each side
+    private static final int MAX_LOADED_ROWS = (2 + 2 * 2) * PAGE_SIZE;
+    
+    private final LifecycleRegistry lifecycle = new LifecycleRegistry(this);
+    private DatabaseHelper databaseHelper;
+    private ActivityPager pager;
+    
+    @Before
+    public void setUp() {
+        Application application = RuntimeEnvironment.getApplication();
+        databaseHelper = TestDatabases.newHelper(application);
+        List<FitnessActivity> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new FitnessActivity("Running", 30, EpochDay.toDate(FIRST_DAY + i)));
+        }
+        new FitnessActivityDAO(databaseHelper).addActivities(rows);
+        
+        lifecycle.setCurrentState(Lifecycle.State.RESUMED);
+        ActivityAdapter adapter = new ActivityAdapter(application, new ArrayList<>());
+        pager = new ActivityPager(TestDatabases.newRepository(application, databaseHelper), this, adapter, PAGE_SIZE);
+    }
+    
+    @After
+    public void tearDown() {
+        lifecycle.setCurrentState(Lifecycle.State.DESTROYED);
+        databaseHelper.close();
+    }
+    
+    @NonNull
+    @Override
+    public Lifecycle getLifecycle() {
+        return lifecycle;
+    }
+    
+    @Test
+    public void farPagesAreDroppedAndReadAgain() {
+        pager.loadInitial();
+        scrollTo(0);
+        assertEquals(PAGE_SIZE, pager.snapshot().size());
+        
+        int maxLoaded = 0;
+        for (int first = 0; first <= ROWS - VISIBLE_ROWS; first += VISIBLE_ROWS) {
+            scrollTo(first);
+            maxLoaded = Math.max(maxLoaded, pager.snapshot().getLoadedCount());
+        }
+        PagedActivityList atEnd = pager.snapshot();
+        assertEquals(ROWS, atEnd.size());
+        assertTrue("loaded rows " + maxLoaded, maxLoaded <= MAX_LOADED_ROWS);
+        assertNull(atEnd.get(0));                // first pages dropped
+        assertNull(atEnd.get(ROWS / 2));
+        assertNotNull(atEnd.get(ROWS - 1));
+        
+        // Back to the top: the first page is read again from its key range
+        scrollTo(0);
+        PagedActivityList atTop = pager.snapshot();
+        assertEquals(ROWS, atTop.size());
+        assertNull(atTop.get(ROWS - 1));         // last pages dropped
+        assertTrue(atTop.getLoadedCount() <= MAX_LOADED_ROWS);
+        for (int position = 0; position < PAGE_SIZE; position++) {
+            assertRow(atTop, position);
+        }
+    }
+    
+    @Test
+    public void everyRowIsShownOnceInOrder() {
+        pager.loadInitial();
+        for (int first = 0; first <= ROWS - VISIBLE_ROWS; first += VISIBLE_ROWS) {
+            scrollTo(first);
+            PagedActivityList snapshot = pager.snapshot();
+            for (int position = first; position < first + VISIBLE_ROWS; position++) {
+                assertRow(snapshot, position);
+            }
+        }
+    }
+    
+    /**
+     * Show rows first .. first + VISIBLE_ROWS - 1 and wait until they are loaded
+     */
+    private void scrollTo(int first) {
+        int last = first + VISIBLE_ROWS - 1;
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!isLoaded(first, last)) {
+            assertTrue("rows " + first + " .. " + last + " not loaded", System.currentTimeMillis() < deadline);
+            pager.onVisibleRange(first, last);
+            shadowOf(Looper.getMainLooper()).idle();
+            Thread.yield();
+        }
+    }
+    
+    private boolean isLoaded(int first, int last) {
+        PagedActivityList snapshot = pager.snapshot();
+        if (snapshot.size() <= last) {
+            return false;
+        }
+        for (int position = first; position <= last; position++) {
+            if (snapshot.get(position) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Newest first: position p shows the row of day FIRST_DAY + ROWS - 1 - p
+     */
+    private static void assertRow(PagedActivityList snapshot, int position) {
+        FitnessActivity row = snapshot.get(position);
+        assertNotNull("row " + position, row);
+        assertEquals("row " + position, EpochDay.toDate(FIRST_DAY + ROWS - 1 - position), row.getDate());
+    }
+}
@@ -0,0 +1,122 @@
+package com.fitlogger.adapter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.content.Context;
+import android.os.Looper;
+import android.view.ContextThemeWrapper;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import com.fitlogger.R;
+import com.fitlogger.database.EpochDay;
+import com.fitlogger.database.FitnessActivity;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowTrace;
+
+/**
+ * ActivityAdapter.onBindViewHolder() on a real row: the holder is inflated by
+ * the adapter's onCreateViewHolder() (item_activity_card in the app theme)
+ * and bound over and over to the rows of a snapshot, loaded rows and
+ * placeholders alike - setText() of the three labels, the card's checked
+ * state, the "ui.onBindViewHolder" timer and the duration label
+ * 
+ * After a warm-up, BINDS binds must allocate nothing (thread allocation
+ * counter of the JVM, with the cost of reading it subtracted); the click
+ * listeners set once by the holder are still in place. Robolectric's Trace
+ * keeps every ended section in a list (the platform's only checks whether
+ * tracing is on), so the list is cleared before each run; the warm-up grows
+ * it once.
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+@RunWith(RobolectricTestRunner.class)
+public class BindAllocationTest {
+    
+    private static final int BINDS = 100_000;
+    private static final int WARM_UP_RUNS = 5;
+    private static final int RUNS = 7;
+    private static final String[] NAMES = {"Running", "Morning Run", "Cycling", "Yoga", "Swimming"};
+    
+    @Test
+    public void durationLabelsAreBuiltOnce() {
+        assertEquals("45 minutes", DurationFormatter.format(45));
+        assertSame(DurationFormatter.format(45), DurationFormatter.format(45));
+        assertSame(DurationFormatter.format(0), DurationFormatter.format(0));
+        assertSame(DurationFormatter.format(1440), DurationFormatter.format(1440));
+        assertEquals("1441 minutes", DurationFormatter.format(1441)); // not cached
+    }
+    
+    @Test
+    public void bindDoesNotAllocate() {
+        Context context = new ContextThemeWrapper(RuntimeEnvironment.getApplication(), R.style.Theme_FitLogger);
+        
+        // One loaded page of 100 rows and a dropped page of 50 placeholders
+        List<FitnessActivity> rows = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            rows.add(new FitnessActivity(1000 - i, NAMES[i % NAMES.length], 5 + i * 7, EpochDay.toDate(19_900 - i)));
+        }
+        ActivityAdapter adapter = new ActivityAdapter(context, new ArrayList<>(), Runnable::run);
+        adapter.submitList(new PagedActivityList(new int[]{901, 500}, new int[]{100, 50},
+                Arrays.asList(rows, null)));
+        shadowOf(Looper.getMainLooper()).idle();
+        int count = adapter.getItemCount();
+        assertEquals(150, count);
+        
+        RecyclerView parent = new RecyclerView(context);
+        parent.setLayoutManager(new LinearLayoutManager(context));
+        ActivityAdapter.ActivityViewHolder holder = adapter.onCreateViewHolder(parent, 0);
+        
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        
+        long[] nanos = new long[RUNS];
+        for (int run = -WARM_UP_RUNS; run < RUNS; run++) {
+            long counterCost = -threads.getThreadAllocatedBytes(thread);
+            counterCost += threads.getThreadAllocatedBytes(thread);
+            
+            ShadowTrace.reset(); // keeps the capacity of its list of ended sections
+            long bytes = -threads.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            for (int i = 0; i < BINDS; i++) {
+                adapter.onBindViewHolder(holder, i % count);
+            }
+            long time = System.nanoTime() - start;
+            bytes += threads.getThreadAllocatedBytes(thread);
+            
+            if (run >= 0) {
+                assertEquals("bytes allocated by " + BINDS + " binds", 0, bytes - counterCost);
+                nanos[run] = time / BINDS;
+            }
+        }
+        
+        // The last bind (position BINDS - 1) shows a loaded row; the listeners are still set
+        FitnessActivity last = rows.get((BINDS - 1) % count);
+        assertEquals(last.getActivityName(), holder.textActivityName.getText().toString());
+        assertEquals(DurationFormatter.format(last.getDuration()), holder.textDuration.getText().toString());
+        assertEquals(last.getDate(), holder.textDate.getText().toString());
+        assertTrue(holder.itemView.hasOnClickListeners());
+        assertTrue(holder.btnDelete.hasOnClickListeners());
+        
+        System.out.println(String.format(Locale.US, "onBindViewHolder: %d ns/bind, 0 bytes (%d binds, median of %d)",
+                median(nanos), BINDS, RUNS));
+    }
+    
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,105 @@
+package com.fitlogger.adapter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import androidx.recyclerview.widget.RecyclerView;
+import com.fitlogger.database.FitnessActivity;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+
+/**
+ * PagedActivityList: positions across loaded, dropped and empty pages,
+ * independence from later edits of the pages, and placeholder ids
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public class PagedActivityListTest {
+    
+    @Test
+    public void positionsSpanLoadedDroppedAndEmptyPages() {
+        List<FitnessActivity> first = rows(1, 3);
+        List<FitnessActivity> third = rows(10, 2);
+        PagedActivityList list = new PagedActivityList(new int[]{3, 60, 61, 11, 70}, new int[]{3, 4, 0, 2, 1},
+                Arrays.asList(first, null, new ArrayList<>(), third, null));
+        
+        assertEquals(10, list.size());
+        assertEquals(5, list.getLoadedCount());
+        assertSame(first.get(0), list.get(0));
+        assertSame(first.get(2), list.get(2));
+        for (int position = 3; position < 7; position++) {
+            assertNull(list.get(position));
+        }
+        assertSame(third.get(0), list.get(7));
+        assertSame(third.get(1), list.get(8));
+        assertNull(list.get(9));
+        
+        try {
+            list.get(10);
+            fail("past the end");
+        } catch (IndexOutOfBoundsException expected) {
+            // expected
+        }
+    }
+    
+    @Test
+    public void laterEditsOfThePagesDoNotChangeTheSnapshot() {
+        List<FitnessActivity> page = rows(1, 2);
+        PagedActivityList list = new PagedActivityList(new int[]{2}, new int[]{2}, Arrays.<List<FitnessActivity>>asList(page));
+        page.remove(0);
+        page.add(new FitnessActivity(99, "Yoga", 20, "2024-01-01"));
+        
+        assertEquals(2, list.size());
+        assertEquals(1, list.get(0).getId());
+        assertEquals(2, list.get(1).getId());
+    }
+    
+    @Test
+    public void placeholderIdsDependOnlyOnPageAndOffset() {
+        List<FitnessActivity> first = rows(1, 3);
+        PagedActivityList before = new PagedActivityList(new int[]{3, 60}, new int[]{3, 4},
+                Arrays.asList(first, null));
+        
+        // A row inserted into the first page shifts the placeholders' positions
+        first.add(0, new FitnessActivity(9, "Yoga", 20, "2024-01-02"));
+        PagedActivityList after = new PagedActivityList(new int[]{3, 60}, new int[]{4, 4},
+                Arrays.asList(first, null));
+        
+        Set<Long> ids = new HashSet<>();
+        for (int offset = 0; offset < 4; offset++) {
+            long id = before.getPlaceholderId(3 + offset);
+            assertEquals(id, after.getPlaceholderId(4 + offset));
+            assertTrue(id < RecyclerView.NO_ID);
+            assertTrue(ids.add(id));
+        }
+        
+        // Same offset in another page, and the largest key and offset
+        PagedActivityList other = new PagedActivityList(new int[]{61, Integer.MAX_VALUE},
+                new int[]{4, Integer.MAX_VALUE - 4}, Arrays.<List<FitnessActivity>>asList(null, null));
+        assertTrue(ids.add(other.getPlaceholderId(0)));
+        assertTrue(other.getPlaceholderId(Integer.MAX_VALUE - 1) < RecyclerView.NO_ID);
+    }
+    
+    @Test
+    public void noPagesIsEmpty() {
+        PagedActivityList list = new PagedActivityList(new int[0], new int[0], new ArrayList<>());
+        assertEquals(0, list.size());
+        assertEquals(0, list.getLoadedCount());
+    }
+    
+    private static List<FitnessActivity> rows(int firstId, int count) {
+        List<FitnessActivity> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(new FitnessActivity(firstId + i, "Running", 30, "2024-01-01"));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,220 @@
+package com.fitlogger.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/**
+ * ActivityCache: LRU order, both bounds, resize(), counters, the write-stamp
+ * guard of read fills, and the DAO keeping it coherent with the database
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ActivityCacheTest {
+    
+    // Estimated size of row(): 128 overhead + 2 * ("Run".length() + "2024-05-01".length())
+    private static final long ROW_BYTES = 128 + 2 * (3 + 10);
+    
+    private DatabaseHelper databaseHelper;
+    
+    @Before
+    public void setUp() {
+        databaseHelper = new DatabaseHelper(RuntimeEnvironment.getApplication());
+    }
+    
+    @After
+    public void tearDown() {
+        databaseHelper.close();
+    }
+    
+    @Test
+    public void leastRecentlyUsedRowIsEvictedFirst() {
+        ActivityCache cache = new ActivityCache(3, Long.MAX_VALUE);
+        cache.put(row(1));
+        cache.put(row(2));
+        cache.put(row(3));
+        assertNotNull(cache.get(1)); // 2 is now the least recently used
+        cache.put(row(4));
+        
+        assertNull(cache.get(2));
+        assertNotNull(cache.get(1));
+        assertNotNull(cache.get(3));
+        assertNotNull(cache.get(4));
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        
+        // Replacing a row makes it the most recently used, without an eviction
+        cache.put(new FitnessActivity(1, "Run", 99, "2024-05-01"));
+        cache.put(row(5)); // evicts 3: order is 1, 4, 3 by last use
+        assertNull(cache.get(3));
+        assertEquals(99, cache.get(1).getDuration());
+        assertEquals(2, cache.getEvictionCount());
+    }
+    
+    @Test
+    public void byteBoundEvictsBeforeTheEntryBound() {
+        ActivityCache cache = new ActivityCache(100, 2 * ROW_BYTES);
+        cache.put(row(1));
+        cache.put(row(2));
+        assertEquals(2 * ROW_BYTES, cache.getEstimatedBytes());
+        cache.put(row(3));
+        
+        assertEquals(2, cache.size());
+        assertEquals(2 * ROW_BYTES, cache.getEstimatedBytes());
+        assertNull(cache.get(1));
+        
+        // A longer name needs more room: two rows go
+        cache.put(new FitnessActivity(4, "Morning Trail Run", 30, "2024-05-01"));
+        assertEquals(1, cache.size());
+        assertNotNull(cache.get(4));
+        assertEquals(3, cache.getEvictionCount());
+    }
+    
+    @Test
+    public void entryBoundEvictsBeforeTheByteBound() {
+        ActivityCache cache = new ActivityCache(2, 100 * ROW_BYTES);
+        cache.put(row(1));
+        cache.put(row(2));
+        cache.put(row(3));
+        assertEquals(2, cache.size());
+        assertEquals(2 * ROW_BYTES, cache.getEstimatedBytes());
+        assertNull(cache.get(1));
+    }
+    
+    @Test
+    public void resizeTrimsImmediately() {
+        ActivityCache cache = new ActivityCache(10, Long.MAX_VALUE);
+        for (int id = 1; id <= 10; id++) {
+            cache.put(row(id));
+        }
+        cache.resize(4, Long.MAX_VALUE);
+        assertEquals(4, cache.size());
+        assertEquals(6, cache.getEvictionCount());
+        assertNull(cache.get(6));
+        assertNotNull(cache.get(7));
+        
+        cache.resize(4, ROW_BYTES);
+        assertEquals(1, cache.size());
+        assertEquals(ROW_BYTES, cache.getEstimatedBytes());
+        
+        // 0 entries disables the cache
+        cache.resize(0, Long.MAX_VALUE);
+        cache.put(row(20));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getEstimatedBytes());
+    }
+    
+    @Test
+    public void countersAndCopies() {
+        ActivityCache cache = new ActivityCache(10, Long.MAX_VALUE);
+        FitnessActivity original = row(1);
+        cache.put(original);
+        assertNull(cache.get(2));
+        FitnessActivity first = cache.get(1);
+        FitnessActivity second = cache.get(1);
+        
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0, cache.getEvictionCount());
+        assertNotSame(original, first);
+        assertNotSame(first, second);
+        
+        // Changing a returned row does not change the cached one
+        first.setDuration(1);
+        original.setDuration(2);
+        assertEquals(30, cache.get(1).getDuration());
+        
+        // clear() keeps the statistics
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(3, cache.getHitCount());
+    }
+    
+    @Test
+    public void staleReadFillIsDropped() {
+        ActivityCache cache = new ActivityCache(10, Long.MAX_VALUE);
+        
+        // Reader takes the stamp and reads version 1; an update writes version 2 first
+        long stamp = cache.writeStamp();
+        cache.put(new FitnessActivity(1, "Run", 45, "2024-05-01"));
+        cache.putIfUnchanged(new FitnessActivity(1, "Run", 30, "2024-05-01"), stamp);
+        assertEquals(45, cache.get(1).getDuration());
+        
+        // Reader reads the row, a delete runs before it fills
+        stamp = cache.writeStamp();
+        cache.remove(1);
+        cache.putIfUnchanged(row(1), stamp);
+        assertNull(cache.get(1));
+        
+        // Any write counts, also one of another row or clear()
+        stamp = cache.writeStamp();
+        cache.remove(42);
+        cache.putIfUnchanged(row(1), stamp);
+        assertNull(cache.get(1));
+        stamp = cache.writeStamp();
+        cache.clear();
+        cache.putIfUnchanged(row(1), stamp);
+        assertNull(cache.get(1));
+        
+        // Without a write in between the fill is kept
+        stamp = cache.writeStamp();
+        cache.putIfUnchanged(row(1), stamp);
+        assertNotNull(cache.get(1));
+    }
+    
+    @Test
+    public void daoKeepsTheCacheCoherent() {
+        FitnessActivityDAO dao = new FitnessActivityDAO(databaseHelper);
+        ActivityCache cache = databaseHelper.getActivityCache();
+        int first = (int) dao.addActivity(new FitnessActivity("Running", 30, "2024-05-01"));
+        int second = (int) dao.addActivity(new FitnessActivity("Yoga", 45, "2024-05-02"));
+        int third = (int) dao.addActivity(new FitnessActivity("Cycling", 60, "2024-05-03"));
+        assertEquals(3, cache.size()); // inserts are written through
+        
+        // Update: the cache serves the new state
+        dao.updateActivity(new FitnessActivity(first, "Walking", 35, "2024-05-04"));
+        long hits = cache.getHitCount();
+        FitnessActivity updated = dao.getActivityById(first);
+        assertEquals(hits + 1, cache.getHitCount());
+        assertEquals(new FitnessActivity(first, "Walking", 35, "2024-05-04"), updated);
+        
+        // Update of a row that is gone: the cached copy is dropped
+        assertEquals(1, dao.deleteActivity(second));
+        assertNull(cache.get(second));
+        cache.put(new FitnessActivity(second, "Yoga", 45, "2024-05-02")); // e.g. filled by a racing read
+        assertEquals(0, dao.updateActivity(new FitnessActivity(second, "Yoga", 50, "2024-05-02")));
+        assertNull(cache.get(second));
+        assertNull(dao.getActivityById(second));
+        
+        // Bulk delete of cached rows
+        cache.clear();
+        dao.getActivityById(first);
+        dao.getActivityById(third);
+        assertEquals(2, cache.size());
+        assertEquals(2, dao.deleteActivities(new int[]{first, third}));
+        assertEquals(0, cache.size());
+        assertNull(dao.getActivityById(first));
+        assertNull(dao.getActivityById(third));
+        
+        // Delete all
+        int fourth = (int) dao.addActivity(new FitnessActivity("Rowing", 20, "2024-05-05"));
+        assertNotNull(dao.getActivityById(fourth));
+        dao.deleteAllActivities();
+        assertEquals(0, cache.size());
+        assertNull(dao.getActivityById(fourth));
+    }
+    
+    private static FitnessActivity row(int id) {
+        return new FitnessActivity(id, "Run", 30, "2024-05-01");
+    }
+}
@@ -0,0 +1,171 @@
+package com.fitlogger.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.database.Cursor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/**
+ * The list, by-date and range queries use idx_activities_epoch_day (EXPLAIN
+ * QUERY PLAN), and what that is worth at 100k rows
+ * 
+ * The plans are taken over the clauses the DAO runs (LIST_ORDER,
+ * KEYSET_AFTER, the range of getActivitiesInRange()): each must search the
+ * index and none may sort in a temp b-tree. The benchmark times the same
+ * queries through the DAO against the v1 behaviour, i.e. the same SQL with
+ * the index switched off (NOT INDEXED: full scan plus sort), median of RUNS
+ * after WARM_UP_RUNS.
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ActivityQueryPlanTest {
+    
+    private static final int ROWS = 100_000;
+    private static final int DAYS = 2000;
+    private static final int FIRST_DAY = 18_000;
+    private static final int PAGE = 50;
+    private static final int WARM_UP_RUNS = 5;
+    private static final int RUNS = 21;
+    
+    private static final String COLUMNS = DatabaseHelper.COLUMN_ID + ", " + DatabaseHelper.COLUMN_TYPE_ID + ", " +
+            DatabaseHelper.COLUMN_DURATION + ", " + DatabaseHelper.COLUMN_DATE;
+    private static final String BY_DATE = DatabaseHelper.COLUMN_EPOCH_DAY + " = ?";
+    private static final String RANGE =
+            DatabaseHelper.COLUMN_EPOCH_DAY + " >= ? AND " + DatabaseHelper.COLUMN_EPOCH_DAY + " < ?";
+    private static final String RANGE_ORDER = DatabaseHelper.COLUMN_EPOCH_DAY + ", " + DatabaseHelper.COLUMN_ID;
+    
+    private DatabaseHelper databaseHelper;
+    private FitnessActivityDAO dao;
+    
+    @Before
+    public void setUp() {
+        databaseHelper = new DatabaseHelper(RuntimeEnvironment.getApplication());
+        dao = new FitnessActivityDAO(databaseHelper);
+        List<FitnessActivity> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            // Days out of order, as after an import of several sources
+            rows.add(new FitnessActivity(i % 3 == 0 ? "Running" : "Cycling", 10 + i % 90,
+                                         EpochDay.toDate(FIRST_DAY + (int) (i * 7919L % DAYS))));
+        }
+        dao.addActivities(rows);
+    }
+    
+    @After
+    public void tearDown() {
+        databaseHelper.close();
+    }
+    
+    @Test
+    public void listQueriesSearchTheEpochDayIndex() {
+        String day = String.valueOf(FIRST_DAY + 100);
+        // First page: the index is walked from its start, so a scan (in index order) is right
+        assertUsesIndex(select(DatabaseHelper.SELECTION_LIVE, FitnessActivityDAO.LIST_ORDER, PAGE, false), false);
+        assertUsesIndex(select(DatabaseHelper.SELECTION_LIVE + " AND " + FitnessActivityDAO.KEYSET_AFTER,
+                               FitnessActivityDAO.LIST_ORDER, PAGE, false), true, day, day, "500");
+        assertUsesIndex(select(DatabaseHelper.SELECTION_LIVE + " AND " + BY_DATE,
+                               FitnessActivityDAO.LIST_ORDER, 0, false), true, day);
+        assertUsesIndex(select(DatabaseHelper.SELECTION_LIVE + " AND " + RANGE, RANGE_ORDER, 0, false), true,
+                        day, String.valueOf(FIRST_DAY + 107));
+    }
+    
+    @Test
+    public void indexBeatsFullScanAt100kRows() {
+        String date = EpochDay.toDate(FIRST_DAY + 1234);
+        String[] day = {String.valueOf(FIRST_DAY + 1234)};
+        String[] week = {String.valueOf(FIRST_DAY + 700), String.valueOf(FIRST_DAY + 707)};
+        String byDateScan = select(DatabaseHelper.SELECTION_LIVE + " AND " + BY_DATE,
+                                   FitnessActivityDAO.LIST_ORDER, 0, true);
+        String pageScan = select(DatabaseHelper.SELECTION_LIVE, FitnessActivityDAO.LIST_ORDER, PAGE, true);
+        String rangeScan = select(DatabaseHelper.SELECTION_LIVE + " AND " + RANGE, RANGE_ORDER, 0, true);
+        assertEquals(dao.getActivitiesByDate(date).size(), count(byDateScan, day));
+        assertEquals(dao.getActivitiesInRange(FIRST_DAY + 700, FIRST_DAY + 707, ROWS).size(), count(rangeScan, week));
+        
+        long[][] nanos = new long[6][RUNS];
+        for (int run = -WARM_UP_RUNS; run < RUNS; run++) {
+            long[] times = {
+                time(new Runnable() { public void run() { dao.getActivitiesByDate(date); } }),
+                time(new Runnable() { public void run() { count(byDateScan, day); } }),
+                time(new Runnable() { public void run() { dao.getActivitiesPage(null, PAGE); } }),
+                time(new Runnable() { public void run() { count(pageScan); } }),
+                time(new Runnable() {
+                    public void run() { dao.getActivitiesInRange(FIRST_DAY + 700, FIRST_DAY + 707, ROWS); }
+                }),
+                time(new Runnable() { public void run() { count(rangeScan, week); } })
+            };
+            for (int i = 0; run >= 0 && i < times.length; i++) {
+                nanos[i][run] = times[i];
+            }
+        }
+        
+        String[] names = {"by date", "first page", "7-day range"};
+        for (int i = 0; i < names.length; i++) {
+            long indexed = median(nanos[2 * i]);
+            long scanned = median(nanos[2 * i + 1]);
+            System.out.println(String.format(Locale.US, "%s: index %.2f ms, full scan + sort %.2f ms (%d rows)",
+                    names[i], indexed / 1e6, scanned / 1e6, ROWS));
+            assertTrue(names[i] + ": index " + indexed + " ns, scan " + scanned + " ns", indexed < scanned);
+        }
+    }
+    
+    /**
+     * @param search Whether the plan must seek into the index (SEARCH) rather than walk it from one end
+     */
+    private void assertUsesIndex(String sql, boolean search, String... args) {
+        List<String> plan = new ArrayList<>();
+        Cursor cursor = databaseHelper.getDatabase().rawQuery("EXPLAIN QUERY PLAN " + sql, args);
+        try {
+            while (cursor.moveToNext()) {
+                plan.add(cursor.getString(cursor.getColumnIndexOrThrow("detail")));
+            }
+        } finally {
+            cursor.close();
+        }
+        String details = plan.toString();
+        assertTrue(sql + " → " + details, details.contains("INDEX " + DatabaseHelper.INDEX_ACTIVITIES_EPOCH_DAY));
+        assertTrue(sql + " → " + details, !search || details.contains("SEARCH"));
+        assertFalse(sql + " → " + details, details.contains("TEMP B-TREE"));
+    }
+    
+    private static String select(String where, String orderBy, int limit, boolean notIndexed) {
+        return "SELECT " + COLUMNS + " FROM " + DatabaseHelper.TABLE_ACTIVITIES + (notIndexed ? " NOT INDEXED" : "") +
+                " WHERE " + where + " ORDER BY " + orderBy + (limit > 0 ? " LIMIT " + limit : "");
+    }
+    
+    private int count(String sql, String... args) {
+        Cursor cursor = databaseHelper.getDatabase().rawQuery(sql, args);
+        try {
+            int rows = 0;
+            while (cursor.moveToNext()) {
+                rows++;
+            }
+            return rows;
+        } finally {
+            cursor.close();
+        }
+    }
+    
+    private static long time(Runnable query) {
+        long start = System.nanoTime();
+        query.run();
+        return System.nanoTime() - start;
+    }
+    
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
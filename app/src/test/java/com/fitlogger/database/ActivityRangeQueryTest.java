@@ -0,0 +1,206 @@
+package com.fitlogger.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/**
+ * getActivitiesInRange() and aggregateInRange() against a brute-force scan
+ * of the same rows in Java
+ * 
+ * The rows span 2023-12-01 .. 2025-02-28, so weeks and months cross two
+ * year ends (2024-12-30 is a Monday whose week ends in 2025); a fifth of
+ * them are soft-deleted and must not show up. Ranges are random, plus
+ * ranges that start or end exactly on week and month boundaries, empty
+ * ones (from == to) and reversed ones (from > to). The expected week and
+ * month keys come from java.time, not from EpochDay.
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ActivityRangeQueryTest {
+    
+    private static final int ROWS = 3000;
+    private static final int RANGES = 300;
+    private static final String[] NAMES = {"Running", "Cycling", "Yoga", "Swimming"};
+    private static final int FIRST_DAY = (int) LocalDate.of(2023, 12, 1).toEpochDay();
+    private static final int LAST_DAY = (int) LocalDate.of(2025, 2, 28).toEpochDay();
+    
+    private DatabaseHelper databaseHelper;
+    private FitnessActivityDAO dao;
+    private final List<FitnessActivity> live = new ArrayList<>();
+    
+    @Before
+    public void setUp() {
+        databaseHelper = new DatabaseHelper(RuntimeEnvironment.getApplication());
+        dao = new FitnessActivityDAO(databaseHelper);
+        
+        Random random = new Random(23);
+        List<FitnessActivity> rows = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new FitnessActivity(NAMES[random.nextInt(NAMES.length)], 1 + random.nextInt(120),
+                    EpochDay.toDate(FIRST_DAY + random.nextInt(LAST_DAY - FIRST_DAY + 1))));
+        }
+        long[] ids = dao.addActivities(rows);
+        List<Integer> deleted = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            FitnessActivity row = rows.get(i);
+            if (random.nextInt(5) == 0) {
+                deleted.add((int) ids[i]);
+            } else {
+                live.add(new FitnessActivity((int) ids[i], row.getActivityName(), row.getDuration(), row.getDate()));
+            }
+        }
+        int[] deletedIds = new int[deleted.size()];
+        for (int i = 0; i < deletedIds.length; i++) {
+            deletedIds[i] = deleted.get(i);
+        }
+        assertEquals(deletedIds.length, dao.deleteActivities(deletedIds));
+    }
+    
+    @After
+    public void tearDown() {
+        databaseHelper.close();
+    }
+    
+    @Test
+    public void rangesMatchBruteForce() {
+        for (int[] range : ranges()) {
+            int from = range[0];
+            int to = range[1];
+            String where = "[" + EpochDay.toDate(from) + ", " + EpochDay.toDate(to) + ")";
+            
+            // Rows, in (epoch_day, id) order, with and without a binding limit
+            List<FitnessActivity> expected = scan(from, to);
+            for (int limit : new int[]{Integer.MAX_VALUE, 7}) {
+                ActivitySnapshot snapshot = dao.getActivitiesInRange(from, to, limit);
+                List<FitnessActivity> firstRows = expected.subList(0, Math.min(limit, expected.size()));
+                assertEquals(where, firstRows.size(), snapshot.size());
+                for (int i = 0; i < snapshot.size(); i++) {
+                    FitnessActivity row = firstRows.get(i);
+                    assertEquals(where, row.getId(), snapshot.getId(i));
+                    assertEquals(row.getDuration(), snapshot.getDuration(i));
+                    assertEquals(EpochDay.fromDate(row.getDate()), snapshot.getEpochDay(i));
+                    assertEquals(row.getActivityName(), snapshot.getTypeName(snapshot.getTypeId(i)));
+                }
+            }
+            
+            // Aggregates
+            for (ActivityAggregate.GroupBy groupBy : ActivityAggregate.GroupBy.values()) {
+                assertAggregate(where + " by " + groupBy, expected, dao.aggregateInRange(from, to, groupBy));
+            }
+        }
+    }
+    
+    private void assertAggregate(String where, List<FitnessActivity> rows, ActivityAggregate actual) {
+        TreeMap<String, long[]> expected = new TreeMap<>();
+        for (FitnessActivity row : rows) {
+            String key = keyOf(actual.getGroupBy(), LocalDate.parse(row.getDate()), row.getActivityName());
+            long[] bucket = expected.get(key);
+            if (bucket == null) {
+                bucket = new long[]{0, 0, Long.MAX_VALUE, 0};
+                expected.put(key, bucket);
+            }
+            bucket[0]++;
+            bucket[1] += row.getDuration();
+            bucket[2] = Math.min(bucket[2], row.getDuration());
+            bucket[3] = Math.max(bucket[3], row.getDuration());
+        }
+        
+        assertEquals(where, expected.size(), actual.size());
+        assertEquals(where, rows.size(), actual.getTotalCount());
+        for (int i = 0; i < actual.size(); i++) {
+            String key = actual.getGroupBy() == ActivityAggregate.GroupBy.ACTIVITY_TYPE
+                    ? actual.getTypeName(i) : String.format("%08d", actual.getKey(i));
+            long[] bucket = expected.get(key);
+            assertEquals(where + " " + key, bucket[0], actual.getCount(i));
+            assertEquals(where + " " + key, bucket[1], actual.getTotalDuration(i));
+            assertEquals(where + " " + key, bucket[2], actual.getMinDuration(i));
+            assertEquals(where + " " + key, bucket[3], actual.getMaxDuration(i));
+            if (i > 0) {
+                assertTrue(where, actual.getKey(i - 1) < actual.getKey(i));
+            }
+        }
+    }
+    
+    /**
+     * @return Bucket key computed with java.time (zero-padded so TreeMap order is numeric)
+     */
+    private static String keyOf(ActivityAggregate.GroupBy groupBy, LocalDate date, String name) {
+        switch (groupBy) {
+            case DAY:
+                return String.format("%08d", date.toEpochDay());
+            case WEEK:
+                return String.format("%08d", date.with(DayOfWeek.MONDAY).toEpochDay());
+            case MONTH:
+                return String.format("%08d", date.getYear() * 100 + date.getMonthValue());
+            default:
+                return name;
+        }
+    }
+    
+    /**
+     * @return Live rows with from <= day < to, in (epoch_day, id) order
+     */
+    private List<FitnessActivity> scan(int from, int to) {
+        List<FitnessActivity> rows = new ArrayList<>();
+        for (FitnessActivity row : live) {
+            int day = EpochDay.fromDate(row.getDate());
+            if (day >= from && day < to) {
+                rows.add(row);
+            }
+        }
+        Collections.sort(rows, new Comparator<FitnessActivity>() {
+            @Override
+            public int compare(FitnessActivity a, FitnessActivity b) {
+                int byDay = a.getDate().compareTo(b.getDate());
+                return byDay != 0 ? byDay : Integer.compare(a.getId(), b.getId());
+            }
+        });
+        return rows;
+    }
+    
+    private static List<int[]> ranges() {
+        List<int[]> ranges = new ArrayList<>();
+        // Calendar edges: year ends, a week across 2024/2025, whole and partial months
+        int[][] dates = {
+            {2024, 1, 1, 2025, 1, 1}, {2024, 12, 30, 2025, 1, 6}, {2024, 12, 31, 2025, 1, 2},
+            {2024, 2, 1, 2024, 3, 1}, {2024, 2, 29, 2024, 3, 1}, {2023, 12, 31, 2024, 1, 1},
+            {2024, 12, 1, 2025, 2, 1}, {2023, 11, 1, 2025, 4, 1}, {2024, 6, 15, 2024, 6, 15},
+            {2024, 6, 16, 2024, 6, 15}
+        };
+        for (int[] d : dates) {
+            ranges.add(new int[]{
+                (int) LocalDate.of(d[0], d[1], d[2]).toEpochDay(),
+                (int) LocalDate.of(d[3], d[4], d[5]).toEpochDay()
+            });
+        }
+        Random random = new Random(230);
+        for (int i = 0; i < RANGES; i++) {
+            int from = FIRST_DAY - 10 + random.nextInt(LAST_DAY - FIRST_DAY + 20);
+            int to = from + random.nextInt(i % 3 == 0 ? 10 : 120) - (i % 17 == 0 ? 5 : 0);
+            if (i % 4 == 1) {
+                // Snap to a Monday / the first of a month
+                from = (int) LocalDate.ofEpochDay(from).with(DayOfWeek.MONDAY).toEpochDay();
+                to = (int) LocalDate.ofEpochDay(to).withDayOfMonth(1).toEpochDay();
+            }
+            ranges.add(new int[]{from, to});
+        }
+        return ranges;
+    }
+}
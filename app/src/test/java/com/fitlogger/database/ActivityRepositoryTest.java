@@ -0,0 +1,124 @@
+package com.fitlogger.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.database.sqlite.SQLiteException;
+import android.os.Looper;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/**
+ * ActivityRepository: every returned LiveData receives exactly one value,
+ * including when the task throws or the write queue rejects it
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ActivityRepositoryTest {
+    
+    private static final long TIMEOUT_MILLIS = 10_000;
+    
+    private DatabaseHelper databaseHelper;
+    private ActivityRepository repository;
+    
+    @Before
+    public void setUp() {
+        databaseHelper = new DatabaseHelper(RuntimeEnvironment.getApplication());
+        repository = new ActivityRepository(RuntimeEnvironment.getApplication(), databaseHelper);
+    }
+    
+    @After
+    public void tearDown() {
+        databaseHelper.close();
+    }
+    
+    @Test
+    public void resultsArriveOnTheMainThread() {
+        long id = await(repository.addActivity(new FitnessActivity("Running", 30, "2024-03-01")));
+        assertTrue(id > 0);
+        assertEquals(Integer.valueOf(1), await(repository.getActivityCount()));
+        assertEquals(1, await(repository.getActivitiesByDate("2024-03-01")).size());
+    }
+    
+    @Test
+    public void failingTasksDeliverTheFailureValue() {
+        assertNull(await(repository.read(() -> {
+            throw new SQLiteException("disk I/O error");
+        })));
+        assertNull(await(repository.write(() -> {
+            throw new SQLiteException("database or disk is full");
+        })));
+        
+        // The threads survive the failures
+        assertEquals(Integer.valueOf(0), await(repository.getActivityCount()));
+    }
+    
+    @Test
+    public void rejectedWritesDeliverTheFailureValue() throws InterruptedException {
+        // Hold the writer thread so the queue (128 tasks) fills up
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        LiveData<Boolean> blocker = repository.write(() -> {
+            started.countDown();
+            try {
+                return release.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return false;
+            }
+        });
+        assertTrue(started.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        
+        List<LiveData<Long>> inserts = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            inserts.add(repository.addActivity(new FitnessActivity("Walking", 10 + i, "2024-03-02")));
+        }
+        release.countDown();
+        assertEquals(Boolean.TRUE, await(blocker));
+        
+        int inserted = 0;
+        int rejected = 0;
+        for (LiveData<Long> insert : inserts) {
+            long id = await(insert);
+            if (id == -1) {
+                rejected++;
+            } else {
+                inserted++;
+            }
+        }
+        assertEquals(200, inserted + rejected);
+        assertTrue("rejected " + rejected, rejected >= 200 - 128);
+        assertEquals(Integer.valueOf(inserted), await(repository.getActivityCount()));
+    }
+    
+    /**
+     * Wait for the one value of a repository result, running the main looper
+     * (where LiveData delivers) until it arrives
+     */
+    private static <T> T await(LiveData<T> liveData) {
+        List<T> values = new ArrayList<>();
+        Observer<T> observer = values::add;
+        liveData.observeForever(observer);
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (values.isEmpty() && System.currentTimeMillis() < deadline) {
+            shadowOf(Looper.getMainLooper()).idle();
+            Thread.yield();
+        }
+        liveData.removeObserver(observer);
+        assertEquals("values delivered", 1, values.size());
+        return values.get(0);
+    }
+}
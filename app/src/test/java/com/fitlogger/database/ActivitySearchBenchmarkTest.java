@@ -0,0 +1,144 @@
+package com.fitlogger.database;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/**
+ * searchActivityIds() at 200k rows: results against a brute-force match, and
+ * the latency of one page
+ * 
+ * The rows use 400 distinct names ("Morning Trail Run 3" and the like); some
+ * queries match a handful of names, "r" more than the per-type merge handles
+ * (MAX_MERGED_TYPES). Every query's full result is compared with a scan in
+ * Java (first word first, then the rest, each newest first) and read back in
+ * pages; then each page query is timed, median of RUNS after WARM_UP_RUNS,
+ * and must stay under 10 ms.
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ActivitySearchBenchmarkTest {
+    
+    private static final int ROWS = 200_000;
+    private static final int PAGE = 50;
+    private static final int WARM_UP_RUNS = 5;
+    private static final int RUNS = 21;
+    private static final long MAX_MILLIS = 10;
+    
+    private static final String[] FIRST = {"Morning", "Evening", "Trail", "Road", "Indoor", "Easy", "Long", "Hill",
+                                           "Recovery", "Tempo"};
+    private static final String[] SECOND = {"Run", "Ride", "Swim", "Walk", "Yoga", "Row", "Hike", "Lift"};
+    private static final String[] QUERIES = {"run", "mor ru", "r", "e", "MORNING", "hill-run", "yoga 3",
+                                             "t", "zzz", "4"};
+    
+    private DatabaseHelper databaseHelper;
+    private FitnessActivityDAO dao;
+    private final List<String> names = new ArrayList<>();
+    private long[] ids;
+    private int[] nameOfRow;
+    
+    @Before
+    public void setUp() {
+        databaseHelper = new DatabaseHelper(RuntimeEnvironment.getApplication());
+        dao = new FitnessActivityDAO(databaseHelper);
+        for (String first : FIRST) {
+            for (String second : SECOND) {
+                for (int k = 0; k < 5; k++) {
+                    names.add(first + " " + second + (k > 0 ? " " + k : ""));
+                }
+            }
+        }
+        List<FitnessActivity> rows = new ArrayList<>(ROWS);
+        nameOfRow = new int[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            nameOfRow[i] = (int) (i * 7919L % names.size());
+            rows.add(new FitnessActivity(names.get(nameOfRow[i]), 10 + i % 90, EpochDay.toDate(18_000 + i / 60)));
+        }
+        ids = dao.addActivities(rows);
+    }
+    
+    @After
+    public void tearDown() {
+        databaseHelper.close();
+    }
+    
+    @Test
+    public void pagesMatchBruteForceAndStayUnder10ms() {
+        for (String query : QUERIES) {
+            int[] expected = bruteForce(query);
+            assertArrayEquals(query, expected, dao.searchActivityIds(query, 0, ROWS));
+            for (int offset : new int[]{0, PAGE, 1000, expected.length - 10}) {
+                int from = Math.max(0, Math.min(offset, expected.length));
+                int[] page = Arrays.copyOfRange(expected, from, Math.min(from + PAGE, expected.length));
+                assertArrayEquals(query + " @" + from, page, dao.searchActivityIds(query, from, PAGE));
+            }
+        }
+        
+        for (String query : QUERIES) {
+            for (int offset : new int[]{0, 1000}) {
+                long[] nanos = new long[RUNS];
+                for (int run = -WARM_UP_RUNS; run < RUNS; run++) {
+                    long start = System.nanoTime();
+                    dao.searchActivityIds(query, offset, PAGE);
+                    if (run >= 0) {
+                        nanos[run] = System.nanoTime() - start;
+                    }
+                }
+                long median = median(nanos);
+                System.out.println(String.format(Locale.US, "\"%s\" offset %d: %.2f ms (%d rows, %d names)",
+                        query, offset, median / 1e6, ROWS, names.size()));
+                assertTrue("\"" + query + "\" offset " + offset + ": " + median + " ns",
+                           median < MAX_MILLIS * 1_000_000);
+            }
+        }
+    }
+    
+    /**
+     * @return IDs of the rows whose name matches every word of the query as a
+     *         word prefix: names whose first word matches the query's first word
+     *         first, then the others, each newest first
+     */
+    private int[] bruteForce(String query) {
+        String[] words = FitnessActivityDAO.normalizeSearchQuery(query).split(" ");
+        List<Integer> leading = new ArrayList<>();
+        List<Integer> others = new ArrayList<>();
+        for (int i = ROWS - 1; i >= 0; i--) {
+            String[] nameWords = names.get(nameOfRow[i]).toLowerCase(Locale.ROOT).split(" ");
+            boolean matches = true;
+            for (String word : words) {
+                boolean found = false;
+                for (String nameWord : nameWords) {
+                    found |= nameWord.startsWith(word);
+                }
+                matches &= found;
+            }
+            if (matches) {
+                (nameWords[0].startsWith(words[0]) ? leading : others).add((int) ids[i]);
+            }
+        }
+        leading.addAll(others);
+        int[] result = new int[leading.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = leading.get(i);
+        }
+        return result;
+    }
+    
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
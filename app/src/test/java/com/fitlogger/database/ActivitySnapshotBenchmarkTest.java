@@ -0,0 +1,189 @@
+package com.fitlogger.database;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.junit.Test;
+
+/**
+ * Benchmark: ActivitySnapshot against List&lt;FitnessActivity&gt; at 1M rows,
+ * heap held and aggregation time
+ * 
+ * Both hold the same ROWS rows, as getSnapshot() and getAllActivities()
+ * would return them: the list shares one name String per type (as RowMapper
+ * does) and holds a date String per row. Heap is measured as the growth of
+ * used memory after full GCs. Each aggregation (sum over 90 days, daily
+ * totals over a year, counts per type) is computed both ways, checked for
+ * equal results, and timed as the median of RUNS after WARM_UP_RUNS; the
+ * list side compares the YYYY-MM-DD strings instead of parsing where it can.
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public class ActivitySnapshotBenchmarkTest {
+    
+    private static final int ROWS = 1_000_000;
+    private static final int FIRST_DAY = 17_000;
+    private static final int DAYS = 3000;
+    private static final String[] NAMES = {null, "Running", "Cycling", "Yoga", "Swimming", "Walking"};
+    private static final int WARM_UP_RUNS = 5;
+    private static final int RUNS = 11;
+    
+    @Test
+    public void snapshotIsSmallerAndFasterThanObjectList() {
+        long before = usedMemory();
+        ActivitySnapshot snapshot = buildSnapshot();
+        long snapshotBytes = usedMemory() - before;
+        
+        before = usedMemory();
+        List<FitnessActivity> list = buildList();
+        long listBytes = usedMemory() - before;
+        
+        assertEquals(ROWS, snapshot.size());
+        assertEquals(ROWS, list.size());
+        System.out.println(String.format(Locale.US,
+                "heap: snapshot %.1f MB (estimate %.1f MB), List<FitnessActivity> %.1f MB (%d rows)",
+                snapshotBytes / 1048576.0, snapshot.getEstimatedBytes() / 1048576.0, listBytes / 1048576.0, ROWS));
+        assertTrue("snapshot " + snapshotBytes + " B, list " + listBytes + " B", snapshotBytes * 3 < listBytes);
+        
+        final int from = FIRST_DAY + 1000;
+        final int to = from + 89;
+        final int yearEnd = from + 364;
+        assertEquals(sumDuration(list, from, to), snapshot.sumDuration(from, to));
+        assertArrayEquals(dailyDurations(list, from, yearEnd), snapshot.dailyDurations(from, yearEnd));
+        Map<String, Integer> byType = countByType(list);
+        int[] counts = snapshot.countByType(FIRST_DAY, FIRST_DAY + DAYS);
+        for (int typeId = 1; typeId < NAMES.length; typeId++) {
+            assertEquals(NAMES[typeId], (int) byType.get(NAMES[typeId]), counts[typeId]);
+        }
+        
+        String[] names = {"sum over 90 days", "daily totals over a year", "count per type"};
+        long[][] nanos = new long[6][RUNS];
+        long sink = 0;
+        for (int run = -WARM_UP_RUNS; run < RUNS; run++) {
+            long[] times = new long[6];
+            long start = System.nanoTime();
+            sink += snapshot.sumDuration(from, to);
+            times[0] = System.nanoTime() - start;
+            start = System.nanoTime();
+            sink += sumDuration(list, from, to);
+            times[1] = System.nanoTime() - start;
+            
+            start = System.nanoTime();
+            sink += snapshot.dailyDurations(from, yearEnd).length;
+            times[2] = System.nanoTime() - start;
+            start = System.nanoTime();
+            sink += dailyDurations(list, from, yearEnd).length;
+            times[3] = System.nanoTime() - start;
+            
+            start = System.nanoTime();
+            sink += snapshot.countByType(FIRST_DAY, FIRST_DAY + DAYS).length;
+            times[4] = System.nanoTime() - start;
+            start = System.nanoTime();
+            sink += countByType(list).size();
+            times[5] = System.nanoTime() - start;
+            
+            for (int i = 0; run >= 0 && i < times.length; i++) {
+                nanos[i][run] = times[i];
+            }
+        }
+        assertTrue(sink > 0);
+        
+        for (int i = 0; i < names.length; i++) {
+            long columnar = median(nanos[2 * i]);
+            long objects = median(nanos[2 * i + 1]);
+            System.out.println(String.format(Locale.US, "%s: snapshot %.3f ms, List<FitnessActivity> %.3f ms",
+                    names[i], columnar / 1e6, objects / 1e6));
+            assertTrue(names[i] + ": snapshot " + columnar + " ns, list " + objects + " ns", columnar < objects);
+        }
+    }
+    
+    private static ActivitySnapshot buildSnapshot() {
+        int[] ids = new int[ROWS];
+        int[] durations = new int[ROWS];
+        int[] epochDays = new int[ROWS];
+        int[] typeIds = new int[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            ids[i] = i + 1;
+            durations[i] = duration(i);
+            epochDays[i] = day(i);
+            typeIds[i] = typeId(i);
+        }
+        return new ActivitySnapshot(ids, durations, epochDays, typeIds, NAMES.clone());
+    }
+    
+    private static List<FitnessActivity> buildList() {
+        List<FitnessActivity> list = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            list.add(new FitnessActivity(i + 1, NAMES[typeId(i)], duration(i), EpochDay.toDate(day(i))));
+        }
+        return list;
+    }
+    
+    // Rows in (epoch_day, id) order, as both reads return them
+    private static int day(int row) {
+        return FIRST_DAY + (int) ((long) row * DAYS / ROWS);
+    }
+    
+    private static int duration(int row) {
+        return 5 + row * 31 % 170;
+    }
+    
+    private static int typeId(int row) {
+        return 1 + row * 7 % (NAMES.length - 1);
+    }
+    
+    private static long sumDuration(List<FitnessActivity> list, int fromDay, int toDay) {
+        String from = EpochDay.toDate(fromDay);
+        String to = EpochDay.toDate(toDay);
+        long sum = 0;
+        for (FitnessActivity activity : list) {
+            if (activity.getDate().compareTo(from) >= 0 && activity.getDate().compareTo(to) <= 0) {
+                sum += activity.getDuration();
+            }
+        }
+        return sum;
+    }
+    
+    private static long[] dailyDurations(List<FitnessActivity> list, int fromDay, int toDay) {
+        String from = EpochDay.toDate(fromDay);
+        String to = EpochDay.toDate(toDay);
+        long[] days = new long[toDay - fromDay + 1];
+        for (FitnessActivity activity : list) {
+            if (activity.getDate().compareTo(from) >= 0 && activity.getDate().compareTo(to) <= 0) {
+                days[EpochDay.fromDate(activity.getDate()) - fromDay] += activity.getDuration();
+            }
+        }
+        return days;
+    }
+    
+    private static Map<String, Integer> countByType(List<FitnessActivity> list) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (FitnessActivity activity : list) {
+            Integer count = counts.get(activity.getActivityName());
+            counts.put(activity.getActivityName(), count == null ? 1 : count + 1);
+        }
+        return counts;
+    }
+    
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+    
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
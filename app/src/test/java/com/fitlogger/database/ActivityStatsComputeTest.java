@@ -0,0 +1,121 @@
+package com.fitlogger.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * ActivityStats.compute() on hand-built snapshots, without a database:
+ * streak edges and ties, rolling-window bounds, record ties
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public class ActivityStatsComputeTest {
+    
+    private static final String[] TYPES = {null, "Running", "Yoga"};
+    
+    @Test
+    public void noActivities() {
+        ActivityStats stats = ActivityStats.compute(snapshot(), 100);
+        assertEquals(0, stats.getCurrentStreak());
+        assertEquals(ActivityStats.NO_DAY, stats.getCurrentStreakStart());
+        assertEquals(0, stats.getLongestStreak());
+        assertEquals(ActivityStats.NO_DAY, stats.getLongestStreakStart());
+        assertEquals(0, stats.getLast30DaysCount());
+        assertTrue(stats.getRecords().isEmpty());
+        assertNull(stats.getBestRecord());
+    }
+    
+    @Test
+    public void currentStreakCountsUpToToday() {
+        // Two runs of three days, several activities on one day
+        ActivitySnapshot snapshot = snapshot(
+                row(1, 10, 30, 1), row(2, 11, 30, 1), row(3, 11, 20, 2), row(4, 12, 30, 1),
+                row(5, 20, 30, 1), row(6, 21, 30, 1), row(7, 22, 30, 1));
+        
+        assertCurrent(snapshot, 21, 2, 20);                     // inside the run
+        assertCurrent(snapshot, 22, 3, 20);                     // on its last day
+        assertCurrent(snapshot, 23, 3, 20);                     // ended yesterday: not missed yet
+        assertCurrent(snapshot, 24, 0, ActivityStats.NO_DAY);   // missed a day
+        assertCurrent(snapshot, 11, 2, 10);                     // later days are not counted
+        assertCurrent(snapshot, 9, 0, ActivityStats.NO_DAY);    // run starts tomorrow
+    }
+    
+    @Test
+    public void longestStreakTieGoesToTheMostRecent() {
+        ActivitySnapshot snapshot = snapshot(
+                row(1, 10, 30, 1), row(2, 11, 30, 1), row(3, 12, 30, 1),
+                row(4, 20, 30, 1), row(5, 21, 30, 1), row(6, 22, 30, 1),
+                row(7, 30, 30, 1), row(8, 31, 30, 1));
+        ActivityStats stats = ActivityStats.compute(snapshot, 100);
+        assertEquals(3, stats.getLongestStreak());
+        assertEquals(20, stats.getLongestStreakStart());
+        
+        // The whole history counts, not only the days up to today
+        assertEquals(20, ActivityStats.compute(snapshot, 11).getLongestStreakStart());
+    }
+    
+    @Test
+    public void rollingWindowsIncludeTodayAndTheDaysBefore() {
+        ActivitySnapshot snapshot = snapshot(
+                row(1, 69, 1, 1), row(2, 70, 2, 1), row(3, 71, 4, 1), row(4, 93, 8, 1),
+                row(5, 94, 16, 1), row(6, 99, 32, 1), row(7, 99, 64, 2), row(8, 100, 128, 1));
+        ActivityStats stats = ActivityStats.compute(snapshot, 99);
+        assertEquals(4, stats.getLast7DaysCount());             // days 93 .. 99
+        assertEquals(8 + 16 + 32 + 64, stats.getLast7DaysDuration());
+        assertEquals(6, stats.getLast30DaysCount());            // days 70 .. 99
+        assertEquals(2 + 4 + 8 + 16 + 32 + 64, stats.getLast30DaysDuration());
+    }
+    
+    @Test
+    public void recordTieGoesToTheSmallestId() {
+        // The later day has the smaller id (e.g. an imported older entry)
+        ActivitySnapshot snapshot = snapshot(
+                row(9, 10, 45, 1), row(3, 12, 45, 1), row(5, 11, 20, 1), row(4, 11, 50, 2), row(2, 13, 50, 2));
+        List<PersonalRecord> records = ActivityStats.compute(snapshot, 13).getRecords();
+        assertEquals(2, records.size());
+        assertEquals(new PersonalRecord(1, "Running", 45, 3, 12), records.get(0));
+        assertEquals(new PersonalRecord(2, "Yoga", 50, 2, 13), records.get(1));
+        assertEquals(records.get(1), ActivityStats.compute(snapshot, 13).getBestRecord());
+    }
+    
+    private static void assertCurrent(ActivitySnapshot snapshot, int today, int streak, int start) {
+        ActivityStats stats = ActivityStats.compute(snapshot, today);
+        assertEquals("today " + today, streak, stats.getCurrentStreak());
+        assertEquals("today " + today, start, stats.getCurrentStreakStart());
+    }
+    
+    private static int[] row(int id, int epochDay, int duration, int typeId) {
+        return new int[]{id, epochDay, duration, typeId};
+    }
+    
+    /**
+     * @return Snapshot of the rows in (epoch_day, id) order, as the DAO builds it
+     */
+    private static ActivitySnapshot snapshot(int[]... rows) {
+        int[][] sorted = rows.clone();
+        Arrays.sort(sorted, new Comparator<int[]>() {
+            @Override
+            public int compare(int[] a, int[] b) {
+                return a[1] != b[1] ? Integer.compare(a[1], b[1]) : Integer.compare(a[0], b[0]);
+            }
+        });
+        int[] ids = new int[sorted.length];
+        int[] days = new int[sorted.length];
+        int[] durations = new int[sorted.length];
+        int[] typeIds = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            ids[i] = sorted[i][0];
+            days[i] = sorted[i][1];
+            durations[i] = sorted[i][2];
+            typeIds[i] = sorted[i][3];
+        }
+        return new ActivitySnapshot(ids, durations, days, typeIds, TYPES.clone());
+    }
+}
@@ -0,0 +1,220 @@
+package com.fitlogger.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/**
+ * Incremental statistics (getStats(): trigger-maintained tables) against the
+ * full recompute (ActivityStats.compute() over a snapshot) on random histories
+ * 
+ * Every history is a random sequence of single and bulk inserts, updates,
+ * soft deletes, undos, "clear all" and compactions (which purge the
+ * tombstones). Days come from a narrow window and durations from a few
+ * values, so runs of equal length (longest streak: the most recent wins) and
+ * activities of equal duration (record: the smallest id wins) are frequent;
+ * the test also checks that both ties really occurred.
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ActivityStatsTest {
+    
+    private static final int HISTORIES = 8;
+    private static final int OPERATIONS = 250;
+    private static final int FIRST_DAY = 19_000;
+    private static final int DAYS = 40;
+    private static final String[] NAMES = {"Running", "Cycling", "Yoga"};
+    private static final int[] DURATIONS = {20, 30, 45};
+    
+    private DatabaseHelper databaseHelper;
+    private FitnessActivityDAO dao;
+    
+    // Model of the live rows and of the last delete (for undo)
+    private final Map<Integer, FitnessActivity> live = new LinkedHashMap<>();
+    private List<FitnessActivity> lastDeleted;
+    
+    private int longestStreakTies;
+    private int recordTies;
+    
+    @Before
+    public void setUp() {
+        databaseHelper = new DatabaseHelper(RuntimeEnvironment.getApplication());
+        dao = new FitnessActivityDAO(databaseHelper);
+    }
+    
+    @After
+    public void tearDown() {
+        databaseHelper.close();
+    }
+    
+    @Test
+    public void incrementalStatsMatchFullRecompute() {
+        for (int history = 0; history < HISTORIES; history++) {
+            Random random = new Random(history);
+            dao.deleteAllActivities();
+            live.clear();
+            lastDeleted = null;
+            for (int operation = 0; operation < OPERATIONS; operation++) {
+                apply(random);
+                if (operation % 5 == 4) {
+                    check(random, "history " + history + ", operation " + operation);
+                }
+            }
+        }
+        assertTrue("no longest-streak tie was generated", longestStreakTies > 0);
+        assertTrue("no personal-record tie was generated", recordTies > 0);
+    }
+    
+    private void apply(Random random) {
+        int kind = random.nextInt(100);
+        if (kind < 35 || live.isEmpty()) {
+            FitnessActivity activity = randomActivity(random, 0);
+            long id = dao.addActivity(activity);
+            live.put((int) id, new FitnessActivity((int) id, activity.getActivityName(),
+                                                   activity.getDuration(), activity.getDate()));
+        } else if (kind < 45) {
+            List<FitnessActivity> batch = new ArrayList<>();
+            for (int i = random.nextInt(20); i >= 0; i--) {
+                batch.add(randomActivity(random, 0));
+            }
+            long[] ids = dao.addActivities(batch);
+            for (int i = 0; i < ids.length; i++) {
+                FitnessActivity activity = batch.get(i);
+                live.put((int) ids[i], new FitnessActivity((int) ids[i], activity.getActivityName(),
+                                                           activity.getDuration(), activity.getDate()));
+            }
+        } else if (kind < 65) {
+            FitnessActivity old = pick(random);
+            FitnessActivity updated = randomActivity(random, old.getId());
+            if (random.nextBoolean()) {
+                updated.setDate(old.getDate()); // duration/name change only
+            }
+            assertEquals(1, dao.updateActivity(updated));
+            live.put(updated.getId(), updated);
+        } else if (kind < 78) {
+            FitnessActivity deleted = pick(random);
+            assertEquals(1, dao.deleteActivity(deleted.getId()));
+            live.remove(deleted.getId());
+            lastDeleted = Collections.singletonList(deleted);
+        } else if (kind < 86) {
+            List<FitnessActivity> deleted = new ArrayList<>();
+            for (int i = random.nextInt(Math.min(live.size(), 15)); i >= 0; i--) {
+                FitnessActivity activity = pick(random);
+                if (!deleted.contains(activity)) {
+                    deleted.add(activity);
+                }
+            }
+            int[] ids = new int[deleted.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = deleted.get(i).getId();
+                live.remove(ids[i]);
+            }
+            assertEquals(ids.length, dao.deleteActivities(ids));
+            lastDeleted = deleted;
+        } else if (kind < 93) {
+            if (lastDeleted != null) {
+                assertEquals(lastDeleted.size(), dao.restoreActivities(lastDeleted));
+                for (FitnessActivity activity : lastDeleted) {
+                    live.put(activity.getId(), activity);
+                }
+                lastDeleted = null;
+            }
+        } else if (kind < 96) {
+            ActivityCompactor.Run run = new ActivityCompactor(databaseHelper).newRun();
+            while (run.purgeBatch(7) > 0) {
+                // purge every tombstone; undo must then re-insert
+            }
+            run.finish();
+        } else {
+            assertEquals(live.size(), dao.deleteAllActivities());
+            live.clear();
+            lastDeleted = null; // cleared rows cannot be undone one by one
+        }
+    }
+    
+    private void check(Random random, String when) {
+        assertEquals(when, live.size(), dao.getActivityCount());
+        int[] todays = {
+            FIRST_DAY - 1, FIRST_DAY + random.nextInt(DAYS), FIRST_DAY + random.nextInt(DAYS),
+            FIRST_DAY + DAYS, FIRST_DAY + DAYS + 1, FIRST_DAY + DAYS + 5
+        };
+        for (int today : todays) {
+            ActivityStats incremental = dao.getStats(today);
+            ActivityStats full = dao.computeStats(today);
+            assertEquals(when + ", today " + today, full, incremental);
+        }
+        countTies();
+    }
+    
+    /**
+     * Count the ties the model holds right now (for the coverage check)
+     */
+    private void countTies() {
+        TreeSet<Integer> days = new TreeSet<>();
+        Map<String, Integer> best = new LinkedHashMap<>();
+        Map<String, Integer> bestCount = new LinkedHashMap<>();
+        for (FitnessActivity activity : live.values()) {
+            days.add(EpochDay.fromDate(activity.getDate()));
+            Integer current = best.get(activity.getActivityName());
+            if (current == null || activity.getDuration() > current) {
+                best.put(activity.getActivityName(), activity.getDuration());
+                bestCount.put(activity.getActivityName(), 1);
+            } else if (activity.getDuration() == current) {
+                bestCount.put(activity.getActivityName(), bestCount.get(activity.getActivityName()) + 1);
+            }
+        }
+        for (int count : bestCount.values()) {
+            if (count > 1) {
+                recordTies++;
+            }
+        }
+        
+        int longest = 0;
+        int runsOfLongest = 0;
+        Integer start = null;
+        Integer previous = null;
+        for (int day : days) {
+            if (previous == null || day != previous + 1) {
+                start = day;
+            }
+            previous = day;
+            if (days.higher(day) == null || days.higher(day) != day + 1) {
+                int length = day - start + 1;
+                if (length > longest) {
+                    longest = length;
+                    runsOfLongest = 1;
+                } else if (length == longest) {
+                    runsOfLongest++;
+                }
+            }
+        }
+        if (runsOfLongest > 1) {
+            longestStreakTies++;
+        }
+    }
+    
+    private FitnessActivity pick(Random random) {
+        List<FitnessActivity> rows = new ArrayList<>(live.values());
+        return rows.get(random.nextInt(rows.size()));
+    }
+    
+    private static FitnessActivity randomActivity(Random random, int id) {
+        return new FitnessActivity(id, NAMES[random.nextInt(NAMES.length)],
+                DURATIONS[random.nextInt(DURATIONS.length)], EpochDay.toDate(FIRST_DAY + random.nextInt(DAYS)));
+    }
+}
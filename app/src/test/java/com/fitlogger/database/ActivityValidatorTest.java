@@ -0,0 +1,45 @@
+package com.fitlogger.database;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * ActivityValidator: the Add Activity form rules the importer applies too
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public class ActivityValidatorTest {
+    
+    @Test
+    public void nameMustNotBeEmpty() {
+        assertNull(ActivityValidator.checkName("Running"));
+        assertNull(ActivityValidator.checkName("x"));
+        assertNotNull(ActivityValidator.checkName(""));
+        assertNotNull(ActivityValidator.checkName(null));
+    }
+    
+    @Test
+    public void durationIsOneTo1440Minutes() {
+        for (String valid : new String[]{"1", "30", "1440", "0030", "+5"}) {
+            assertNull(valid, ActivityValidator.checkDuration(valid));
+        }
+        for (String invalid : new String[]{null, "", "0", "-1", "1441", "2147483648", "1.5", "1e2", "ten"}) {
+            assertNotNull(invalid, ActivityValidator.checkDuration(invalid));
+        }
+    }
+    
+    @Test
+    public void dateIsARealYyyyMmDdDay() {
+        for (String valid : new String[]{"2024-01-01", "2024-02-29", "2000-02-29", "1999-12-31", "2025-06-30"}) {
+            assertNull(valid, ActivityValidator.checkDate(valid));
+        }
+        String[] invalid = {null, "", "2024-1-01", "2024/01/01", "01-01-2024", "2024-02-30", "2023-02-29",
+                            "1900-02-29", "2024-04-31", "2024-13-01", "2024-00-01", "2024-01-00", " 2024-01-01"};
+        for (String date : invalid) {
+            assertNotNull(date, ActivityValidator.checkDate(date));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.fitlogger.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/**
+ * Benchmark: 50k inserts through addActivities() against a loop of single
+ * addActivity() calls
+ * 
+ * Each variant inserts the same ROWS rows into an empty table (the table
+ * is cleared in between) and is reported in rows per second. The loop pays
+ * one transaction per row; the bulk API one per chunk, with one compiled
+ * statement. The bulk API must be faster and return every generated id.
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+@RunWith(RobolectricTestRunner.class)
+public class BulkInsertBenchmarkTest {
+    
+    private static final int ROWS = 50_000;
+    private static final String[] NAMES = {"Running", "Cycling", "Yoga", "Swimming"};
+    
+    private DatabaseHelper databaseHelper;
+    private FitnessActivityDAO dao;
+    private final List<FitnessActivity> rows = new ArrayList<>(ROWS);
+    
+    @Before
+    public void setUp() {
+        databaseHelper = new DatabaseHelper(RuntimeEnvironment.getApplication());
+        dao = new FitnessActivityDAO(databaseHelper);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new FitnessActivity(NAMES[i % NAMES.length], 5 + i % 120, EpochDay.toDate(19_000 + i / 50)));
+        }
+    }
+    
+    @After
+    public void tearDown() {
+        databaseHelper.close();
+    }
+    
+    @Test
+    public void bulkInsertIsFasterThanSingleInserts() {
+        long start = System.nanoTime();
+        for (FitnessActivity activity : rows) {
+            assertTrue(dao.addActivity(activity) > 0);
+        }
+        long singleNanos = System.nanoTime() - start;
+        assertEquals(ROWS, dao.getActivityCount());
+        
+        assertEquals(ROWS, dao.deleteAllActivities());
+        
+        start = System.nanoTime();
+        long[] ids = dao.addActivities(rows);
+        long bulkNanos = System.nanoTime() - start;
+        assertEquals(ROWS, dao.getActivityCount());
+        assertEquals(ROWS, ids.length);
+        for (int i = 1; i < ids.length; i++) {
+            assertEquals(ids[i - 1] + 1, ids[i]);
+        }
+        assertEquals(rows.get(ROWS - 1).getDate(), dao.getActivityById((int) ids[ROWS - 1]).getDate());
+        
+        double single = ROWS * 1e9 / singleNanos;
+        double bulk = ROWS * 1e9 / bulkNanos;
+        System.out.println(String.format(Locale.US,
+                "addActivities %.0f rows/s, addActivity loop %.0f rows/s (%d rows, %.1fx)",
+                bulk, single, ROWS, bulk / single));
+        assertTrue("bulk " + bulk + " rows/s, single " + single + " rows/s", bulk > single);
+    }
+}
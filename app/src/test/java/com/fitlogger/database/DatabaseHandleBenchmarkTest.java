@@ -0,0 +1,114 @@
+package com.fitlogger.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/**
+ * Benchmark: 10k sequential DAO calls on the long-lived handle against the
+ * same calls with the open / query / close per call the DAO used to do
+ * 
+ * Both variants run the query of getActivitiesByDate() (same selection,
+ * order and mapping) over the same days; "before" opens the file for each
+ * call and closes it again, so every call re-reads the schema and starts
+ * with a cold page cache. Reported as mean microseconds per call after
+ * WARM_UP_CALLS untimed calls; the shared handle must be faster.
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+@RunWith(RobolectricTestRunner.class)
+public class DatabaseHandleBenchmarkTest {
+    
+    private static final int CALLS = 10_000;
+    private static final int WARM_UP_CALLS = 500;
+    private static final int DAYS = 200;
+    private static final int FIRST_DAY = 19_000;
+    
+    private static final String SELECTION =
+            DatabaseHelper.SELECTION_LIVE + " AND " + DatabaseHelper.COLUMN_EPOCH_DAY + " = ?";
+    private static final String ORDER =
+            DatabaseHelper.COLUMN_EPOCH_DAY + " DESC, " + DatabaseHelper.COLUMN_ID + " DESC";
+    
+    private DatabaseHelper databaseHelper;
+    private FitnessActivityDAO dao;
+    
+    @Before
+    public void setUp() {
+        databaseHelper = new DatabaseHelper(RuntimeEnvironment.getApplication());
+        dao = new FitnessActivityDAO(databaseHelper);
+        List<FitnessActivity> rows = new ArrayList<>();
+        for (int i = 0; i < DAYS * 5; i++) {
+            rows.add(new FitnessActivity(i % 2 == 0 ? "Running" : "Yoga", 10 + i % 60,
+                                         EpochDay.toDate(FIRST_DAY + i % DAYS)));
+        }
+        dao.addActivities(rows);
+    }
+    
+    @After
+    public void tearDown() {
+        databaseHelper.close();
+    }
+    
+    @Test
+    public void sharedHandleIsFasterThanOpenPerCall() {
+        String path = databaseHelper.getDatabase().getPath();
+        String date = EpochDay.toDate(FIRST_DAY + 7);
+        assertEquals(openPerCall(path, date), dao.getActivitiesByDate(date));
+        
+        for (int call = 0; call < WARM_UP_CALLS; call++) {
+            String day = EpochDay.toDate(FIRST_DAY + call % DAYS);
+            dao.getActivitiesByDate(day);
+            openPerCall(path, day);
+        }
+        
+        int rows = 0;
+        long start = System.nanoTime();
+        for (int call = 0; call < CALLS; call++) {
+            rows += dao.getActivitiesByDate(EpochDay.toDate(FIRST_DAY + call % DAYS)).size();
+        }
+        long shared = (System.nanoTime() - start) / CALLS;
+        
+        start = System.nanoTime();
+        for (int call = 0; call < CALLS; call++) {
+            rows -= openPerCall(path, EpochDay.toDate(FIRST_DAY + call % DAYS)).size();
+        }
+        long perCall = (System.nanoTime() - start) / CALLS;
+        
+        assertEquals(0, rows);
+        System.out.println(String.format(Locale.US,
+                "shared handle %.1f us/call, open/close per call %.1f us/call (%d calls)",
+                shared / 1000.0, perCall / 1000.0, CALLS));
+        assertTrue("shared " + shared + " ns/call, open per call " + perCall + " ns/call", shared < perCall);
+    }
+    
+    /**
+     * getActivitiesByDate() as it was: its own connection, closed before returning
+     */
+    private List<FitnessActivity> openPerCall(String path, String date) {
+        SQLiteDatabase db = SQLiteDatabase.openDatabase(path, null, SQLiteDatabase.OPEN_READWRITE);
+        try {
+            Cursor cursor = db.query(DatabaseHelper.TABLE_ACTIVITIES, RowMapper.ALL_COLUMNS, SELECTION,
+                    new String[]{String.valueOf(EpochDay.fromDate(date))}, null, null, ORDER);
+            try {
+                return new RowMapper(db, databaseHelper.getActivityTypes(), cursor, RowMapper.ALL_COLUMNS)
+                        .mapAll(new ArrayList<FitnessActivity>(cursor.getCount()));
+            } finally {
+                cursor.close();
+            }
+        } finally {
+            db.close();
+        }
+    }
+}
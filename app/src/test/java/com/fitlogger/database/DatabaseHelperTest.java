@@ -0,0 +1,132 @@
+package com.fitlogger.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/**
+ * Storage set-up of DatabaseHelper: auto_vacuum, the derived-data rebuild
+ * and the compactor's purge statement
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+@RunWith(RobolectricTestRunner.class)
+public class DatabaseHelperTest {
+    
+    private static final String[] NAMES = {"Running", "Cycling", "Yoga"};
+    
+    private DatabaseHelper databaseHelper;
+    private FitnessActivityDAO dao;
+    
+    @Before
+    public void setUp() {
+        databaseHelper = new DatabaseHelper(RuntimeEnvironment.getApplication());
+        dao = new FitnessActivityDAO(databaseHelper);
+    }
+    
+    @After
+    public void tearDown() {
+        databaseHelper.close();
+    }
+    
+    @Test
+    public void newDatabaseUsesIncrementalAutoVacuum() {
+        assertEquals(DatabaseHelper.AUTO_VACUUM_INCREMENTAL,
+                DatabaseUtils.longForQuery(databaseHelper.getDatabase(), "PRAGMA auto_vacuum", null));
+    }
+    
+    @Test
+    public void firstCompactionOfNewDatabaseIsIncremental() {
+        long[] ids = dao.addActivities(activities(2000));
+        int[] deleted = new int[1500];
+        for (int i = 0; i < deleted.length; i++) {
+            deleted[i] = (int) ids[i];
+        }
+        assertEquals(deleted.length, dao.deleteActivities(deleted));
+        
+        StatementPool pool = databaseHelper.getStatementPool();
+        ActivityCompactor.Run run = new ActivityCompactor(databaseHelper).newRun();
+        assertEquals(100, run.purgeBatch(100));
+        long missesAfterFirstBatch = pool.getMissCount();
+        while (run.purgeBatch(100) > 0) {
+            // purge the rest
+        }
+        CompactionReport report = run.finish();
+        
+        assertEquals(deleted.length, report.getRowsPurged());
+        assertFalse(report.isFullVacuum());
+        assertTrue(report.getReclaimedBytes() > 0);
+        // Every later batch reuses the pooled purge statement
+        assertEquals(missesAfterFirstBatch, pool.getMissCount());
+    }
+    
+    @Test
+    public void rebuildCountsLiveRowsOnly() {
+        long[] ids = dao.addActivities(activities(600));
+        int[] deleted = new int[200];
+        for (int i = 0; i < deleted.length; i++) {
+            deleted[i] = (int) ids[i * 3];
+        }
+        dao.deleteActivities(deleted);
+        SQLiteDatabase db = databaseHelper.getDatabase();
+        String dailyBefore = dump(db, "SELECT * FROM " + DatabaseHelper.TABLE_ROLLUP_DAILY + " ORDER BY 1");
+        String monthlyBefore = dump(db, "SELECT * FROM " + DatabaseHelper.TABLE_ROLLUP_MONTHLY + " ORDER BY 1");
+        String recordsBefore = dump(db, "SELECT * FROM " + DatabaseHelper.TABLE_TYPE_RECORDS + " ORDER BY 1");
+        String streaksBefore = dump(db, "SELECT * FROM " + DatabaseHelper.TABLE_STREAKS + " ORDER BY 1");
+        
+        databaseHelper.rebuildRollups();
+        while (databaseHelper.runPendingBackfillBatch()) {
+            // rebuild in batches, as in the background
+        }
+        
+        assertEquals(dailyBefore, dump(db, "SELECT * FROM " + DatabaseHelper.TABLE_ROLLUP_DAILY + " ORDER BY 1"));
+        assertEquals(monthlyBefore, dump(db, "SELECT * FROM " + DatabaseHelper.TABLE_ROLLUP_MONTHLY + " ORDER BY 1"));
+        assertEquals(recordsBefore, dump(db, "SELECT * FROM " + DatabaseHelper.TABLE_TYPE_RECORDS + " ORDER BY 1"));
+        assertEquals(streaksBefore, dump(db, "SELECT * FROM " + DatabaseHelper.TABLE_STREAKS + " ORDER BY 1"));
+        assertEquals(400, DatabaseUtils.longForQuery(db,
+                "SELECT SUM(" + DatabaseHelper.COLUMN_ACTIVITY_COUNT + ") FROM " + DatabaseHelper.TABLE_ROLLUP_DAILY, null));
+    }
+    
+    /**
+     * @return count activities over count / 3 days; the longest ones come first, so tombstones hold records
+     */
+    private static List<FitnessActivity> activities(int count) {
+        List<FitnessActivity> activities = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            activities.add(new FitnessActivity(NAMES[i % NAMES.length], 1000 - i, EpochDay.toDate(19_000 + i / 3 + i / 30)));
+        }
+        return activities;
+    }
+    
+    /**
+     * @return Every row of a query, one line per row
+     */
+    private static String dump(SQLiteDatabase db, String sql) {
+        StringBuilder rows = new StringBuilder();
+        Cursor cursor = db.rawQuery(sql, null);
+        try {
+            while (cursor.moveToNext()) {
+                for (int i = 0; i < cursor.getColumnCount(); i++) {
+                    rows.append(cursor.getString(i)).append(' ');
+                }
+                rows.append('\n');
+            }
+        } finally {
+            cursor.close();
+        }
+        return rows.toString();
+    }
+}
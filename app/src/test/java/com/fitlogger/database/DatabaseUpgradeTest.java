@@ -0,0 +1,281 @@
+package com.fitlogger.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import com.fitlogger.database.migration.MigrationReport;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/**
+ * Upgrade of a populated v1 database through every migration step to the current version
+ * 
+ * The v1 file is written the way the first release left it (activity_name
+ * as text, no epoch_day, user_version 1) and opened with DatabaseHelper,
+ * which runs onUpgrade() and the batched backfills. Every row, the totals,
+ * the daily/weekly/monthly rollups, the personal records and the name
+ * search are then compared with values computed from the seeded rows.
+ * The list is also paged while the epoch_day backfill is only partly done.
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+@RunWith(RobolectricTestRunner.class)
+public class DatabaseUpgradeTest {
+    
+    private static final int ROWS = 20_000;
+    private static final String[] NAMES = {"Running", "Morning Run", "Cycling", "Yoga", "Swimming"};
+    
+    // Schema as shipped in v1
+    private static final String CREATE_TABLE_V1 = "CREATE TABLE " + DatabaseHelper.TABLE_ACTIVITIES + " (" +
+            "id INTEGER PRIMARY KEY AUTOINCREMENT, activity_name TEXT NOT NULL, " +
+            "duration INTEGER NOT NULL, date TEXT NOT NULL)";
+    
+    private final List<FitnessActivity> seeded = new ArrayList<>();
+    private File file;
+    private DatabaseHelper databaseHelper;
+    
+    @Before
+    public void setUp() {
+        Context context = RuntimeEnvironment.getApplication();
+        file = context.getDatabasePath("FitLogger.db");
+        file.getParentFile().mkdirs();
+        SQLiteDatabase.deleteDatabase(file);
+        
+        Random random = new Random(6);
+        SQLiteDatabase v1 = SQLiteDatabase.openOrCreateDatabase(file, null);
+        try {
+            v1.execSQL(CREATE_TABLE_V1);
+            SQLiteStatement insert = v1.compileStatement("INSERT INTO " + DatabaseHelper.TABLE_ACTIVITIES +
+                    " (activity_name, duration, date) VALUES (?, ?, ?)");
+            v1.beginTransaction();
+            try {
+                for (int i = 0; i < ROWS; i++) {
+                    String name = NAMES[random.nextInt(NAMES.length)];
+                    int duration = 5 + random.nextInt(180);
+                    String date = EpochDay.toDate(19_500 + random.nextInt(800));
+                    insert.bindString(1, name);
+                    insert.bindLong(2, duration);
+                    insert.bindString(3, date);
+                    seeded.add(new FitnessActivity((int) insert.executeInsert(), name, duration, date));
+                }
+                v1.setTransactionSuccessful();
+            } finally {
+                v1.endTransaction();
+                insert.close();
+            }
+            v1.setVersion(1);
+        } finally {
+            v1.close();
+        }
+        
+        databaseHelper = new DatabaseHelper(context);
+    }
+    
+    @After
+    public void tearDown() {
+        databaseHelper.close();
+        SQLiteDatabase.deleteDatabase(file);
+    }
+    
+    @Test
+    public void upgradeKeepsEveryRowAndBuildsEverySummary() {
+        MigrationReport report = databaseHelper.getLastMigrationReport();
+        assertNotNull(report);
+        assertEquals(8, report.getSteps().size());
+        for (int i = 0; i < report.getSteps().size(); i++) {
+            MigrationReport.Step step = report.getSteps().get(i);
+            assertEquals(i + 1, step.fromVersion);
+            assertEquals(i + 2, step.toVersion);
+            assertTrue(step.schemaMillis >= 0);
+        }
+        assertEquals(9, databaseHelper.getDatabase().getVersion());
+        while (databaseHelper.runPendingBackfillBatch()) {
+            // what the inline budget left over runs in batches, as in the background
+        }
+        
+        FitnessActivityDAO dao = new FitnessActivityDAO(databaseHelper);
+        
+        // Rows
+        Map<Integer, FitnessActivity> rows = new HashMap<>();
+        for (FitnessActivity activity : dao.getAllActivities()) {
+            rows.put(activity.getId(), activity);
+        }
+        assertEquals(ROWS, rows.size());
+        long totalDuration = 0;
+        for (FitnessActivity expected : seeded) {
+            FitnessActivity actual = rows.get(expected.getId());
+            assertEquals(expected.getActivityName(), actual.getActivityName());
+            assertEquals(expected.getDuration(), actual.getDuration());
+            assertEquals(expected.getDate(), actual.getDate());
+            totalDuration += expected.getDuration();
+        }
+        
+        // Totals
+        assertEquals(ROWS, dao.getActivityCount());
+        assertEquals(totalDuration, dao.getTotalDuration());
+        
+        // Rollups: every bucket, compared with the seeded rows
+        for (ActivityRollup.Period period : ActivityRollup.Period.values()) {
+            TreeMap<Integer, long[]> expected = new TreeMap<>();
+            for (FitnessActivity activity : seeded) {
+                int key = period.keyOf(EpochDay.fromDate(activity.getDate()));
+                long[] bucket = expected.get(key);
+                if (bucket == null) {
+                    bucket = new long[]{0, 0, Long.MAX_VALUE, 0};
+                    expected.put(key, bucket);
+                }
+                bucket[0]++;
+                bucket[1] += activity.getDuration();
+                bucket[2] = Math.min(bucket[2], activity.getDuration());
+                bucket[3] = Math.max(bucket[3], activity.getDuration());
+            }
+            List<ActivityRollup> actual = dao.getRollups(period, expected.firstKey(), expected.lastKey());
+            assertEquals(period.name(), expected.size(), actual.size());
+            for (ActivityRollup rollup : actual) {
+                long[] bucket = expected.get(rollup.getKey());
+                assertEquals(period + " " + rollup.getKey(), bucket[0], rollup.getActivityCount());
+                assertEquals(bucket[1], rollup.getTotalDuration());
+                assertEquals(bucket[2], rollup.getMinDuration());
+                assertEquals(bucket[3], rollup.getMaxDuration());
+            }
+        }
+        
+        // Personal records: longest activity per name, ties to the smallest id
+        Map<String, FitnessActivity> best = new HashMap<>();
+        for (FitnessActivity activity : seeded) {
+            FitnessActivity current = best.get(activity.getActivityName());
+            if (current == null || activity.getDuration() > current.getDuration()) {
+                best.put(activity.getActivityName(), activity);
+            }
+        }
+        List<PersonalRecord> records = dao.getStats(EpochDay.fromDate("2024-01-01")).getRecords();
+        assertEquals(NAMES.length, records.size());
+        for (PersonalRecord record : records) {
+            FitnessActivity expected = best.get(record.getActivityName());
+            assertEquals(expected.getId(), record.getActivityId());
+            assertEquals(expected.getDuration(), record.getDuration());
+        }
+        
+        // Search over the migrated names
+        assertEquals(idsNamed("Morning Run"), sorted(dao.searchActivityIds("morn", 0, ROWS)));
+        assertEquals(idsNamed("Running", "Morning Run"), sorted(dao.searchActivityIds("ru", 0, ROWS)));
+        assertEquals(idsNamed("Yoga"), sorted(dao.searchActivityIds("YOGA", 0, ROWS)));
+        
+        // The upgraded database takes new rows like a new one
+        long id = dao.addActivity(new FitnessActivity("Morning Run", 40, "2026-01-01"));
+        assertTrue(id > seeded.get(ROWS - 1).getId());
+        assertEquals(ROWS + 1, dao.getActivityCount());
+        assertEquals(idsNamed("Morning Run").size() + 1, dao.searchActivityIds("morning", 0, ROWS + 1).length);
+    }
+    
+    @Test
+    public void listIsCompleteWhileTheEpochDayBackfillIsUnfinished() {
+        while (databaseHelper.runPendingBackfillBatch()) {
+            // start from a fully upgraded database
+        }
+        assertFalse(databaseHelper.isEpochDayBackfillPending());
+        
+        // Put every other row back to "not backfilled yet" and reopen, as after
+        // an upgrade whose inline budget ran out
+        SQLiteDatabase db = databaseHelper.getDatabase();
+        db.execSQL("UPDATE " + DatabaseHelper.TABLE_ACTIVITIES +
+                   " SET " + DatabaseHelper.COLUMN_EPOCH_DAY + " = NULL WHERE id % 2 = 0");
+        db.execSQL("INSERT INTO schema_backfills (version) VALUES (1)");
+        databaseHelper.close();
+        databaseHelper = new DatabaseHelper(RuntimeEnvironment.getApplication());
+        
+        // One batch only: the backfill is partly done
+        assertTrue(databaseHelper.runPendingBackfillBatch());
+        assertTrue(databaseHelper.isEpochDayBackfillPending());
+        
+        List<FitnessActivity> expected = new ArrayList<>(seeded);
+        Collections.sort(expected, new Comparator<FitnessActivity>() {
+            @Override
+            public int compare(FitnessActivity a, FitnessActivity b) {
+                int dayA = EpochDay.fromDate(a.getDate());
+                int dayB = EpochDay.fromDate(b.getDate());
+                return dayA != dayB ? Integer.compare(dayB, dayA) : Integer.compare(b.getId(), a.getId());
+            }
+        });
+        FitnessActivityDAO dao = new FitnessActivityDAO(databaseHelper);
+        assertEquals(ids(expected), ids(pageThrough(dao)));
+        
+        // A page re-read by its key range, a day and a range snapshot
+        assertEquals(ids(expected.subList(500, 1000)),
+                     ids(dao.getActivitiesBetween(expected.get(499), expected.get(999))));
+        String date = expected.get(0).getDate();
+        int sameDay = 0;
+        while (sameDay < ROWS && expected.get(sameDay).getDate().equals(date)) {
+            sameDay++;
+        }
+        assertEquals(ids(expected.subList(0, sameDay)), ids(dao.getActivitiesByDate(date)));
+        int day = EpochDay.fromDate(date);
+        assertEquals(sameDay, dao.getActivitiesInRange(day, day + 1, ROWS).size());
+        
+        // Once the backfill is done the indexed clauses are back, with the same result
+        while (databaseHelper.runPendingBackfillBatch()) {
+            // finish it
+        }
+        assertFalse(databaseHelper.isEpochDayBackfillPending());
+        assertEquals(ids(expected), ids(pageThrough(dao)));
+    }
+    
+    private static List<FitnessActivity> pageThrough(FitnessActivityDAO dao) {
+        List<FitnessActivity> all = new ArrayList<>();
+        List<FitnessActivity> page = dao.getActivitiesPage(null, 500);
+        while (!page.isEmpty()) {
+            all.addAll(page);
+            page = dao.getActivitiesPage(page.get(page.size() - 1), 500);
+        }
+        return all;
+    }
+    
+    private static List<Integer> ids(List<FitnessActivity> activities) {
+        List<Integer> ids = new ArrayList<>(activities.size());
+        for (FitnessActivity activity : activities) {
+            ids.add(activity.getId());
+        }
+        return ids;
+    }
+    
+    private List<Integer> idsNamed(String... names) {
+        List<String> wanted = Arrays.asList(names);
+        List<Integer> ids = new ArrayList<>();
+        for (FitnessActivity activity : seeded) {
+            if (wanted.contains(activity.getActivityName())) {
+                ids.add(activity.getId());
+            }
+        }
+        return ids;
+    }
+    
+    private static List<Integer> sorted(int[] ids) {
+        int[] copy = ids.clone();
+        Arrays.sort(copy);
+        List<Integer> list = new ArrayList<>();
+        for (int id : copy) {
+            list.add(id);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,66 @@
+package com.fitlogger.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import org.junit.Test;
+
+/**
+ * EpochDay against java.time for every day of 1600 .. 2400 and the year edges
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public class EpochDayTest {
+    
+    @Test
+    public void everyDayMatchesJavaTime() {
+        int first = (int) LocalDate.of(1600, 1, 1).toEpochDay();
+        int last = (int) LocalDate.of(2400, 12, 31).toEpochDay();
+        for (int epochDay = first; epochDay <= last; epochDay++) {
+            LocalDate date = LocalDate.ofEpochDay(epochDay);
+            String text = date.toString();
+            
+            assertEquals(text, epochDay, EpochDay.fromDate(text));
+            assertEquals(text, epochDay,
+                    EpochDay.fromYearMonthDay(date.getYear(), date.getMonthValue(), date.getDayOfMonth()));
+            assertEquals(text, EpochDay.toDate(epochDay));
+            assertEquals(text, date.getYear() * 10000 + date.getMonthValue() * 100 + date.getDayOfMonth(),
+                    EpochDay.toYearMonthDay(epochDay));
+            assertEquals(text, date.with(DayOfWeek.MONDAY).toEpochDay(), EpochDay.startOfWeek(epochDay));
+            
+            int monthKey = EpochDay.toMonthKey(epochDay);
+            assertEquals(text, date.getYear() * 100 + date.getMonthValue(), monthKey);
+            assertEquals(text, date.withDayOfMonth(1).toEpochDay(), EpochDay.startOfMonth(monthKey));
+        }
+    }
+    
+    @Test
+    public void fourDigitYearEdges() {
+        for (String text : new String[]{"0000-01-01", "0000-02-29", "0001-01-01", "1969-12-31",
+                                        "1970-01-01", "9999-12-31"}) {
+            LocalDate date = LocalDate.parse(text);
+            assertEquals(text, date.toEpochDay(), EpochDay.fromDate(text));
+            assertEquals(text, EpochDay.toDate((int) date.toEpochDay()));
+        }
+        assertEquals(0, EpochDay.fromDate("1970-01-01"));
+        assertEquals(-1, EpochDay.fromDate("1969-12-31"));
+    }
+    
+    @Test
+    public void malformedDatesAreRejected() {
+        String[] malformed = {null, "", "2024-1-01", "2024-01-1", "2024/01/01", "20240101  ",
+                              "2024-00-10", "2024-13-01", "2024-01-00", "2024-01-32", "2024-0a-01",
+                              "+024-01-01", "2024-01-01T00"};
+        for (String text : malformed) {
+            try {
+                EpochDay.fromDate(text);
+                fail("accepted " + text);
+            } catch (IllegalArgumentException expected) {
+                // rejected
+            }
+        }
+    }
+}
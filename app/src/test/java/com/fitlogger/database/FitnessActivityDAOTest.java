@@ -0,0 +1,135 @@
+package com.fitlogger.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import android.database.DatabaseUtils;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/**
+ * FitnessActivityDAO against a real (Robolectric) SQLite database
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+@RunWith(RobolectricTestRunner.class)
+public class FitnessActivityDAOTest {
+    
+    private DatabaseHelper databaseHelper;
+    private FitnessActivityDAO dao;
+    
+    @Before
+    public void setUp() {
+        databaseHelper = new DatabaseHelper(RuntimeEnvironment.getApplication());
+        dao = new FitnessActivityDAO(databaseHelper);
+    }
+    
+    @After
+    public void tearDown() {
+        databaseHelper.close();
+    }
+    
+    @Test
+    public void rejectedInsertLeavesNoTypeBehind() {
+        // No date: the NOT NULL constraint rejects the row after idOf() added the type
+        assertEquals(-1, dao.addActivity(new FitnessActivity("Kayaking", 30, null)));
+        
+        assertEquals(0, typeCount("Kayaking"));
+        long id = dao.addActivity(new FitnessActivity("Kayaking", 30, "2024-05-01"));
+        assertEquals("Kayaking", dao.getActivityById((int) id).getActivityName());
+        assertEquals(1, typeCount("Kayaking"));
+    }
+    
+    @Test
+    public void updateOfMissingRowLeavesNoTypeBehind() {
+        FitnessActivity missing = new FitnessActivity(12345, "Fencing", 30, "2024-05-01");
+        assertEquals(0, dao.updateActivity(missing));
+        assertEquals(0, typeCount("Fencing"));
+        
+        long id = dao.addActivity(new FitnessActivity("Running", 30, "2024-05-01"));
+        assertEquals(1, dao.updateActivity(new FitnessActivity((int) id, "Fencing", 45, "2024-05-01")));
+        FitnessActivity updated = dao.getActivityById((int) id);
+        assertNotNull(updated);
+        assertEquals("Fencing", updated.getActivityName());
+        assertEquals(1, typeCount("Fencing"));
+    }
+    
+    @Test
+    public void countersStayExact() {
+        Map<Integer, FitnessActivity> live = new LinkedHashMap<>();
+        Random random = new Random(7);
+        for (int step = 0; step < 600; step++) {
+            int kind = random.nextInt(100);
+            if (kind < 40 || live.isEmpty()) {
+                FitnessActivity activity = new FitnessActivity("Running", 1 + random.nextInt(120), "2024-05-01");
+                int id = (int) dao.addActivity(activity);
+                live.put(id, new FitnessActivity(id, "Running", activity.getDuration(), activity.getDate()));
+            } else if (kind < 50) {
+                List<FitnessActivity> batch = new ArrayList<>();
+                for (int i = random.nextInt(30); i >= 0; i--) {
+                    batch.add(new FitnessActivity("Yoga", 1 + random.nextInt(120), "2024-05-02"));
+                }
+                long[] ids = dao.addActivities(batch);
+                for (int i = 0; i < ids.length; i++) {
+                    live.put((int) ids[i], new FitnessActivity((int) ids[i], "Yoga", batch.get(i).getDuration(),
+                                                               "2024-05-02"));
+                }
+            } else if (kind < 75) {
+                FitnessActivity old = pick(live, random);
+                FitnessActivity updated = new FitnessActivity(old.getId(), old.getActivityName(),
+                                                              1 + random.nextInt(120), old.getDate());
+                assertEquals(1, dao.updateActivity(updated));
+                live.put(updated.getId(), updated);
+            } else if (kind < 90) {
+                FitnessActivity deleted = pick(live, random);
+                assertEquals(1, dao.deleteActivity(deleted.getId()));
+                assertEquals(0, dao.deleteActivity(deleted.getId())); // already a tombstone: no change
+                live.remove(deleted.getId());
+                if (random.nextBoolean()) {
+                    assertEquals(1, dao.restoreActivities(Collections.singletonList(deleted)));
+                    live.put(deleted.getId(), deleted);
+                }
+            } else if (kind < 93) {
+                assertEquals(live.size(), dao.deleteAllActivities());
+                live.clear();
+            } else {
+                // Missing row: the counters must not move
+                assertEquals(0, dao.updateActivity(new FitnessActivity(-5, "Running", 10, "2024-05-01")));
+                assertEquals(0, dao.deleteActivity(-5));
+            }
+            
+            long totalDuration = 0;
+            for (FitnessActivity activity : live.values()) {
+                totalDuration += activity.getDuration();
+            }
+            String when = "step " + step;
+            assertEquals(when, live.size(), dao.getActivityCount());
+            assertEquals(when, live.size(), databaseHelper.getActivityCount());
+            assertEquals(when, totalDuration, dao.getTotalDuration());
+            assertEquals(when, totalDuration, databaseHelper.getTotalDuration());
+            assertEquals(when, live.size(), DatabaseUtils.queryNumEntries(databaseHelper.getDatabase(),
+                    DatabaseHelper.TABLE_ACTIVITIES, DatabaseHelper.SELECTION_LIVE));
+        }
+    }
+    
+    private static FitnessActivity pick(Map<Integer, FitnessActivity> live, Random random) {
+        List<FitnessActivity> rows = new ArrayList<>(live.values());
+        return rows.get(random.nextInt(rows.size()));
+    }
+    
+    private long typeCount(String name) {
+        return DatabaseUtils.queryNumEntries(databaseHelper.getDatabase(),
+                DatabaseHelper.TABLE_ACTIVITY_TYPES, DatabaseHelper.COLUMN_TYPE_NAME + " = ?", new String[]{name});
+    }
+}
@@ -0,0 +1,115 @@
+package com.fitlogger.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.fitlogger.metrics.Metrics;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/**
+ * Cost of the metrics against the DAO calls they measure
+ * 
+ * A timed call adds Timer.begin() and Timer.end(startNanos, rows) (see
+ * ActivityRepository.run()). Their cost is measured in a tight loop (median
+ * of several runs after a warm-up; the empty loop body is a fast call, so
+ * the timer samples it like a cheap DAO call) and must be less than 1% of:
+ * - getActivitiesPage(): the list's page read, the hottest DAO call
+ * - getActivityCount(): the cheapest DAO call (one pooled single-row
+ *   statement)
+ * Sampling must not change the number of calls the timer reports.
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+@RunWith(RobolectricTestRunner.class)
+public class MetricsOverheadTest {
+    
+    private static final int WARM_UP_RUNS = 5;
+    private static final int RUNS = 5;
+    private static final int TIMER_CALLS = 200_000;
+    private static final int COUNT_CALLS = 20_000;
+    private static final int PAGE_CALLS = 2_000;
+    
+    private DatabaseHelper databaseHelper;
+    private FitnessActivityDAO dao;
+    
+    @Before
+    public void setUp() {
+        databaseHelper = new DatabaseHelper(RuntimeEnvironment.getApplication());
+        dao = new FitnessActivityDAO(databaseHelper);
+        List<FitnessActivity> rows = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            rows.add(new FitnessActivity("Running", 30, EpochDay.toDate(19_000 + i)));
+        }
+        dao.addActivities(rows);
+    }
+    
+    @After
+    public void tearDown() {
+        databaseHelper.close();
+    }
+    
+    @Test
+    public void timerCostsLessThanOnePercentOfTheCheapestCall() {
+        Metrics.Timer timer = Metrics.timer("test.overhead");
+        
+        long[] timerNanos = new long[RUNS];
+        long[] countNanos = new long[RUNS];
+        long[] pageNanos = new long[RUNS];
+        for (int run = -WARM_UP_RUNS; run < RUNS; run++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < TIMER_CALLS; i++) {
+                long startNanos = timer.begin();
+                timer.end(startNanos, i & 63);
+            }
+            long timerTime = (System.nanoTime() - start) / TIMER_CALLS;
+            
+            start = System.nanoTime();
+            for (int i = 0; i < COUNT_CALLS; i++) {
+                assertEquals(1000, dao.getActivityCount());
+            }
+            long countTime = (System.nanoTime() - start) / COUNT_CALLS;
+            
+            start = System.nanoTime();
+            for (int i = 0; i < PAGE_CALLS; i++) {
+                assertEquals(50, dao.getActivitiesPage(null, 50).size());
+            }
+            long pageTime = (System.nanoTime() - start) / PAGE_CALLS;
+            
+            if (run >= 0) {
+                timerNanos[run] = timerTime;
+                countNanos[run] = countTime;
+                pageNanos[run] = pageTime;
+            }
+        }
+        long metrics = median(timerNanos);
+        long count = median(countNanos);
+        long page = median(pageNanos);
+        System.out.println(String.format(Locale.US,
+                "metrics %d ns/call; getActivitiesPage %d ns (%.2f%%); getActivityCount %d ns (%.2f%%)",
+                metrics, page, 100.0 * metrics / page, count, 100.0 * metrics / count));
+        
+        assertTrue("metrics " + metrics + " ns vs page read " + page + " ns", metrics * 100 < page);
+        assertTrue("metrics " + metrics + " ns vs count " + count + " ns", metrics * 100 < count);
+        
+        // Every call is counted, up to the calls since the last sample
+        long calls = (long) (WARM_UP_RUNS + RUNS) * TIMER_CALLS;
+        assertTrue(calls - timer.getLatency().getCount() < Metrics.SAMPLE_INTERVAL);
+        assertEquals(timer.getLatency().getCount(), timer.getRows().getCount());
+    }
+    
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,124 @@
+package com.fitlogger.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/**
+ * Benchmark: RowMapper (column indexes resolved once per cursor) against
+ * the mapping it replaced (getColumnIndexOrThrow() for every column of every row)
+ * 
+ * JMH-style without the JMH harness: both variants map the same cursor over
+ * ROWS rows, WARM_UP_RUNS untimed runs first, then the median of RUNS timed
+ * runs is reported in ns per row. Both read the same cursor window and
+ * resolve names through the same dictionary, so the difference is the
+ * column lookups. The mapper must not be slower.
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+@RunWith(RobolectricTestRunner.class)
+public class RowMapperBenchmarkTest {
+    
+    private static final int ROWS = 20_000;
+    private static final int WARM_UP_RUNS = 5;
+    private static final int RUNS = 7;
+    
+    private DatabaseHelper databaseHelper;
+    
+    @Before
+    public void setUp() {
+        databaseHelper = new DatabaseHelper(RuntimeEnvironment.getApplication());
+        List<FitnessActivity> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new FitnessActivity(i % 3 == 0 ? "Running" : "Cycling", 10 + i % 50,
+                                         EpochDay.toDate(18_000 + i / 4)));
+        }
+        new FitnessActivityDAO(databaseHelper).addActivities(rows);
+    }
+    
+    @After
+    public void tearDown() {
+        databaseHelper.close();
+    }
+    
+    @Test
+    public void mapperIsNotSlowerThanPerRowLookups() {
+        SQLiteDatabase db = databaseHelper.getDatabase();
+        ActivityTypeDictionary types = databaseHelper.getActivityTypes();
+        Cursor cursor = db.query(DatabaseHelper.TABLE_ACTIVITIES, RowMapper.ALL_COLUMNS,
+                                 null, null, null, null, DatabaseHelper.COLUMN_ID);
+        try {
+            assertEquals(mapPerRow(db, types, cursor), mapWithMapper(db, types, cursor));
+            
+            long[] mapperNanos = new long[RUNS];
+            long[] perRowNanos = new long[RUNS];
+            for (int run = -WARM_UP_RUNS; run < RUNS; run++) {
+                long start = System.nanoTime();
+                List<FitnessActivity> mapped = mapWithMapper(db, types, cursor);
+                long mapperTime = System.nanoTime() - start;
+                
+                start = System.nanoTime();
+                List<FitnessActivity> looked = mapPerRow(db, types, cursor);
+                long perRowTime = System.nanoTime() - start;
+                
+                assertEquals(ROWS, mapped.size());
+                assertEquals(ROWS, looked.size());
+                if (run >= 0) {
+                    mapperNanos[run] = mapperTime / ROWS;
+                    perRowNanos[run] = perRowTime / ROWS;
+                }
+            }
+            
+            long mapper = median(mapperNanos);
+            long perRow = median(perRowNanos);
+            System.out.println(String.format(Locale.US,
+                    "RowMapper %d ns/row, getColumnIndexOrThrow per row %d ns/row (%d rows, median of %d)",
+                    mapper, perRow, ROWS, RUNS));
+            assertTrue("mapper " + mapper + " ns/row, per-row lookups " + perRow + " ns/row", mapper <= perRow);
+        } finally {
+            cursor.close();
+        }
+    }
+    
+    private static List<FitnessActivity> mapWithMapper(SQLiteDatabase db, ActivityTypeDictionary types,
+                                                       Cursor cursor) {
+        cursor.moveToPosition(-1);
+        return new RowMapper(db, types, cursor, RowMapper.ALL_COLUMNS).mapAll(new ArrayList<FitnessActivity>(ROWS));
+    }
+    
+    /**
+     * The mapping loop before RowMapper
+     */
+    private static List<FitnessActivity> mapPerRow(SQLiteDatabase db, ActivityTypeDictionary types, Cursor cursor) {
+        List<FitnessActivity> activities = new ArrayList<>(ROWS);
+        cursor.moveToPosition(-1);
+        while (cursor.moveToNext()) {
+            activities.add(new FitnessActivity(
+                cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_ID)),
+                types.nameOf(db, cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_TYPE_ID))),
+                cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_DURATION)),
+                cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_DATE))
+            ));
+        }
+        return activities;
+    }
+    
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
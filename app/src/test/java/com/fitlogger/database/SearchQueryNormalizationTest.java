@@ -0,0 +1,57 @@
+package com.fitlogger.database;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * FitnessActivityDAO.normalizeSearchQuery(): what the user types becomes plain
+ * FTS words, so it can never change the MATCH expression
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public class SearchQueryNormalizationTest {
+    
+    @Test
+    public void wordsAreLowerCasedAndSingleSpaced() {
+        assertEquals("morning run", FitnessActivityDAO.normalizeSearchQuery("Morning Run"));
+        assertEquals("mor ru", FitnessActivityDAO.normalizeSearchQuery("  MOR \t\n ru  "));
+        assertEquals("5k run 2024", FitnessActivityDAO.normalizeSearchQuery("5K run 2024"));
+        assertEquals("yoga", FitnessActivityDAO.normalizeSearchQuery("yoga"));
+    }
+    
+    @Test
+    public void punctuationSeparatesWords() {
+        assertEquals("hill run", FitnessActivityDAO.normalizeSearchQuery("hill-run"));
+        assertEquals("a b c", FitnessActivityDAO.normalizeSearchQuery("a.b,c"));
+        assertEquals("don t", FitnessActivityDAO.normalizeSearchQuery("don't"));
+    }
+    
+    @Test
+    public void ftsOperatorsAreDropped() {
+        assertEquals("run", FitnessActivityDAO.normalizeSearchQuery("\"run\""));
+        assertEquals("run", FitnessActivityDAO.normalizeSearchQuery("run*"));
+        assertEquals("run", FitnessActivityDAO.normalizeSearchQuery("^run"));
+        assertEquals("a or b", FitnessActivityDAO.normalizeSearchQuery("a OR b"));
+        assertEquals("name yoga", FitnessActivityDAO.normalizeSearchQuery("name:yoga"));
+        assertEquals("run near 3 swim", FitnessActivityDAO.normalizeSearchQuery("(run NEAR/3 swim)"));
+        assertEquals("x", FitnessActivityDAO.normalizeSearchQuery("-x"));
+    }
+    
+    @Test
+    public void nonAsciiIsKeptAsIs() {
+        // FTS4's simple tokenizer only folds ASCII, and so does the query
+        assertEquals("laufen Über", FitnessActivityDAO.normalizeSearchQuery("Laufen Über"));
+        assertEquals("ÉtÉ ski", FitnessActivityDAO.normalizeSearchQuery("ÉTÉ ski"));
+        assertEquals("日本 yoga", FitnessActivityDAO.normalizeSearchQuery("日本 yoga"));
+    }
+    
+    @Test
+    public void nothingSearchableIsEmpty() {
+        assertEquals("", FitnessActivityDAO.normalizeSearchQuery(null));
+        assertEquals("", FitnessActivityDAO.normalizeSearchQuery(""));
+        assertEquals("", FitnessActivityDAO.normalizeSearchQuery("   "));
+        assertEquals("", FitnessActivityDAO.normalizeSearchQuery("*\"^-:()"));
+    }
+}
@@ -0,0 +1,209 @@
+package com.fitlogger.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import java.util.Arrays;
+import java.util.Locale;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/**
+ * StatementPool: reuse, rebinding, hand-out to one caller at a time, and the
+ * compile cost it removes from each call
+ * 
+ * The benchmark takes the statements of the DAO's count and sum reads CALLS
+ * times each, through acquire()/release() and with compileStatement()/close()
+ * per call (what the DAO did before): first without running them (the cost
+ * of getting a statement), then running them. Median of RUNS after
+ * WARM_UP_RUNS, in ns per call; the pool must win both and compile once per
+ * shape. SQLiteConnection's own statement cache already skips the native
+ * prepare for recent SQL, so what remains per call is the framework's
+ * lookup, reference counting and object churn.
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+@RunWith(RobolectricTestRunner.class)
+public class StatementPoolTest {
+    
+    private static final int CALLS = 10_000;
+    private static final int WARM_UP_RUNS = 3;
+    private static final int RUNS = 7;
+    
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM " + DatabaseHelper.TABLE_ACTIVITIES +
+            " WHERE " + DatabaseHelper.COLUMN_DURATION + " > ? AND " + DatabaseHelper.SELECTION_LIVE;
+    private static final String[] TOTALS_SQL = {
+        "SELECT " + DatabaseHelper.COLUMN_ACTIVITY_COUNT + " FROM " + DatabaseHelper.TABLE_ACTIVITY_TOTALS +
+                " WHERE id = 1",
+        "SELECT " + DatabaseHelper.COLUMN_TOTAL_DURATION + " FROM " + DatabaseHelper.TABLE_ACTIVITY_TOTALS +
+                " WHERE id = 1"
+    };
+    
+    private DatabaseHelper databaseHelper;
+    private SQLiteDatabase db;
+    private StatementPool pool;
+    
+    @Before
+    public void setUp() {
+        databaseHelper = new DatabaseHelper(RuntimeEnvironment.getApplication());
+        FitnessActivityDAO dao = new FitnessActivityDAO(databaseHelper);
+        for (int i = 0; i < 100; i++) {
+            dao.addActivity(new FitnessActivity("Running", 10 + i, "2024-05-01"));
+        }
+        db = databaseHelper.getDatabase();
+        pool = new StatementPool();
+    }
+    
+    @After
+    public void tearDown() {
+        pool.close();
+        databaseHelper.close();
+    }
+    
+    @Test
+    public void releasedStatementIsReusedWithoutBindings() {
+        SQLiteStatement count = pool.acquire(db, COUNT_SQL);
+        count.bindLong(1, 100);
+        assertEquals(9, count.simpleQueryForLong());
+        pool.release(count);
+        
+        SQLiteStatement again = pool.acquire(db, COUNT_SQL);
+        assertSame(count, again);
+        assertEquals(0, again.simpleQueryForLong()); // "duration > NULL": the old binding was cleared
+        pool.release(again);
+        assertEquals(1, pool.getHitCount());
+        assertEquals(1, pool.getMissCount());
+        assertEquals(1, pool.size());
+    }
+    
+    @Test
+    public void concurrentCallerGetsItsOwnCopy() {
+        SQLiteStatement first = pool.acquire(db, COUNT_SQL);
+        SQLiteStatement second = pool.acquire(db, COUNT_SQL);
+        assertNotSame(first, second);
+        first.bindLong(1, 100);
+        second.bindLong(1, 50);
+        assertEquals(9, first.simpleQueryForLong());
+        assertEquals(59, second.simpleQueryForLong());
+        pool.release(first);
+        pool.release(second); // the shape is pooled again: the copy is closed
+        assertEquals(1, pool.size());
+        assertSame(first, pool.acquire(db, COUNT_SQL));
+    }
+    
+    @Test
+    public void anotherHandleDropsTheStatementsOfTheOldOne() {
+        pool.release(pool.acquire(db, COUNT_SQL));
+        databaseHelper.close();
+        SQLiteDatabase reopened = databaseHelper.getDatabase();
+        assertNotSame(db, reopened);
+        
+        SQLiteStatement count = pool.acquire(reopened, COUNT_SQL);
+        count.bindLong(1, 100);
+        assertEquals(9, count.simpleQueryForLong());
+        pool.release(count);
+        assertEquals(2, pool.getMissCount());
+        db = reopened;
+    }
+    
+    @Test
+    public void idleShapesAreBounded() {
+        for (int i = 0; i < 40; i++) {
+            pool.release(pool.acquire(db, COUNT_SQL + " AND " + DatabaseHelper.COLUMN_ID + " > " + i));
+        }
+        assertTrue(pool.size() <= 16);
+        assertEquals(40, pool.getMissCount());
+    }
+    
+    @Test
+    public void poolRemovesTheCompileCost() {
+        long[][] nanos = new long[4][RUNS];
+        long missesBefore = pool.getMissCount();
+        for (int run = -WARM_UP_RUNS; run < RUNS; run++) {
+            long[] times = new long[4];
+            long start = System.nanoTime();
+            acquireOnly(true);
+            times[0] = System.nanoTime() - start;
+            start = System.nanoTime();
+            acquireOnly(false);
+            times[1] = System.nanoTime() - start;
+            
+            start = System.nanoTime();
+            long pooled = readTotals(true);
+            times[2] = System.nanoTime() - start;
+            start = System.nanoTime();
+            long compiled = readTotals(false);
+            times[3] = System.nanoTime() - start;
+            
+            assertEquals(compiled, pooled);
+            for (int i = 0; run >= 0 && i < times.length; i++) {
+                nanos[i][run] = times[i] / (2 * CALLS);
+            }
+        }
+        assertEquals(missesBefore + 2, pool.getMissCount()); // one compile per shape, ever
+        
+        long acquire = median(nanos[0]);
+        long compile = median(nanos[1]);
+        long pooledCall = median(nanos[2]);
+        long compiledCall = median(nanos[3]);
+        System.out.println(String.format(Locale.US,
+                "statement for one call: acquire/release %d ns, compileStatement/close %d ns; " +
+                "totals read: pooled %d ns/call, compiled per call %d ns/call (%d calls, median of %d)",
+                acquire, compile, pooledCall, compiledCall, 2 * CALLS, RUNS));
+        assertTrue("acquire " + acquire + " ns, compile " + compile + " ns", acquire < compile);
+        assertTrue("pooled " + pooledCall + " ns/call, compiled " + compiledCall + " ns/call",
+                   pooledCall < compiledCall);
+    }
+    
+    /**
+     * Get and give back the statements of a count and a sum read, without running them
+     */
+    private void acquireOnly(boolean pooled) {
+        for (int call = 0; call < CALLS; call++) {
+            for (String sql : TOTALS_SQL) {
+                if (pooled) {
+                    pool.release(pool.acquire(db, sql));
+                } else {
+                    db.compileStatement(sql).close();
+                }
+            }
+        }
+    }
+    
+    /**
+     * The DAO's hot reads: activity count and total duration from the summary row
+     */
+    private long readTotals(boolean pooled) {
+        long result = 0;
+        for (int call = 0; call < CALLS; call++) {
+            for (String sql : TOTALS_SQL) {
+                SQLiteStatement statement = pooled ? pool.acquire(db, sql) : db.compileStatement(sql);
+                try {
+                    result += statement.simpleQueryForLong();
+                } finally {
+                    if (pooled) {
+                        pool.release(statement);
+                    } else {
+                        statement.close();
+                    }
+                }
+            }
+        }
+        return result;
+    }
+    
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
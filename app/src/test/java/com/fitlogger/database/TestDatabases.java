@@ -0,0 +1,51 @@
+package com.fitlogger.database;
+
+import android.content.Context;
+
+/**
+ * Gives tests outside this package their own DatabaseHelper (and repository)
+ * 
+ * The singleton (getInstance()) would outlive the test's application and its
+ * data directory; every test gets a new helper instead, closed in its @After.
+ * Tests that start screens replace the singletons (newSingletons()).
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public final class TestDatabases {
+    
+    private TestDatabases() {
+        // Utility class
+    }
+    
+    /**
+     * @param context Test application
+     * @return New helper over the application's database file
+     */
+    public static DatabaseHelper newHelper(Context context) {
+        return new DatabaseHelper(context);
+    }
+    
+    /**
+     * @param context Test application
+     * @param databaseHelper Helper from newHelper()
+     * @return New repository over that helper (instead of the singleton)
+     */
+    public static ActivityRepository newRepository(Context context, DatabaseHelper databaseHelper) {
+        return new ActivityRepository(context, databaseHelper);
+    }
+    
+    /**
+     * Make a new helper and repository the app's singletons, for tests that
+     * start screens (they use getInstance())
+     * 
+     * @param context Test application
+     * @return The new singleton helper, to close in @After
+     */
+    public static DatabaseHelper newSingletons(Context context) {
+        DatabaseHelper databaseHelper = newHelper(context);
+        DatabaseHelper.setInstance(databaseHelper);
+        ActivityRepository.setInstance(newRepository(context, databaseHelper));
+        return databaseHelper;
+    }
+}
@@ -0,0 +1,193 @@
+package com.fitlogger.database.migration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import com.fitlogger.database.ActivityTypeDictionary;
+import com.fitlogger.database.DatabaseHelper;
+import com.fitlogger.database.EpochDay;
+import com.fitlogger.database.FitnessActivity;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/**
+ * v6 → v7 on 100k rows: the table rebuild, the file size and the heap of the loaded rows
+ * 
+ * The database is created at v1, migrated to v6 and filled with ROWS rows
+ * of a few repeated names (v6 shape: the name as text on every row), then
+ * upgraded to v7. Checked: every row, duration and name survives. Measured
+ * and printed: the time of the rebuild, the file size before and after
+ * (both VACUUMed) and the heap of the rows loaded as FitnessActivity
+ * objects, with a String per row (v6 cursor) vs shared dictionary names (v7).
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+@RunWith(RobolectricTestRunner.class)
+public class MigrationV7ActivityTypesTest {
+    
+    private static final int ROWS = 100_000;
+    private static final String[] NAMES = {
+        "Running", "Cycling", "Swimming", "Walking", "Yoga", "Rowing", "Strength training", "Hiking"
+    };
+    
+    // Schema as shipped in v1 (DatabaseHelper keeps its own copy private)
+    private static final String CREATE_TABLE_V1 = "CREATE TABLE " + DatabaseHelper.TABLE_ACTIVITIES + " (" +
+            "id INTEGER PRIMARY KEY AUTOINCREMENT, activity_name TEXT NOT NULL, " +
+            "duration INTEGER NOT NULL, date TEXT NOT NULL)";
+    
+    private File file;
+    private SQLiteDatabase db;
+    private final MigrationRegistry registry = MigrationRegistry.createDefault();
+    
+    @Before
+    public void setUp() {
+        file = RuntimeEnvironment.getApplication().getDatabasePath("migration-v7-test.db");
+        file.getParentFile().mkdirs();
+        SQLiteDatabase.deleteDatabase(file);
+        db = SQLiteDatabase.openOrCreateDatabase(file, null);
+        db.execSQL(CREATE_TABLE_V1);
+        registry.migrate(db, 1, 6);
+        
+        SQLiteStatement insert = db.compileStatement("INSERT INTO " + DatabaseHelper.TABLE_ACTIVITIES +
+                " (activity_name, duration, date, epoch_day) VALUES (?, ?, ?, ?)");
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < ROWS; i++) {
+                int epochDay = 18_000 + i / 20;
+                insert.bindString(1, NAMES[i % NAMES.length]);
+                insert.bindLong(2, 10 + i % 90);
+                insert.bindString(3, EpochDay.toDate(epochDay));
+                insert.bindLong(4, epochDay);
+                insert.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            insert.close();
+        }
+        while (registry.runBackfillBatch(db, MigrationRegistry.DEFAULT_BATCH_SIZE, new MigrationReport())) {
+            // finish the v2-v6 backfills before measuring
+        }
+    }
+    
+    @After
+    public void tearDown() {
+        db.close();
+        SQLiteDatabase.deleteDatabase(file);
+    }
+    
+    @Test
+    public void rebuildKeepsEveryRowAndShrinksFileAndHeap() {
+        long sumBefore = DatabaseUtils.longForQuery(db,
+                "SELECT SUM(duration) FROM " + DatabaseHelper.TABLE_ACTIVITIES, null);
+        long sizeBefore = vacuumedSize();
+        long heapBefore = retainedHeap(loadV6());
+        
+        long start = System.nanoTime();
+        registry.migrate(db, 6, 7);
+        long rebuildMillis = (System.nanoTime() - start) / 1_000_000;
+        
+        assertEquals(ROWS, DatabaseUtils.queryNumEntries(db, DatabaseHelper.TABLE_ACTIVITIES));
+        assertEquals(sumBefore, DatabaseUtils.longForQuery(db,
+                "SELECT SUM(duration) FROM " + DatabaseHelper.TABLE_ACTIVITIES, null));
+        assertEquals(NAMES.length, DatabaseUtils.queryNumEntries(db, DatabaseHelper.TABLE_ACTIVITY_TYPES));
+        for (int i = 0; i < NAMES.length; i++) {
+            assertEquals(ROWS / NAMES.length, DatabaseUtils.longForQuery(db,
+                    "SELECT COUNT(*) FROM " + DatabaseHelper.TABLE_ACTIVITIES + " a JOIN " +
+                    DatabaseHelper.TABLE_ACTIVITY_TYPES + " t ON t.id = a.type_id WHERE t.name = ?",
+                    new String[]{NAMES[i]}));
+        }
+        
+        long sizeAfter = vacuumedSize();
+        List<FitnessActivity> v7 = loadV7();
+        IdentityHashMap<String, Boolean> nameInstances = new IdentityHashMap<>();
+        for (FitnessActivity activity : v7) {
+            nameInstances.put(activity.getActivityName(), Boolean.TRUE);
+        }
+        long heapAfter = retainedHeap(v7);
+        
+        System.out.println(String.format(Locale.US,
+                "v6 -> v7, %d rows: rebuild %d ms, file %d KB -> %d KB, heap %d KB -> %d KB, %d name instances",
+                ROWS, rebuildMillis, sizeBefore / 1024, sizeAfter / 1024,
+                heapBefore / 1024, heapAfter / 1024, nameInstances.size()));
+        assertEquals(NAMES.length, nameInstances.size());
+        assertTrue("file " + sizeBefore + " -> " + sizeAfter, sizeAfter < sizeBefore);
+    }
+    
+    /**
+     * @return Rows as v6 loaded them: a new String per row from the cursor
+     */
+    private List<FitnessActivity> loadV6() {
+        List<FitnessActivity> rows = new ArrayList<>(ROWS);
+        Cursor cursor = db.rawQuery("SELECT id, activity_name, duration, date FROM " +
+                                    DatabaseHelper.TABLE_ACTIVITIES, null);
+        try {
+            while (cursor.moveToNext()) {
+                rows.add(new FitnessActivity(cursor.getInt(0), cursor.getString(1),
+                                             cursor.getInt(2), cursor.getString(3)));
+            }
+        } finally {
+            cursor.close();
+        }
+        return rows;
+    }
+    
+    /**
+     * @return Rows as v7 loads them: names shared through the dictionary (see RowMapper)
+     */
+    private List<FitnessActivity> loadV7() {
+        ActivityTypeDictionary types = new ActivityTypeDictionary();
+        List<FitnessActivity> rows = new ArrayList<>(ROWS);
+        Cursor cursor = db.rawQuery("SELECT id, type_id, duration, date FROM " +
+                                    DatabaseHelper.TABLE_ACTIVITIES, null);
+        try {
+            while (cursor.moveToNext()) {
+                rows.add(new FitnessActivity(cursor.getInt(0), types.nameOf(db, cursor.getInt(1)),
+                                             cursor.getInt(2), cursor.getString(3)));
+            }
+        } finally {
+            cursor.close();
+        }
+        return rows;
+    }
+    
+    /**
+     * @return Size of the database file after VACUUM, in bytes
+     */
+    private long vacuumedSize() {
+        db.execSQL("VACUUM");
+        return DatabaseUtils.longForQuery(db, "PRAGMA page_count", null)
+                * DatabaseUtils.longForQuery(db, "PRAGMA page_size", null);
+    }
+    
+    /**
+     * @return Heap retained by the rows: used heap with them minus used heap after dropping them
+     */
+    private static long retainedHeap(List<FitnessActivity> rows) {
+        long withRows = usedHeap();
+        rows.clear();
+        return withRows - usedHeap();
+    }
+    
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,171 @@
+package com.fitlogger.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.fitlogger.database.DatabaseHelper;
+import com.fitlogger.database.EpochDay;
+import com.fitlogger.database.FitnessActivity;
+import com.fitlogger.database.FitnessActivityDAO;
+import com.fitlogger.database.TestDatabases;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/**
+ * ActivityExporter: escaping of both formats, and a 1M-row export in
+ * constant memory
+ * 
+ * The large export samples the heap after a full GC every SAMPLE_INTERVAL
+ * rows (from the progress callback) and compares it with the heap before
+ * the export: the growth must stay under MAX_HEAP_GROWTH_MB at every sample,
+ * whatever the number of rows already written.
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ActivityExporterTest {
+    
+    private static final int LARGE_ROWS = 1_000_000;
+    private static final int SAMPLE_INTERVAL = 100_000;
+    private static final long MAX_HEAP_GROWTH_MB = 16;
+    private static final String[] NAMES = {"Running", "Cycling", "Yoga", "Swimming", "Walking"};
+    
+    private DatabaseHelper databaseHelper;
+    private FitnessActivityDAO dao;
+    private ActivityExporter exporter;
+    private File file;
+    
+    @Before
+    public void setUp() throws IOException {
+        databaseHelper = TestDatabases.newHelper(RuntimeEnvironment.getApplication());
+        dao = new FitnessActivityDAO(databaseHelper);
+        exporter = new ActivityExporter(databaseHelper);
+        file = File.createTempFile("export", ".txt");
+    }
+    
+    @After
+    public void tearDown() {
+        databaseHelper.close();
+        file.delete();
+    }
+    
+    @Test
+    public void fieldsAreEscaped() throws IOException {
+        dao.addActivities(Arrays.asList(
+                new FitnessActivity("Morning, run", 30, "2024-03-01"),
+                new FitnessActivity("Say \"hi\"", 45, "2024-03-02"),
+                new FitnessActivity("Line\nbreak", 20, "2024-03-03"),
+                new FitnessActivity("Laufen Über", 60, "2024-03-04"),
+                new FitnessActivity("Tab\there\u0001", 5, "2024-03-05")));
+        
+        List<long[]> progress = new ArrayList<>();
+        assertEquals(5, exporter.export(file, ActivityExporter.Format.CSV,
+                (written, total) -> progress.add(new long[]{written, total})));
+        assertEquals("id,activity_name,duration,date\n" +
+                     "1,\"Morning, run\",30,2024-03-01\n" +
+                     "2,\"Say \"\"hi\"\"\",45,2024-03-02\n" +
+                     "3,\"Line\nbreak\",20,2024-03-03\n" +
+                     "4,Laufen Über,60,2024-03-04\n" +
+                     "5,Tab\there\u0001,5,2024-03-05\n", read(file));
+        assertEquals(1, progress.size());
+        assertEquals(5, progress.get(0)[0]);
+        assertEquals(5, progress.get(0)[1]);
+        
+        assertEquals(5, exporter.export(file, ActivityExporter.Format.NDJSON, null));
+        assertEquals("{\"id\":1,\"activity_name\":\"Morning, run\",\"duration\":30,\"date\":\"2024-03-01\"}\n" +
+                     "{\"id\":2,\"activity_name\":\"Say \\\"hi\\\"\",\"duration\":45,\"date\":\"2024-03-02\"}\n" +
+                     "{\"id\":3,\"activity_name\":\"Line\\nbreak\",\"duration\":20,\"date\":\"2024-03-03\"}\n" +
+                     "{\"id\":4,\"activity_name\":\"Laufen Über\",\"duration\":60,\"date\":\"2024-03-04\"}\n" +
+                     "{\"id\":5,\"activity_name\":\"Tab\\there\\u0001\",\"duration\":5,\"date\":\"2024-03-05\"}\n",
+                     read(file));
+    }
+    
+    @Test
+    public void deletedRowsAreLeftOut() throws IOException {
+        long[] ids = dao.addActivities(Arrays.asList(
+                new FitnessActivity("Running", 30, "2024-03-01"),
+                new FitnessActivity("Yoga", 45, "2024-03-02")));
+        dao.deleteActivity((int) ids[0]);
+        
+        assertEquals(1, exporter.export(file, ActivityExporter.Format.CSV, null));
+        assertEquals("id,activity_name,duration,date\n" + ids[1] + ",Yoga,45,2024-03-02\n", read(file));
+    }
+    
+    @Test
+    public void millionRowsExportInConstantHeap() throws IOException {
+        dao.addActivities(new Iterator<FitnessActivity>() {
+            private int row;
+            
+            @Override
+            public boolean hasNext() {
+                return row < LARGE_ROWS;
+            }
+            
+            @Override
+            public FitnessActivity next() {
+                int i = row++;
+                return new FitnessActivity(NAMES[i % NAMES.length], 5 + i % 170, EpochDay.toDate(17_000 + i / 300));
+            }
+        });
+        
+        long before = usedMemory();
+        long[] maxGrowth = new long[1];
+        List<String> samples = new ArrayList<>();
+        long written = exporter.export(file, ActivityExporter.Format.CSV, (rowsWritten, totalRows) -> {
+            if (rowsWritten % SAMPLE_INTERVAL == 0) {
+                long growth = usedMemory() - before;
+                maxGrowth[0] = Math.max(maxGrowth[0], growth);
+                samples.add(String.format(Locale.US, "%dk: %+.1f MB", rowsWritten / 1000, growth / 1048576.0));
+            }
+        });
+        
+        assertEquals(LARGE_ROWS, written);
+        assertEquals(LARGE_ROWS + 1, countLines(file)); // header + one line per row
+        System.out.println(String.format(Locale.US, "export of %d rows (%.1f MB): heap growth %s",
+                LARGE_ROWS, file.length() / 1048576.0, samples));
+        assertEquals(LARGE_ROWS / SAMPLE_INTERVAL + 1, samples.size()); // plus the final report
+        assertTrue("heap grew by " + maxGrowth[0] + " bytes", maxGrowth[0] < MAX_HEAP_GROWTH_MB * 1048576);
+    }
+    
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+    
+    private static long countLines(File file) throws IOException {
+        long lines = 0;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            int b;
+            while ((b = in.read()) != -1) {
+                if (b == '\n') {
+                    lines++;
+                }
+            }
+        }
+        return lines;
+    }
+    
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
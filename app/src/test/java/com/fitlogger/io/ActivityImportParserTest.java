@@ -0,0 +1,112 @@
+package com.fitlogger.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * ActivityImporter's CSV and NDJSON record readers, without a database
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public class ActivityImportParserTest {
+    
+    @Test
+    public void csvColumnsInAnyOrder() throws IOException {
+        assertRecords("id,date,duration,activity_name\n" +
+                      "1,2024-03-01,30,Running\n" +
+                      "2,2024-03-02,45,Yoga\n",
+                      "Running|30|2024-03-01", "Yoga|45|2024-03-02");
+        assertRecords("Name, Duration ,DATE\nSwimming,20,2024-03-03\n", "Swimming|20|2024-03-03");
+    }
+    
+    @Test
+    public void csvQuotingLineEndsAndBlanks() throws IOException {
+        assertRecords("\uFEFF\r\nactivity_name,duration,date\r\n" +
+                      "\"Run, easy\",30,2024-03-01\r\n" +
+                      "\r\n" +
+                      "\"She said \"\"go\"\"\", 40 , 2024-03-02\n" +
+                      "\"Two\nlines\",50,2024-03-03\n" +
+                      "  Padded  ,60,2024-03-04",
+                      "Run, easy|30|2024-03-01", "She said \"go\"|40|2024-03-02",
+                      "Two\nlines|50|2024-03-03", "Padded|60|2024-03-04");
+    }
+    
+    @Test
+    public void csvMissingFieldsAreNull() throws IOException {
+        assertRecords("activity_name,duration,date\nRunning,30\nYoga\n,,\n",
+                      "Running|30|null", "Yoga|null|null", "||");
+    }
+    
+    @Test
+    public void csvWithoutTheRequiredColumnsIsRejected() {
+        for (String file : new String[]{"", "\n\n", "activity_name,duration\nRunning,30\n", "a,b,c\n1,2,3\n"}) {
+            try {
+                ActivityImporter.RecordReader.open(new StringReader(file));
+                fail("accepted header of " + file);
+            } catch (IOException expected) {
+                // not an activity CSV
+            }
+        }
+    }
+    
+    @Test
+    public void jsonLines() throws IOException {
+        assertRecords("{\"activity_name\": \"Running\", \"duration\": 30, \"date\": \"2024-03-01\"}\n" +
+                      "\n" +
+                      "  {\"date\":\"2024-03-02\",\"name\":\"Yo\\u0067a \\\"flow\\\"\",\"id\":7,\"duration\":\"45\"}\r\n" +
+                      "{\"activity_name\": null, \"duration\": 1e2, \"date\": \"2024-03-03\", \"ok\": true}\n" +
+                      "{\"activity_name\": \"Tab\\tbed\", \"duration\": -5, \"date\": \"\"}",
+                      "Running|30|2024-03-01", "Yoga \"flow\"|45|2024-03-02", "null|1e2|2024-03-03",
+                      "Tab\tbed|-5|");
+    }
+    
+    @Test
+    public void malformedJsonLinesAreRecordsWithoutFields() throws IOException {
+        assertRecords("{\"activity_name\": \"Running\", \"duration\": 30, \"date\": \"2024-03-01\"}\n" +
+                      "{\"activity_name\": \"Yoga\", \"duration\": 30\n" +
+                      "{\"activity_name\": {\"nested\": 1}, \"duration\": 30, \"date\": \"2024-03-01\"}\n" +
+                      "{\"activity_name\": \"Cycling\"} trailing\n" +
+                      "not json\n" +
+                      "{}\n",
+                      "Running|30|2024-03-01", "null|null|null", "null|null|null", "null|null|null",
+                      "null|null|null", "null|null|null");
+    }
+    
+    @Test
+    public void recordsSpanningReadBuffers() throws IOException {
+        StringBuilder csv = new StringBuilder("activity_name,duration,date\n");
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            String name = "Activity number " + i + (i % 7 == 0 ? ", with comma" : "");
+            csv.append(i % 7 == 0 ? "\"" + name + "\"" : name).append(',').append(i % 1440 + 1).append(",2024-01-01\n");
+            expected.add(name + "|" + (i % 1440 + 1) + "|2024-01-01");
+        }
+        assertEquals(expected, read(csv.toString()));
+    }
+    
+    private static void assertRecords(String file, String... expected) throws IOException {
+        assertEquals(Arrays.asList(expected), read(file));
+    }
+    
+    /**
+     * @return Every record as "name|duration|date"
+     */
+    private static List<String> read(String file) throws IOException {
+        ActivityImporter.RecordReader records = ActivityImporter.RecordReader.open(new StringReader(file));
+        List<String> read = new ArrayList<>();
+        while (records.next()) {
+            read.add(records.name + "|" + records.duration + "|" + records.date);
+        }
+        assertFalse(records.next());
+        return read;
+    }
+}
@@ -0,0 +1,203 @@
+package com.fitlogger.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.fitlogger.database.DatabaseHelper;
+import com.fitlogger.database.EpochDay;
+import com.fitlogger.database.FitnessActivity;
+import com.fitlogger.database.FitnessActivityDAO;
+import com.fitlogger.database.TestDatabases;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/**
+ * ActivityImporter end to end: validation, resuming after a failure, and
+ * throughput against the single-row write path
+ * 
+ * The benchmark imports ROWS rows of CSV (parsing and validation included)
+ * after a warm-up import and reports rows per second; importing must beat inserting the same,
+ * already parsed, rows one addActivity() at a time, which was the only
+ * write path before the importer.
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ActivityImporterTest {
+    
+    private static final int ROWS = 20_000;
+    private static final String HEADER = "activity_name,duration,date\n";
+    
+    private DatabaseHelper databaseHelper;
+    private FitnessActivityDAO dao;
+    private ActivityImporter importer;
+    
+    @Before
+    public void setUp() {
+        databaseHelper = TestDatabases.newHelper(RuntimeEnvironment.getApplication());
+        dao = new FitnessActivityDAO(databaseHelper);
+        importer = new ActivityImporter(databaseHelper, dao);
+    }
+    
+    @After
+    public void tearDown() {
+        databaseHelper.close();
+    }
+    
+    @Test
+    public void invalidRecordsAreCountedAndSkipped() throws IOException {
+        String csv = HEADER +
+                "Running,30,2024-03-01\n" +
+                ",30,2024-03-01\n" +          // no name
+                "Yoga,0,2024-03-01\n" +       // too short
+                "Yoga,1441,2024-03-01\n" +    // too long
+                "Yoga,abc,2024-03-01\n" +     // not a number
+                "Yoga,30,2024-02-30\n" +      // no such day
+                "Yoga,30,03/01/2024\n" +      // not YYYY-MM-DD
+                "Cycling,1440,2024-02-29\n";
+        ActivityImporter.Result result = importer.importFrom(source("invalid", csv), null);
+        assertEquals(2, result.getRowsImported());
+        assertEquals(6, result.getRowsRejected());
+        assertEquals(2, dao.getActivityCount());
+        
+        List<FitnessActivity> rows = dao.getAllActivities();
+        assertEquals("Running", rows.get(0).getActivityName());
+        assertEquals("Cycling", rows.get(1).getActivityName());
+        assertEquals(1440, rows.get(1).getDuration());
+        
+        // The same source again: nothing to do
+        ActivityImporter.Result again = importer.importFrom(source("invalid", csv), null);
+        assertTrue(again.isAlreadyImported());
+        assertEquals(0, again.getRowsImported());
+        assertEquals(2, dao.getActivityCount());
+    }
+    
+    @Test
+    public void interruptedImportResumesWhereItStopped() throws IOException {
+        StringBuilder csv = new StringBuilder(HEADER);
+        int valid = 0;
+        for (int i = 0; i < 5000; i++) {
+            boolean rejected = i % 10 == 3;
+            csv.append(rejected ? "" : "Run " + i).append(',').append(i % 100 + 1).append(",2024-03-01\n");
+            valid += rejected ? 0 : 1;
+        }
+        byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+        
+        // First attempt: the file breaks off two thirds in (as if the app was killed)
+        try {
+            importer.importFrom(failingSource("resume", bytes, bytes.length * 2 / 3), null);
+            fail("the read failure was swallowed");
+        } catch (IOException expected) {
+            // committed chunks stay
+        }
+        int committed = dao.getActivityCount();
+        assertTrue(committed > 0 && committed < valid);
+        assertEquals(0, committed % ActivityImporter.DEFAULT_CHUNK_SIZE);
+        
+        // Second attempt: the already imported records are skipped, none is imported twice
+        ActivityImporter.Result result = importer.importFrom(source("resume", bytes), null);
+        assertFalse(result.isAlreadyImported());
+        assertTrue(result.getRecordsSkipped() > 0);
+        assertEquals(valid - committed, result.getRowsImported());
+        assertEquals(valid, dao.getActivityCount());
+        List<String> names = new ArrayList<>();
+        for (FitnessActivity activity : dao.getAllActivities()) {
+            names.add(activity.getActivityName());
+        }
+        assertEquals(valid, new HashSet<>(names).size());
+    }
+    
+    @Test
+    public void importIsFasterThanSingleInserts() throws IOException {
+        StringBuilder csv = new StringBuilder(HEADER);
+        List<FitnessActivity> parsed = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            String name = i % 3 == 0 ? "Running" : "Cycling";
+            int duration = 5 + i % 120;
+            String date = EpochDay.toDate(19_000 + i / 20);
+            csv.append(name).append(',').append(duration).append(',').append(date).append('\n');
+            parsed.add(new FitnessActivity(name, duration, date));
+        }
+        byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+        
+        // Warm up both paths (JIT, statement compilation) on a separate source
+        importer.importFrom(source("warm-up", bytes), null);
+        for (FitnessActivity activity : parsed.subList(0, ROWS / 10)) {
+            dao.addActivity(activity);
+        }
+        dao.deleteAllActivities();
+        
+        long start = System.nanoTime();
+        ActivityImporter.Result result = importer.importFrom(source("benchmark", bytes), null);
+        long importNanos = System.nanoTime() - start;
+        assertEquals(ROWS, result.getRowsImported());
+        assertEquals(ROWS, dao.getActivityCount());
+        
+        start = System.nanoTime();
+        for (FitnessActivity activity : parsed) {
+            dao.addActivity(activity);
+        }
+        long singleNanos = System.nanoTime() - start;
+        assertEquals(2 * ROWS, dao.getActivityCount());
+        
+        double imported = ROWS * 1e9 / importNanos;
+        double single = ROWS * 1e9 / singleNanos;
+        System.out.println(String.format(Locale.US,
+                "import %.0f rows/s (CSV parse + validate + insert), addActivity loop %.0f rows/s (%d rows)",
+                imported, single, ROWS));
+        assertTrue("import " + imported + " rows/s, single " + single + " rows/s", imported > single);
+    }
+    
+    private static ActivityImporter.Source source(String key, String text) {
+        return source(key, text.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static ActivityImporter.Source source(final String key, final byte[] bytes) {
+        return failingSource(key, bytes, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * @return Source whose stream throws an IOException once failAt bytes were read
+     */
+    private static ActivityImporter.Source failingSource(final String key, final byte[] bytes, final int failAt) {
+        return new ActivityImporter.Source() {
+            @Override
+            public String getKey() {
+                return key;
+            }
+            
+            @Override
+            public InputStream open() {
+                return new FilterInputStream(new ByteArrayInputStream(bytes)) {
+                    private int read;
+                    
+                    @Override
+                    public int read(byte[] buffer, int offset, int length) throws IOException {
+                        if (read >= failAt) {
+                            throw new IOException("Connection to the file lost");
+                        }
+                        int count = super.read(buffer, offset, Math.min(length, failAt - read));
+                        read += Math.max(count, 0);
+                        return count;
+                    }
+                };
+            }
+        };
+    }
+}
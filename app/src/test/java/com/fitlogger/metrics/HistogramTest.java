@@ -0,0 +1,119 @@
+package com.fitlogger.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Histogram: bucket layout, percentile error bound, weighted and concurrent recording
+ * 
+ * @author RANA MUHAMMAD AWAIS
+ * @email rana.16241.ac@iqra.edu.pk
+ */
+public class HistogramTest {
+    
+    @Test
+    public void emptyHistogramReportsZero() {
+        Histogram histogram = new Histogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(0.99));
+        assertEquals(0, histogram.getMax());
+        assertEquals(0.0, histogram.getMean(), 0.0);
+    }
+    
+    @Test
+    public void smallValuesAreExact() {
+        Histogram histogram = new Histogram();
+        for (int value = 0; value < 16; value++) {
+            histogram.record(value);
+        }
+        assertEquals(16, histogram.getCount());
+        assertEquals(7, histogram.getPercentile(0.50));
+        assertEquals(15, histogram.getPercentile(1.0));
+        assertEquals(0, histogram.getPercentile(0.0));
+        assertEquals(7.5, histogram.getMean(), 0.0);
+    }
+    
+    @Test
+    public void everyValueFallsIntoItsBucket() {
+        assertEquals(231, Histogram.indexOf(Histogram.MAX_VALUE));
+        for (long value = 0; value <= Histogram.MAX_VALUE; value = value < 4096 ? value + 1 : value * 17 / 16) {
+            int index = Histogram.indexOf(value);
+            assertTrue(value + " above its bucket", value <= Histogram.upperEdgeOf(index));
+            if (index > 0) {
+                assertTrue(value + " in an earlier bucket", value > Histogram.upperEdgeOf(index - 1));
+            }
+        }
+    }
+    
+    @Test
+    public void percentilesAreWithinOneEighthOfTheExactValue() {
+        Random random = new Random(42);
+        long[] values = new long[100_000];
+        Histogram histogram = new Histogram();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 16); // 1 .. ~9M, log-uniform
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        
+        for (double fraction : new double[]{0.01, 0.25, 0.50, 0.90, 0.95, 0.99, 0.999, 1.0}) {
+            long exact = values[(int) Math.ceil(fraction * values.length) - 1];
+            long reported = histogram.getPercentile(fraction);
+            assertTrue("p" + fraction + ": " + reported + " < " + exact, reported >= exact);
+            assertTrue("p" + fraction + ": " + reported + " > " + exact + " + 12.5%",
+                       reported <= exact + exact / 8);
+        }
+        assertEquals(values[values.length - 1], histogram.getMax());
+    }
+    
+    @Test
+    public void weightedValueCountsAsThatManyValues() {
+        Histogram histogram = new Histogram();
+        histogram.record(3);
+        histogram.record(100, 16);
+        assertEquals(17, histogram.getCount());
+        assertEquals(3, histogram.getPercentile(0.05));
+        assertTrue(histogram.getPercentile(0.10) >= 100);
+        assertEquals((3 + 1600) / 17.0, histogram.getMean(), 1e-9);
+        assertEquals(100, histogram.getMax());
+    }
+    
+    @Test
+    public void outOfRangeValuesAreClamped() {
+        Histogram histogram = new Histogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(2, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(0.5));
+        assertEquals(Histogram.MAX_VALUE, histogram.getMax());
+        assertEquals(Histogram.MAX_VALUE, histogram.getPercentile(1.0));
+    }
+    
+    @Test
+    public void concurrentRecordsAreAllCounted() throws InterruptedException {
+        Histogram histogram = new Histogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int offset = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    histogram.record(i % 1000 + offset);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(200_000, histogram.getCount());
+        assertEquals(1002, histogram.getMax());
+        
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+    }
+}